@@ -0,0 +1,78 @@
+#!/usr/bin/env bash
+# Concurrent bookings with FlightService and BookingService on platform-thread
+# Tomcat pools versus virtual threads (spring.threads.virtual.enabled), at the
+# same heap and client count. Each booking is one passenger on a seat of its
+# own, so every request goes through getFlight, reserve and confirm on
+# FlightService plus the booking database and Kafka. Needs MongoDB, the
+# booking database (from the config server) and Kafka, e.g. docker-compose up.
+#
+#   load/compare-thread-modes.sh [heap] [concurrency]     e.g. load/compare-thread-modes.sh 512m 1000
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+HEAP=${1:-512m}
+CONCURRENCY=${2:-1000}
+FLIGHT_PORT=${FLIGHT_PORT:-18081}
+BOOKING_PORT=${BOOKING_PORT:-18082}
+# booking n takes seat nA, so a run has SEATS / 6 bookings before seats run out
+SEATS=${SEATS:-600000}
+LOAD=../FlightService/load/HttpLoad.java
+
+jar() {
+    local dir=$1
+    local found
+    found=$(ls "$dir"/target/*-SNAPSHOT.jar 2>/dev/null | head -1 || true)
+    if [[ -z "$found" ]]; then
+        (cd "$dir" && ./mvnw -q -DskipTests package)
+        found=$(ls "$dir"/target/*-SNAPSHOT.jar | head -1)
+    fi
+    echo "$found"
+}
+
+FLIGHT_JAR=$(jar ../FlightService)
+BOOKING_JAR=$(jar .)
+
+# start <name> <jar> <port> <virtual> [args...]
+start() {
+    local name=$1 jar=$2 port=$3 virtual=$4
+    shift 4
+    java -Xms"$HEAP" -Xmx"$HEAP" -jar "$jar" --server.port="$port" --spring.threads.virtual.enabled="$virtual" \
+        --eureka.client.enabled=false --logging.level.root=WARN "$@" > "target/load-$name-$virtual.log" 2>&1 &
+    PIDS+=($!)
+    for _ in $(seq 1 90); do
+        curl -sf "http://localhost:$port/actuator/health" > /dev/null && return
+        sleep 1
+    done
+    echo "$name (virtual threads $virtual) did not start, see target/load-$name-$virtual.log" >&2
+    exit 1
+}
+
+stop() {
+    kill "${PIDS[@]}"
+    wait "${PIDS[@]}" 2> /dev/null || true
+    PIDS=()
+}
+
+run() {
+    local virtual=$1
+    PIDS=()
+    start flight "$FLIGHT_JAR" "$FLIGHT_PORT" "$virtual"
+    start booking "$BOOKING_JAR" "$BOOKING_PORT" "$virtual" --flight.service.url="http://localhost:$FLIGHT_PORT"
+
+    # a fresh flight per run, so both runs book from an empty seat map; the response body is its id
+    local departure
+    departure=$(date -d "+30 days" +%F)
+    local flight_id
+    flight_id=$(curl -sf -X POST -H 'Content-Type: application/json' "http://localhost:$FLIGHT_PORT/flights" -d "{
+        \"airlineName\": \"LoadAir\", \"source\": \"DEL\", \"destination\": \"BOM\",
+        \"departureDateTime\": \"${departure}T$(date +%H:%M:%S)\", \"arrivalDateTime\": \"${departure}T23:59:00\",
+        \"totalSeats\": $SEATS, \"price\": 4500}")
+
+    java "$LOAD" --url "http://localhost:$BOOKING_PORT/booking/$flight_id" --body load/booking.json \
+        --concurrency "$CONCURRENCY" --label "virtual threads $virtual, heap $HEAP"
+    stop
+}
+
+mkdir -p target
+run false
+run true
@@ -3,7 +3,10 @@ package com.bookingservice.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.client.dto.FlightLookupRequest;
 import com.bookingservice.client.dto.ReleaseSeatsRequest;
 import com.bookingservice.client.dto.ReserveSeatsRequest;
 import com.bookingservice.client.dto.ReserveSeatsResponse;
@@ -11,12 +14,20 @@ import com.bookingservice.client.dto.ReserveSeatsResponse;
 
 @FeignClient( name = "flightClient",
 url = "${flight.service.url}",
-path = "/flights") 
+path = "/flights",
+configuration = FlightClientConfig.class) 
 public interface FlightClient {
 
+    /** Ids FlightService accepts in one lookup. */
+    int MAX_LOOKUP_IDS = 500;
+
     @GetMapping("/{id}")
     FlightDto getFlight(@PathVariable("id") String flightId);
 
+    /** All the flights in one round trip; ids FlightService does not know are left out. */
+    @PostMapping("/lookup")
+    List<FlightDto> getFlights(@RequestBody FlightLookupRequest request);
+
     @PostMapping("/{id}/reserve")
     ReserveSeatsResponse reserveSeats(@PathVariable("id") String flightId,
                                       @RequestBody ReserveSeatsRequest request);
@@ -24,4 +35,8 @@ public interface FlightClient {
     @PostMapping("/{id}/release")
     void releaseSeats(@PathVariable("id") String flightId,
                       @RequestBody ReleaseSeatsRequest request);
+
+    @PostMapping("/{id}/holds/{holdId}/confirm")
+    ReserveSeatsResponse confirmHold(@PathVariable("id") String flightId,
+                                     @PathVariable("holdId") String holdId);
 }
@@ -0,0 +1,14 @@
+package com.bookingservice.client;
+
+import org.springframework.context.annotation.Bean;
+
+import feign.codec.ErrorDecoder;
+
+// referenced from @FeignClient(configuration = ...), deliberately not a @Configuration
+public class FlightClientConfig {
+
+    @Bean
+    public ErrorDecoder flightClientErrorDecoder() {
+        return new FlightClientErrorDecoder();
+    }
+}
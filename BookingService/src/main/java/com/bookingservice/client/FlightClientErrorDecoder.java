@@ -0,0 +1,37 @@
+package com.bookingservice.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.bookingservice.exceptions.BusinessException;
+
+import feign.Response;
+import feign.codec.ErrorDecoder;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * FlightService answers rule violations (flight not found, seat already taken,
+ * not enough seats) with a 4xx and a JSON body carrying "message". Those become
+ * BusinessExceptions with the same message, so the booking flow and the circuit
+ * breaker treat them as business errors instead of an unavailable service.
+ */
+public class FlightClientErrorDecoder implements ErrorDecoder {
+
+    private final ErrorDecoder defaultDecoder = new ErrorDecoder.Default();
+
+    @Override
+    public Exception decode(String methodKey, Response response) {
+        if (response.status() >= 400 && response.status() < 500 && response.body() != null) {
+            try (InputStream body = response.body().asInputStream()) {
+                JsonNode message = JsonMapper.shared().readTree(body).get("message");
+                if (message != null && !message.isNull()) {
+                    return new BusinessException(message.asString());
+                }
+            } catch (IOException | RuntimeException ex) {
+                // not a FlightService error body, fall through to the default handling
+            }
+        }
+        return defaultDecoder.decode(methodKey, response);
+    }
+}
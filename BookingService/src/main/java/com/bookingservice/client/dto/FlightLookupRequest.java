@@ -0,0 +1,16 @@
+package com.bookingservice.client.dto;
+
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightLookupRequest {
+
+	// at most FlightClient.MAX_LOOKUP_IDS per call
+	private Set<String> flightIds;
+}
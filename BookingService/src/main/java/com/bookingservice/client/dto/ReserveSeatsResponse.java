@@ -1,5 +1,6 @@
 package com.bookingservice.client.dto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import lombok.Data;
@@ -9,6 +10,9 @@ public class ReserveSeatsResponse {
 
 	private boolean success;
     private String message;
+    private String reservationReference; // seat hold id, confirm it before holdExpiresAt
+    private LocalDateTime holdExpiresAt;
     private List<String> reservedSeats;
+    private Double fare; // per seat
 
 }
@@ -1,6 +1,10 @@
 package com.bookingservice.kafka;
 
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import com.bookingservice.events.BookingCancelledEvent;
@@ -10,6 +14,12 @@ import org.slf4j.LoggerFactory;
 
 import org.slf4j.Logger;
 
+/**
+ * Publishes booking events. Send results are handled on the application task
+ * executor rather than on the producer's network thread, so a slow callback
+ * cannot hold up other sends; with spring.threads.virtual.enabled that
+ * executor runs each callback on its own virtual thread.
+ */
 @Service
 public class BookingEventProducer {
 
@@ -19,19 +29,36 @@ public class BookingEventProducer {
     private static final String TOPIC_BOOKING_CANCELLED = "booking-cancelled";
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final Executor callbackExecutor;
     
-    public BookingEventProducer(KafkaTemplate<String, Object> kafkaTemplate) {
+    public BookingEventProducer(KafkaTemplate<String, Object> kafkaTemplate,
+                                @Qualifier("applicationTaskExecutor") Executor callbackExecutor) {
         this.kafkaTemplate = kafkaTemplate;
+        this.callbackExecutor = callbackExecutor;
     }
     
     public void sendBookingCreatedEvent(BookingCreatedEvent event) {
         log.info("Sending BookingCreatedEvent to Kafka: {}", event);
-        kafkaTemplate.send(TOPIC_BOOKING_CREATED, event.getPnr(), event);
+        send(TOPIC_BOOKING_CREATED, event.getPnr(), event);
     }
 
     public void sendBookingCancelledEvent(BookingCancelledEvent event) {
         log.info("Sending BookingCancelledEvent to Kafka: {}", event);
-        kafkaTemplate.send(TOPIC_BOOKING_CANCELLED, event.getPnr(), event);
+        send(TOPIC_BOOKING_CANCELLED, event.getPnr(), event);
+    }
+
+    private void send(String topic, String pnr, Object event) {
+        kafkaTemplate.send(topic, pnr, event)
+                .whenCompleteAsync((result, ex) -> onSent(topic, pnr, result, ex), callbackExecutor);
+    }
+
+    private static void onSent(String topic, String pnr, SendResult<String, Object> result, Throwable ex) {
+        if (ex != null) {
+            log.error("Event for {} was not sent to {}: {}", pnr, topic, ex.toString());
+            return;
+        }
+        log.debug("Event for {} sent to {}-{} at offset {}", pnr, topic,
+                result.getRecordMetadata().partition(), result.getRecordMetadata().offset());
     }
     
 
@@ -1,5 +1,6 @@
 package com.bookingservice.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,5 +18,7 @@ public interface BookingRepository extends MongoRepository<Booking,String> {
 	
 	List<Booking> findByBookerEmailIdOrderByBookingDateTimeDesc(String bookerEmailId);
 	
+	List<Booking> findByPnrIn(Collection<String> pnrs);
+	
 
 }
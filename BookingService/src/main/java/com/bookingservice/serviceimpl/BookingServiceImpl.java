@@ -2,8 +2,13 @@ package com.bookingservice.serviceimpl;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -17,6 +22,7 @@ import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 
 import com.bookingservice.client.FlightClient;
 import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.client.dto.FlightLookupRequest;
 import com.bookingservice.client.dto.ReleaseSeatsRequest;
 import com.bookingservice.client.dto.ReserveSeatsRequest;
 import com.bookingservice.client.dto.ReserveSeatsResponse;
@@ -74,21 +80,18 @@ public class BookingServiceImpl implements BookingService {
             throw new BusinessException("Not enough seats available");
         }
 
-        // 3) Normalize seat numbers and check conflicts
+        // 3) Normalize seat numbers; FlightService owns the seat map and rejects taken seats atomically
         List<String> seatNos = request.getPassengers().stream()
                 .map(PassengerRequest::getSeatNo)
                 .filter(Objects::nonNull)
                 .map(s -> s.trim().toUpperCase())
                 .collect(Collectors.toList());
 
+        // 3b) Seats booked before the flight had a seat map are free in it; only our passengers name them
         if (!seatNos.isEmpty()) {
-            List<Passenger> conflicts = passengerRepository.findByFlightIdAndSeatNoIn(flightId, seatNos);
-            if (!conflicts.isEmpty()) {
-                String taken = conflicts.stream()
-                        .map(Passenger::getSeatNo)
-                        .distinct()
-                        .collect(Collectors.joining(", "));
-                throw new BusinessException("Seat(s) already taken: " + taken);
+            List<String> taken = seatsOfLiveBookings(flightId, seatNos);
+            if (!taken.isEmpty()) {
+                throw new BusinessException("Seat(s) already taken: " + String.join(", ", taken));
             }
         }
         
@@ -118,7 +121,9 @@ public class BookingServiceImpl implements BookingService {
         booking.setTripType(request.getTripType() != null ? request.getTripType() : TripType.ONE_WAY);
         booking.setBookingDateTime(LocalDateTime.now());
         booking.setSeatsBooked(passengerCount);
-        booking.setTotalAmount(flightDto.getPrice() * passengerCount);
+        // the fare the seats were reserved at; flight services without pricing leave it out
+        Double fare = reserveResp.getFare() != null ? reserveResp.getFare() : flightDto.getPrice();
+        booking.setTotalAmount(fare * passengerCount);
 
         Booking savedBooking = bookingRepository.save(booking);
 
@@ -153,6 +158,27 @@ public class BookingServiceImpl implements BookingService {
             throw new BusinessException("Failed to save passengers: " + ex.getMessage());
         }
 
+        // 6b) Confirm the seat hold
+        try {
+            flightClient.confirmHold(flightId, reserveResp.getReservationReference());
+        } catch (Exception ex) {
+            passengerRepository.deleteAll(passengersToSave);
+            bookingRepository.delete(savedBooking);
+            // the confirm may have gone through before the error reached us; releasing under the booking
+            // reference frees an open hold or confirmed seats alike, and at most once
+            ReleaseSeatsRequest releaseReq = new ReleaseSeatsRequest();
+            releaseReq.setBookingReference(bookingReference);
+            releaseReq.setCount(passengerCount);
+            releaseReq.setSeatNumbers(seatNos);
+            try {
+                flightClient.releaseSeats(flightId, releaseReq);
+            } catch (Exception compEx) {
+                throw new BusinessException("Seat hold could not be confirmed & release-seat compensation failed: "
+                        + compEx.getMessage());
+            }
+            throw new BusinessException("Seat hold could not be confirmed: " + ex.getMessage());
+        }
+
         // 7) Build response
         BookingResponse response = new BookingResponse();
         response.setPnr(savedBooking.getPnr());
@@ -192,6 +218,24 @@ public class BookingServiceImpl implements BookingService {
         return response;
     }
     
+
+    // passengers stay when their booking is cancelled, so only those of bookings still BOOKED hold a seat
+    private List<String> seatsOfLiveBookings(String flightId, List<String> seatNos) {
+        List<Passenger> passengers = passengerRepository.findByFlightIdAndSeatNoIn(flightId, seatNos);
+        if (passengers.isEmpty()) {
+            return List.of();
+        }
+        Set<String> live = bookingRepository.findByPnrIn(passengers.stream().map(Passenger::getPnr).collect(Collectors.toSet()))
+                .stream()
+                .filter(b -> b.getStatus() != BookingStatus.CANCELLED)
+                .map(Booking::getPnr)
+                .collect(Collectors.toSet());
+        return passengers.stream()
+                .filter(p -> live.contains(p.getPnr()))
+                .map(Passenger::getSeatNo)
+                .distinct()
+                .collect(Collectors.toList());
+    }
    
 	public BookingResponse createBookingFallback(String flightId, BookingRequest request, Throwable ex) {
 		logger.error("Fallback triggered for createBooking. Reason: {}", ex.toString());
@@ -259,11 +303,11 @@ public class BookingServiceImpl implements BookingService {
             throw new BusinessException("No bookings found for email: " + bookerEmailId);
         }
 
+        Map<String, FlightDto> flights = flightsById(bookings.stream().map(Booking::getFlightId).collect(Collectors.toSet()));
+
         return bookings.stream().map(b -> {
-            FlightDto flightDto;
-            try {
-                flightDto = flightClient.getFlight(b.getFlightId());
-            } catch (Exception ex) {
+            FlightDto flightDto = flights.get(b.getFlightId());
+            if (flightDto == null) {
                 throw new BusinessException("Failed to fetch flight info for booking: " + b.getPnr());
             }
 
@@ -294,6 +338,21 @@ public class BookingServiceImpl implements BookingService {
         }).collect(Collectors.toList());
     }
 
+    // one lookup per MAX_LOOKUP_IDS flights instead of one call per booking
+    private Map<String, FlightDto> flightsById(Set<String> flightIds) {
+        List<String> ids = new ArrayList<>(flightIds);
+        Map<String, FlightDto> flights = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += FlightClient.MAX_LOOKUP_IDS) {
+            Set<String> chunk = new HashSet<>(ids.subList(from, Math.min(from + FlightClient.MAX_LOOKUP_IDS, ids.size())));
+            try {
+                flightClient.getFlights(new FlightLookupRequest(chunk)).forEach(f -> flights.put(f.getFlightId(), f));
+            } catch (Exception ex) {
+                throw new BusinessException("Failed to fetch flight info: " + ex.getMessage());
+            }
+        }
+        return flights;
+    }
+
     @Override
     @Transactional
     @CircuitBreaker(name = FLIGHT_SERVICE_CB, fallbackMethod = "cancelBookingFallback")
@@ -6,7 +6,6 @@ import com.bookingservice.dto.response.BookingResponse;
 import com.bookingservice.dto.response.PassengerResponse;
 import com.bookingservice.enums.BookingStatus;
 import com.bookingservice.enums.TripType;
-import com.bookingservice.rabbitmq.BookingProducer;
 import com.bookingservice.service.BookingService;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -30,9 +29,6 @@ class BookingControllerTest {
     @Mock
     private BookingService bookingService;
 
-    @Mock
-    private BookingProducer bookingProducer;
-
     @InjectMocks
     private BookingController bookingController;
 
@@ -64,7 +60,7 @@ class BookingControllerTest {
 
 
     @Test
-    void createBooking_success_returns201_andSendsEvent() {
+    void createBooking_success_returns201() {
         BookingRequest req = new BookingRequest();
         req.setBookerEmailId("test@test.com");
         req.setTripType(TripType.ONE_WAY);
@@ -81,8 +77,6 @@ class BookingControllerTest {
       
         assertEquals(HttpStatus.CREATED, result.getStatusCode());
         assertEquals("PNR123", result.getBody());
-
-        verify(bookingProducer).sendBookingCreatedEvent(anyString());
     }
 
   
@@ -129,7 +123,7 @@ class BookingControllerTest {
 
    
     @Test
-    void cancelBooking_success_returns200_andSendsCancelEvent() {
+    void cancelBooking_success_returns200() {
         when(bookingService.cancelBooking("PNR123"))
                 .thenReturn("Booking cancelled successfully");
 
@@ -138,12 +132,10 @@ class BookingControllerTest {
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals("Booking cancelled successfully", result.getBody());
-
-        verify(bookingProducer).sendBookingCancelledEvent(anyString());
     }
 
     @Test
-    void cancelBooking_notFound_returns404_andNoEvent() {
+    void cancelBooking_notFound_returns404() {
         when(bookingService.cancelBooking("NO_PNR")).thenReturn(null);
 
         ResponseEntity<String> result =
@@ -153,6 +145,5 @@ class BookingControllerTest {
         assertNull(result.getBody());
 
         verify(bookingService).cancelBooking("NO_PNR");
-        verify(bookingProducer, never()).sendBookingCancelledEvent(anyString());
     }
 }
@@ -10,6 +10,7 @@ import java.util.*;
 
 import com.bookingservice.client.FlightClient;
 import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.client.dto.FlightLookupRequest;
 import com.bookingservice.client.dto.ReleaseSeatsRequest;
 import com.bookingservice.client.dto.ReserveSeatsRequest;
 import com.bookingservice.client.dto.ReserveSeatsResponse;
@@ -18,7 +19,9 @@ import com.bookingservice.dto.request.PassengerRequest;
 import com.bookingservice.dto.response.BookingResponse;
 import com.bookingservice.enums.BookingStatus;
 import com.bookingservice.enums.TripType;
+import com.bookingservice.events.BookingCreatedEvent;
 import com.bookingservice.exceptions.BusinessException;
+import com.bookingservice.kafka.BookingEventProducer;
 import com.bookingservice.model.Booking;
 import com.bookingservice.model.Passenger;
 import com.bookingservice.repository.BookingRepository;
@@ -43,6 +46,9 @@ class BookingServiceImplTest {
     @Mock
     private PassengerRepository passengerRepository;
 
+    @Mock
+    private BookingEventProducer bookingEventProducer;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -83,7 +89,6 @@ class BookingServiceImplTest {
         BookingRequest req = buildBookingRequest("u@test.com", passengers);
 
         when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
-        when(passengerRepository.findByFlightIdAndSeatNoIn(eq("FL1"), anyList())).thenReturn(Collections.emptyList());
         ReserveSeatsResponse rresp = new ReserveSeatsResponse();
         rresp.setSuccess(true);
         rresp.setMessage("Reserved");
@@ -110,6 +115,91 @@ class BookingServiceImplTest {
         verify(bookingRepository).save(any(Booking.class));
     }
 
+    @Test
+    void createBooking_confirmsHoldOnlyAfterPassengersAreSaved() {
+        BookingRequest req = buildBookingRequest("u@test.com", Arrays.asList(p("A", "1A")));
+        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
+        ReserveSeatsResponse rresp = new ReserveSeatsResponse();
+        rresp.setSuccess(true);
+        rresp.setReservationReference("HOLD-1");
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(rresp);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(passengerRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        bookingService.createBooking("FL1", req);
+
+        InOrder order = inOrder(passengerRepository, flightClient, bookingEventProducer);
+        order.verify(passengerRepository).saveAll(anyList());
+        order.verify(flightClient).confirmHold("FL1", "HOLD-1");
+        order.verify(bookingEventProducer).sendBookingCreatedEvent(any(BookingCreatedEvent.class));
+    }
+
+    @Test
+    void createBooking_confirmFailure_rollsBackBookingAndPassengers() {
+        BookingRequest req = buildBookingRequest("u@test.com", Arrays.asList(p("A", "1A"), p("B", "1B")));
+        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
+        ReserveSeatsResponse rresp = new ReserveSeatsResponse();
+        rresp.setSuccess(true);
+        rresp.setReservationReference("HOLD-1");
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(rresp);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(passengerRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        // the hold expired before the confirm arrived
+        when(flightClient.confirmHold("FL1", "HOLD-1")).thenThrow(new BusinessException("Seat hold not found: HOLD-1"));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.createBooking("FL1", req));
+        assertTrue(ex.getMessage().startsWith("Seat hold could not be confirmed"));
+
+        ArgumentCaptor<Booking> saved = ArgumentCaptor.forClass(Booking.class);
+        verify(bookingRepository).save(saved.capture());
+        verify(bookingRepository).delete(saved.getValue());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Passenger>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(passengerRepository).deleteAll(deleted.capture());
+        assertEquals(2, deleted.getValue().size());
+        // the seats go back under the booking reference the reserve used, confirmed or not
+        ArgumentCaptor<ReserveSeatsRequest> reserved = ArgumentCaptor.forClass(ReserveSeatsRequest.class);
+        verify(flightClient).reserveSeats(eq("FL1"), reserved.capture());
+        ArgumentCaptor<ReleaseSeatsRequest> released = ArgumentCaptor.forClass(ReleaseSeatsRequest.class);
+        verify(flightClient).releaseSeats(eq("FL1"), released.capture());
+        assertEquals(reserved.getValue().getBookingReference(), released.getValue().getBookingReference());
+        assertEquals(2, released.getValue().getCount());
+        assertEquals(List.of("1A", "1B"), released.getValue().getSeatNumbers());
+        verifyNoInteractions(bookingEventProducer);
+    }
+
+    @Test
+    void createBooking_totalsAtTheReservedFare() {
+        BookingRequest req = buildBookingRequest("u@test.com", Arrays.asList(p("A", null), p("B", null)));
+        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
+        ReserveSeatsResponse rresp = new ReserveSeatsResponse();
+        rresp.setSuccess(true);
+        // the flight lists at 1000, the seats were reserved at the current fare
+        rresp.setFare(1250.0);
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(rresp);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(passengerRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        BookingResponse resp = bookingService.createBooking("FL1", req);
+
+        assertEquals(2500.0, resp.getTotalAmount());
+    }
+
+    @Test
+    void createBooking_totalsAtTheListedPrice_whenNoFareIsReturned() {
+        BookingRequest req = buildBookingRequest("u@test.com", Arrays.asList(p("A", null), p("B", null)));
+        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
+        ReserveSeatsResponse rresp = new ReserveSeatsResponse();
+        rresp.setSuccess(true);
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(rresp);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(passengerRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        BookingResponse resp = bookingService.createBooking("FL1", req);
+
+        assertEquals(2000.0, resp.getTotalAmount());
+    }
+
     @Test
     void createBooking_throws_when_reservationFails() {
         List<PassengerRequest> passengers = Arrays.asList(p("A", null));
@@ -184,27 +274,65 @@ class BookingServiceImplTest {
     }
 
     @Test
-    void createBooking_throws_when_seatConflictLocally() {
+    void createBooking_throws_when_seatTakenOnFlightService() {
         List<PassengerRequest> passengers = Arrays.asList(p("A", "1A"));
         BookingRequest req = buildBookingRequest("x@y", passengers);
 
         when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
-        // conflict exists
-        Passenger existing = new Passenger();
-        existing.setSeatNo("1A");
-        when(passengerRepository.findByFlightIdAndSeatNoIn(eq("FL1"), anyList())).thenReturn(Arrays.asList(existing));
+        // FlightService owns the seat map and rejects the taken seat
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class)))
+                .thenThrow(new BusinessException("Seat(s) already taken: 1A"));
 
         BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.createBooking("FL1", req));
         assertTrue(ex.getMessage().toLowerCase().contains("seat(s) already taken"));
     }
 
+    @Test
+    void createBooking_rejectsSeatOfABookingMadeBeforeTheSeatMap() {
+        BookingRequest req = buildBookingRequest("x@y", Arrays.asList(p("A", "1A"), p("B", "2C")));
+        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
+        // FlightService has 2C free in its seat map, the passenger booked it before the map existed
+        Passenger earlier = new Passenger();
+        earlier.setPnr("PNR-OLD");
+        earlier.setFlightId("FL1");
+        earlier.setSeatNo("2C");
+        when(passengerRepository.findByFlightIdAndSeatNoIn("FL1", List.of("1A", "2C"))).thenReturn(List.of(earlier));
+        when(bookingRepository.findByPnrIn(Set.of("PNR-OLD"))).thenReturn(List.of(booking("PNR-OLD", "FL1")));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.createBooking("FL1", req));
+        assertEquals("Seat(s) already taken: 2C", ex.getMessage());
+        verify(flightClient, never()).reserveSeats(anyString(), any(ReserveSeatsRequest.class));
+    }
+
+    @Test
+    void createBooking_seatOfACancelledBookingCanBeBookedAgain() {
+        BookingRequest req = buildBookingRequest("x@y", Arrays.asList(p("A", "2C")));
+        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
+        Passenger earlier = new Passenger();
+        earlier.setPnr("PNR-OLD");
+        earlier.setFlightId("FL1");
+        earlier.setSeatNo("2C");
+        when(passengerRepository.findByFlightIdAndSeatNoIn("FL1", List.of("2C"))).thenReturn(List.of(earlier));
+        Booking cancelled = booking("PNR-OLD", "FL1");
+        cancelled.setStatus(BookingStatus.CANCELLED);
+        when(bookingRepository.findByPnrIn(Set.of("PNR-OLD"))).thenReturn(List.of(cancelled));
+        ReserveSeatsResponse rresp = new ReserveSeatsResponse();
+        rresp.setSuccess(true);
+        when(flightClient.reserveSeats(eq("FL1"), any(ReserveSeatsRequest.class))).thenReturn(rresp);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(passengerRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        BookingResponse resp = bookingService.createBooking("FL1", req);
+
+        assertEquals("2C", resp.getPassengers().get(0).getSeatNo());
+    }
+
     @Test
     void createBooking_compensation_releasesOnPassengerSaveFailure() {
         List<PassengerRequest> passengers = Arrays.asList(p("A", "1A"), p("B", "1B"));
         BookingRequest req = buildBookingRequest("comp@test", passengers);
 
         when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
-        when(passengerRepository.findByFlightIdAndSeatNoIn(eq("FL1"), anyList())).thenReturn(Collections.emptyList());
 
         ReserveSeatsResponse rresp = new ReserveSeatsResponse();
         rresp.setSuccess(true);
@@ -253,6 +381,51 @@ class BookingServiceImplTest {
         assertEquals("DEL", resp.getSource());
     }
 
+    @Test
+    void getBookingHistory_looksUpAllFlightsInOneCall() {
+        Booking b1 = booking("PNR-1", "FL1");
+        Booking b2 = booking("PNR-2", "FL2");
+        Booking b3 = booking("PNR-3", "FL1");
+        when(bookingRepository.findByBookerEmailIdOrderByBookingDateTimeDesc("a@b")).thenReturn(List.of(b1, b2, b3));
+        FlightDto other = new FlightDto();
+        other.setFlightId("FL2");
+        other.setSource("BOM");
+        other.setDestination("GOI");
+        other.setAirlineName("OtherAir");
+        when(flightClient.getFlights(any(FlightLookupRequest.class))).thenReturn(List.of(sampleFlight, other));
+        when(passengerRepository.findByPnr(anyString())).thenReturn(List.of());
+
+        List<BookingResponse> history = bookingService.getBookingHistory("a@b");
+
+        assertEquals(List.of("PNR-1", "PNR-2", "PNR-3"), history.stream().map(BookingResponse::getPnr).toList());
+        assertEquals(List.of("DEL", "BOM", "DEL"), history.stream().map(BookingResponse::getSource).toList());
+        ArgumentCaptor<FlightLookupRequest> lookup = ArgumentCaptor.forClass(FlightLookupRequest.class);
+        verify(flightClient).getFlights(lookup.capture());
+        assertEquals(Set.of("FL1", "FL2"), Set.copyOf(lookup.getValue().getFlightIds()));
+        verify(flightClient, never()).getFlight(anyString());
+    }
+
+    @Test
+    void getBookingHistory_throwsWhenAFlightIsUnknown() {
+        when(bookingRepository.findByBookerEmailIdOrderByBookingDateTimeDesc("a@b"))
+                .thenReturn(List.of(booking("PNR-1", "FL1"), booking("PNR-2", "FL9")));
+        when(flightClient.getFlights(any(FlightLookupRequest.class))).thenReturn(List.of(sampleFlight));
+        when(passengerRepository.findByPnr("PNR-1")).thenReturn(List.of());
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> bookingService.getBookingHistory("a@b"));
+        assertEquals("Failed to fetch flight info for booking: PNR-2", ex.getMessage());
+    }
+
+    private static Booking booking(String pnr, String flightId) {
+        Booking b = new Booking();
+        b.setPnr(pnr);
+        b.setFlightId(flightId);
+        b.setBookerEmailId("a@b");
+        b.setStatus(BookingStatus.BOOKED);
+        b.setBookingDateTime(LocalDateTime.now());
+        return b;
+    }
+
     @Test
     void cancelBooking_success_and_releasesSeats() {
         Booking booking = new Booking();
@@ -270,6 +443,7 @@ class BookingServiceImplTest {
         when(passengerRepository.findByPnr("PNR-C")).thenReturn(Arrays.asList(p1, p2));
         doNothing().when(flightClient).releaseSeats(eq("FL1"), any(ReleaseSeatsRequest.class));
         when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(flightClient.getFlight("FL1")).thenReturn(sampleFlight);
 
         String msg = bookingService.cancelBooking("PNR-C");
         assertEquals("Booking cancelled successfully", msg);
@@ -0,0 +1,139 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator: a fixed number of
+ * clients, each sending its next request as soon as the previous one is
+ * answered, for a fixed time after a warmup. Prints throughput and latency
+ * percentiles over the measured period.
+ *
+ * Run with the JDK alone, no build needed:
+ *
+ *   java load/HttpLoad.java --url http://localhost:8081/flights/search \
+ *       --body load/search.json --concurrency 256 --warmup 20s --duration 60s
+ *
+ * Without --body it sends GET requests. Every ${seq} in the body is replaced
+ * by a number that is new for each request, for requests that must not repeat,
+ * such as bookings of distinct seats. See compare-stacks.sh for a blocking
+ * versus reactive comparison at the same heap size, and
+ * BookingService/load/compare-thread-modes.sh for bookings on platform versus
+ * virtual threads.
+ */
+public class HttpLoad {
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://localhost:8081/flights/search";
+        String bodyFile = null;
+        int concurrency = 256;
+        Duration warmup = Duration.ofSeconds(20);
+        Duration duration = Duration.ofSeconds(60);
+        String label = "";
+        for (int i = 0; i < args.length; i += 2) {
+            switch (args[i]) {
+                case "--url" -> url = args[i + 1];
+                case "--body" -> bodyFile = args[i + 1];
+                case "--concurrency" -> concurrency = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmup = parseDuration(args[i + 1]);
+                case "--duration" -> duration = parseDuration(args[i + 1]);
+                case "--label" -> label = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30));
+        String body = bodyFile == null ? null : Files.readString(Path.of(bodyFile));
+        boolean sequenced = body != null && body.contains("${seq}");
+        HttpRequest fixed = body == null ? builder.GET().build()
+                : builder.header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+        AtomicLong seq = new AtomicLong();
+
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long end = warmupEnd + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+        int[] counts = new int[concurrency];
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        for (int c = 0; c < concurrency; c++) {
+            // a generous per-client buffer; latencies past it are dropped, not resized under load
+            long[] mine = new long[1 << 18];
+            latencies.add(mine);
+            int client_ = c;
+            Thread t = new Thread(() -> {
+                try {
+                    while (true) {
+                        long start = System.nanoTime();
+                        if (start >= end) {
+                            break;
+                        }
+                        boolean ok;
+                        try {
+                            HttpRequest request = !sequenced ? fixed : builder.copy()
+                                    .POST(HttpRequest.BodyPublishers.ofString(
+                                            body.replace("${seq}", String.valueOf(seq.incrementAndGet()))))
+                                    .build();
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            ok = response.statusCode() < 400;
+                        } catch (Exception ex) {
+                            ok = false;
+                        }
+                        long took = System.nanoTime() - start;
+                        if (start < warmupEnd) {
+                            continue;
+                        }
+                        if (!ok) {
+                            errors.incrementAndGet();
+                        } else if (counts[client_] < mine.length) {
+                            mine[counts[client_]++] = took;
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + c);
+            t.setDaemon(true);
+            t.start();
+        }
+        done.await();
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int n = 0;
+        for (int c = 0; c < concurrency; c++) {
+            System.arraycopy(latencies.get(c), 0, all, n, counts[c]);
+            n += counts[c];
+        }
+        Arrays.sort(all);
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%s%d clients, %.0f s: %d ok, %d errors, %.0f req/s%n",
+                label.isEmpty() ? "" : label + ": ", concurrency, seconds, total, errors.get(), total / seconds);
+        System.out.printf("latency ms  p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                percentile(all, 50), percentile(all, 90), percentile(all, 99), percentile(all, 99.9),
+                all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int i = (int) Math.ceil(p / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(i, sorted.length - 1))] / 1e6;
+    }
+
+    private static Duration parseDuration(String value) {
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+}
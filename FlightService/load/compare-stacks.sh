@@ -0,0 +1,74 @@
+#!/usr/bin/env bash
+# Blocking (Spring MVC) versus reactive (WebFlux) FlightService under the same
+# search load and heap. Needs a local MongoDB; Eureka and the config server may
+# be down. Seeds a schedule through /flights/import on the first run.
+#
+#   load/compare-stacks.sh [heap] [concurrency]     e.g. load/compare-stacks.sh 512m 512
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+HEAP=${1:-512m}
+CONCURRENCY=${2:-256}
+PORT=${PORT:-18081}
+FLIGHTS=${FLIGHTS:-100000}
+# the route search cache would answer every repeated search from memory on both stacks
+CACHE=${CACHE:-false}
+JAR=$(ls target/FlightService-*-exec.jar 2>/dev/null | head -1 || true)
+
+if [[ -z "$JAR" ]]; then
+    ./mvnw -q -DskipTests package
+    JAR=$(ls target/FlightService-*-exec.jar | head -1)
+fi
+
+start() {
+    java -Xms"$HEAP" -Xmx"$HEAP" -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$1" \
+        --eureka.client.enabled=false --logging.level.root=WARN \
+        --flight.search.cache.enabled="$CACHE" > "target/load-$1.log" 2>&1 &
+    PID=$!
+    for _ in $(seq 1 60); do
+        curl -sf "http://localhost:$PORT/actuator/health" > /dev/null && return
+        sleep 1
+    done
+    echo "FlightService ($1) did not start, see target/load-$1.log" >&2
+    exit 1
+}
+
+stop() {
+    kill "$PID"
+    wait "$PID" 2> /dev/null || true
+}
+
+seed() {
+    local csv=target/load-schedule.csv
+    local airports=(DEL BOM BLR HYD MAA CCU GOI PNQ AMD COK)
+    local days=()
+    for ((d = 1; d <= 90; d++)); do
+        days+=("$(date -d "+$d days" +%F)")
+    done
+    {
+        echo "airlineName,source,destination,departureDateTime,arrivalDateTime,totalSeats,price"
+        for ((i = 0; i < FLIGHTS; i++)); do
+            local from=${airports[$((i % 10))]}
+            local to=${airports[$(((i % 10 + 1 + i / 10 % 9) % 10))]}
+            local day=${days[$((i / 100 % 90))]}
+            local time
+            time=$(printf '%02d:%02d' $((i % 20)) $((i / 20 % 60)))
+            echo "LoadAir$((i / 9000 % 5)),$from,$to,${day}T$time:00,${day}T23:30:00,180,$((2000 + i % 7000))"
+        done
+    } > "$csv"
+    curl -sf -X POST -H 'Content-Type: text/csv' --data-binary @"$csv" "http://localhost:$PORT/flights/import" | head -c 300
+    echo
+}
+
+start default
+if [[ "${SEED:-1}" == 1 ]]; then
+    seed
+fi
+java load/HttpLoad.java --url "http://localhost:$PORT/flights/search" --body load/search.json \
+    --concurrency "$CONCURRENCY" --label "blocking, heap $HEAP"
+stop
+
+start reactive
+java load/HttpLoad.java --url "http://localhost:$PORT/flights/search" --body load/search.json \
+    --concurrency "$CONCURRENCY" --label "reactive, heap $HEAP"
+stop
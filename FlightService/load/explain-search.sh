@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Explains the route and airline searches, first page and a keyset page, in
+# both sort orders, against the flights in a local MongoDB (seed them with
+# load/compare-stacks.sh). Prints the index each plan uses and fails if any
+# plan sorts in memory (a SORT stage) instead of reading the index in order.
+# FlightService must have run once, it creates the indexes at startup.
+#
+#   load/explain-search.sh            MONGO_URI=mongodb://host:27017/db load/explain-search.sh
+set -euo pipefail
+
+MONGO_URI=${MONGO_URI:-mongodb://localhost:27017/test}
+
+mongosh --quiet "$MONGO_URI" --eval '
+const flights = db.getCollection("flight");
+const sample = flights.findOne({ routeKey: { $exists: true }, fare: { $ne: null } });
+if (!sample) {
+    print("no flights to explain, seed some first");
+    quit(1);
+}
+const from = sample.departureDateTime;
+const to = new Date(from.getTime() + 30 * 24 * 3600 * 1000);
+
+function stages(plan, found = []) {
+    found.push(plan.stage);
+    (plan.inputStages || (plan.inputStage ? [plan.inputStage] : [])).forEach(p => stages(p, found));
+    return found;
+}
+
+function indexOf(plan) {
+    return plan.indexName || (plan.inputStage && indexOf(plan.inputStage))
+        || (plan.inputStages && plan.inputStages.map(indexOf).join(","));
+}
+
+// the filters FlightQueries.search builds, with and without a keyset cursor
+function explain(label, scope, sortField) {
+    const filters = [scope, { departureDateTime: { $gte: from } }, { departureDateTime: { $lt: to } },
+        { availableSeats: { $gte: 1 } }];
+    if (sortField === "fare") {
+        filters.push({ fare: { $ne: null } });
+    }
+    let failed = false;
+    for (const page of ["first", "next"]) {
+        const f = filters.slice();
+        if (page === "next") {
+            f.push({ $or: [{ [sortField]: { $gt: sample[sortField] } },
+                { $and: [{ [sortField]: sample[sortField] }, { _id: { $gt: sample._id } }] }] });
+        }
+        const plan = flights.find({ $and: f }).sort({ [sortField]: 1, _id: 1 }).limit(20)
+            .explain("queryPlanner").queryPlanner.winningPlan;
+        const all = stages(plan.queryPlan || plan);
+        const sorted = all.includes("SORT");
+        failed = failed || sorted;
+        print(`${label} by ${sortField}, ${page} page: index ${indexOf(plan.queryPlan || plan)}, stages ${all.join(" <- ")}`
+            + (sorted ? "  <-- in-memory SORT" : ""));
+    }
+    return failed;
+}
+
+let failed = false;
+for (const sortField of ["departureDateTime", "fare"]) {
+    failed = explain("route", { routeKey: sample.routeKey }, sortField) || failed;
+    failed = explain("airline", { airlineId: sample.airlineId }, sortField) || failed;
+}
+quit(failed ? 1 : 0);
+'
@@ -0,0 +1,100 @@
+package com.flightservice.archive;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Moves flights that arrived more than the retention ago out of the flight
+ * collection into flight_archive, so the working set of the collection and
+ * its indexes stays the size of the schedule instead of growing with history.
+ *
+ * A timer runs the archiver every interval. A run moves batches of
+ * batch-size flights, oldest first, each as one bulk of upserts into the
+ * archive and one delete, and pauses between batches so the writes do not
+ * crowd out live traffic. A run stops after max-batches; the next one picks
+ * up where it left off. Archiving a flight twice is harmless, so several
+ * instances may run it at once. Lookups by id fall back to the archive.
+ */
+@Component
+@ConditionalOnProperty(name = "flight.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class FlightArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightArchiver.class);
+
+    private final FlightRepository flightRepository;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long pauseMillis;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "flight-archiver");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public FlightArchiver(FlightRepository flightRepository,
+                          @Value("${flight.archive.retention:30d}") Duration retention,
+                          @Value("${flight.archive.batch-size:500}") int batchSize,
+                          @Value("${flight.archive.max-batches:100}") int maxBatches,
+                          @Value("${flight.archive.pause:200ms}") Duration pause,
+                          @Value("${flight.archive.interval:1h}") Duration interval) {
+        this.flightRepository = flightRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.pauseMillis = pause.toMillis();
+        long millis = interval.toMillis();
+        timer.scheduleWithFixedDelay(() -> archive(LocalDateTime.now()), millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Archives the flights that arrived before now minus the retention, up to
+     * max-batches batches.
+     *
+     * @return the number of flights moved
+     */
+    public long archive(LocalDateTime now) {
+        LocalDateTime before = now.minus(retention);
+        long moved = 0;
+        try {
+            for (int batch = 0; batch < maxBatches; batch++) {
+                List<Flight> flights = flightRepository.findArrivedBefore(before, batchSize);
+                moved += flightRepository.archive(flights);
+                if (flights.size() < batchSize) {
+                    break;
+                }
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            // the next run picks up the rest
+            log.warn("Flight archiving stopped after {} flights: {}", moved, ex.toString());
+        }
+        if (moved > 0) {
+            log.info("Archived {} flights that arrived before {}", moved, before);
+        }
+        return moved;
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+    }
+}
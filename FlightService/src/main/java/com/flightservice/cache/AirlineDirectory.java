@@ -0,0 +1,173 @@
+package com.flightservice.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Airline;
+import com.flightservice.repository.AirlineRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * In-process directory of airlines: id to airline and normalized name to id.
+ * Airlines are few and almost never change, so lookups are served from memory
+ * and a search maps all its flights with at most one airlines query (a bulk
+ * load of the ids it has not seen yet) instead of one query per flight.
+ *
+ * Entries are refreshed in the background after {@code refresh}, and dropped
+ * when an airline is saved or deleted through Spring Data. Absent names are
+ * cached too, so repeated lookups of an unknown airline stay cheap until it is
+ * created.
+ *
+ * Single lookups that miss query Mongo outside the cache and put the result:
+ * a Caffeine load runs inside a ConcurrentHashMap bin lock, which would pin a
+ * virtual thread to its carrier for the whole query. Two threads that miss at
+ * once both query, which for a handful of airlines costs nothing. The result
+ * is put only where the key is still absent, so it never replaces what
+ * findOrCreate put. It is taken out again if an airline was saved or deleted
+ * while the query ran, as the query may have read the airline before the
+ * change and the invalidation may have come before the put.
+ */
+@Component
+public class AirlineDirectory extends AbstractMongoEventListener<Airline> {
+
+    private final AirlineRepository airlineRepository;
+    private final LoadingCache<String, Optional<Airline>> byId;
+    private final LoadingCache<String, Optional<String>> idByName;
+    // bumped before every invalidation: a miss whose query overlapped one does not keep its result
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AirlineDirectory(AirlineRepository airlineRepository, MeterRegistry meterRegistry,
+                            @Value("${flight.airlines.cache.max-size:10000}") long maxSize,
+                            @Value("${flight.airlines.cache.refresh:10m}") Duration refresh,
+                            @Value("${flight.airlines.cache.expire:1h}") Duration expire) {
+        this.airlineRepository = airlineRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(refresh)
+                .expireAfterWrite(expire)
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Optional<Airline> load(String id) {
+                        return airlineRepository.findById(id);
+                    }
+
+                    @Override
+                    public Map<String, Optional<Airline>> loadAll(Set<? extends String> ids) {
+                        Map<String, Optional<Airline>> loaded = new HashMap<>();
+                        ids.forEach(id -> loaded.put(id, Optional.empty()));
+                        airlineRepository.findAllById(Set.copyOf(ids)).forEach(a -> loaded.put(a.getAirlineId(), Optional.of(a)));
+                        return loaded;
+                    }
+                });
+        this.idByName = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(refresh)
+                .expireAfterWrite(expire)
+                .recordStats()
+                .build(name -> airlineRepository.findByAirlineNameKey(name).map(Airline::getAirlineId));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "airlines.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByName, "airlines.byName");
+    }
+
+    public Optional<Airline> findById(String airlineId) {
+        if (airlineId == null) {
+            return Optional.empty();
+        }
+        return readThrough(byId, airlineId, airlineRepository::findById);
+    }
+
+    public Optional<Airline> findByName(String airlineName) {
+        String key = Airline.nameKeyOf(airlineName);
+        if (key == null || key.isEmpty()) {
+            return Optional.empty();
+        }
+        return readThrough(idByName, key, k -> airlineRepository.findByAirlineNameKey(k).map(Airline::getAirlineId))
+                .flatMap(this::findById);
+    }
+
+    /** The airline with this name, created if there is none yet. */
+    public Airline findOrCreate(String airlineName) {
+        Optional<Airline> existing = findByName(airlineName);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        Airline a = new Airline();
+        a.setAirlineName(airlineName);
+        a.setAirlineNameKey(Airline.nameKeyOf(airlineName));
+        Airline saved;
+        try {
+            saved = airlineRepository.save(a);
+        } catch (DuplicateKeyException ex) {
+            // another request created it first
+            saved = airlineRepository.findByAirlineNameKey(a.getAirlineNameKey())
+                    .orElseThrow(() -> ex);
+        }
+        byId.put(saved.getAirlineId(), Optional.of(saved));
+        idByName.put(saved.getAirlineNameKey(), Optional.of(saved.getAirlineId()));
+        return saved;
+    }
+
+    /** Airline names for the given ids; unknown ids are left out. */
+    public Map<String, String> namesById(Collection<String> airlineIds) {
+        Set<String> ids = new HashSet<>(airlineIds);
+        ids.removeIf(Objects::isNull);
+        Map<String, String> names = new HashMap<>();
+        byId.getAll(ids).forEach((id, airline) -> airline.ifPresent(a -> names.put(id, a.getAirlineName())));
+        return names;
+    }
+
+    private <V> V readThrough(LoadingCache<String, V> cache, String key, Function<String, V> query) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long seen = invalidations.get();
+        V read = query.apply(key);
+        V raced = cache.asMap().putIfAbsent(key, read);
+        if (raced != null) {
+            return raced;
+        }
+        if (invalidations.get() != seen) {
+            cache.asMap().remove(key, read);
+        }
+        return read;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Airline> event) {
+        Airline airline = event.getSource();
+        invalidations.incrementAndGet();
+        byId.invalidate(airline.getAirlineId());
+        // the name may have changed, and an absent entry may be cached for the new one
+        idByName.invalidateAll();
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Airline> event) {
+        invalidations.incrementAndGet();
+        byId.invalidateAll();
+        idByName.invalidateAll();
+    }
+}
@@ -0,0 +1,187 @@
+package com.flightservice.cache;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.dto.request.FlightRequest;
+import com.flightservice.dto.response.FlightSearchPage;
+import com.flightservice.dto.response.SerializedSearchPage;
+import com.flightservice.events.FaresChangedEvent;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.events.FlightsAddedEvent;
+import com.flightservice.model.Airline;
+import com.flightservice.model.Flight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Cache of serialized search responses, so a hit is written out as is without
+ * a Mongo query or Jackson. It is bounded by the total size of the cached
+ * bytes, and Caffeine's W-TinyLFU policy keeps the popular routes.
+ *
+ * Every search belongs to a scope: its route, or its airline for searches by
+ * airline name. Keys carry the current generation of their scope, and a
+ * FlightChangedEvent bumps the generation of the flight's route and airline,
+ * so every cached search the change could affect is missed from then on and
+ * ages out. A FlightsAddedEvent or FaresChangedEvent bumps each route and
+ * airline of its flights once. A search that was running while the change happened stores its
+ * result under the old generation, where nobody looks it up. A scope that
+ * never changed is at generation 0 and has no entry, so the generations only
+ * grow with the routes and airlines that have flights.
+ *
+ * The TTL bounds staleness from changes that reach Mongo without an event,
+ * such as write-behind from the in-memory inventory engine or other instances.
+ */
+@Component
+public class RouteSearchCache {
+
+    private final boolean enabled;
+    private final JsonMapper jsonMapper;
+    private final AirlineDirectory airlineDirectory;
+    private final Cache<String, SerializedSearchPage> responses;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public RouteSearchCache(JsonMapper jsonMapper, AirlineDirectory airlineDirectory, MeterRegistry meterRegistry,
+                            @Value("${flight.search.cache.enabled:true}") boolean enabled,
+                            @Value("${flight.search.cache.max-bytes:67108864}") long maxBytes,
+                            @Value("${flight.search.cache.ttl:60s}") Duration ttl) {
+        this.enabled = enabled;
+        this.jsonMapper = jsonMapper;
+        this.airlineDirectory = airlineDirectory;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, SerializedSearchPage page) -> key.length() + page.body().length
+                        + (page.nextCursor() == null ? 0 : page.nextCursor().length()))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "flights.search");
+    }
+
+    /**
+     * The search page with its flights as JSON bytes, from the cache or by
+     * running the search and serializing its result.
+     */
+    public SerializedSearchPage get(FlightRequest request, Supplier<FlightSearchPage> search) {
+        String key = keyOf(request);
+        SerializedSearchPage cached = getIfPresent(key);
+        return cached != null ? cached : put(key, search.get());
+    }
+
+    /**
+     * The cache key of the search as of now, or null when caching is off.
+     * For callers that run the search themselves, such as the reactive
+     * service: take the key before the search and put the result under it.
+     */
+    public String keyOf(FlightRequest request) {
+        if (!enabled) {
+            return null;
+        }
+        String scope = scopeOf(request);
+        return scope + "#" + generationOf(scope) + "|" + filtersOf(request);
+    }
+
+    public SerializedSearchPage getIfPresent(String key) {
+        return key == null ? null : responses.getIfPresent(key);
+    }
+
+    /** Serializes the page and caches it under key, unless key is null. */
+    public SerializedSearchPage put(String key, FlightSearchPage page) {
+        SerializedSearchPage serialized = serialize(page);
+        if (key != null) {
+            responses.put(key, serialized);
+        }
+        return serialized;
+    }
+
+    private SerializedSearchPage serialize(FlightSearchPage page) {
+        return new SerializedSearchPage(jsonMapper.writeValueAsBytes(page.getFlights()), page.getNextCursor());
+    }
+
+    @EventListener
+    public void onFlightChanged(FlightChangedEvent event) {
+        if (enabled) {
+            scopesOf(event.flight(), new HashSet<>()).forEach(this::bump);
+        }
+    }
+
+    @EventListener
+    public void onFlightsAdded(FlightsAddedEvent event) {
+        bumpOnce(event.flights());
+    }
+
+    @EventListener
+    public void onFaresChanged(FaresChangedEvent event) {
+        // the fares shown and the price order both change
+        bumpOnce(event.flights());
+    }
+
+    private void bumpOnce(List<Flight> flights) {
+        if (enabled) {
+            Set<String> scopes = new HashSet<>();
+            flights.forEach(f -> scopesOf(f, scopes));
+            scopes.forEach(this::bump);
+        }
+    }
+
+    private Set<String> scopesOf(Flight flight, Set<String> scopes) {
+        if (flight.getSource() != null && flight.getDestination() != null) {
+            scopes.add(routeScope(flight.getSource(), flight.getDestination()));
+        }
+        airlineDirectory.findById(flight.getAirlineId())
+                .map(Airline::getAirlineName)
+                .ifPresent(name -> scopes.add(airlineScope(name)));
+        return scopes;
+    }
+
+    // scopes come from client input; only a change to a flight adds one, a search never does
+    private long generationOf(String scope) {
+        AtomicLong generation = generations.get(scope);
+        return generation == null ? 0 : generation.get();
+    }
+
+    private void bump(String scope) {
+        generations.computeIfAbsent(scope, s -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static String scopeOf(FlightRequest request) {
+        String airlineName = request.getAirlineName();
+        if (airlineName == null || airlineName.isBlank()) {
+            return routeScope(request.getSource(), request.getDestination());
+        }
+        return airlineScope(airlineName);
+    }
+
+    // everything else in the request that changes the page within its scope
+    private static String filtersOf(FlightRequest request) {
+        String route = request.getAirlineName() == null || request.getAirlineName().isBlank()
+                || request.getSource() == null || request.getDestination() == null
+                ? "" : Flight.routeKeyOf(request.getSource(), request.getDestination());
+        return String.join("|", route,
+                String.valueOf(request.getDepartureFrom()), String.valueOf(request.getDepartureTo()),
+                String.valueOf(request.getPassengers()), String.valueOf(request.getSortBy()),
+                String.valueOf(request.getPageSize()), String.valueOf(request.getCursor()));
+    }
+
+    private static String routeScope(String source, String destination) {
+        return "route:" + Flight.routeKeyOf(source, destination);
+    }
+
+    private static String airlineScope(String airlineName) {
+        return "airline:" + Airline.nameKeyOf(airlineName);
+    }
+}
@@ -0,0 +1,212 @@
+package com.flightservice.calendar;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.enums.SearchSort;
+import com.flightservice.events.FaresChangedEvent;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.events.FlightsAddedEvent;
+import com.flightservice.inventory.SeatInventory;
+import com.flightservice.model.FareCalendarDay;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FareCalendarRepository;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.repository.FlightSearchCriteria;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the fareCalendar collection: per route and departure date, the
+ * cheapest fare and the number of flights with seats left. A calendar read is
+ * one range query on the route_date index instead of one search per day.
+ *
+ * The cheapest fare is the lowest fare stored on the flights (Flight.fare),
+ * the one price-sorted searches order on. A FlightChangedEvent that can
+ * change a day (a flight added, sold out or reopened) marks that day dirty,
+ * as do a FlightsAddedEvent and a FaresChangedEvent for the days of their
+ * flights, and a single worker recomputes each dirty day from the flights
+ * of that day alone. Reserves and releases that leave a flight
+ * bookable either way change neither the count nor the cheapest fare, so they
+ * cost nothing here. Marking is coalesced: a day changed many times while it
+ * waits is recomputed once, and since the recompute reads the flights after
+ * the change, the last write for a day is always the current one. The seat
+ * counts are read through the seat inventory, not from the flight documents,
+ * which lag behind the in-memory inventory engine by up to one flush.
+ *
+ * The whole calendar is rebuilt from the upcoming flights at startup, on the
+ * same worker, to pick up changes made while the service was down.
+ */
+@Component
+public class FareCalendar {
+
+    private static final Logger log = LoggerFactory.getLogger(FareCalendar.class);
+
+    private final FlightRepository flightRepository;
+    private final SeatInventory seatInventory;
+    private final FareCalendarRepository fareCalendarRepository;
+    private final boolean rebuildOnStartup;
+    private final int loadBatchSize;
+
+    private final Set<Day> dirty = ConcurrentHashMap.newKeySet();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "fare-calendar");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public FareCalendar(FlightRepository flightRepository, SeatInventory seatInventory,
+                        FareCalendarRepository fareCalendarRepository,
+                        @Value("${flight.fare-calendar.rebuild-on-startup:true}") boolean rebuildOnStartup,
+                        @Value("${flight.fare-calendar.load-batch-size:2000}") int loadBatchSize) {
+        this.flightRepository = flightRepository;
+        this.seatInventory = seatInventory;
+        this.fareCalendarRepository = fareCalendarRepository;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    /** The stored days of a route in [from, to), in date order; days without bookable flights are absent. */
+    public List<FareCalendarDay> days(String routeKey, LocalDate from, LocalDate to) {
+        return fareCalendarRepository.findByRouteKeyAndDepartureDateBetweenOrderByDepartureDateAsc(
+                routeKey, Range.rightOpen(from, to));
+    }
+
+    @EventListener
+    public void onFlightChanged(FlightChangedEvent event) {
+        if (event.changesAvailability()) {
+            mark(event.flight());
+        }
+    }
+
+    @EventListener
+    public void onFlightsAdded(FlightsAddedEvent event) {
+        // the days of a batch are marked once each, a day already waiting is not queued again
+        event.flights().forEach(this::mark);
+    }
+
+    @EventListener
+    public void onFaresChanged(FaresChangedEvent event) {
+        event.flights().forEach(this::mark);
+    }
+
+    private void mark(Flight flight) {
+        if (flight.getDepartureDateTime() == null || flight.getSource() == null || flight.getDestination() == null) {
+            return;
+        }
+        Day day = new Day(Flight.routeKeyOf(flight.getSource(), flight.getDestination()),
+                flight.getDepartureDateTime().toLocalDate());
+        if (dirty.add(day)) {
+            worker.execute(() -> {
+                // cleared first: a change from here on marks the day again
+                dirty.remove(day);
+                refresh(day.routeKey(), day.date());
+            });
+        }
+    }
+
+    /** Recomputes one day from its flights, and stores or removes it. */
+    public void refresh(String routeKey, LocalDate date) {
+        try {
+            // all flights of the day, sold out or not in Mongo: the inventory has the last word
+            List<Flight> flights = seatInventory.withCurrentSeats(flightRepository.searchPage(new FlightSearchCriteria(
+                    routeKey, null, date.atStartOfDay(), date.plusDays(1).atStartOfDay(), 0, SearchSort.DEPARTURE,
+                    null, 0)));
+            FareCalendarDay day = day(routeKey, date, null, 0, LocalDateTime.now());
+            flights.forEach(f -> count(day, f));
+            if (day.getFlightCount() == 0) {
+                fareCalendarRepository.deleteById(day.getId());
+            } else {
+                fareCalendarRepository.save(day);
+            }
+        } catch (RuntimeException ex) {
+            // the next change to this day or the next rebuild repairs it
+            log.warn("Fare calendar day {} {} not refreshed: {}", routeKey, date, ex.toString());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAsync() {
+        if (rebuildOnStartup) {
+            worker.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Rewrites the calendar from today on from the flights with seats left,
+     * as Mongo has them: it runs at startup, when the inventory engine has
+     * written its recovered changes back.
+     */
+    public void rebuild() {
+        long started = System.nanoTime();
+        LocalDateTime refreshedAt = LocalDateTime.now();
+        LocalDate today = refreshedAt.toLocalDate();
+        FlightSearchCriteria bookable = new FlightSearchCriteria(null, null, today.atStartOfDay(), null, 1,
+                SearchSort.DEPARTURE, null, 0);
+
+        Map<Day, FareCalendarDay> days = new HashMap<>();
+        long removed;
+        try (Stream<Flight> stream = flightRepository.streamSearch(bookable, loadBatchSize)) {
+            stream.forEach(f -> {
+                Day key = new Day(Flight.routeKeyOf(f.getSource(), f.getDestination()),
+                        f.getDepartureDateTime().toLocalDate());
+                count(days.computeIfAbsent(key, k -> day(k.routeKey(), k.date(), null, 0, refreshedAt)), f);
+            });
+            fareCalendarRepository.saveAll(new ArrayList<>(days.values()));
+            // days that had bookable flights before the rebuild and have none now
+            removed = fareCalendarRepository.deleteByDepartureDateGreaterThanEqualAndRefreshedAtBefore(today, refreshedAt);
+        } catch (RuntimeException ex) {
+            log.warn("Fare calendar not rebuilt: {}", ex.toString());
+            return;
+        }
+        log.info("Fare calendar rebuilt: {} days written, {} removed in {} ms",
+                days.size(), removed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    private static void count(FareCalendarDay day, Flight f) {
+        if (f.getAvailableSeats() <= 0) {
+            return;
+        }
+        day.setFlightCount(day.getFlightCount() + 1);
+        if (f.getFare() != null && (day.getMinPrice() == null || f.getFare() < day.getMinPrice())) {
+            day.setMinPrice(f.getFare());
+        }
+    }
+
+    private static FareCalendarDay day(String routeKey, LocalDate date, Double minPrice, int flightCount,
+                                       LocalDateTime refreshedAt) {
+        FareCalendarDay day = new FareCalendarDay();
+        day.setId(FareCalendarDay.idOf(routeKey, date));
+        day.setRouteKey(routeKey);
+        day.setDepartureDate(date);
+        day.setMinPrice(minPrice);
+        day.setFlightCount(flightCount);
+        day.setRefreshedAt(refreshedAt);
+        return day;
+    }
+
+    private record Day(String routeKey, LocalDate date) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.flightservice.config;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Airline;
+import com.flightservice.model.FareCalendarDay;
+import com.flightservice.model.Flight;
+import com.flightservice.model.ReservationLedgerEntry;
+import com.flightservice.model.SeatHold;
+import com.flightservice.model.WaitlistEntry;
+
+/**
+ * Brings the collections up to what the repositories expect, once the
+ * application is ready: first documents written before the normalized keys
+ * existed get them (upper case airport codes and routeKey on flights,
+ * airlineNameKey on airlines) and flights without a stored fare are queued
+ * for the repricer, then the indexes declared on the entities are created
+ * and the indexes they replace dropped. All steps are idempotent, and run in
+ * the background so a slow or unreachable Mongo does not hold up startup.
+ *
+ * An index that cannot be built, for instance a unique one over documents
+ * that still hold duplicates, is logged and skipped; the others are created.
+ */
+@Component
+public class MongoIndexManager {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexManager.class);
+
+    private static final List<Class<?>> ENTITIES =
+            List.of(Flight.class, Airline.class, SeatHold.class, ReservationLedgerEntry.class, FareCalendarDay.class,
+                    WaitlistEntry.class);
+
+    // indexes an entity no longer declares, dropped once their replacements exist
+    private static final Map<Class<?>, List<String>> RETIRED = Map.of(
+            Flight.class, List.of("route_departure", "route_price_departure", "airline_departure",
+                    "airline_price_departure", "route_price_id", "airline_price_id"));
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    public MongoIndexManager(MongoTemplate mongoTemplate,
+                             @Value("${flight.mongo.index-management.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!enabled) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            migrateNormalizedKeys();
+            migrateFares();
+            ensureIndexes();
+        }).exceptionally(ex -> {
+            log.warn("Mongo migration and index management did not run: {}", ex.toString());
+            return null;
+        });
+    }
+
+    /** Fills in routeKey and airlineNameKey where missing; returns the number of documents changed. */
+    public long migrateNormalizedKeys() {
+        long flights = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Flight.class)).updateMany(
+                new Document("routeKey", new Document("$exists", false)),
+                List.of(new Document("$set", new Document("source", upperTrim("$source"))
+                                .append("destination", upperTrim("$destination"))),
+                        new Document("$set", new Document("routeKey",
+                                new Document("$concat", List.of("$source", "-", "$destination"))))))
+                .getModifiedCount();
+
+        long airlines = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Airline.class)).updateMany(
+                new Document("airlineNameKey", new Document("$exists", false)),
+                List.of(new Document("$set", new Document("airlineNameKey",
+                        new Document("$toLower", new Document("$trim", new Document("input", "$airlineName")))))))
+                .getModifiedCount();
+
+        if (flights + airlines > 0) {
+            log.info("Added normalized keys to {} flights and {} airlines", flights, airlines);
+        }
+        return flights + airlines;
+    }
+
+    /**
+     * Makes the fare of every flight stored before fares were due now, so the
+     * repricer's next sweep prices it; returns the number of flights changed.
+     */
+    public long migrateFares() {
+        long flights = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Flight.class)).updateMany(
+                new Document("fare", new Document("$exists", false)).append("fareDueAt", new Document("$exists", false)),
+                new Document("$set", new Document("fareDueAt", new Date())))
+                .getModifiedCount();
+        if (flights > 0) {
+            log.info("{} flights without a stored fare queued for pricing", flights);
+        }
+        return flights;
+    }
+
+    public void ensureIndexes() {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> entity : ENTITIES) {
+            for (IndexDefinition index : resolver.resolveIndexFor(entity)) {
+                try {
+                    mongoTemplate.indexOps(entity).createIndex(index);
+                } catch (DataAccessException ex) {
+                    log.warn("Could not create index {} on {}: {}",
+                            index.getIndexKeys().toJson(), entity.getSimpleName(), ex.getMessage());
+                }
+            }
+            dropRetiredIndexes(entity);
+        }
+        log.info("Mongo indexes checked for {} collections", ENTITIES.size());
+    }
+
+    private void dropRetiredIndexes(Class<?> entity) {
+        List<String> retired = RETIRED.getOrDefault(entity, List.of());
+        if (retired.isEmpty()) {
+            return;
+        }
+        IndexOperations indexOps = mongoTemplate.indexOps(entity);
+        for (IndexInfo index : indexOps.getIndexInfo()) {
+            if (retired.contains(index.getName())) {
+                try {
+                    indexOps.dropIndex(index.getName());
+                    log.info("Dropped retired index {} on {}", index.getName(), entity.getSimpleName());
+                } catch (DataAccessException ex) {
+                    log.warn("Could not drop index {} on {}: {}", index.getName(), entity.getSimpleName(), ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Document upperTrim(String field) {
+        return new Document("$toUpper", new Document("$trim", new Document("input", field)));
+    }
+}
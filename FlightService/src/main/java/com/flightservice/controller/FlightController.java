@@ -1,32 +1,82 @@
 package com.flightservice.controller;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.flightservice.dto.request.FlightLookupRequest;
 import com.flightservice.dto.request.FlightRequest;
+import com.flightservice.dto.request.ItineraryRequest;
 import com.flightservice.dto.request.ReleaseSeatsRequest;
 import com.flightservice.dto.request.ReserveSeatsRequest;
+import com.flightservice.dto.request.WaitlistRequest;
+import com.flightservice.dto.response.FareCalendarDayResponse;
+import com.flightservice.dto.response.FlightImportResponse;
 import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.dto.response.ItineraryResponse;
 import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.dto.response.WaitlistResponse;
+import com.flightservice.dto.response.SerializedSearchPage;
+import com.flightservice.enums.ImportFormat;
 import com.flightservice.model.Flight;
+import com.flightservice.service.DeparturesService;
+import com.flightservice.service.FareCalendarService;
+import com.flightservice.service.FlightImportService;
 import com.flightservice.service.FlightService;
+import com.flightservice.service.FlightStreamService;
+import com.flightservice.service.ItineraryService;
+import com.flightservice.service.WaitlistService;
 
 import jakarta.validation.Valid;
 
 @RestController
+@Profile("!reactive")
 public class FlightController {
 
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	private static final String NDJSON = "application/x-ndjson";
+
+	private static final String CSV = "text/csv";
+
 	@Autowired
 	FlightService flightService;
 	
+	@Autowired
+	FlightStreamService flightStreamService;
+	
+	@Autowired
+	ItineraryService itineraryService;
+	
+	@Autowired
+	FareCalendarService fareCalendarService;
+	
+	@Autowired
+	FlightImportService flightImportService;
+	
+	@Autowired
+	WaitlistService waitlistService;
+	
+	@Autowired
+	DeparturesService departuresService;
+	
 	@PostMapping("/flights")
 	public ResponseEntity<String> addFlights(@Valid @RequestBody FlightRequest request){
 		Flight saved = flightService.addFlights(request);
@@ -35,10 +85,57 @@ public class FlightController {
 						.body(saved.getFlightId());
 	}
 	
+	@PostMapping(value = "/flights/import", consumes = {CSV, NDJSON})
+	public ResponseEntity<FlightImportResponse> importFlights(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+	                                                          InputStream body) {
+	    ImportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(NDJSON))
+	    				? ImportFormat.NDJSON : ImportFormat.CSV;
+	    return ResponseEntity.ok(flightImportService.importFlights(body, format));
+	}
+	
 	@PostMapping("/flights/search")
-	public ResponseEntity<List<FlightResponse>> searchFlights(@RequestBody FlightRequest request) {
-	    List<FlightResponse> responses = flightService.searchFlights(request);
-	    return ResponseEntity.ok(responses);
+	public ResponseEntity<byte[]> searchFlights(@RequestBody FlightRequest request) {
+	    SerializedSearchPage page = flightService.searchFlightsJson(request);
+	    ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+	    if (page.nextCursor() != null) {
+	    	response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+	    }
+	    return response.body(page.body());
+	}
+	
+	@PostMapping(value = "/flights/search/stream", produces = NDJSON)
+	public ResponseEntity<StreamingResponseBody> streamFlights(@RequestBody FlightRequest request) {
+	    StreamingResponseBody body = flightStreamService.streamFlights(request);
+	    return ResponseEntity.ok()
+	    				.contentType(MediaType.parseMediaType(NDJSON))
+	    				.body(body);
+	}
+	
+	@PostMapping("/flights/itineraries")
+	public ResponseEntity<List<ItineraryResponse>> searchItineraries(@Valid @RequestBody ItineraryRequest request) {
+	    List<ItineraryResponse> itineraries = itineraryService.searchItineraries(request);
+	    return ResponseEntity.ok(itineraries);
+	}
+	
+	@GetMapping("/flights/fare-calendar")
+	public ResponseEntity<List<FareCalendarDayResponse>> fareCalendar(@RequestParam("source") String source,
+	                                                                  @RequestParam("destination") String destination,
+	                                                                  @RequestParam(value = "from", required = false)
+	                                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+	                                                                  @RequestParam(value = "days", required = false) Integer days) {
+	    return ResponseEntity.ok(fareCalendarService.fareCalendar(source, destination, from, days));
+	}
+	
+	@GetMapping("/flights/departures")
+	public ResponseEntity<List<FlightResponse>> departures(@RequestParam("airport") String airport,
+	                                                       @RequestParam(value = "hours", required = false) Integer hours,
+	                                                       @RequestParam(value = "limit", required = false) Integer limit) {
+	    return ResponseEntity.ok(departuresService.departures(airport, hours, limit));
+	}
+	
+	@PostMapping("/flights/lookup")
+	public ResponseEntity<List<FlightResponse>> lookupFlights(@Valid @RequestBody FlightLookupRequest request) {
+	    return ResponseEntity.ok(flightService.getFlightsByIds(request.getFlightIds()));
 	}
 	
 	 @GetMapping("/flights/{id}")
@@ -60,4 +157,30 @@ public class FlightController {
 	        flightService.releaseSeats(id, request);
 	        return ResponseEntity.ok().build();
 	    }
+
+	    @PostMapping("/flights/{id}/holds/{holdId}/confirm")
+	    public ResponseEntity<ReserveSeatsResponse> confirmHold(@PathVariable("id") String id,
+	                                                            @PathVariable("holdId") String holdId) {
+	        ReserveSeatsResponse res = flightService.confirmHold(id, holdId);
+	        return ResponseEntity.ok(res);
+	    }
+
+	    @PostMapping("/flights/{id}/waitlist")
+	    public ResponseEntity<WaitlistResponse> joinWaitlist(@PathVariable("id") String id,
+	                                                         @Valid @RequestBody WaitlistRequest request) {
+	        return ResponseEntity.status(HttpStatus.ACCEPTED).body(waitlistService.join(id, request));
+	    }
+
+	    @GetMapping("/flights/{id}/waitlist/{bookingReference}")
+	    public ResponseEntity<WaitlistResponse> waitlistStatus(@PathVariable("id") String id,
+	                                                           @PathVariable("bookingReference") String bookingReference) {
+	        return ResponseEntity.ok(waitlistService.status(id, bookingReference));
+	    }
+
+	    @DeleteMapping("/flights/{id}/waitlist/{bookingReference}")
+	    public ResponseEntity<Void> leaveWaitlist(@PathVariable("id") String id,
+	                                              @PathVariable("bookingReference") String bookingReference) {
+	        waitlistService.leave(id, bookingReference);
+	        return ResponseEntity.noContent().build();
+	    }
 }
@@ -0,0 +1,64 @@
+package com.flightservice.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.flightservice.dto.request.FlightRequest;
+import com.flightservice.dto.request.ReleaseSeatsRequest;
+import com.flightservice.dto.request.ReserveSeatsRequest;
+import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.service.ReactiveFlightService;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Mono;
+
+/**
+ * The search, read and seat endpoints of {@link FlightController} on WebFlux,
+ * with the same paths, bodies and headers. Active under the "reactive"
+ * profile, which also switches the application to the reactive web stack.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveFlightController {
+
+	private final ReactiveFlightService reactiveFlightService;
+
+	public ReactiveFlightController(ReactiveFlightService reactiveFlightService) {
+		this.reactiveFlightService = reactiveFlightService;
+	}
+
+	@PostMapping("/flights/search")
+	public Mono<ResponseEntity<byte[]>> searchFlights(@RequestBody FlightRequest request) {
+	    return reactiveFlightService.searchFlightsJson(request).map(page -> {
+	    	ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+	    	if (page.nextCursor() != null) {
+	    		response.header(FlightController.NEXT_CURSOR_HEADER, page.nextCursor());
+	    	}
+	    	return response.body(page.body());
+	    });
+	}
+
+	@GetMapping("/flights/{id}")
+	public Mono<ResponseEntity<FlightResponse>> getFlightById(@PathVariable("id") String id) {
+	    return reactiveFlightService.getFlightById(id).map(ResponseEntity::ok);
+	}
+
+	@PostMapping("/flights/{id}/reserve")
+	public Mono<ResponseEntity<ReserveSeatsResponse>> reserveSeats(@PathVariable("id") String id,
+	                                                               @Valid @RequestBody ReserveSeatsRequest request) {
+	    return reactiveFlightService.reserveSeats(id, request).map(ResponseEntity::ok);
+	}
+
+	@PostMapping("/flights/{id}/release")
+	public Mono<ResponseEntity<Void>> releaseSeats(@PathVariable("id") String id,
+	                                               @Valid @RequestBody ReleaseSeatsRequest request) {
+	    return reactiveFlightService.releaseSeats(id, request).then(Mono.just(ResponseEntity.ok().build()));
+	}
+}
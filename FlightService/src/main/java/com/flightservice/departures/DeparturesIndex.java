@@ -0,0 +1,343 @@
+package com.flightservice.departures;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.enums.SearchSort;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.events.FlightsAddedEvent;
+import com.flightservice.itinerary.RouteGraph;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.repository.FlightSearchCriteria;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory index of upcoming departures by airport, for "flights leaving X
+ * in the next N hours" queries from dashboards and display feeds, which would
+ * otherwise load and filter whole routes.
+ *
+ * Each airport maps hours (epoch minute / 60) to a {@link HourBucket} of its
+ * departures in that hour, sorted by time. A range query
+ * walks the hours it spans and binary searches the first and last one, so it
+ * reads only the flights it returns. Like the route graph, the index is read
+ * from Mongo once when the application is ready and kept current by
+ * FlightChangedEvents: a change copies the one hour bucket it touches and
+ * swaps it in, readers take no locks. A FlightsAddedEvent from a bulk import
+ * copies each hour bucket it adds to once. A timer drops whole hours once
+ * they are keep-departed in the past, so departed flights age out in O(1)
+ * per hour.
+ */
+@Component
+public class DeparturesIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DeparturesIndex.class);
+
+    private final FlightRepository flightRepository;
+    private final int loadBatchSize;
+    private final Duration keepDeparted;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Map<String, NavigableMap<Long, HourBucket>> airports = new ConcurrentHashMap<>();
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    // guarded by writeLock: changes seen while a load runs, applied after it
+    private List<Flight> changedDuringLoad;
+    private volatile boolean loaded;
+
+    private final ScheduledExecutorService pruneTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "departures-prune");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public DeparturesIndex(FlightRepository flightRepository,
+                           @Value("${flight.departures.load-batch-size:2000}") int loadBatchSize,
+                           @Value("${flight.departures.keep-departed:1h}") Duration keepDeparted,
+                           @Value("${flight.departures.prune-interval:5m}") Duration pruneInterval) {
+        this.flightRepository = flightRepository;
+        this.loadBatchSize = loadBatchSize;
+        this.keepDeparted = keepDeparted;
+        long millis = pruneInterval.toMillis();
+        pruneTimer.scheduleWithFixedDelay(() -> prune(LocalDateTime.now()), millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAsync() {
+        CompletableFuture.runAsync(this::load).exceptionally(ex -> {
+            log.warn("Departures index not loaded, departure queries are unavailable: {}", ex.toString());
+            return null;
+        });
+    }
+
+    /** Builds the index from every flight that departed less than keep-departed ago or later. */
+    public void load() {
+        long started = System.nanoTime();
+        writeLock.lock();
+        try {
+            changedDuringLoad = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            build();
+        } finally {
+            writeLock.lock();
+            try {
+                changedDuringLoad = null;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        log.info("Departures index loaded: {} flights, {} airports in {} ms",
+                flights.size(), airports.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void build() {
+        LocalDateTime since = LocalDateTime.now().minus(keepDeparted);
+        FlightSearchCriteria upcoming = new FlightSearchCriteria(null, null, since, null, 0,
+                SearchSort.DEPARTURE, null, 0);
+        Map<String, Map<Long, List<Flight>>> byAirportHour = new HashMap<>();
+        Map<String, Flight> loadedFlights = new HashMap<>();
+        try (Stream<Flight> stream = flightRepository.streamSearch(upcoming, loadBatchSize)) {
+            stream.forEach(f -> {
+                if (indexable(f) && !f.getDepartureDateTime().isBefore(since)) {
+                    Flight slim = slim(f);
+                    byAirportHour.computeIfAbsent(f.getSource(), k -> new HashMap<>())
+                            .computeIfAbsent(hourOf(f), k -> new ArrayList<>())
+                            .add(slim);
+                    loadedFlights.put(f.getFlightId(), slim);
+                }
+            });
+        }
+
+        Map<String, NavigableMap<Long, HourBucket>> built = new ConcurrentHashMap<>();
+        byAirportHour.forEach((airport, hours) -> {
+            NavigableMap<Long, HourBucket> buckets = new ConcurrentSkipListMap<>();
+            hours.forEach((hour, legs) -> buckets.put(hour, HourBucket.of(legs)));
+            built.put(airport, buckets);
+        });
+
+        writeLock.lock();
+        try {
+            airports = built;
+            flights.clear();
+            flights.putAll(loadedFlights);
+            changedDuringLoad.forEach(this::apply);
+            loaded = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onFlightChanged(FlightChangedEvent event) {
+        Flight flight = event.flight();
+        if (flight.getFlightId() == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(flight);
+            }
+            apply(flight);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onFlightsAdded(FlightsAddedEvent event) {
+        writeLock.lock();
+        try {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.addAll(event.flights());
+            }
+            applyAdded(event.flights());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * The flights leaving the airport at or after from and before to, in
+     * departure order, at most limit of them.
+     */
+    public List<Flight> departing(String airport, LocalDateTime from, LocalDateTime to, int limit) {
+        NavigableMap<Long, HourBucket> hours = airports.get(Flight.normalizeCode(airport));
+        long fromMinute = RouteGraph.minuteOf(from);
+        long toMinute = RouteGraph.minuteOf(to);
+        if (hours == null || toMinute <= fromMinute || limit <= 0) {
+            return List.of();
+        }
+        List<Flight> result = new ArrayList<>();
+        for (HourBucket bucket : hours.subMap(fromMinute / 60, true, (toMinute - 1) / 60, true).values()) {
+            for (int i = bucket.firstAtOrAfter(fromMinute); i < bucket.size() && bucket.depart[i] < toMinute; i++) {
+                result.add(bucket.flights[i]);
+                if (result.size() == limit) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** The number of flights in the index that have not departed yet and match. */
+    public int countUpcoming(Predicate<Flight> matching) {
+        LocalDateTime now = LocalDateTime.now();
+        int count = 0;
+        for (Flight f : flights.values()) {
+            if (!f.getDepartureDateTime().isBefore(now) && matching.test(f)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Drops the hours that ended keep-departed before now or earlier. */
+    public void prune(LocalDateTime now) {
+        long before = RouteGraph.minuteOf(now.minus(keepDeparted)) / 60;
+        int dropped = 0;
+        writeLock.lock();
+        try {
+            for (NavigableMap<Long, HourBucket> hours : airports.values()) {
+                NavigableMap<Long, HourBucket> departed = hours.headMap(before, false);
+                for (HourBucket bucket : departed.values()) {
+                    for (Flight f : bucket.flights) {
+                        flights.remove(f.getFlightId());
+                        dropped++;
+                    }
+                }
+                departed.clear();
+            }
+        } catch (RuntimeException ex) {
+            // the next run tries again
+            log.warn("Departures index not pruned: {}", ex.toString());
+        } finally {
+            writeLock.unlock();
+        }
+        log.debug("Departures index pruned {} departed flights", dropped);
+    }
+
+    // caller holds writeLock
+    private void apply(Flight flight) {
+        Flight previous = flights.get(flight.getFlightId());
+        // only seats and price change on a flight after it is added
+        Flight merged = previous == null ? flight : previous.toBuilder()
+                .availableSeats(flight.getAvailableSeats())
+                .price(flight.getPrice() != null ? flight.getPrice() : previous.getPrice())
+                .build();
+        boolean keep = indexable(merged)
+                && !merged.getDepartureDateTime().isBefore(LocalDateTime.now().minus(keepDeparted));
+        if (previous != null && (!keep || !sameSlot(previous, merged))) {
+            replace(previous, null);
+        }
+        if (keep) {
+            Flight slim = slim(merged);
+            replace(slim, slim);
+            flights.put(slim.getFlightId(), slim);
+        } else {
+            flights.remove(flight.getFlightId());
+        }
+    }
+
+    // caller holds writeLock; one copy of each hour bucket the flights depart in
+    private void applyAdded(List<Flight> added) {
+        LocalDateTime since = LocalDateTime.now().minus(keepDeparted);
+        Map<String, Map<Long, List<Flight>>> byAirportHour = new HashMap<>();
+        for (Flight f : added) {
+            if (f.getFlightId() == null) {
+                continue;
+            }
+            if (flights.containsKey(f.getFlightId())) {
+                // a load running alongside the import has read it already
+                apply(f);
+                continue;
+            }
+            if (indexable(f) && !f.getDepartureDateTime().isBefore(since)) {
+                Flight slim = slim(f);
+                byAirportHour.computeIfAbsent(f.getSource(), k -> new HashMap<>())
+                        .computeIfAbsent(hourOf(f), k -> new ArrayList<>())
+                        .add(slim);
+                flights.put(slim.getFlightId(), slim);
+            }
+        }
+        byAirportHour.forEach((airport, byHour) -> {
+            NavigableMap<Long, HourBucket> hours = airports.computeIfAbsent(airport, k -> new ConcurrentSkipListMap<>());
+            byHour.forEach((hour, legs) -> hours.put(hour, hours.getOrDefault(hour, HourBucket.EMPTY).with(legs)));
+        });
+    }
+
+    // caller holds writeLock; swaps in the bucket of slot's hour without slot's flight, with flight added
+    private void replace(Flight slot, Flight flight) {
+        NavigableMap<Long, HourBucket> hours = airports.computeIfAbsent(slot.getSource(),
+                k -> new ConcurrentSkipListMap<>());
+        long hour = hourOf(slot);
+        HourBucket next = hours.getOrDefault(hour, HourBucket.EMPTY)
+                .replace(slot.getFlightId(), flight, RouteGraph.minuteOf(slot.getDepartureDateTime()));
+        if (next.size() == 0) {
+            hours.remove(hour);
+        } else {
+            hours.put(hour, next);
+        }
+    }
+
+    private static boolean sameSlot(Flight a, Flight b) {
+        return a.getSource().equals(b.getSource()) && a.getDepartureDateTime().equals(b.getDepartureDateTime());
+    }
+
+    private static boolean indexable(Flight f) {
+        return f.getSource() != null && f.getDepartureDateTime() != null;
+    }
+
+    private static long hourOf(Flight f) {
+        return RouteGraph.minuteOf(f.getDepartureDateTime()) / 60;
+    }
+
+    private static Flight slim(Flight f) {
+        return Flight.builder()
+                .flightId(f.getFlightId())
+                .airlineId(f.getAirlineId())
+                .flightNo(f.getFlightNo())
+                .source(f.getSource())
+                .destination(f.getDestination())
+                .departureDateTime(f.getDepartureDateTime())
+                .arrivalDateTime(f.getArrivalDateTime())
+                .totalSeats(f.getTotalSeats())
+                .availableSeats(f.getAvailableSeats())
+                .price(f.getPrice())
+                .build();
+    }
+
+    @PreDestroy
+    public void stop() {
+        pruneTimer.shutdownNow();
+    }
+}
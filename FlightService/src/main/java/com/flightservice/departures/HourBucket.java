@@ -0,0 +1,118 @@
+package com.flightservice.departures;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.flightservice.itinerary.RouteGraph;
+import com.flightservice.model.Flight;
+
+/**
+ * The departures of one airport within one hour, sorted by departure time.
+ * Instances never change: an update builds a new bucket and the index swaps
+ * it in, so a change copies one hour of one airport and readers take no
+ * locks.
+ */
+final class HourBucket {
+
+    static final HourBucket EMPTY = new HourBucket(new long[0], new Flight[0]);
+
+    final long[] depart;     // epoch minutes, ascending
+    final Flight[] flights;
+
+    private HourBucket(long[] depart, Flight[] flights) {
+        this.depart = depart;
+        this.flights = flights;
+    }
+
+    static HourBucket of(List<Flight> flights) {
+        Flight[] sorted = flights.toArray(new Flight[0]);
+        Arrays.sort(sorted, Comparator.comparing(Flight::getDepartureDateTime));
+        long[] depart = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            depart[i] = RouteGraph.minuteOf(sorted[i].getDepartureDateTime());
+        }
+        return new HourBucket(depart, sorted);
+    }
+
+    int size() {
+        return depart.length;
+    }
+
+    /** Index of the first departure at or after the given minute. */
+    int firstAtOrAfter(long minute) {
+        int lo = 0;
+        int hi = depart.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (depart[mid] < minute) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** A copy without the given flight, with flight (if not null) inserted in departure order. */
+    HourBucket replace(String flightId, Flight flight, long minute) {
+        int at = indexOf(flightId);
+        int size = depart.length - (at < 0 ? 0 : 1) + (flight == null ? 0 : 1);
+        if (size == 0) {
+            return EMPTY;
+        }
+        long[] d = new long[size];
+        Flight[] f = new Flight[size];
+        int n = 0;
+        boolean inserted = flight == null;
+        for (int i = 0; i < depart.length; i++) {
+            if (i == at) {
+                continue;
+            }
+            if (!inserted && minute < depart[i]) {
+                d[n] = minute;
+                f[n++] = flight;
+                inserted = true;
+            }
+            d[n] = depart[i];
+            f[n++] = flights[i];
+        }
+        if (!inserted) {
+            d[n] = minute;
+            f[n] = flight;
+        }
+        return new HourBucket(d, f);
+    }
+
+    /** A copy with flights (ones it does not have yet) merged in departure order. */
+    HourBucket with(List<Flight> added) {
+        Flight[] sorted = added.toArray(new Flight[0]);
+        Arrays.sort(sorted, Comparator.comparing(Flight::getDepartureDateTime));
+        long[] d = new long[depart.length + sorted.length];
+        Flight[] f = new Flight[d.length];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < depart.length; i++) {
+            while (j < sorted.length && RouteGraph.minuteOf(sorted[j].getDepartureDateTime()) < depart[i]) {
+                d[n] = RouteGraph.minuteOf(sorted[j].getDepartureDateTime());
+                f[n++] = sorted[j++];
+            }
+            d[n] = depart[i];
+            f[n++] = flights[i];
+        }
+        while (j < sorted.length) {
+            d[n] = RouteGraph.minuteOf(sorted[j].getDepartureDateTime());
+            f[n++] = sorted[j++];
+        }
+        return new HourBucket(d, f);
+    }
+
+    private int indexOf(String flightId) {
+        for (int i = 0; i < flights.length; i++) {
+            if (flights[i].getFlightId().equals(flightId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,16 @@
+package com.flightservice.dto.request;
+
+import java.util.Set;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class FlightLookupRequest {
+
+	// one $in query answers all of them
+	@NotEmpty
+	@Size(max = 500)
+	Set<String> flightIds;
+}
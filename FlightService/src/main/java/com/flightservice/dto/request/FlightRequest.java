@@ -2,6 +2,8 @@ package com.flightservice.dto.request;
 
 import java.time.LocalDateTime;
 
+import com.flightservice.enums.SearchSort;
+
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotBlank;
@@ -34,4 +36,19 @@ public class FlightRequest {
 	
 	@NotNull
 	Double price;
+	
+	// search only: departure window [departureFrom, departureTo), from now when not given
+	LocalDateTime departureFrom;
+	
+	LocalDateTime departureTo;
+	
+	// search only: flights with at least this many seats left
+	Integer passengers;
+	
+	SearchSort sortBy;
+	
+	Integer pageSize;
+	
+	// search only: X-Next-Cursor of the previous page
+	String cursor;
 }
@@ -0,0 +1,44 @@
+package com.flightservice.dto.request;
+
+import java.time.LocalDateTime;
+
+import com.flightservice.enums.ItinerarySort;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class ItineraryRequest {
+
+	@NotBlank
+	String source;
+	
+	@NotBlank
+	String destination;
+	
+	// first leg departs in [departureFrom, departureTo); now and one day later when not given
+	LocalDateTime departureFrom;
+	
+	LocalDateTime departureTo;
+	
+	@Min(1)
+	Integer passengers;
+	
+	@Min(0)
+	@Max(2)
+	Integer maxStops;
+	
+	@Min(0)
+	Integer minLayoverMinutes;
+	
+	@Min(0)
+	Integer maxLayoverMinutes;
+	
+	ItinerarySort sortBy;
+	
+	@Min(1)
+	@Max(100)
+	Integer limit;
+}
@@ -1,5 +1,7 @@
 package com.flightservice.dto.request;
 
+import java.util.List;
+
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -10,6 +12,7 @@ public class ReserveSeatsRequest {
     private String bookingReference; // optional cross-ref to booking
     @Min(1)
     private int count;
+    private List<String> seatNumbers;
 
    
     public String getBookingReference() { return bookingReference; }
@@ -0,0 +1,16 @@
+package com.flightservice.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class WaitlistRequest {
+
+	// the seats are later reserved under this reference, as a reserve call would
+	@NotBlank
+	String bookingReference;
+	
+	@Min(1)
+	int count;
+}
@@ -0,0 +1,13 @@
+package com.flightservice.dto.response;
+
+import java.time.LocalDate;
+
+import lombok.Data;
+
+@Data
+public class FareCalendarDayResponse {
+
+    private LocalDate date;
+    private Double minPrice;
+    private int flightCount;
+}
@@ -0,0 +1,18 @@
+package com.flightservice.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class FlightImportResponse {
+
+    private long rowsRead;
+    private long imported;
+    private long duplicates;
+    private long failed;
+    // the first errors only, see errorsTruncated
+    private List<ImportRowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+}
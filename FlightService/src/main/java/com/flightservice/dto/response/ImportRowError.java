@@ -0,0 +1,15 @@
+package com.flightservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowError {
+
+    // line number in the uploaded file, starting at 1
+    private long line;
+    private String message;
+}
@@ -0,0 +1,14 @@
+package com.flightservice.dto.response;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ItineraryResponse {
+
+    private List<FlightResponse> legs;
+    private int stops;
+    private Double totalPrice;
+    private long totalDurationMinutes;
+}
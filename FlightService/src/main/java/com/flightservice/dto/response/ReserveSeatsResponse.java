@@ -1,13 +1,19 @@
 package com.flightservice.dto.response;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import lombok.Data;
 
 @Data
 public class ReserveSeatsResponse {
     private boolean success;
-    private String reservationReference; // optional id
+    private String reservationReference; // hold id, confirm it before holdExpiresAt
+    private LocalDateTime holdExpiresAt;
     private int seatsReserved;
     private int remainingSeats;
+    private List<String> reservedSeats;
+    private Double fare; // per seat, as priced when the seats were taken
 
   
     public boolean isSuccess() { return success; }
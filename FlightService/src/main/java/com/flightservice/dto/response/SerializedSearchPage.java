@@ -0,0 +1,8 @@
+package com.flightservice.dto.response;
+
+/**
+ * A search page as it goes on the wire: the flights as JSON array bytes and
+ * the cursor of the next page, null on the last one.
+ */
+public record SerializedSearchPage(byte[] body, String nextCursor) {
+}
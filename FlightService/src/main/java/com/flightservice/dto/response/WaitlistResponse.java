@@ -0,0 +1,22 @@
+package com.flightservice.dto.response;
+
+import java.time.LocalDateTime;
+
+import com.flightservice.enums.WaitlistStatus;
+
+import lombok.Data;
+
+@Data
+public class WaitlistResponse {
+
+    private String flightId;
+    private String bookingReference;
+    private int count;
+    private WaitlistStatus status;
+    private LocalDateTime requestedAt;
+    // place in line while WAITING, 1 for the next to be promoted
+    private Long position;
+    // set once PROMOTED: confirm the hold before it expires
+    private String holdId;
+    private LocalDateTime holdExpiresAt;
+}
@@ -0,0 +1,9 @@
+package com.flightservice.enums;
+
+public enum HoldStatus {
+	HELD,
+	CONFIRMED,
+	EXPIRED,
+	RELEASED
+
+}
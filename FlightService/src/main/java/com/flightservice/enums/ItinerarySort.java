@@ -0,0 +1,7 @@
+package com.flightservice.enums;
+
+public enum ItinerarySort {
+	PRICE,
+	DURATION
+
+}
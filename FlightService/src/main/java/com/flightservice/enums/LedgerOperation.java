@@ -0,0 +1,7 @@
+package com.flightservice.enums;
+
+public enum LedgerOperation {
+	RESERVE,
+	RELEASE
+
+}
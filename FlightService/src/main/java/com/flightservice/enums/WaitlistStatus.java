@@ -0,0 +1,8 @@
+package com.flightservice.enums;
+
+public enum WaitlistStatus {
+	WAITING,
+	PROMOTING,
+	PROMOTED
+
+}
@@ -0,0 +1,14 @@
+package com.flightservice.events;
+
+import java.util.List;
+
+import com.flightservice.model.Flight;
+
+/**
+ * Published by FareRepricer once per batch of flights whose stored fare it
+ * changed, with each flight's new fare and seats as it read them. Seat
+ * changes alone are FlightChangedEvents; this is what the read-side views
+ * that order or aggregate on the fare listen to.
+ */
+public record FaresChangedEvent(List<Flight> flights) {
+}
@@ -0,0 +1,29 @@
+package com.flightservice.events;
+
+import com.flightservice.model.Flight;
+
+/**
+ * Published after a flight is added or its seat inventory changes, with the
+ * flight as it is now. Read-side caches and indexes listen to it.
+ *
+ * seatDelta is the change in available seats (negative for a reserve), or 0
+ * when the flight was added or the change is not a seat count.
+ */
+public record FlightChangedEvent(Flight flight, int seatDelta) {
+
+    public FlightChangedEvent(Flight flight) {
+        this(flight, 0);
+    }
+
+    /**
+     * Whether the flight may have gone from bookable to sold out or back:
+     * it was added, it has just sold out, or it had no seats before this
+     * change.
+     */
+    public boolean changesAvailability() {
+        int seats = flight.getAvailableSeats();
+        return seatDelta == 0
+                || (seatDelta < 0 && seats <= 0)
+                || (seatDelta > 0 && seats - seatDelta <= 0);
+    }
+}
@@ -0,0 +1,14 @@
+package com.flightservice.events;
+
+import java.util.List;
+
+import com.flightservice.model.Flight;
+
+/**
+ * Published once per bulk insert with the flights it added, instead of one
+ * FlightChangedEvent per flight. Read-side indexes apply the whole batch in
+ * one step: one copy per airport they change rather than one per flight,
+ * one cache generation bump per route or airline.
+ */
+public record FlightsAddedEvent(List<Flight> flights) {
+}
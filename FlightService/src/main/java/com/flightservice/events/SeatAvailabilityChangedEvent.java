@@ -0,0 +1,12 @@
+package com.flightservice.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Message of the seat-availability feed: the seats of a flight as they were
+ * at changedAt. Keyed by flightId, so the messages of one flight stay in
+ * order on one partition.
+ */
+public record SeatAvailabilityChangedEvent(String flightId, int availableSeats, int totalSeats, Double price,
+                                           LocalDateTime changedAt) {
+}
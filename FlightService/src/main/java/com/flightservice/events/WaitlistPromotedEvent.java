@@ -0,0 +1,12 @@
+package com.flightservice.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when seats came back on a flight and a waitlisted request got
+ * them: they are held under holdId for the booking reference, to be
+ * confirmed before holdExpiresAt like any reserve.
+ */
+public record WaitlistPromotedEvent(String flightId, String bookingReference, int count, String holdId,
+                                    LocalDateTime holdExpiresAt, LocalDateTime promotedAt) {
+}
@@ -0,0 +1,8 @@
+package com.flightservice.exceptions;
+
+/** The flight has fewer seats left than the request asks for. */
+public class NotEnoughSeatsException extends BusinessException {
+	public NotEnoughSeatsException(String message) {
+		super(message);
+	}
+}
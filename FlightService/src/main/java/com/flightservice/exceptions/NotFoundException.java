@@ -0,0 +1,8 @@
+package com.flightservice.exceptions;
+
+/** A flight, airline or seat hold the request names does not exist. */
+public class NotFoundException extends BusinessException {
+	public NotFoundException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,122 @@
+package com.flightservice.feed;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.events.FaresChangedEvent;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.events.SeatAvailabilityChangedEvent;
+import com.flightservice.inventory.SeatInventory;
+import com.flightservice.model.Flight;
+import com.flightservice.pricing.PricingEngine;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Publishes the seat availability of changed flights to a Kafka topic keyed
+ * by flightId, so caches in other services can drop exactly the flights that
+ * changed instead of expiring everything on a TTL.
+ *
+ * A FlightChangedEvent marks its flight dirty, and the first mark schedules
+ * one message for the flight a window later. Marks within the window are
+ * coalesced into that message, so a burst of bookings on a popular flight is
+ * one message, not one per booking. The seat count is read from the seat
+ * inventory when the message is built, not taken from the events: request
+ * threads publish their events in any order, but the read comes after all
+ * the changes of the window. A single worker sends, so the messages of a
+ * flight leave in order. A FaresChangedEvent marks its flights the same way:
+ * the message carries the fare.
+ *
+ * Flights added by a bulk import (a FlightsAddedEvent) are not published: no
+ * cache elsewhere holds a flight that did not exist, and an import of a
+ * season's schedule would be one message per flight for nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "flight.seat-feed.enabled", havingValue = "true", matchIfMissing = true)
+public class SeatAvailabilityFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatAvailabilityFeed.class);
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final SeatInventory seatInventory;
+    private final PricingEngine pricingEngine;
+    private final String topic;
+    private final long windowMillis;
+
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "seat-feed");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public SeatAvailabilityFeed(KafkaTemplate<String, Object> kafkaTemplate, SeatInventory seatInventory,
+                                PricingEngine pricingEngine,
+                                @Value("${flight.seat-feed.topic:flight-seat-availability}") String topic,
+                                @Value("${flight.seat-feed.window:200ms}") Duration window) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.seatInventory = seatInventory;
+        this.pricingEngine = pricingEngine;
+        this.topic = topic;
+        this.windowMillis = window.toMillis();
+    }
+
+    @EventListener
+    public void onFlightChanged(FlightChangedEvent event) {
+        mark(event.flight().getFlightId());
+    }
+
+    @EventListener
+    public void onFaresChanged(FaresChangedEvent event) {
+        event.flights().forEach(f -> mark(f.getFlightId()));
+    }
+
+    private void mark(String flightId) {
+        if (flightId != null && dirty.add(flightId)) {
+            worker.schedule(() -> {
+                // cleared first: a change from here on schedules the next message
+                dirty.remove(flightId);
+                publish(flightId);
+            }, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void publish(String flightId) {
+        try {
+            Optional<Flight> current = seatInventory.current(flightId);
+            if (current.isEmpty()) {
+                return;
+            }
+            Flight f = current.get();
+            SeatAvailabilityChangedEvent message = new SeatAvailabilityChangedEvent(flightId, f.getAvailableSeats(),
+                    f.getTotalSeats(), pricingEngine.fareOf(f), LocalDateTime.now());
+            kafkaTemplate.send(topic, flightId, message).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.warn("Seat availability of flight {} not published: {}", flightId, ex.toString());
+                }
+            });
+        } catch (RuntimeException ex) {
+            // the next change to the flight publishes it again
+            log.warn("Seat availability of flight {} not published: {}", flightId, ex.toString());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdown();
+    }
+}
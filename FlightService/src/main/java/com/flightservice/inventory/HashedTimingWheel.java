@@ -0,0 +1,133 @@
+package com.flightservice.inventory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timing wheel (Varghese and Lauck): a ring of buckets advanced by one
+ * worker thread every tick. Scheduling is O(1) and only the bucket of the
+ * current tick is looked at, however many items are pending. Items whose
+ * deadline passed in a tick are handed to the callback together, as one batch.
+ *
+ * Callers only touch a lock-free queue; the buckets belong to the worker thread.
+ */
+public final class HashedTimingWheel<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<List<Entry<T>>> buckets;
+    private final Queue<Entry<T>> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Consumer<List<T>> onExpired;
+    private final Thread worker;
+    private final long startNanos;
+
+    private long tick;
+    private volatile boolean running = true;
+
+    /**
+     * @param wheelSize number of buckets, rounded up to a power of two
+     * @param onExpired called on the worker thread with the items due in a tick
+     */
+    public HashedTimingWheel(String name, Duration tickDuration, int wheelSize, Consumer<List<T>> onExpired) {
+        this.tickNanos = tickDuration.toNanos();
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.onExpired = onExpired;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public void schedule(T item, Duration delay) {
+        pending.incrementAndGet();
+        incoming.add(new Entry<>(item, System.nanoTime() + Math.max(0, delay.toNanos())));
+    }
+
+    /** Items scheduled and not yet handed to the callback. */
+    public int pending() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleep = deadline - System.nanoTime();
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+            transferIncoming();
+            List<T> due = expireBucket(buckets.get((int) (tick & mask)), System.nanoTime());
+            tick++;
+            if (!due.isEmpty()) {
+                pending.addAndGet(-due.size());
+                try {
+                    onExpired.accept(due);
+                } catch (RuntimeException ex) {
+                    log.warn("Timing wheel callback failed for {} items: {}", due.size(), ex.toString());
+                }
+            }
+        }
+    }
+
+    private void transferIncoming() {
+        Entry<T> e;
+        while ((e = incoming.poll()) != null) {
+            long dueTick = Math.max((e.deadline - startNanos) / tickNanos, tick);
+            e.rounds = (dueTick - tick) / buckets.size();
+            buckets.get((int) (dueTick & mask)).add(e);
+        }
+    }
+
+    private static <T> List<T> expireBucket(List<Entry<T>> bucket, long now) {
+        List<T> due = new ArrayList<>();
+        for (Iterator<Entry<T>> it = bucket.iterator(); it.hasNext();) {
+            Entry<T> e = it.next();
+            if (e.rounds <= 0 && e.deadline <= now) {
+                it.remove();
+                due.add(e.item);
+            } else if (e.rounds > 0) {
+                e.rounds--;
+            }
+        }
+        return due;
+    }
+
+    private static final class Entry<T> {
+        final T item;
+        final long deadline;
+        long rounds;
+
+        Entry(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+}
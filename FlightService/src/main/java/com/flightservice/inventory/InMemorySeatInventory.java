@@ -0,0 +1,411 @@
+package com.flightservice.inventory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional inventory engine for sale peaks. Seat counts and seat maps of active
+ * flights live in memory. Flights are partitioned by flightId hash onto
+ * single-thread executors, so a flight is only ever touched by one thread and
+ * the hot path takes no locks.
+ *
+ * Every change is appended to the partition's change log before it is
+ * acknowledged. Mongo is updated write-behind: each flush interval a partition
+ * snapshots its dirty flights and seals its log segment, and a flusher thread
+ * writes the snapshots in one bulk and then deletes the sealed segments. On
+ * startup, {@link #recover()} replays whatever is still in the log on top of
+ * the Mongo documents, skipping entries a document already contains
+ * (inventoryLogSeq).
+ *
+ * The engine assumes it is the only writer of seat inventory, i.e. a single
+ * FlightService instance, or requests routed so that one instance owns a flight.
+ * Reads through the repository (search, getFlightById) lag by at most one flush interval.
+ */
+@Component
+@ConditionalOnProperty(name = "flight.inventory.engine.enabled", havingValue = "true")
+public class InMemorySeatInventory implements SeatInventory {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemorySeatInventory.class);
+
+    private final FlightRepository flightRepository;
+    private final Path logDir;
+    private final int partitionCount;
+    private final Duration flushInterval;
+    private final boolean fsync;
+
+    private final AtomicLong seq = new AtomicLong();
+    private ExecutorService[] partitions;
+    private List<Map<String, FlightState>> states;
+    private PartitionLog[] logs;
+    private ScheduledExecutorService flushTimer;
+    private ExecutorService flusher;
+
+    // owned by the flusher thread
+    private final Map<String, Flight> pendingWrites = new HashMap<>();
+    private final List<Path> sealedSegments = new ArrayList<>();
+
+    public InMemorySeatInventory(FlightRepository flightRepository,
+                                 @Value("${flight.inventory.engine.log-dir:data/inventory-log}") String logDir,
+                                 @Value("${flight.inventory.engine.partitions:0}") int partitions,
+                                 @Value("${flight.inventory.engine.flush-interval:1s}") Duration flushInterval,
+                                 @Value("${flight.inventory.engine.fsync:false}") boolean fsync) {
+        this.flightRepository = flightRepository;
+        this.logDir = Paths.get(logDir);
+        this.partitionCount = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+        this.flushInterval = flushInterval;
+        this.fsync = fsync;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        states = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            states.add(new HashMap<>());
+        }
+        recover();
+
+        partitions = new ExecutorService[partitionCount];
+        logs = new PartitionLog[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            int p = i;
+            logs[p] = new PartitionLog(logDir, p, fsync);
+            partitions[p] = Executors.newSingleThreadExecutor(r -> daemon(r, "inventory-p" + p));
+        }
+        flusher = Executors.newSingleThreadExecutor(r -> daemon(r, "inventory-flusher"));
+        flushTimer = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "inventory-flush-timer"));
+        long millis = flushInterval.toMillis();
+        flushTimer.scheduleWithFixedDelay(this::flushAll, millis, millis, TimeUnit.MILLISECONDS);
+        log.info("Inventory engine started: {} partitions, flush every {}, log in {}", partitionCount, flushInterval, logDir);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        flushTimer.shutdownNow();
+        flushAll().get(30, TimeUnit.SECONDS);
+        for (int p = 0; p < partitionCount; p++) {
+            partitions[p].shutdown();
+            partitions[p].awaitTermination(5, TimeUnit.SECONDS);
+            logs[p].close();
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public Flight reserve(String flightId, int count, Map<Integer, Long> seatMasks) {
+        return onPartition(flightId, states -> {
+            FlightState state = load(states, flightId);
+            if (state == null || state.flight.getAvailableSeats() < count || !allClear(state.flight, seatMasks)) {
+                return null;
+            }
+            return apply(state, -count, seatMasks);
+        });
+    }
+
+    @Override
+    public Flight release(String flightId, int count, Map<Integer, Long> seatMasks) {
+        return onPartition(flightId, states -> {
+            FlightState state = load(states, flightId);
+            if (state == null || state.flight.getAvailableSeats() + count > state.flight.getTotalSeats()
+                    || !(allSet(state.flight, seatMasks) || releasesUnmapped(state.flight, count, seatMasks))) {
+                return null;
+            }
+            return apply(state, count, seatMasks);
+        });
+    }
+
+    @Override
+    public Optional<Flight> current(String flightId) {
+        return Optional.ofNullable(onPartition(flightId, states -> {
+            FlightState state = load(states, flightId);
+            return state == null ? null : copy(state.flight);
+        }));
+    }
+
+    // flights the engine has not loaded have no changes Mongo is missing
+    @Override
+    public List<Flight> withCurrentSeats(List<Flight> flights) {
+        Map<Integer, List<Flight>> byPartition = flights.stream()
+                .collect(Collectors.groupingBy(f -> partitionOf(f.getFlightId())));
+        byPartition.forEach((p, inPartition) -> onPartition(p, states -> {
+            for (Flight f : inPartition) {
+                FlightState state = states.get(f.getFlightId());
+                if (state != null) {
+                    f.setAvailableSeats(state.flight.getAvailableSeats());
+                }
+            }
+            return null;
+        }));
+        return flights;
+    }
+
+    // ---- partition thread ----
+
+    private Flight apply(FlightState state, int delta, Map<Integer, Long> seatMasks) {
+        String flightId = state.flight.getFlightId();
+        InventoryChange change = new InventoryChange(seq.incrementAndGet(), flightId, delta, seatMasks);
+        // logged before it is applied and acknowledged, so a crash cannot lose an accepted change
+        logs[partitionOf(flightId)].append(change);
+        applyInMemory(state.flight, change);
+        return copy(state.flight);
+    }
+
+    private FlightState load(Map<String, FlightState> states, String flightId) {
+        FlightState state = states.get(flightId);
+        if (state == null) {
+            Flight flight = flightRepository.findById(flightId).orElse(null);
+            if (flight == null) {
+                return null;
+            }
+            ensureSeatMap(flight);
+            state = new FlightState(flight);
+            states.put(flightId, state);
+        }
+        return state;
+    }
+
+    private static boolean allClear(Flight flight, Map<Integer, Long> seatMasks) {
+        List<Long> rows = flight.getSeatRows();
+        for (Map.Entry<Integer, Long> e : seatMasks.entrySet()) {
+            if (e.getKey() >= rows.size() || (rows.get(e.getKey()) & e.getValue()) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean allSet(Flight flight, Map<Integer, Long> seatMasks) {
+        List<Long> rows = flight.getSeatRows();
+        for (Map.Entry<Integer, Long> e : seatMasks.entrySet()) {
+            if (e.getKey() >= rows.size() || (rows.get(e.getKey()) & e.getValue()) != e.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // seats sold before the flight had a seat map are free in it and come back by count, see MongoSeatInventory
+    private static boolean releasesUnmapped(Flight flight, int count, Map<Integer, Long> seatMasks) {
+        return !seatMasks.isEmpty() && flight.getUnmappedSeats() >= count && allClear(flight, seatMasks);
+    }
+
+    private CompletableFuture<Void> flushAll() {
+        CompletableFuture<?>[] done = new CompletableFuture<?>[partitionCount];
+        for (int p = 0; p < partitionCount; p++) {
+            int partition = p;
+            done[p] = CompletableFuture
+                    .supplyAsync(() -> snapshotDirty(partition), partitions[partition])
+                    .thenAcceptAsync(this::write, flusher);
+        }
+        return CompletableFuture.allOf(done).exceptionally(ex -> {
+            log.warn("Inventory flush failed, will retry next interval: {}", ex.toString());
+            return null;
+        });
+    }
+
+    // runs on the partition thread: copy what changed since the last flush and seal the log segment it is in
+    private Snapshot snapshotDirty(int partition) {
+        List<Flight> dirty = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        states.get(partition).values().removeIf(state -> {
+            Flight f = state.flight;
+            if (f.getInventoryLogSeq() > state.flushedSeq) {
+                dirty.add(copy(f));
+                state.flushedSeq = f.getInventoryLogSeq();
+                return false;
+            }
+            // clean flights that have departed will not be booked again
+            return f.getDepartureDateTime() != null && f.getDepartureDateTime().isBefore(now);
+        });
+        return new Snapshot(dirty, dirty.isEmpty() ? null : logs[partition].rotate());
+    }
+
+    // ---- flusher thread ----
+
+    private void write(Snapshot snapshot) {
+        for (Flight f : snapshot.flights()) {
+            pendingWrites.merge(f.getFlightId(), f,
+                    (older, newer) -> newer.getInventoryLogSeq() > older.getInventoryLogSeq() ? newer : older);
+        }
+        if (snapshot.sealed() != null) {
+            sealedSegments.add(snapshot.sealed());
+        }
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+        try {
+            flightRepository.writeInventory(pendingWrites.values());
+            PartitionLog.writeCheckpoint(logDir, seq.get());
+            for (Path segment : sealedSegments) {
+                Files.deleteIfExists(segment);
+            }
+            pendingWrites.clear();
+            sealedSegments.clear();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // ---- recovery, before the partitions start ----
+
+    /**
+     * Rebuilds memory state after a crash: every flight with entries left in the
+     * change log is loaded from Mongo, the entries the document does not contain
+     * yet are replayed on top, and the result is written back before the old
+     * segments are deleted.
+     */
+    void recover() throws IOException {
+        List<Path> segments = PartitionLog.segments(logDir);
+        List<InventoryChange> changes = PartitionLog.read(segments);
+        long highWater = PartitionLog.readCheckpoint(logDir);
+        for (InventoryChange c : changes) {
+            highWater = Math.max(highWater, c.seq());
+        }
+        seq.set(highWater);
+        if (changes.isEmpty()) {
+            deleteAll(segments);
+            return;
+        }
+
+        Map<String, List<InventoryChange>> byFlight = changes.stream()
+                .sorted(Comparator.comparingLong(InventoryChange::seq))
+                .collect(Collectors.groupingBy(InventoryChange::flightId, LinkedHashMap::new, Collectors.toList()));
+        Map<String, Flight> recovered = new LinkedHashMap<>();
+        for (Map.Entry<String, List<InventoryChange>> e : byFlight.entrySet()) {
+            Optional<Flight> doc = flightRepository.findById(e.getKey());
+            if (doc.isEmpty()) {
+                log.warn("Inventory log has {} entries for unknown flight {}, skipping", e.getValue().size(), e.getKey());
+                continue;
+            }
+            Flight flight = doc.get();
+            ensureSeatMap(flight);
+            long persisted = flight.getInventoryLogSeq();
+            int replayed = 0;
+            for (InventoryChange c : e.getValue()) {
+                if (c.seq() > persisted) {
+                    applyInMemory(flight, c);
+                    replayed++;
+                }
+            }
+            if (replayed > 0) {
+                recovered.put(flight.getFlightId(), copy(flight));
+            }
+            states.get(partitionOf(flight.getFlightId())).put(flight.getFlightId(), new FlightState(flight));
+        }
+
+        flightRepository.writeInventory(recovered.values());
+        PartitionLog.writeCheckpoint(logDir, highWater);
+        deleteAll(segments);
+        log.info("Inventory engine recovered {} log entries, {} flights updated in Mongo", changes.size(), recovered.size());
+    }
+
+    // ---- helpers ----
+
+    private static void applyInMemory(Flight flight, InventoryChange change) {
+        // release only accepts seats that are all held or all unmapped, so replay tells them apart the same way
+        if (!change.isReserve() && !allSet(flight, change.seatMasks())) {
+            flight.setUnmappedSeats(flight.getUnmappedSeats() - change.delta());
+        }
+        flight.setAvailableSeats(flight.getAvailableSeats() + change.delta());
+        List<Long> rows = flight.getSeatRows();
+        change.seatMasks().forEach((row, mask) -> {
+            if (row < rows.size()) {
+                rows.set(row, change.isReserve() ? rows.get(row) | mask : rows.get(row) & ~mask);
+            }
+        });
+        flight.setInventoryLogSeq(change.seq());
+    }
+
+    private static void ensureSeatMap(Flight flight) {
+        if (flight.getSeatRows() == null) {
+            flight.setSeatsPerRow(SeatMap.DEFAULT_SEATS_PER_ROW);
+            flight.setSeatRows(SeatMap.emptyRows(flight.getTotalSeats(), SeatMap.DEFAULT_SEATS_PER_ROW));
+            flight.setUnmappedSeats(flight.getTotalSeats() - flight.getAvailableSeats());
+        } else {
+            flight.setSeatRows(new ArrayList<>(flight.getSeatRows()));
+        }
+    }
+
+    private <T> T onPartition(String flightId, Function<Map<String, FlightState>, T> task) {
+        return onPartition(partitionOf(flightId), task);
+    }
+
+    private <T> T onPartition(int p, Function<Map<String, FlightState>, T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> task.apply(states.get(p)), partitions[p]).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw ex;
+        }
+    }
+
+    private int partitionOf(String flightId) {
+        return Math.floorMod(flightId.hashCode(), partitionCount);
+    }
+
+    // callers and the flusher get their own copy, the partition keeps mutating the original
+    private static Flight copy(Flight f) {
+        return f.toBuilder().seatRows(new ArrayList<>(f.getSeatRows())).build();
+    }
+
+    private static void deleteAll(List<Path> segments) throws IOException {
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    private record Snapshot(List<Flight> flights, Path sealed) {
+    }
+
+    // only touched by the owning partition thread
+    private static final class FlightState {
+        final Flight flight;
+        long flushedSeq;
+
+        FlightState(Flight flight) {
+            this.flight = flight;
+            this.flushedSeq = flight.getInventoryLogSeq();
+        }
+    }
+}
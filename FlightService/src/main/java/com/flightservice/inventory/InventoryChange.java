@@ -0,0 +1,49 @@
+package com.flightservice.inventory;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One entry of the inventory engine change log: a reserve (negative delta) or
+ * release (positive delta) of seats on a flight, with the seat bits it touched.
+ * Stored as one text line: {@code seq flightId delta row:mask,row:mask}.
+ */
+public record InventoryChange(long seq, String flightId, int delta, Map<Integer, Long> seatMasks) {
+
+    public boolean isReserve() {
+        return delta < 0;
+    }
+
+    public String toLine() {
+        StringBuilder sb = new StringBuilder(64)
+                .append(seq).append(' ').append(flightId).append(' ').append(delta).append(' ');
+        if (seatMasks.isEmpty()) {
+            sb.append('-');
+        } else {
+            seatMasks.forEach((row, mask) -> sb.append(row).append(':').append(Long.toHexString(mask)).append(','));
+            sb.setLength(sb.length() - 1);
+        }
+        return sb.append('\n').toString();
+    }
+
+    /** Parses a line written by {@link #toLine()}; returns null for a torn or foreign line. */
+    public static InventoryChange parse(String line) {
+        String[] parts = line.split(" ");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            Map<Integer, Long> masks = new TreeMap<>();
+            if (!"-".equals(parts[3])) {
+                for (String rowMask : parts[3].split(",")) {
+                    int colon = rowMask.indexOf(':');
+                    masks.put(Integer.parseInt(rowMask.substring(0, colon)),
+                            Long.parseUnsignedLong(rowMask.substring(colon + 1), 16));
+                }
+            }
+            return new InventoryChange(Long.parseLong(parts[0]), parts[1], Integer.parseInt(parts[2]), masks);
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.flightservice.inventory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRepository;
+
+/**
+ * Default inventory: every change is one conditional update on the flight document.
+ */
+@Component
+@ConditionalOnProperty(name = "flight.inventory.engine.enabled", havingValue = "false", matchIfMissing = true)
+public class MongoSeatInventory implements SeatInventory {
+
+    private final FlightRepository flightRepository;
+
+    public MongoSeatInventory(FlightRepository flightRepository) {
+        this.flightRepository = flightRepository;
+    }
+
+    @Override
+    public Flight reserve(String flightId, int count, Map<Integer, Long> seatMasks) {
+        Flight updated = flightRepository.decrementAvailableSeats(flightId, count, seatMasks);
+        if (updated == null && !seatMasks.isEmpty() && addMissingSeatMap(flightId)) {
+            updated = flightRepository.decrementAvailableSeats(flightId, count, seatMasks);
+        }
+        return updated;
+    }
+
+    @Override
+    public Flight release(String flightId, int count, Map<Integer, Long> seatMasks) {
+        Flight updated = flightRepository.incrementAvailableSeats(flightId, count, seatMasks);
+        if (updated == null && !seatMasks.isEmpty()) {
+            // seats sold before the flight had a seat map have no bits to clear, they come back by count
+            updated = hasNoSeatMap(flightId)
+                    ? flightRepository.incrementAvailableSeats(flightId, count, Map.of())
+                    : flightRepository.releaseUnmappedSeats(flightId, count, seatMasks);
+        }
+        return updated;
+    }
+
+    @Override
+    public Optional<Flight> current(String flightId) {
+        return flightRepository.findById(flightId);
+    }
+
+    // read from Mongo, they are current already
+    @Override
+    public List<Flight> withCurrentSeats(List<Flight> flights) {
+        return flights;
+    }
+
+    private boolean hasNoSeatMap(String flightId) {
+        return flightRepository.findById(flightId).filter(f -> f.getSeatRows() == null).isPresent();
+    }
+
+    // flights created before seat maps existed get one the first time a seat is picked on them; the seats
+    // sold until then are not in it (their numbers are only known to BookingService) and count as unmappedSeats
+    private boolean addMissingSeatMap(String flightId) {
+        Optional<Flight> flight = flightRepository.findById(flightId);
+        if (flight.isEmpty() || flight.get().getSeatRows() != null) {
+            return false;
+        }
+        flightRepository.initSeatMap(flightId,
+                SeatMap.emptyRows(flight.get().getTotalSeats(), SeatMap.DEFAULT_SEATS_PER_ROW),
+                SeatMap.DEFAULT_SEATS_PER_ROW);
+        return true;
+    }
+}
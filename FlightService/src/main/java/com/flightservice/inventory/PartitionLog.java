@@ -0,0 +1,127 @@
+package com.flightservice.inventory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only change log of one engine partition. Only the partition's own
+ * thread appends, so there is no locking. The log is split into segments:
+ * {@link #rotate()} seals the current segment so it can be deleted once the
+ * snapshot taken at the same moment has reached Mongo.
+ */
+final class PartitionLog implements AutoCloseable {
+
+    private static final String SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path dir;
+    private final int partition;
+    private final boolean fsync;
+
+    private long segmentNo;
+    private Path current;
+    private FileChannel channel;
+
+    PartitionLog(Path dir, int partition, boolean fsync) {
+        this.dir = dir;
+        this.partition = partition;
+        this.fsync = fsync;
+        this.segmentNo = System.currentTimeMillis();
+        open();
+    }
+
+    void append(InventoryChange change) {
+        ByteBuffer buf = ByteBuffer.wrap(change.toLine().getBytes(StandardCharsets.US_ASCII));
+        try {
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to append to inventory log " + current, ex);
+        }
+    }
+
+    /** Closes the current segment and starts a new one; returns the sealed segment. */
+    Path rotate() {
+        Path sealed = current;
+        close();
+        open();
+        return sealed;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to close inventory log " + current, ex);
+        }
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(dir);
+            // segment numbers only need to be unique and increasing per partition
+            current = dir.resolve("p" + partition + "-" + (segmentNo++) + SUFFIX);
+            channel = FileChannel.open(current, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open inventory log in " + dir, ex);
+        }
+    }
+
+    static List<Path> segments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+
+    /** Every parseable entry of the given segments, in file order. */
+    static List<InventoryChange> read(List<Path> segments) throws IOException {
+        List<InventoryChange> changes = new ArrayList<>();
+        for (Path segment : segments) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.US_ASCII)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    InventoryChange change = InventoryChange.parse(line);
+                    // a crash mid-append leaves a torn last line, which is skipped
+                    if (change != null) {
+                        changes.add(change);
+                    }
+                }
+            }
+        }
+        return changes;
+    }
+
+    static long readCheckpoint(Path dir) throws IOException {
+        Path file = dir.resolve(CHECKPOINT);
+        return Files.exists(file) ? Long.parseLong(Files.readString(file).trim()) : 0L;
+    }
+
+    /** Remembers the highest sequence number handed out, so it survives the log being emptied. */
+    static void writeCheckpoint(Path dir, long seq) throws IOException {
+        Files.createDirectories(dir);
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        Files.writeString(tmp, Long.toString(seq));
+        Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
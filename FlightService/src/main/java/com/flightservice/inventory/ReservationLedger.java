@@ -0,0 +1,108 @@
+package com.flightservice.inventory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.enums.LedgerOperation;
+import com.flightservice.enums.LedgerStatus;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.model.ReservationLedgerEntry;
+import com.flightservice.repository.ReservationLedgerRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Makes reserve and release idempotent per booking reference. A call claims
+ * its reference by inserting a PENDING ledger entry, applies the inventory
+ * change, then marks the entry APPLIED with its response. A retry of the same
+ * reference finds the entry and gets the first response back without touching
+ * inventory. Recently applied entries are also kept in a bounded in-memory
+ * cache, so most retries do not even reach Mongo.
+ *
+ * A PENDING entry older than the pending timeout is taken over: its call died
+ * before finishing, and any seats it took are in an unconfirmed hold that
+ * expires by itself.
+ */
+@Component
+public class ReservationLedger {
+
+    private final ReservationLedgerRepository repository;
+    private final Duration pendingTimeout;
+    private final Cache<String, ReservationLedgerEntry> recent;
+
+    public ReservationLedger(ReservationLedgerRepository repository,
+                             @Value("${flight.ledger.cache-size:10000}") long cacheSize,
+                             @Value("${flight.ledger.cache-ttl:1h}") Duration cacheTtl,
+                             @Value("${flight.ledger.pending-timeout:1m}") Duration pendingTimeout) {
+        this.repository = repository;
+        this.pendingTimeout = pendingTimeout;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+    }
+
+    /**
+     * Claims the booking reference for this operation on the flight.
+     *
+     * @return the entry of an earlier call that already applied it, or null if
+     *         this call now owns the reference and must apply the change
+     */
+    public ReservationLedgerEntry begin(String flightId, LedgerOperation operation, String bookingReference) {
+        String id = ReservationLedgerEntry.idOf(flightId, operation, bookingReference);
+        ReservationLedgerEntry cached = recent.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        ReservationLedgerEntry entry = new ReservationLedgerEntry();
+        entry.setId(id);
+        entry.setFlightId(flightId);
+        entry.setBookingReference(bookingReference);
+        entry.setOperation(operation);
+        entry.setStatus(LedgerStatus.PENDING);
+        entry.setCreatedAt(now);
+        if (repository.tryBegin(entry)) {
+            return null;
+        }
+
+        ReservationLedgerEntry existing = repository.findById(id).orElse(null);
+        if (existing == null) {
+            // the other call failed and removed its claim in between; let the caller retry
+            throw new BusinessException("Request " + bookingReference + " was retried while in progress, try again");
+        }
+        if (existing.getStatus() == LedgerStatus.APPLIED) {
+            recent.put(id, existing);
+            return existing;
+        }
+        if (repository.takeOverStale(id, now.minus(pendingTimeout), now)) {
+            return null;
+        }
+        throw new BusinessException("Request " + bookingReference + " is already in progress");
+    }
+
+    public void complete(String flightId, LedgerOperation operation, String bookingReference,
+                         ReserveSeatsResponse response) {
+        String id = ReservationLedgerEntry.idOf(flightId, operation, bookingReference);
+        repository.markApplied(id, response);
+
+        ReservationLedgerEntry applied = new ReservationLedgerEntry();
+        applied.setId(id);
+        applied.setFlightId(flightId);
+        applied.setBookingReference(bookingReference);
+        applied.setOperation(operation);
+        applied.setStatus(LedgerStatus.APPLIED);
+        applied.setResponse(response);
+        recent.put(id, applied);
+    }
+
+    /** Drops the claim of a call that failed, so the reference can be used again. */
+    public void abandon(String flightId, LedgerOperation operation, String bookingReference) {
+        repository.deleteById(ReservationLedgerEntry.idOf(flightId, operation, bookingReference));
+    }
+}
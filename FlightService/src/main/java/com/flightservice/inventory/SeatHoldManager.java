@@ -0,0 +1,216 @@
+package com.flightservice.inventory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.enums.HoldStatus;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.exceptions.NotFoundException;
+import com.flightservice.metrics.FlightMetrics;
+import com.flightservice.model.Flight;
+import com.flightservice.model.SeatHold;
+import com.flightservice.repository.SeatHoldRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Seats taken by a reserve call are held for a limited time. A confirm makes
+ * them permanent; otherwise a hashed timing wheel hands the hold to the
+ * sweeper when it expires, and the sweeper gives the seats of every hold due
+ * in that tick back to inventory in one batch, one release per flight.
+ * Nothing scans the flights collection; after a restart the HELD holds are
+ * read back through the (status, expiresAt) index and put on the wheel again.
+ */
+@Component
+public class SeatHoldManager {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatHoldManager.class);
+
+    private final SeatHoldRepository holdRepository;
+    private final SeatInventory seatInventory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration ttl;
+    private final Duration retryDelay;
+    private final HashedTimingWheel<String> wheel;
+
+    private final Counter created;
+    private final Counter confirmed;
+    private final Counter expired;
+    private final Counter released;
+    // seats given back, by why
+    private final Counter seatsReleased;
+    private final Counter seatsExpired;
+    private final Counter seatsHoldFailed;
+
+    public SeatHoldManager(SeatHoldRepository holdRepository, SeatInventory seatInventory,
+                           ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                           @Value("${flight.holds.ttl:10m}") Duration ttl,
+                           @Value("${flight.holds.wheel.tick:1s}") Duration tick,
+                           @Value("${flight.holds.wheel.size:512}") int wheelSize) {
+        this.holdRepository = holdRepository;
+        this.seatInventory = seatInventory;
+        this.eventPublisher = eventPublisher;
+        this.ttl = ttl;
+        this.retryDelay = tick.multipliedBy(5);
+        this.wheel = new HashedTimingWheel<>("seat-hold-expiry", tick, wheelSize, this::expire);
+
+        this.created = Counter.builder("flight.holds.created").description("Seat holds placed").register(meterRegistry);
+        this.confirmed = Counter.builder("flight.holds.confirmed").description("Seat holds confirmed").register(meterRegistry);
+        this.expired = Counter.builder("flight.holds.expired").description("Seat holds expired and returned to inventory").register(meterRegistry);
+        this.released = Counter.builder("flight.holds.released").description("Seat holds released before confirmation").register(meterRegistry);
+        this.seatsReleased = FlightMetrics.seatsReleased(meterRegistry, "hold-released");
+        this.seatsExpired = FlightMetrics.seatsReleased(meterRegistry, "hold-expired");
+        this.seatsHoldFailed = FlightMetrics.seatsReleased(meterRegistry, "hold-failed");
+        Gauge.builder("flight.holds.scheduled", wheel, HashedTimingWheel::pending)
+                .description("Seat holds on the expiry wheel, confirmed ones drop off at their expiry time")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a hold for seats already taken out of inventory. If the hold
+     * cannot be stored the seats are given back, so they cannot leak.
+     */
+    public SeatHold hold(String flightId, String bookingReference, int count, List<String> seatNumbers) {
+        SeatHold hold = new SeatHold();
+        hold.setHoldId("RES-" + UUID.randomUUID().toString().replace("-", "").substring(0, 16).toUpperCase());
+        hold.setFlightId(flightId);
+        hold.setBookingReference(bookingReference);
+        hold.setCount(count);
+        hold.setSeatNumbers(seatNumbers);
+        hold.setStatus(HoldStatus.HELD);
+        hold.setCreatedAt(LocalDateTime.now());
+        hold.setExpiresAt(hold.getCreatedAt().plus(ttl));
+
+        SeatHold saved;
+        try {
+            saved = holdRepository.save(hold);
+        } catch (RuntimeException ex) {
+            returnSeats(flightId, count, seatNumbers, seatsHoldFailed);
+            throw ex;
+        }
+        wheel.schedule(saved.getHoldId(), ttl);
+        created.increment();
+        return saved;
+    }
+
+    public SeatHold confirm(String flightId, String holdId) {
+        SeatHold hold = holdRepository.confirm(flightId, holdId, LocalDateTime.now());
+        if (hold != null) {
+            confirmed.increment();
+            return hold;
+        }
+        SeatHold existing = holdRepository.findById(holdId)
+                .filter(h -> flightId.equals(h.getFlightId()))
+                .orElseThrow(() -> new NotFoundException("Seat hold not found: " + holdId));
+        if (existing.getStatus() == HoldStatus.CONFIRMED) {
+            return existing;
+        }
+        if (existing.getStatus() == HoldStatus.HELD) {
+            // past expiresAt, the sweeper just has not reached it yet
+            throw new BusinessException("Seat hold expired: " + holdId);
+        }
+        throw new BusinessException("Seat hold " + existing.getStatus().name().toLowerCase() + ": " + holdId);
+    }
+
+    /**
+     * Releases the unconfirmed hold placed under this booking reference.
+     *
+     * @return true if the reference belonged to an unconfirmed hold, whose seats
+     *         are now back in inventory (released here, or earlier by expiry),
+     *         so the caller must not release them again
+     */
+    public boolean releaseHold(String flightId, String bookingReference) {
+        if (bookingReference == null) {
+            return false;
+        }
+        SeatHold hold = holdRepository.releaseByReference(flightId, bookingReference);
+        if (hold != null) {
+            returnSeats(flightId, hold.getCount(), hold.getSeatNumbers(), seatsReleased);
+            released.increment();
+            return true;
+        }
+        SeatHold latest = holdRepository.findLatestByReference(flightId, bookingReference);
+        return latest != null && latest.getStatus() != HoldStatus.CONFIRMED;
+    }
+
+    // wheel thread: one batch per tick
+    private void expire(List<String> holdIds) {
+        List<SeatHold> holds;
+        try {
+            holds = holdRepository.expire(holdIds, LocalDateTime.now());
+        } catch (RuntimeException ex) {
+            log.warn("Expiring {} seat holds failed, retrying in {}: {}", holdIds.size(), retryDelay, ex.toString());
+            holdIds.forEach(id -> wheel.schedule(id, retryDelay));
+            return;
+        }
+
+        Map<String, Integer> countByFlight = new HashMap<>();
+        Map<String, List<String>> seatsByFlight = new HashMap<>();
+        for (SeatHold h : holds) {
+            countByFlight.merge(h.getFlightId(), h.getCount(), Integer::sum);
+            if (h.getSeatNumbers() != null) {
+                seatsByFlight.computeIfAbsent(h.getFlightId(), k -> new ArrayList<>()).addAll(h.getSeatNumbers());
+            }
+        }
+        countByFlight.forEach((flightId, count) -> {
+            try {
+                returnSeats(flightId, count, seatsByFlight.get(flightId), seatsExpired);
+            } catch (RuntimeException ex) {
+                // the holds are EXPIRED already; log loudly so the seats can be reconciled
+                log.error("Returning {} expired seats to flight {} failed: {}", count, flightId, ex.toString());
+            }
+        });
+        expired.increment(holds.size());
+        if (!holds.isEmpty()) {
+            log.info("Expired {} seat holds on {} flights", holds.size(), countByFlight.size());
+        }
+    }
+
+    private void returnSeats(String flightId, int count, List<String> seatNumbers, Counter seatsCounter) {
+        Flight updated = seatInventory.release(flightId, count, SeatMap.masksByRow(seatNumbers, SeatMap.DEFAULT_SEATS_PER_ROW));
+        if (updated != null) {
+            seatsCounter.increment(count);
+            eventPublisher.publishEvent(new FlightChangedEvent(updated, count));
+        }
+    }
+
+    /** Puts holds that were HELD when the service stopped back on the wheel. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rescheduleHeldHolds() {
+        CompletableFuture.runAsync(() -> {
+            List<SeatHold> held = holdRepository.findByStatus(HoldStatus.HELD);
+            LocalDateTime now = LocalDateTime.now();
+            for (SeatHold h : held) {
+                Duration left = Duration.between(now, h.getExpiresAt());
+                wheel.schedule(h.getHoldId(), left.isNegative() ? Duration.ZERO : left);
+            }
+            log.info("Rescheduled {} seat holds for expiry", held.size());
+        }).exceptionally(ex -> {
+            log.warn("Could not reschedule seat holds: {}", ex.toString());
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        wheel.close();
+    }
+}
@@ -0,0 +1,42 @@
+package com.flightservice.inventory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.flightservice.model.Flight;
+
+/**
+ * Where seat counts and seat maps are changed. Seat masks are keyed by
+ * zero-based row index, see {@link SeatMap}.
+ */
+public interface SeatInventory {
+
+    /**
+     * Takes count seats and marks the given seats taken, all or nothing.
+     *
+     * @return the flight after the change, or null if the flight is missing,
+     *         has too few seats or one of the seats is taken
+     */
+    Flight reserve(String flightId, int count, Map<Integer, Long> seatMasks);
+
+    /**
+     * Gives back count seats and marks the given seats free, all or nothing.
+     *
+     * @return the flight after the change, or null if the flight is missing,
+     *         one of the seats is not taken or the count would exceed the
+     *         flight's seats
+     */
+    Flight release(String flightId, int count, Map<Integer, Long> seatMasks);
+
+    /** Current inventory of the flight, used to explain a failed reserve. */
+    Optional<Flight> current(String flightId);
+
+    /**
+     * Sets availableSeats of each flight read from Mongo to what this
+     * inventory holds now, for read models that must not lag behind it.
+     *
+     * @return the same flights
+     */
+    List<Flight> withCurrentSeats(List<Flight> flights);
+}
@@ -0,0 +1,128 @@
+package com.flightservice.inventory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.model.Flight;
+
+/**
+ * Seat numbers ("12A") mapped onto the per-flight bitmap kept in {@link Flight#getSeatRows()}:
+ * one long per row, bit n set when the seat with letter 'A' + n is taken.
+ * Seats past totalSeats in the last row start out set, so the update filter in
+ * the repository rejects them without reading the flight first.
+ */
+public final class SeatMap {
+
+    public static final int DEFAULT_SEATS_PER_ROW = 6;
+
+    private SeatMap() {
+    }
+
+    public static int rowsFor(int totalSeats, int seatsPerRow) {
+        return (totalSeats + seatsPerRow - 1) / seatsPerRow;
+    }
+
+    public static List<Long> emptyRows(int totalSeats, int seatsPerRow) {
+        int rows = rowsFor(totalSeats, seatsPerRow);
+        List<Long> seatRows = new ArrayList<>(Collections.nCopies(rows, 0L));
+        int usedInLastRow = totalSeats - (rows - 1) * seatsPerRow;
+        if (rows > 0 && usedInLastRow < seatsPerRow) {
+            seatRows.set(rows - 1, -1L << usedInLastRow & fullRow(seatsPerRow));
+        }
+        return seatRows;
+    }
+
+    private static long fullRow(int seatsPerRow) {
+        return seatsPerRow == 64 ? -1L : (1L << seatsPerRow) - 1;
+    }
+
+    public static String normalize(String seatNo) {
+        return seatNo.trim().toUpperCase();
+    }
+
+    /**
+     * Groups the requested seats into one bit mask per zero-based row index.
+     * Rejects malformed and duplicate seat numbers; rows and seats beyond the
+     * flight's capacity are left for the update filter to reject.
+     */
+    public static Map<Integer, Long> masksByRow(Collection<String> seatNumbers, int seatsPerRow) {
+        Map<Integer, Long> masks = new TreeMap<>();
+        if (seatNumbers == null) {
+            return masks;
+        }
+        for (String raw : seatNumbers) {
+            String seatNo = normalize(raw);
+            int letterAt = seatNo.length() - 1;
+            int row;
+            try {
+                row = Integer.parseInt(seatNo.substring(0, letterAt)) - 1;
+            } catch (NumberFormatException | StringIndexOutOfBoundsException ex) {
+                throw new BusinessException("Invalid seat number: " + raw);
+            }
+            int col = seatNo.charAt(letterAt) - 'A';
+            if (row < 0 || col < 0 || col >= seatsPerRow) {
+                throw new BusinessException("Invalid seat number: " + raw);
+            }
+            long bit = 1L << col;
+            long mask = masks.getOrDefault(row, 0L);
+            if ((mask & bit) != 0) {
+                throw new BusinessException("Duplicate seat number: " + raw);
+            }
+            masks.put(row, mask | bit);
+        }
+        return masks;
+    }
+
+    /** Requested seats that do not exist on a flight with this many seats. */
+    public static List<String> outOfRange(Map<Integer, Long> masks, int totalSeats, int seatsPerRow) {
+        List<String> invalid = new ArrayList<>();
+        masks.forEach((row, mask) -> {
+            for (int col = 0; col < seatsPerRow; col++) {
+                if ((mask & 1L << col) != 0 && row * seatsPerRow + col >= totalSeats) {
+                    invalid.add(seatLabel(row, col));
+                }
+            }
+        });
+        return invalid;
+    }
+
+    /** Seats from the requested masks that are already set in the flight's bitmap. */
+    public static List<String> taken(List<Long> seatRows, Map<Integer, Long> masks) {
+        List<String> taken = new ArrayList<>();
+        if (seatRows == null) {
+            return taken;
+        }
+        masks.forEach((row, mask) -> {
+            long clash = row < seatRows.size() ? seatRows.get(row) & mask : 0L;
+            for (int col = 0; clash != 0; col++, clash >>>= 1) {
+                if ((clash & 1L) != 0) {
+                    taken.add(seatLabel(row, col));
+                }
+            }
+        });
+        return taken;
+    }
+
+    /** Seats of the masks that are not taken in the seat rows. */
+    public static List<String> free(List<Long> seatRows, Map<Integer, Long> masks) {
+        List<String> free = new ArrayList<>();
+        masks.forEach((row, mask) -> {
+            long open = seatRows != null && row < seatRows.size() ? mask & ~seatRows.get(row) : mask;
+            for (int col = 0; open != 0; col++, open >>>= 1) {
+                if ((open & 1L) != 0) {
+                    free.add(seatLabel(row, col));
+                }
+            }
+        });
+        return free;
+    }
+
+    public static String seatLabel(int row, int col) {
+        return (row + 1) + String.valueOf((char) ('A' + col));
+    }
+}
@@ -0,0 +1,162 @@
+package com.flightservice.itinerary;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The departures of one airport, sorted by departure time, in parallel
+ * primitive arrays. An update that adds, moves or reprices legs builds a new
+ * table and the graph swaps it in, so searches read a consistent table
+ * without locks. Seat counts are the exception: a seat change moves no leg,
+ * so the graph writes it into the live table, one int per leg.
+ */
+final class Departures {
+
+    static final Departures EMPTY = new Departures(0);
+
+    final int size;
+    final long[] depart;     // epoch minutes, ascending
+    final long[] arrive;     // epoch minutes
+    final int[] to;          // airport id
+    final double[] price;
+    final int[] seats;
+    final String[] flightId;
+
+    private Departures(int size) {
+        this.size = size;
+        this.depart = new long[size];
+        this.arrive = new long[size];
+        this.to = new int[size];
+        this.price = new double[size];
+        this.seats = new int[size];
+        this.flightId = new String[size];
+    }
+
+    static Departures of(List<Leg> legs) {
+        Leg[] sorted = legs.toArray(new Leg[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(Leg::depart));
+        Departures d = new Departures(sorted.length);
+        for (int i = 0; i < sorted.length; i++) {
+            d.set(i, sorted[i]);
+        }
+        return d;
+    }
+
+    /** Index of the first departure at or after the given minute. */
+    int firstAtOrAfter(long minute) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (depart[mid] < minute) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /** Index of the flight among the departures at the given minute, or -1. */
+    int indexOf(String id, long minute) {
+        for (int i = firstAtOrAfter(minute); i < size && depart[i] == minute; i++) {
+            if (flightId[i].equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A copy without the given flight and without departures before
+     * pruneBefore, with leg (if not null) inserted in departure order.
+     */
+    Departures replace(String id, Leg leg, long pruneBefore) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (keep(i, id, pruneBefore)) {
+                kept++;
+            }
+        }
+        Departures d = new Departures(kept + (leg == null ? 0 : 1));
+        int n = 0;
+        boolean inserted = leg == null;
+        for (int i = 0; i < size; i++) {
+            if (!keep(i, id, pruneBefore)) {
+                continue;
+            }
+            if (!inserted && leg.depart() < depart[i]) {
+                d.set(n++, leg);
+                inserted = true;
+            }
+            d.copy(n++, this, i);
+        }
+        if (!inserted) {
+            d.set(n, leg);
+        }
+        return d;
+    }
+
+    /**
+     * A copy without departures before pruneBefore, with legs (of flights it
+     * does not have yet) merged in departure order.
+     */
+    Departures with(List<Leg> legs, long pruneBefore) {
+        Leg[] sorted = legs.toArray(new Leg[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(Leg::depart));
+        int first = firstAtOrAfter(pruneBefore);
+        Departures d = new Departures(size - first + sorted.length);
+        int n = 0;
+        int j = 0;
+        for (int i = first; i < size; i++) {
+            while (j < sorted.length && sorted[j].depart() < depart[i]) {
+                d.set(n++, sorted[j++]);
+            }
+            d.copy(n++, this, i);
+        }
+        while (j < sorted.length) {
+            d.set(n++, sorted[j++]);
+        }
+        return d;
+    }
+
+    /** A copy with the prices of the given flights replaced; their order does not change. */
+    Departures withPrices(Map<String, Double> prices) {
+        Departures d = new Departures(size);
+        for (int i = 0; i < size; i++) {
+            d.copy(i, this, i);
+            Double p = prices.get(flightId[i]);
+            if (p != null) {
+                d.price[i] = p;
+            }
+        }
+        return d;
+    }
+
+    private boolean keep(int i, String id, long pruneBefore) {
+        return depart[i] >= pruneBefore && !flightId[i].equals(id);
+    }
+
+    private void set(int i, Leg leg) {
+        depart[i] = leg.depart();
+        arrive[i] = leg.arrive();
+        to[i] = leg.to();
+        price[i] = leg.price();
+        seats[i] = leg.seats();
+        flightId[i] = leg.flightId();
+    }
+
+    private void copy(int i, Departures from, int j) {
+        depart[i] = from.depart[j];
+        arrive[i] = from.arrive[j];
+        to[i] = from.to[j];
+        price[i] = from.price[j];
+        seats[i] = from.seats[j];
+        flightId[i] = from.flightId[j];
+    }
+
+    record Leg(String flightId, long depart, long arrive, int to, double price, int seats) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.flightservice.itinerary;
+
+import java.util.List;
+
+/** Flight ids of the legs in order, with the total price and the minutes from first departure to last arrival. */
+public record Itinerary(List<String> flightIds, double totalPrice, long durationMinutes) {
+
+    public int stops() {
+        return flightIds.size() - 1;
+    }
+}
@@ -0,0 +1,21 @@
+package com.flightservice.itinerary;
+
+import com.flightservice.enums.ItinerarySort;
+
+/**
+ * Itineraries from source to destination whose first leg departs in
+ * [departFrom, departTo), times in epoch minutes, with every leg having at
+ * least passengers seats left and every layover within [minLayover, maxLayover].
+ */
+public record ItineraryQuery(
+        String source,
+        String destination,
+        long departFrom,
+        long departTo,
+        int passengers,
+        int maxStops,
+        long minLayover,
+        long maxLayover,
+        ItinerarySort sort,
+        int limit) {
+}
@@ -0,0 +1,442 @@
+package com.flightservice.itinerary;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.enums.ItinerarySort;
+import com.flightservice.enums.SearchSort;
+import com.flightservice.events.FaresChangedEvent;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.events.FlightsAddedEvent;
+import com.flightservice.itinerary.Departures.Leg;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.repository.FlightSearchCriteria;
+
+/**
+ * Time-indexed graph of upcoming flights for connecting itineraries. Airports
+ * are int ids, and each airport holds its departures sorted by time in
+ * primitive arrays ({@link Departures}), so the connections out of a layover
+ * airport are found with a binary search on the arrival time plus the layover
+ * window.
+ *
+ * The graph is read from Mongo once when the application is ready and then
+ * kept current by FlightChangedEvents; searches never touch Mongo. Readers
+ * take no locks. Most FlightChangedEvents are reserves and releases, which
+ * only change a leg's seats: the leg is found by a binary search on its
+ * departure and its count written into the live table, so the write path
+ * pays O(log n) under the lock. A flight that is added, moves or changes
+ * price is applied by copying the table of its airport and swapping it in.
+ * A FlightsAddedEvent from a bulk import is merged with one copy
+ * per airport it adds to, however many of its flights leave from there.
+ * Legs are priced at the fare stored on the flight, which changes only
+ * through a FaresChangedEvent: the flight in a seat change may carry an older
+ * fare. A batch of new fares is one copy per airport too.
+ * Writers run on request threads (virtual ones, when enabled), so the write
+ * lock is a ReentrantLock: waiting for it parks a virtual thread instead of
+ * pinning its carrier. Departed flights are dropped whenever their airport's
+ * table is rebuilt.
+ */
+@Component
+public class RouteGraph {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteGraph.class);
+
+    // departures kept this long after they leave, for in-flight searches
+    private static final long PRUNE_AFTER_MINUTES = 60;
+
+    private final FlightRepository flightRepository;
+    private final int loadBatchSize;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Map<String, Integer> airportIds = new ConcurrentHashMap<>();
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private volatile Departures[] departures = new Departures[0];
+
+    // guarded by writeLock: changes seen while a load runs, applied again after it
+    private List<Runnable> changedDuringLoad;
+    private volatile boolean loaded;
+
+    public RouteGraph(FlightRepository flightRepository,
+                      @Value("${flight.itinerary.load-batch-size:2000}") int loadBatchSize) {
+        this.flightRepository = flightRepository;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAsync() {
+        CompletableFuture.runAsync(this::load).exceptionally(ex -> {
+            log.warn("Route graph not loaded, itinerary search is unavailable: {}", ex.toString());
+            return null;
+        });
+    }
+
+    /** Builds the graph from every flight that has not departed yet. */
+    public void load() {
+        long started = System.nanoTime();
+        writeLock.lock();
+        try {
+            changedDuringLoad = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            build();
+        } finally {
+            writeLock.lock();
+            try {
+                changedDuringLoad = null;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        log.info("Route graph loaded: {} flights, {} airports in {} ms",
+                flights.size(), airportIds.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void build() {
+        FlightSearchCriteria upcoming = new FlightSearchCriteria(null, null, LocalDateTime.now(), null, 0,
+                SearchSort.DEPARTURE, null, 0);
+        Map<String, Integer> ids = new HashMap<>();
+        Map<Integer, List<Leg>> legsByAirport = new HashMap<>();
+        Map<String, Flight> loadedFlights = new HashMap<>();
+        try (Stream<Flight> stream = flightRepository.streamSearch(upcoming, loadBatchSize)) {
+            stream.forEach(f -> {
+                Leg leg = legOf(f, code -> ids.computeIfAbsent(code, c -> ids.size()));
+                if (leg != null) {
+                    int from = ids.get(f.getSource());
+                    legsByAirport.computeIfAbsent(from, k -> new ArrayList<>()).add(leg);
+                    loadedFlights.put(f.getFlightId(), slim(f));
+                }
+            });
+        }
+
+        Departures[] built = new Departures[ids.size()];
+        Arrays.fill(built, Departures.EMPTY);
+        legsByAirport.forEach((airport, legs) -> built[airport] = Departures.of(legs));
+
+        writeLock.lock();
+        try {
+            departures = built;
+            airportIds.clear();
+            airportIds.putAll(ids);
+            flights.clear();
+            flights.putAll(loadedFlights);
+            changedDuringLoad.forEach(Runnable::run);
+            loaded = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onFlightChanged(FlightChangedEvent event) {
+        Flight flight = event.flight();
+        if (flight.getFlightId() == null) {
+            return;
+        }
+        change(() -> apply(flight));
+    }
+
+    @EventListener
+    public void onFlightsAdded(FlightsAddedEvent event) {
+        change(() -> applyAdded(event.flights()));
+    }
+
+    @EventListener
+    public void onFaresChanged(FaresChangedEvent event) {
+        change(() -> applyFares(event.flights()));
+    }
+
+    private void change(Runnable change) {
+        writeLock.lock();
+        try {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(change);
+            }
+            change.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** The flight as the graph knows it, with the fields an itinerary leg shows. */
+    public Optional<Flight> flight(String flightId) {
+        return Optional.ofNullable(flights.get(flightId));
+    }
+
+    public List<Itinerary> search(ItineraryQuery q) {
+        Integer origin = airportIds.get(Flight.normalizeCode(q.source()));
+        Integer target = airportIds.get(Flight.normalizeCode(q.destination()));
+        Departures[] graph = departures;
+        if (origin == null || target == null || origin >= graph.length || q.limit() <= 0) {
+            return List.of();
+        }
+        Comparator<Candidate> order = q.sort() == ItinerarySort.DURATION
+                ? Comparator.comparingLong(Candidate::duration).thenComparingDouble(Candidate::price)
+                : Comparator.comparingDouble(Candidate::price).thenComparingLong(Candidate::duration);
+        Top top = new Top(q.limit(), order);
+
+        Departures d0 = graph[origin];
+        for (int i = d0.firstAtOrAfter(q.departFrom()); i < d0.size && d0.depart[i] < q.departTo(); i++) {
+            if (d0.seats[i] < q.passengers()) {
+                continue;
+            }
+            long start = d0.depart[i];
+            int a = d0.to[i];
+            if (a == target) {
+                top.offer(new Candidate(new String[] {d0.flightId[i]}, d0.price[i], d0.arrive[i] - start));
+                continue;
+            }
+            if (q.maxStops() < 1 || a == origin) {
+                continue;
+            }
+            Departures d1 = graph[a];
+            long latest1 = d0.arrive[i] + q.maxLayover();
+            for (int j = d1.firstAtOrAfter(d0.arrive[i] + q.minLayover()); j < d1.size && d1.depart[j] <= latest1; j++) {
+                int b = d1.to[j];
+                if (d1.seats[j] < q.passengers() || b == origin) {
+                    continue;
+                }
+                double price1 = d0.price[i] + d1.price[j];
+                if (b == target) {
+                    top.offer(new Candidate(new String[] {d0.flightId[i], d1.flightId[j]}, price1, d1.arrive[j] - start));
+                    continue;
+                }
+                if (q.maxStops() < 2 || top.cannotImprove(price1, d1.arrive[j] - start)) {
+                    continue;
+                }
+                Departures d2 = graph[b];
+                long latest2 = d1.arrive[j] + q.maxLayover();
+                for (int k = d2.firstAtOrAfter(d1.arrive[j] + q.minLayover()); k < d2.size && d2.depart[k] <= latest2; k++) {
+                    if (d2.to[k] == target && d2.seats[k] >= q.passengers()) {
+                        top.offer(new Candidate(new String[] {d0.flightId[i], d1.flightId[j], d2.flightId[k]},
+                                price1 + d2.price[k], d2.arrive[k] - start));
+                    }
+                }
+            }
+        }
+        return top.sorted();
+    }
+
+    public static long minuteOf(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    // caller holds writeLock
+    private void apply(Flight flight) {
+        Flight previous = flights.get(flight.getFlightId());
+        // only seats and price change on a flight after it is added; fares come in FaresChangedEvents
+        Flight merged = previous == null ? flight : previous.toBuilder()
+                .availableSeats(flight.getAvailableSeats())
+                .price(flight.getPrice() != null ? flight.getPrice() : previous.getPrice())
+                .build();
+        long pruneBefore = minuteOf(LocalDateTime.now()) - PRUNE_AFTER_MINUTES;
+        Leg leg = legOf(merged, this::airportId);
+        if (leg != null && leg.depart() < pruneBefore) {
+            leg = null;
+        }
+        if (leg == null && previous == null) {
+            return;
+        }
+        if (previous != null && leg != null && updateSeats(previous, leg)) {
+            flights.put(merged.getFlightId(), slim(merged));
+            return;
+        }
+
+        Departures[] next = departures.clone();
+        int from = airportIds.get(merged.getSource());
+        Departures old = next[from];
+        for (int i = 0, n = old.firstAtOrAfter(pruneBefore); i < n; i++) {
+            flights.remove(old.flightId[i]);
+        }
+        next[from] = old.replace(merged.getFlightId(), leg, pruneBefore);
+        if (leg == null) {
+            flights.remove(merged.getFlightId());
+        } else {
+            flights.put(merged.getFlightId(), slim(merged));
+        }
+        departures = next;
+    }
+
+    // caller holds writeLock; merged keeps the airports and times of the flight, so only seats or price can differ
+    private boolean updateSeats(Flight previous, Leg leg) {
+        Departures d = departures[airportIds.get(previous.getSource())];
+        int i = d.indexOf(leg.flightId(), leg.depart());
+        if (i < 0 || d.price[i] != leg.price()) {
+            return false;
+        }
+        d.seats[i] = leg.seats();
+        // a volatile write, so searches that start after it read the new count
+        departures = departures;
+        return true;
+    }
+
+    // caller holds writeLock; one copy of the table of each airport the flights leave from
+    private void applyAdded(List<Flight> added) {
+        long pruneBefore = minuteOf(LocalDateTime.now()) - PRUNE_AFTER_MINUTES;
+        Map<Integer, List<Leg>> legsByAirport = new HashMap<>();
+        for (Flight f : added) {
+            if (f.getFlightId() == null) {
+                continue;
+            }
+            if (flights.containsKey(f.getFlightId())) {
+                // a load running alongside the import has read it already
+                apply(f);
+                continue;
+            }
+            Leg leg = legOf(f, this::airportId);
+            if (leg != null && leg.depart() >= pruneBefore) {
+                legsByAirport.computeIfAbsent(airportIds.get(f.getSource()), k -> new ArrayList<>()).add(leg);
+                flights.put(f.getFlightId(), slim(f));
+            }
+        }
+        if (legsByAirport.isEmpty()) {
+            return;
+        }
+        Departures[] next = departures.clone();
+        legsByAirport.forEach((from, legs) -> {
+            Departures old = next[from];
+            for (int i = 0, n = old.firstAtOrAfter(pruneBefore); i < n; i++) {
+                flights.remove(old.flightId[i]);
+            }
+            next[from] = old.with(legs, pruneBefore);
+        });
+        departures = next;
+    }
+
+    // caller holds writeLock; one copy of the table of each airport whose legs are repriced
+    private void applyFares(List<Flight> repriced) {
+        Map<Integer, Map<String, Double>> faresByAirport = new HashMap<>();
+        for (Flight f : repriced) {
+            Flight previous = f.getFlightId() == null ? null : flights.get(f.getFlightId());
+            if (previous == null || f.getFare() == null) {
+                continue;
+            }
+            faresByAirport.computeIfAbsent(airportIds.get(previous.getSource()), k -> new HashMap<>())
+                    .put(f.getFlightId(), f.getFare());
+            flights.put(f.getFlightId(), previous.toBuilder().fare(f.getFare()).build());
+        }
+        if (faresByAirport.isEmpty()) {
+            return;
+        }
+        Departures[] next = departures.clone();
+        faresByAirport.forEach((from, fares) -> next[from] = next[from].withPrices(fares));
+        departures = next;
+    }
+
+    // caller holds writeLock
+    private int airportId(String code) {
+        Integer id = airportIds.get(code);
+        if (id != null) {
+            return id;
+        }
+        int newId = airportIds.size();
+        Departures[] grown = Arrays.copyOf(departures, newId + 1);
+        grown[newId] = Departures.EMPTY;
+        departures = grown;
+        airportIds.put(code, newId);
+        return newId;
+    }
+
+    /** The flight as a graph edge, or null if it cannot be one (incomplete or unpriced). */
+    private static Leg legOf(Flight f, ToIntFunction<String> airportId) {
+        Double fare = fareOf(f);
+        if (f.getSource() == null || f.getDestination() == null || f.getDepartureDateTime() == null
+                || f.getArrivalDateTime() == null || fare == null) {
+            return null;
+        }
+        int from = airportId.applyAsInt(f.getSource());
+        int to = airportId.applyAsInt(f.getDestination());
+        if (from == to) {
+            return null;
+        }
+        return new Leg(f.getFlightId(), minuteOf(f.getDepartureDateTime()), minuteOf(f.getArrivalDateTime()),
+                to, fare, f.getAvailableSeats());
+    }
+
+    // a flight stored before fares were is ranked on its base fare until it is repriced
+    private static Double fareOf(Flight f) {
+        return f.getFare() != null ? f.getFare() : f.getPrice();
+    }
+
+    private static Flight slim(Flight f) {
+        return Flight.builder()
+                .flightId(f.getFlightId())
+                .airlineId(f.getAirlineId())
+                .flightNo(f.getFlightNo())
+                .source(f.getSource())
+                .destination(f.getDestination())
+                .departureDateTime(f.getDepartureDateTime())
+                .arrivalDateTime(f.getArrivalDateTime())
+                .totalSeats(f.getTotalSeats())
+                .availableSeats(f.getAvailableSeats())
+                .price(f.getPrice())
+                .fare(f.getFare())
+                .build();
+    }
+
+    private record Candidate(String[] flightIds, double price, long duration) {
+    }
+
+    /** The best limit candidates, worst on top so it can be dropped in O(log limit). */
+    private static final class Top {
+        private final int limit;
+        private final Comparator<Candidate> order;
+        private final PriorityQueue<Candidate> heap;
+
+        Top(int limit, Comparator<Candidate> order) {
+            this.limit = limit;
+            this.order = order;
+            this.heap = new PriorityQueue<>(limit + 1, order.reversed());
+        }
+
+        void offer(Candidate c) {
+            if (heap.size() < limit) {
+                heap.add(c);
+            } else if (order.compare(c, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(c);
+            }
+        }
+
+        // price and duration only grow as legs are added
+        boolean cannotImprove(double price, long duration) {
+            return heap.size() == limit && order.compare(new Candidate(null, price, duration), heap.peek()) >= 0;
+        }
+
+        List<Itinerary> sorted() {
+            List<Candidate> all = new ArrayList<>(heap);
+            all.sort(order);
+            List<Itinerary> result = new ArrayList<>(all.size());
+            for (Candidate c : all) {
+                result.add(new Itinerary(List.of(c.flightIds()), c.price(), c.duration()));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.flightservice.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.departures.DeparturesIndex;
+import com.flightservice.model.Flight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Meters of search and seat reservation, to tell during a sale whether a slow
+ * Mongo, contention on hot flights or rejected requests hold things up.
+ *
+ * searchFlights, reserveSeats, releaseSeats and getFlightById are timed as
+ * flight.operations by operation and outcome (see {@link OperationTimer}),
+ * with percentile histograms; a search is timed around the route search
+ * cache, so cache hits count with the searches that reach Mongo. Seats taken
+ * from inventory are counted by flight.seats.reserved, seats given back by
+ * flight.seats.released, tagged by why they came back: released (a
+ * cancellation), hold-released, hold-expired or hold-failed (a hold that
+ * could not be stored).
+ * flight.near.sellout gauges the upcoming flights with at least the
+ * near-sell-out share of their seats sold, counted over the departures index
+ * when scraped.
+ */
+@Component
+public class FlightMetrics {
+
+    public static final String SEATS_RESERVED = "flight.seats.reserved";
+    public static final String SEATS_RELEASED = "flight.seats.released";
+
+    private final OperationTimer search;
+    private final OperationTimer reserve;
+    private final OperationTimer release;
+    private final OperationTimer lookup;
+    private final Counter seatsReserved;
+    private final Counter seatsReleased;
+
+    @Autowired
+    public FlightMetrics(MeterRegistry meterRegistry, DeparturesIndex departuresIndex,
+                         @Value("${flight.metrics.near-sell-out:0.9}") double nearSellOut) {
+        this(meterRegistry);
+        Gauge.builder("flight.near.sellout", departuresIndex,
+                        index -> index.countUpcoming(f -> isNearSellOut(f, nearSellOut)))
+                .description("Upcoming flights with at least the near-sell-out share of their seats sold")
+                .register(meterRegistry);
+    }
+
+    /** The meters without the near sell-out gauge. */
+    public FlightMetrics(MeterRegistry meterRegistry) {
+        this.search = new OperationTimer(meterRegistry, "searchFlights");
+        this.reserve = new OperationTimer(meterRegistry, "reserveSeats");
+        this.release = new OperationTimer(meterRegistry, "releaseSeats");
+        this.lookup = new OperationTimer(meterRegistry, "getFlightById");
+        this.seatsReserved = Counter.builder(SEATS_RESERVED).description("Seats taken from inventory")
+                .register(meterRegistry);
+        this.seatsReleased = seatsReleased(meterRegistry, "released");
+    }
+
+    /** The counter of seats given back to inventory for the reason. */
+    public static Counter seatsReleased(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder(SEATS_RELEASED).description("Seats given back to inventory")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static boolean isNearSellOut(Flight flight, double share) {
+        int total = flight.getTotalSeats();
+        return total > 0 && total - flight.getAvailableSeats() >= share * total;
+    }
+
+    public OperationTimer search() {
+        return search;
+    }
+
+    public OperationTimer reserve() {
+        return reserve;
+    }
+
+    public OperationTimer release() {
+        return release;
+    }
+
+    public OperationTimer lookup() {
+        return lookup;
+    }
+
+    public void seatsReserved(int count) {
+        seatsReserved.increment(count);
+    }
+
+    public void seatsReleased(int count) {
+        seatsReleased.increment(count);
+    }
+}
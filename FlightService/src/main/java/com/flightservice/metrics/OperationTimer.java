@@ -0,0 +1,101 @@
+package com.flightservice.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.exceptions.NotEnoughSeatsException;
+import com.flightservice.exceptions.NotFoundException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times one operation, as flight.operations tagged with the operation and
+ * its outcome. The timers of all outcomes are registered up front, so the hot
+ * path does no registry lookup and every outcome shows up in a scrape, at
+ * zero until it happens.
+ */
+public final class OperationTimer {
+
+    public static final String METRIC = "flight.operations";
+
+    public enum Outcome {
+        SUCCESS("success"),
+        NOT_ENOUGH_SEATS("not-enough-seats"),
+        NOT_FOUND("not-found"),
+        // any other business rule: invalid counts or seat numbers, seats already taken, bad cursors
+        REJECTED("rejected"),
+        ERROR("error");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+
+        public static Outcome of(Throwable ex) {
+            if (ex instanceof NotEnoughSeatsException) {
+                return NOT_ENOUGH_SEATS;
+            }
+            if (ex instanceof NotFoundException) {
+                return NOT_FOUND;
+            }
+            return ex instanceof BusinessException ? REJECTED : ERROR;
+        }
+    }
+
+    private final Timer[] byOutcome = new Timer[Outcome.values().length];
+
+    OperationTimer(MeterRegistry meterRegistry, String operation) {
+        for (Outcome outcome : Outcome.values()) {
+            byOutcome[outcome.ordinal()] = Timer.builder(METRIC)
+                    .description("FlightService operations by outcome")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome.tag())
+                    // buckets for percentiles aggregated across instances, from 1ms to 10s
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(meterRegistry);
+        }
+    }
+
+    public <T> T record(Supplier<T> call) {
+        long started = System.nanoTime();
+        try {
+            T result = call.get();
+            stop(started, Outcome.SUCCESS);
+            return result;
+        } catch (RuntimeException ex) {
+            stop(started, Outcome.of(ex));
+            throw ex;
+        }
+    }
+
+    public void record(Runnable call) {
+        record(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /** Times each subscription from subscribe to its result; cancelled ones are not recorded. */
+    public <T> Mono<T> record(Mono<T> call) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return call.doOnSuccess(result -> stop(started, Outcome.SUCCESS))
+                    .doOnError(ex -> stop(started, Outcome.of(ex)));
+        });
+    }
+
+    private void stop(long started, Outcome outcome) {
+        byOutcome[outcome.ordinal()].record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+}
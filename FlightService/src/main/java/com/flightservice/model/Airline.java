@@ -1,6 +1,9 @@
 package com.flightservice.model;
 
+import java.util.Locale;
+
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 
@@ -16,4 +19,12 @@ public class Airline {
 	
 	
 	String airlineName;
+	
+	// trimmed, lower case airlineName; unique, so an airline is only created once
+	@Indexed(unique = true)
+	String airlineNameKey;
+	
+	public static String nameKeyOf(String airlineName) {
+		return airlineName == null ? null : airlineName.trim().toLowerCase(Locale.ROOT);
+	}
 }
@@ -0,0 +1,40 @@
+package com.flightservice.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cheapest fare and number of bookable flights on one route for one departure
+ * date. The id is routeKey:date; a day with no flight that has seats left has
+ * no document.
+ */
+@Document("fareCalendar")
+@CompoundIndex(name = "route_date", def = "{'routeKey': 1, 'departureDate': 1}")
+@Data
+@NoArgsConstructor
+public class FareCalendarDay {
+
+	@Id
+	String id;
+
+	String routeKey;
+
+	LocalDate departureDate;
+
+	Double minPrice;
+
+	int flightCount;
+
+	LocalDateTime refreshedAt;
+
+	public static String idOf(String routeKey, LocalDate departureDate) {
+		return routeKey + ":" + departureDate;
+	}
+}
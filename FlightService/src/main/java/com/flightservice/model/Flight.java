@@ -1,20 +1,35 @@
 package com.flightservice.model;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.flightservice.enums.TripType;
 
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Document
+@CompoundIndex(name = "departure", def = "{'departureDateTime': 1}")
+// searches sort on (departureDateTime or fare, _id) after an equality on the route or airline; with _id
+// last in the index Mongo reads a page in order and stops at the limit, instead of sorting every match
+@CompoundIndex(name = "route_departure_id", def = "{'routeKey': 1, 'departureDateTime': 1, '_id': 1}")
+@CompoundIndex(name = "route_fare_id", def = "{'routeKey': 1, 'fare': 1, '_id': 1}")
+@CompoundIndex(name = "airline_departure_id", def = "{'airlineId': 1, 'departureDateTime': 1, '_id': 1}")
+@CompoundIndex(name = "airline_fare_id", def = "{'airlineId': 1, 'fare': 1, '_id': 1}")
+@CompoundIndex(name = "fare_due", def = "{'fareDueAt': 1}", sparse = true)
+@CompoundIndex(name = "airline_route_departure_unique", unique = true,
+		def = "{'airlineId': 1, 'source': 1, 'destination': 1, 'departureDateTime': 1}")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Builder(toBuilder = true)
 public class Flight {
 
 
@@ -29,10 +44,14 @@ public class Flight {
 	
 	String flightNo;
 	
+	// airport codes are stored trimmed and upper case, see normalizeCode
 	String source;
 	
 	String destination;
 	
+	// SOURCE-DESTINATION, the equality key route searches run on
+	String routeKey;
+	
 	LocalDateTime departureDateTime;
 	
 	 LocalDateTime arrivalDateTime;
@@ -43,6 +62,31 @@ public class Flight {
 	 
 	 Double price;
 	 
+	 // current fare as the pricing engine has it, kept by FareRepricer; price is the base fare
+	 Double fare;
+	 
+	 // when fare next changes with no seat sold (a departure bucket starts), null if it no longer does
+	 LocalDateTime fareDueAt;
+	 
 	 TripType tripType;
+	 
+	 // seat map: one bit mask per row, bit n = seat letter 'A' + n taken
+	 int seatsPerRow;
+	 
+	 List<Long> seatRows;
+	 
+	 // seats sold before the flight had a seat map: taken in availableSeats, free in seatRows
+	 int unmappedSeats;
+	 
+	 // last inventory engine change log entry written to this document
+	 long inventoryLogSeq;
+	 
+	 public static String normalizeCode(String airportCode) {
+		 return airportCode == null ? null : airportCode.trim().toUpperCase(Locale.ROOT);
+	 }
+	 
+	 public static String routeKeyOf(String source, String destination) {
+		 return normalizeCode(source) + "-" + normalizeCode(destination);
+	 }
 	
 }
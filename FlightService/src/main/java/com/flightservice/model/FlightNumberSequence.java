@@ -0,0 +1,22 @@
+package com.flightservice.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Flight number sequence of one airline; the id is the airlineId. Numbers up
+ * to and including last have been handed to some FlightService instance.
+ */
+@Document("flightNumberSequences")
+@Data
+@NoArgsConstructor
+public class FlightNumberSequence {
+
+	@Id
+	String airlineId;
+
+	long last;
+}
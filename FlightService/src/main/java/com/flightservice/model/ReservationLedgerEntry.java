@@ -0,0 +1,47 @@
+package com.flightservice.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.enums.LedgerOperation;
+import com.flightservice.enums.LedgerStatus;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One reserve or release applied to a flight under a booking reference. The id
+ * is flightId:operation:bookingReference, so the unique _id index is what stops
+ * a retried call from being applied twice.
+ */
+@Document("reservationLedger")
+@Data
+@NoArgsConstructor
+public class ReservationLedgerEntry {
+
+	@Id
+	String id;
+
+	String flightId;
+
+	@Indexed
+	String bookingReference;
+
+	LedgerOperation operation;
+
+	LedgerStatus status;
+
+	// what the first call answered, returned again to every replay
+	ReserveSeatsResponse response;
+
+	@Indexed(expireAfter = "30d")
+	LocalDateTime createdAt;
+
+	public static String idOf(String flightId, LedgerOperation operation, String bookingReference) {
+		return flightId + ":" + operation + ":" + bookingReference;
+	}
+}
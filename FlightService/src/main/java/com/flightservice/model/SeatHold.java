@@ -0,0 +1,46 @@
+package com.flightservice.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.flightservice.enums.HoldStatus;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Seats taken out of inventory by a reserve call. They stay taken only if the
+ * hold is confirmed before expiresAt, otherwise the expiry sweeper gives them back.
+ */
+@Document
+@Data
+@NoArgsConstructor
+@CompoundIndex(name = "status_expiresAt", def = "{'status': 1, 'expiresAt': 1}")
+public class SeatHold {
+
+	@Id
+	String holdId;
+
+	String flightId;
+
+	@Indexed
+	String bookingReference;
+
+	int count;
+
+	List<String> seatNumbers;
+
+	HoldStatus status;
+
+	LocalDateTime createdAt;
+
+	LocalDateTime expiresAt;
+
+	// set by the sweeper run that expired the hold, to read back exactly what it expired
+	String expiryBatch;
+}
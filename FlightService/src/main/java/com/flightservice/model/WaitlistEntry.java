@@ -0,0 +1,54 @@
+package com.flightservice.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.flightservice.enums.WaitlistStatus;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A request for seats on a full flight, waiting in line. The head of a
+ * flight's line is the WAITING entry with the earliest requestedAt, read on
+ * the flight_status_requestedAt index. A promoted entry holds seats under
+ * holdId, to be confirmed before holdExpiresAt like any reserve. An entry
+ * left PROMOTING longer than the claim timeout is claimed again, found by
+ * the sweep on the status_claimedAt index.
+ */
+@Document("waitlist")
+@Data
+@NoArgsConstructor
+@CompoundIndexes({
+	@CompoundIndex(name = "flight_status_requestedAt", def = "{'flightId': 1, 'status': 1, 'requestedAt': 1}"),
+	@CompoundIndex(name = "flight_reference_unique", def = "{'flightId': 1, 'bookingReference': 1}", unique = true),
+	@CompoundIndex(name = "status_claimedAt", def = "{'status': 1, 'claimedAt': 1}")
+})
+public class WaitlistEntry {
+
+	@Id
+	String id;
+
+	String flightId;
+
+	String bookingReference;
+
+	int count;
+
+	WaitlistStatus status;
+
+	LocalDateTime requestedAt;
+
+	// set while one instance tries to reserve the entry's seats; a claim older than the claim timeout is stale
+	LocalDateTime claimedAt;
+
+	LocalDateTime promotedAt;
+
+	String holdId;
+
+	LocalDateTime holdExpiresAt;
+}
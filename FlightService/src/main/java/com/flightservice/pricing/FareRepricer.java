@@ -0,0 +1,148 @@
+package com.flightservice.pricing;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.events.FaresChangedEvent;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.inventory.SeatInventory;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps Flight.fare, the fare price-sorted searches, the fare calendar and
+ * itinerary ranking read, equal to the fare the pricing engine quotes. A
+ * fare moves when seats sold cross a load bucket and when a departure bucket
+ * starts, so both are watched:
+ *
+ * A seat change (a FlightChangedEvent with a seatDelta) marks the flight
+ * dirty, and the first mark schedules one repricing a window later, coalescing
+ * the marks within it as the seat feed does. The seats are read from the seat
+ * inventory when the fare is computed, not taken from the events, and the fare
+ * is only written when it differs from the stored one: a reserve that crosses
+ * no bucket writes nothing.
+ *
+ * Each flight also stores fareDueAt, when its fare next changes with no seat
+ * sold. A sweep every sweep-interval reprices the flights that are due, in
+ * batches, which also prices flights stored before fares were (the index
+ * manager makes them due). Flights are priced when they are added, so adding
+ * one needs nothing here.
+ *
+ * Every batch of changed fares is published as one FaresChangedEvent. A
+ * single worker does all of it, so the fares of a flight are written in order.
+ */
+@Component
+public class FareRepricer {
+
+    private static final Logger log = LoggerFactory.getLogger(FareRepricer.class);
+
+    private final FlightRepository flightRepository;
+    private final SeatInventory seatInventory;
+    private final PricingEngine pricingEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long windowMillis;
+    private final int sweepBatchSize;
+
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "fare-repricer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public FareRepricer(FlightRepository flightRepository, SeatInventory seatInventory, PricingEngine pricingEngine,
+                        ApplicationEventPublisher eventPublisher,
+                        @Value("${flight.pricing.reprice-window:200ms}") Duration window,
+                        @Value("${flight.pricing.sweep-interval:1m}") Duration sweepInterval,
+                        @Value("${flight.pricing.sweep-batch-size:500}") int sweepBatchSize) {
+        this.flightRepository = flightRepository;
+        this.seatInventory = seatInventory;
+        this.pricingEngine = pricingEngine;
+        this.eventPublisher = eventPublisher;
+        this.windowMillis = window.toMillis();
+        this.sweepBatchSize = sweepBatchSize;
+        long millis = sweepInterval.toMillis();
+        worker.scheduleWithFixedDelay(this::sweep, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onFlightChanged(FlightChangedEvent event) {
+        String flightId = event.flight().getFlightId();
+        if (event.seatDelta() != 0 && flightId != null && dirty.add(flightId)) {
+            worker.schedule(() -> {
+                // cleared first: a change from here on schedules the next repricing
+                dirty.remove(flightId);
+                publish(reprice(List.of(flightId)));
+            }, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Reprices the flights whose fare is due, a batch at a time, until none is left. */
+    public void sweep() {
+        try {
+            List<String> due;
+            do {
+                due = flightRepository.findFareDue(LocalDateTime.now(), sweepBatchSize);
+                List<Flight> changed = reprice(due);
+                publish(changed);
+                if (changed.size() < due.size()) {
+                    // a flight that could not be repriced is still due; the next sweep tries again
+                    break;
+                }
+            } while (due.size() == sweepBatchSize);
+        } catch (RuntimeException ex) {
+            // the next sweep tries again
+            log.warn("Due fares not repriced: {}", ex.toString());
+        }
+    }
+
+    /** The flights among the ids whose stored fare or due time changed, with their new fares. */
+    private List<Flight> reprice(List<String> flightIds) {
+        List<Flight> changed = new ArrayList<>();
+        for (String flightId : flightIds) {
+            try {
+                Optional<Flight> current = seatInventory.current(flightId);
+                if (current.isEmpty()) {
+                    continue;
+                }
+                Flight f = current.get().toBuilder().build();
+                pricingEngine.price(f);
+                if (flightRepository.updateFare(flightId, f.getFare(), f.getFareDueAt())) {
+                    changed.add(f);
+                }
+            } catch (RuntimeException ex) {
+                // the next seat change or sweep reprices it
+                log.warn("Fare of flight {} not repriced: {}", flightId, ex.toString());
+            }
+        }
+        return changed;
+    }
+
+    private void publish(List<Flight> changed) {
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new FaresChangedEvent(changed));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+}
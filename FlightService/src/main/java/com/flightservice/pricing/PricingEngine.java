@@ -0,0 +1,190 @@
+package com.flightservice.pricing;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.itinerary.RouteGraph;
+import com.flightservice.model.Flight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Current fare of a flight from its base fare (Flight.price), its load factor
+ * and the time left to departure, through configurable fare buckets:
+ *
+ *   fare = price x load multiplier x departure multiplier, rounded to cents
+ *
+ * A load bucket applies once its share of the seats is sold, a departure
+ * bucket once departure is that close. The boundaries are turned into
+ * thresholds per flight once (the available seat count and the epoch minute
+ * each bucket starts at) and kept in memory by flight id, so pricing a flight
+ * the search or reserve path already holds is a few comparisons, never a
+ * query.
+ *
+ * The fare is also stored on the flight (Flight.fare), for the queries that
+ * sort or aggregate on it in Mongo; {@link FareRepricer} keeps it current.
+ */
+@Component
+public class PricingEngine {
+
+    private final boolean enabled;
+    private final Bucket[] loadBuckets;       // ascending share of seats sold
+    private final Bucket[] departureBuckets;  // descending minutes before departure
+    private final Cache<String, FareBuckets> bucketsByFlight;
+
+    public PricingEngine(@Value("${flight.pricing.enabled:true}") boolean enabled,
+                         @Value("${flight.pricing.load-buckets:0:1.0,0.5:1.1,0.7:1.25,0.85:1.5,0.95:1.8}") String loadBuckets,
+                         @Value("${flight.pricing.departure-buckets:7d:1.15,2d:1.3,12h:1.5}") String departureBuckets,
+                         @Value("${flight.pricing.cache-size:100000}") long cacheSize) {
+        this.enabled = enabled;
+        this.loadBuckets = parse(loadBuckets, Double::parseDouble, Comparator.comparingDouble(Bucket::boundary));
+        this.departureBuckets = parse(departureBuckets, d -> DurationStyle.detectAndParse(d).toMinutes(),
+                Comparator.comparingDouble(Bucket::boundary).reversed());
+        for (Bucket b : this.loadBuckets) {
+            if (b.boundary() < 0 || b.boundary() > 1) {
+                throw new IllegalArgumentException("Load bucket share must be within 0..1: " + b.boundary());
+            }
+        }
+        this.bucketsByFlight = Caffeine.newBuilder().maximumSize(cacheSize).build();
+    }
+
+    /** The fare of the flight at its current available seats. */
+    public Double fareOf(Flight flight) {
+        return fareOf(flight, flight.getAvailableSeats());
+    }
+
+    /**
+     * The fare of the flight with the given seats available, e.g. the count
+     * before a reserve to price the seats it takes. The base fare when
+     * pricing is off or the flight lacks the fields to price it.
+     */
+    public Double fareOf(Flight flight, int availableSeats) {
+        Double price = flight.getPrice();
+        if (!enabled || price == null || flight.getTotalSeats() <= 0 || flight.getDepartureDateTime() == null) {
+            return price;
+        }
+        return bucketsOf(flight).fare(availableSeats, RouteGraph.minuteOf(LocalDateTime.now()));
+    }
+
+    /**
+     * When the fare of the flight next changes with no seat sold, i.e. the
+     * next departure bucket starts; null when none is left to start or
+     * pricing is off.
+     */
+    public LocalDateTime fareChangesAt(Flight flight) {
+        if (!enabled || flight.getPrice() == null || flight.getTotalSeats() <= 0
+                || flight.getDepartureDateTime() == null) {
+            return null;
+        }
+        long minute = bucketsOf(flight).nextDepartureBucket(RouteGraph.minuteOf(LocalDateTime.now()));
+        return minute == Long.MAX_VALUE ? null : LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    /** Sets the flight's stored fare, and when it is next due, to what they are now. */
+    public void price(Flight flight) {
+        flight.setFare(fareOf(flight));
+        flight.setFareDueAt(fareChangesAt(flight));
+    }
+
+    private FareBuckets bucketsOf(Flight flight) {
+        if (flight.getFlightId() == null) {
+            return FareBuckets.of(flight, loadBuckets, departureBuckets);
+        }
+        FareBuckets buckets = bucketsByFlight.get(flight.getFlightId(), id -> FareBuckets.of(flight, loadBuckets, departureBuckets));
+        if (!buckets.isFor(flight)) {
+            // the flight was replaced under the same id
+            buckets = FareBuckets.of(flight, loadBuckets, departureBuckets);
+            bucketsByFlight.put(flight.getFlightId(), buckets);
+        }
+        return buckets;
+    }
+
+    /** "boundary:multiplier,..." sorted by order. */
+    private static Bucket[] parse(String spec, ToDoubleFunction<String> boundary,
+                                  Comparator<Bucket> order) {
+        List<Bucket> buckets = new ArrayList<>();
+        if (spec != null && !spec.isBlank()) {
+            for (String part : spec.split(",")) {
+                String[] pair = part.trim().split(":");
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Fare bucket must be boundary:multiplier, got " + part);
+                }
+                buckets.add(new Bucket(boundary.applyAsDouble(pair[0].trim()), Double.parseDouble(pair[1].trim())));
+            }
+        }
+        buckets.sort(order);
+        return buckets.toArray(new Bucket[0]);
+    }
+
+    private record Bucket(double boundary, double multiplier) {
+    }
+
+    /**
+     * The buckets of one flight: the load fares with the available seat count
+     * at or below which each applies, and the epoch minute from which each
+     * departure multiplier applies.
+     */
+    private record FareBuckets(double price, int totalSeats, LocalDateTime departure,
+                               int[] availableAtMost, double[] loadFares,
+                               long[] fromMinute, double[] departureMultipliers) {
+
+        static FareBuckets of(Flight flight, Bucket[] load, Bucket[] departure) {
+            int total = flight.getTotalSeats();
+            int[] availableAtMost = new int[load.length];
+            double[] loadFares = new double[load.length];
+            for (int i = 0; i < load.length; i++) {
+                availableAtMost[i] = total - (int) Math.ceil(load[i].boundary() * total);
+                loadFares[i] = flight.getPrice() * load[i].multiplier();
+            }
+            long departs = RouteGraph.minuteOf(flight.getDepartureDateTime());
+            long[] fromMinute = new long[departure.length];
+            double[] multipliers = new double[departure.length];
+            for (int j = 0; j < departure.length; j++) {
+                fromMinute[j] = departs - (long) departure[j].boundary();
+                multipliers[j] = departure[j].multiplier();
+            }
+            return new FareBuckets(flight.getPrice(), total, flight.getDepartureDateTime(),
+                    availableAtMost, loadFares, fromMinute, multipliers);
+        }
+
+        boolean isFor(Flight flight) {
+            return price == flight.getPrice() && totalSeats == flight.getTotalSeats()
+                    && departure.equals(flight.getDepartureDateTime());
+        }
+
+        double fare(int available, long nowMinute) {
+            double fare = price;
+            for (int i = availableAtMost.length - 1; i >= 0; i--) {
+                if (available <= availableAtMost[i]) {
+                    fare = loadFares[i];
+                    break;
+                }
+            }
+            for (int j = fromMinute.length - 1; j >= 0; j--) {
+                if (nowMinute >= fromMinute[j]) {
+                    fare *= departureMultipliers[j];
+                    break;
+                }
+            }
+            return Math.round(fare * 100) / 100.0;
+        }
+
+        // fromMinute ascends: the buckets run from furthest to closest to departure
+        long nextDepartureBucket(long nowMinute) {
+            for (long from : fromMinute) {
+                if (from > nowMinute) {
+                    return from;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -11,5 +11,5 @@ import com.flightservice.model.Airline;
 @Repository
 public interface AirlineRepository extends MongoRepository<Airline,String>{
 
-	Optional<Airline> findByAirlineNameIgnoreCase(String airlinenName);
+	Optional<Airline> findByAirlineNameKey(String airlineNameKey);
 }
@@ -0,0 +1,21 @@
+package com.flightservice.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.flightservice.model.FareCalendarDay;
+
+@Repository
+public interface FareCalendarRepository extends MongoRepository<FareCalendarDay, String> {
+
+    // served by the route_date index, already in date order
+    List<FareCalendarDay> findByRouteKeyAndDepartureDateBetweenOrderByDepartureDateAsc(
+            String routeKey, Range<LocalDate> dates);
+
+    long deleteByDepartureDateGreaterThanEqualAndRefreshedAtBefore(LocalDate from, LocalDateTime refreshedAt);
+}
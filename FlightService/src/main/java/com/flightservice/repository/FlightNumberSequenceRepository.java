@@ -0,0 +1,11 @@
+package com.flightservice.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.flightservice.model.FlightNumberSequence;
+
+@Repository
+public interface FlightNumberSequenceRepository
+        extends MongoRepository<FlightNumberSequence, String>, FlightNumberSequenceRepositoryCustom {
+}
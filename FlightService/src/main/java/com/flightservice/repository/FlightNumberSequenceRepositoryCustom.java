@@ -0,0 +1,13 @@
+package com.flightservice.repository;
+
+public interface FlightNumberSequenceRepositoryCustom {
+
+    /**
+     * Reserves the next blockSize numbers of the airline's sequence in one
+     * atomic upsert, creating the sequence at 0 if it does not exist.
+     *
+     * @return the last number of the reserved block; the block is
+     *         (result - blockSize, result]
+     */
+    long reserveBlock(String airlineId, int blockSize);
+}
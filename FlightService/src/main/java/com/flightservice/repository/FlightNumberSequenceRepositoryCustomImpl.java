@@ -0,0 +1,31 @@
+package com.flightservice.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightservice.model.FlightNumberSequence;
+
+public class FlightNumberSequenceRepositoryCustomImpl implements FlightNumberSequenceRepositoryCustom {
+
+    private static final FindAndModifyOptions UPSERT_RETURN_NEW = FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    public FlightNumberSequenceRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public long reserveBlock(String airlineId, int blockSize) {
+        FlightNumberSequence sequence = mongoTemplate.findAndModify(
+                new Query(where("_id").is(airlineId)),
+                new Update().inc("last", blockSize),
+                UPSERT_RETURN_NEW,
+                FlightNumberSequence.class);
+        return sequence.getLast();
+    }
+}
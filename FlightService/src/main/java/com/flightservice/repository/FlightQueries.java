@@ -0,0 +1,134 @@
+package com.flightservice.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightservice.enums.SearchSort;
+
+/**
+ * The flight queries and updates shared by the blocking and the reactive
+ * repositories, so both stacks run the same filters on the same indexes.
+ */
+final class FlightQueries {
+
+    // departed flights past their retention, moved out of the flight collection by the archiver
+    static final String ARCHIVE_COLLECTION = "flight_archive";
+
+    record SeatUpdate(Query query, Update update) {
+    }
+
+    private FlightQueries() {
+    }
+
+    static SeatUpdate reserve(String flightId, int count, Map<Integer, Long> seatMasks) {
+        // seat count and seat bits are both part of the filter, so two concurrent calls can never
+        // both win the last seats or the same seat
+        Query query = new Query(where("_id").is(flightId).and("availableSeats").gte(count));
+        Update update = new Update().inc("availableSeats", -count);
+        seatMasks.forEach((row, mask) -> {
+            query.addCriteria(where("seatRows." + row).bits().allClear(bitPositions(mask)));
+            update.bitwise("seatRows." + row).or(mask);
+        });
+        return new SeatUpdate(query, update);
+    }
+
+    static SeatUpdate release(String flightId, int count, Map<Integer, Long> seatMasks) {
+        // only seats that are taken come back, and never more than the flight has: releasing seats twice,
+        // or seats that were never reserved, matches nothing instead of inflating the count
+        Query query = new Query(where("_id").is(flightId));
+        query.addCriteria(Criteria.expr(ComparisonOperators.valueOf(ArithmeticOperators.valueOf("availableSeats").add(count))
+                .lessThanEqualTo("totalSeats")));
+        Update update = new Update().inc("availableSeats", count);
+        // a flight without a seat map does not match either: $bit on a missing array would create a sub-document
+        seatMasks.forEach((row, mask) -> {
+            query.addCriteria(where("seatRows." + row).bits().allSet(bitPositions(mask)));
+            update.bitwise("seatRows." + row).and(~mask);
+        });
+        return new SeatUpdate(query, update);
+    }
+
+    static SeatUpdate releaseUnmapped(String flightId, int count, Map<Integer, Long> seatMasks) {
+        // seats sold before the seat map existed have no bits to clear, they come back by count,
+        // at most as many as were sold then; the seats must be free in the map, not held by a later booking
+        Query query = new Query(where("_id").is(flightId).and("unmappedSeats").gte(count));
+        Update update = new Update().inc("availableSeats", count).inc("unmappedSeats", -count);
+        seatMasks.forEach((row, mask) -> query.addCriteria(where("seatRows." + row).bits().allClear(bitPositions(mask))));
+        return new SeatUpdate(query, update);
+    }
+
+    private static List<Integer> bitPositions(long mask) {
+        List<Integer> positions = new ArrayList<>(Long.bitCount(mask));
+        for (long m = mask; m != 0; m &= m - 1) {
+            positions.add(Long.numberOfTrailingZeros(m));
+        }
+        return positions;
+    }
+
+    static Query search(FlightSearchCriteria criteria) {
+        String sortField = criteria.sort() == SearchSort.PRICE ? "fare" : "departureDateTime";
+
+        List<Criteria> filters = new ArrayList<>();
+        if (criteria.routeKey() != null) {
+            filters.add(where("routeKey").is(criteria.routeKey()));
+        }
+        if (criteria.airlineId() != null) {
+            filters.add(where("airlineId").is(criteria.airlineId()));
+        }
+        if (criteria.departureFrom() != null) {
+            filters.add(where("departureDateTime").gte(criteria.departureFrom()));
+        }
+        if (criteria.departureTo() != null) {
+            filters.add(where("departureDateTime").lt(criteria.departureTo()));
+        }
+        if (criteria.minSeats() > 0) {
+            filters.add(where("availableSeats").gte(criteria.minSeats()));
+        }
+        if (criteria.sort() == SearchSort.PRICE) {
+            // flights not priced yet have no place in a price order
+            filters.add(where("fare").ne(null));
+        }
+        SearchCursor after = criteria.after();
+        if (after != null) {
+            filters.add(new Criteria().orOperator(
+                    where(sortField).gt(after.value()),
+                    new Criteria().andOperator(where(sortField).is(after.value()), where("_id").gt(after.flightId()))));
+        }
+
+        return new Query(filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters))
+                .with(Sort.by(sortField, "_id"))
+                .limit(criteria.limit());
+    }
+
+    /**
+     * Flights that arrived before the given time, oldest departure first. Runs
+     * on the departure index: a flight never arrives before it departs.
+     */
+    static Query arrivedBefore(LocalDateTime before) {
+        return new Query(where("departureDateTime").lt(before).and("arrivalDateTime").lt(before))
+                .with(Sort.by("departureDateTime"));
+    }
+
+    // only what a response row needs; the seat map alone is larger than the row
+    static void includeResponseFields(Query query) {
+        query.fields().include("airlineId", "flightNo", "source", "destination", "departureDateTime",
+                "arrivalDateTime", "totalSeats", "availableSeats", "price", "fare");
+    }
+
+    /** One flight by id with the response fields. */
+    static Query responseById(String flightId) {
+        Query query = new Query(where("_id").is(flightId));
+        includeResponseFields(query);
+        return query;
+    }
+}
@@ -1,7 +1,6 @@
 package com.flightservice.repository;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
@@ -9,7 +8,7 @@ import org.springframework.stereotype.Repository;
 import com.flightservice.model.Flight;
 
 @Repository
-public interface FlightRepository extends MongoRepository<Flight, String> {
+public interface FlightRepository extends MongoRepository<Flight, String>, FlightRepositoryCustom {
 
     Flight findByAirlineIdAndSourceAndDestinationAndDepartureDateTime(
             String airlineId,
@@ -18,10 +17,6 @@ public interface FlightRepository extends MongoRepository<Flight, String> {
             LocalDateTime departureDateTime
     );
 
-    List<Flight> findBySourceIgnoreCaseAndDestinationIgnoreCase(String source, String destination);
-
-    List<Flight> findByAirlineIdIgnoreCase(String airlineId);
-
     boolean existsByAirlineIdAndSourceAndDestinationAndDepartureDateTime(
             String airlineId,
             String source,
@@ -0,0 +1,133 @@
+package com.flightservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.flightservice.model.Flight;
+
+/**
+ * Seat updates that must run as a single server-side operation instead of
+ * the findById / set / save round trip of the derived repository methods,
+ * and queries the derived methods cannot express.
+ * Seat masks are keyed by zero-based row index, see {@link com.flightservice.inventory.SeatMap}.
+ */
+public interface FlightRepositoryCustom {
+
+    /**
+     * Decrements availableSeats by count and marks the given seats taken, only if
+     * at least count seats are left and none of the given seats is already taken.
+     *
+     * @return the updated flight, or null if nothing matched
+     */
+    Flight decrementAvailableSeats(String flightId, int count, Map<Integer, Long> seatMasks);
+
+    /**
+     * Increments availableSeats by count and marks the given seats free, only if
+     * the given seats are all taken and the count stays within totalSeats.
+     *
+     * @return the updated flight, or null if nothing matched; when seats are
+     *         given, also if the flight has no seat map
+     */
+    Flight incrementAvailableSeats(String flightId, int count, Map<Integer, Long> seatMasks);
+
+    /**
+     * Gives back count seats sold before the flight had a seat map, only if
+     * that many are left in unmappedSeats and the given seats are free in the
+     * map.
+     *
+     * @return the updated flight, or null if nothing matched
+     */
+    Flight releaseUnmappedSeats(String flightId, int count, Map<Integer, Long> seatMasks);
+
+    /**
+     * Adds an empty seat map to a flight created before seat maps existed, and
+     * keeps the seats sold until then as unmappedSeats, in the same update.
+     *
+     * @return true if this call created the seat map
+     */
+    boolean initSeatMap(String flightId, List<Long> seatRows, int seatsPerRow);
+
+    /**
+     * Writes availableSeats, seatRows, unmappedSeats and inventoryLogSeq of each
+     * snapshot in one unordered bulk, skipping documents that already hold a
+     * later log entry.
+     */
+    void writeInventory(Collection<Flight> snapshots);
+
+    /**
+     * Sets the stored fare of a flight and when it is next due, unsetting
+     * fareDueAt when it is null.
+     *
+     * @return true if either differed from what the flight held
+     */
+    boolean updateFare(String flightId, Double fare, LocalDateTime fareDueAt);
+
+    /** Ids of up to limit flights whose stored fare is due to change at or before now, on the fare_due index. */
+    List<String> findFareDue(LocalDateTime now, int limit);
+
+    /**
+     * Up to criteria.limit() flights in sort order, starting after the cursor,
+     * holding only the fields a response row needs.
+     * Runs on the (scope, sort key, _id) indexes declared on Flight.
+     */
+    List<Flight> searchPage(FlightSearchCriteria criteria);
+
+    /**
+     * The flights of a search as a stream over one Mongo cursor, fetched
+     * batchSize documents at a time and holding only the fields a response
+     * row needs. The stream must be closed to release the cursor.
+     */
+    Stream<Flight> streamSearch(FlightSearchCriteria criteria, int batchSize);
+
+    /**
+     * The flights with the given ids in one $in query on _id, holding only the
+     * fields a response row needs. Ids with no flight are left out.
+     */
+    List<Flight> findResponsesById(Collection<String> flightIds);
+
+    /**
+     * The flight with the given id, holding only the fields a response row
+     * needs: no seat map, no inventory fields.
+     */
+    Optional<Flight> findResponseById(String flightId);
+
+    /**
+     * The flights that already exist with the airline, route and departure of
+     * any of the candidates, in one query on the airline_route_departure_unique
+     * index. Only those key fields are read.
+     */
+    List<Flight> findScheduled(Collection<Flight> candidates);
+
+    /**
+     * Inserts the flights in one unordered bulk, so a rejected document does
+     * not stop the others.
+     *
+     * @return the error of each rejected flight, by its index in the list
+     */
+    Map<Integer, String> insertUnordered(List<Flight> flights);
+
+    /**
+     * Up to limit flights that arrived before the given time, oldest first,
+     * whole documents, for the archiver.
+     */
+    List<Flight> findArrivedBefore(LocalDateTime before, int limit);
+
+    /**
+     * Copies the flights into the archive collection in one unordered bulk of
+     * upserts, then removes them from the flight collection. Safe to repeat
+     * for the same flights, for instance from two instances at once.
+     *
+     * @return the number of flights removed from the flight collection
+     */
+    long archive(List<Flight> flights);
+
+    /** Like {@link #findResponseById}, in the archive collection. */
+    Optional<Flight> findArchivedResponseById(String flightId);
+
+    /** Like {@link #findResponsesById}, in the archive collection. */
+    List<Flight> findArchivedResponsesById(Collection<String> flightIds);
+}
@@ -0,0 +1,238 @@
+package com.flightservice.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightservice.model.Flight;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+
+public class FlightRepositoryCustomImpl implements FlightRepositoryCustom {
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+    private final FlightRows rows;
+    private final String collection;
+
+    public FlightRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.rows = new FlightRows(mongoTemplate.getConverter().getConversionService());
+        this.collection = mongoTemplate.getCollectionName(Flight.class);
+    }
+
+    @Override
+    public Flight decrementAvailableSeats(String flightId, int count, Map<Integer, Long> seatMasks) {
+        FlightQueries.SeatUpdate reserve = FlightQueries.reserve(flightId, count, seatMasks);
+        return mongoTemplate.findAndModify(reserve.query(), reserve.update(), RETURN_NEW, Flight.class);
+    }
+
+    @Override
+    public Flight incrementAvailableSeats(String flightId, int count, Map<Integer, Long> seatMasks) {
+        FlightQueries.SeatUpdate release = FlightQueries.release(flightId, count, seatMasks);
+        return mongoTemplate.findAndModify(release.query(), release.update(), RETURN_NEW, Flight.class);
+    }
+
+    @Override
+    public Flight releaseUnmappedSeats(String flightId, int count, Map<Integer, Long> seatMasks) {
+        FlightQueries.SeatUpdate release = FlightQueries.releaseUnmapped(flightId, count, seatMasks);
+        return mongoTemplate.findAndModify(release.query(), release.update(), RETURN_NEW, Flight.class);
+    }
+
+    @Override
+    public boolean initSeatMap(String flightId, List<Long> seatRows, int seatsPerRow) {
+        Query query = new Query(where("_id").is(flightId).and("seatRows").exists(false));
+        // the sold count is read by the update itself, a count-only reserve in between cannot be missed
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("seatRows").toValue(seatRows)
+                .set("seatsPerRow").toValue(seatsPerRow)
+                .set("unmappedSeats").toValue(ArithmeticOperators.valueOf("totalSeats").subtract("availableSeats"));
+        return mongoTemplate.updateFirst(query, update, Flight.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public void writeInventory(Collection<Flight> snapshots) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Flight.class);
+        for (Flight f : snapshots) {
+            // replaying an older snapshot after a newer one was written must not roll seats back
+            Query query = new Query(where("_id").is(f.getFlightId()).orOperator(
+                    where("inventoryLogSeq").lt(f.getInventoryLogSeq()),
+                    where("inventoryLogSeq").exists(false)));
+            Update update = new Update()
+                    .set("availableSeats", f.getAvailableSeats())
+                    .set("seatRows", f.getSeatRows())
+                    .set("seatsPerRow", f.getSeatsPerRow())
+                    .set("unmappedSeats", f.getUnmappedSeats())
+                    .set("inventoryLogSeq", f.getInventoryLogSeq());
+            bulk.updateOne(query, update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public boolean updateFare(String flightId, Double fare, LocalDateTime fareDueAt) {
+        Query query = new Query(where("_id").is(flightId).orOperator(
+                where("fare").ne(fare),
+                where("fareDueAt").ne(fareDueAt)));
+        Update update = new Update().set("fare", fare);
+        if (fareDueAt == null) {
+            update.unset("fareDueAt");
+        } else {
+            update.set("fareDueAt", fareDueAt);
+        }
+        return mongoTemplate.updateFirst(query, update, Flight.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public List<String> findFareDue(LocalDateTime now, int limit) {
+        Query query = new Query(where("fareDueAt").lte(now)).limit(limit);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Flight.class).stream().map(Flight::getFlightId).toList();
+    }
+
+    @Override
+    public List<Flight> searchPage(FlightSearchCriteria criteria) {
+        Query query = FlightQueries.search(criteria);
+        FlightQueries.includeResponseFields(query);
+        return findRows(query, collection);
+    }
+
+    @Override
+    public Stream<Flight> streamSearch(FlightSearchCriteria criteria, int batchSize) {
+        Query query = FlightQueries.search(criteria).cursorBatchSize(batchSize);
+        FlightQueries.includeResponseFields(query);
+        return mongoTemplate.stream(query, Document.class, collection).map(rows::read);
+    }
+
+    @Override
+    public List<Flight> findResponsesById(Collection<String> flightIds) {
+        if (flightIds.isEmpty()) {
+            return List.of();
+        }
+        Query query = new Query(where("_id").in(flightIds));
+        FlightQueries.includeResponseFields(query);
+        return findRows(query, collection);
+    }
+
+    @Override
+    public Optional<Flight> findResponseById(String flightId) {
+        return findRow(FlightQueries.responseById(flightId), collection);
+    }
+
+    @Override
+    public List<Flight> findScheduled(Collection<Flight> candidates) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        Set<String> airlineIds = new HashSet<>();
+        Set<String> sources = new HashSet<>();
+        Set<String> destinations = new HashSet<>();
+        Set<LocalDateTime> departures = new HashSet<>();
+        for (Flight f : candidates) {
+            airlineIds.add(f.getAirlineId());
+            sources.add(f.getSource());
+            destinations.add(f.getDestination());
+            departures.add(f.getDepartureDateTime());
+        }
+        // a superset of the candidates' keys; the caller matches exact tuples
+        Query query = new Query(where("airlineId").in(airlineIds)
+                .and("source").in(sources)
+                .and("destination").in(destinations)
+                .and("departureDateTime").in(departures));
+        query.fields().include("airlineId", "source", "destination", "departureDateTime");
+        return mongoTemplate.find(query, Flight.class);
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Flight> flights) {
+        if (flights.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkMode.UNORDERED, Flight.class).insert(flights).execute();
+            return Map.of();
+        } catch (BulkOperationException ex) {
+            Map<Integer, String> rejected = new HashMap<>();
+            for (BulkWriteError error : ex.getErrors()) {
+                rejected.put(error.getIndex(), ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY
+                        ? "Flight already exists for this airline at this time" : error.getMessage());
+            }
+            return rejected;
+        }
+    }
+
+    @Override
+    public List<Flight> findArrivedBefore(LocalDateTime before, int limit) {
+        return mongoTemplate.find(FlightQueries.arrivedBefore(before).limit(limit), Flight.class);
+    }
+
+    @Override
+    public long archive(List<Flight> flights) {
+        if (flights.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Flight.class, FlightQueries.ARCHIVE_COLLECTION);
+        List<String> ids = new ArrayList<>(flights.size());
+        for (Flight f : flights) {
+            bulk.replaceOne(new Query(where("_id").is(f.getFlightId())), f, FindAndReplaceOptions.options().upsert());
+            ids.add(f.getFlightId());
+        }
+        bulk.execute();
+        // removed only once the copies are in, so a failure in between leaves the flight in both
+        return mongoTemplate.remove(new Query(where("_id").in(ids)), Flight.class).getDeletedCount();
+    }
+
+    @Override
+    public Optional<Flight> findArchivedResponseById(String flightId) {
+        return findRow(FlightQueries.responseById(flightId), FlightQueries.ARCHIVE_COLLECTION);
+    }
+
+    @Override
+    public List<Flight> findArchivedResponsesById(Collection<String> flightIds) {
+        if (flightIds.isEmpty()) {
+            return List.of();
+        }
+        Query query = new Query(where("_id").in(flightIds));
+        FlightQueries.includeResponseFields(query);
+        return findRows(query, FlightQueries.ARCHIVE_COLLECTION);
+    }
+
+    // projected queries read as raw documents, see FlightRows
+    private List<Flight> findRows(Query query, String collectionName) {
+        List<Document> docs = mongoTemplate.find(query, Document.class, collectionName);
+        List<Flight> flights = new ArrayList<>(docs.size());
+        for (Document doc : docs) {
+            flights.add(rows.read(doc));
+        }
+        return flights;
+    }
+
+    private Optional<Flight> findRow(Query query, String collectionName) {
+        return Optional.ofNullable(mongoTemplate.findOne(query, Document.class, collectionName)).map(rows::read);
+    }
+}
@@ -0,0 +1,66 @@
+package com.flightservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+
+import com.flightservice.model.Flight;
+
+/**
+ * Reads a flight document projected to the response fields (see
+ * FlightQueries.includeResponseFields) straight into a Flight, for the read
+ * paths that only turn flights into response rows. It sets the few fields
+ * the projection holds instead of going through the mapping converter,
+ * which allocates more per document than the document itself takes.
+ * Dates go through the converter's conversion service, so they come out in
+ * the same zone as on entity reads.
+ */
+public final class FlightRows {
+
+    private static final TypeDescriptor DATE = TypeDescriptor.valueOf(Date.class);
+    private static final TypeDescriptor LOCAL_DATE_TIME = TypeDescriptor.valueOf(LocalDateTime.class);
+
+    private final ConversionService conversions;
+
+    public FlightRows(ConversionService conversions) {
+        this.conversions = conversions;
+    }
+
+    public Flight read(Document doc) {
+        Flight f = new Flight();
+        f.setFlightId(idOf(doc.get("_id")));
+        f.setAirlineId(idOf(doc.get("airlineId")));
+        f.setFlightNo(doc.getString("flightNo"));
+        f.setSource(doc.getString("source"));
+        f.setDestination(doc.getString("destination"));
+        f.setDepartureDateTime(dateOf(doc.get("departureDateTime")));
+        f.setArrivalDateTime(dateOf(doc.get("arrivalDateTime")));
+        f.setTotalSeats(intOf(doc.get("totalSeats")));
+        f.setAvailableSeats(intOf(doc.get("availableSeats")));
+        Object price = doc.get("price");
+        f.setPrice(price instanceof Number n ? n.doubleValue() : null);
+        Object fare = doc.get("fare");
+        f.setFare(fare instanceof Number n ? n.doubleValue() : null);
+        return f;
+    }
+
+    private LocalDateTime dateOf(Object value) {
+        if (value instanceof Date) {
+            // with the type descriptors at hand, the conversion service skips looking them up per call
+            return (LocalDateTime) conversions.convert(value, DATE, LOCAL_DATE_TIME);
+        }
+        return value == null ? null : conversions.convert(value, LocalDateTime.class);
+    }
+
+    private static String idOf(Object value) {
+        return value instanceof ObjectId id ? id.toHexString() : (String) value;
+    }
+
+    private static int intOf(Object value) {
+        return value instanceof Number n ? n.intValue() : 0;
+    }
+}
@@ -0,0 +1,22 @@
+package com.flightservice.repository;
+
+import java.time.LocalDateTime;
+
+import com.flightservice.enums.SearchSort;
+
+/**
+ * One page of a flight search. Scope is routeKey, airlineId or both; the page
+ * starts after the cursor position (null for the first page) in sort order,
+ * with the flight id breaking ties, so paging never skips or repeats a flight
+ * and costs the same however deep it goes.
+ */
+public record FlightSearchCriteria(
+        String routeKey,
+        String airlineId,
+        LocalDateTime departureFrom,
+        LocalDateTime departureTo,
+        int minSeats,
+        SearchSort sort,
+        SearchCursor after,
+        int limit) {
+}
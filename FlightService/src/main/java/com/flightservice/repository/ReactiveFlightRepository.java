@@ -0,0 +1,10 @@
+package com.flightservice.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.flightservice.model.Flight;
+
+@Repository
+public interface ReactiveFlightRepository extends ReactiveMongoRepository<Flight, String>, ReactiveFlightRepositoryCustom {
+}
@@ -0,0 +1,22 @@
+package com.flightservice.repository;
+
+import com.flightservice.model.Flight;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterparts of the {@link FlightRepositoryCustom} queries,
+ * for the reactive stack.
+ */
+public interface ReactiveFlightRepositoryCustom {
+
+    /** See {@link FlightRepositoryCustom#searchPage}. */
+    Flux<Flight> searchPage(FlightSearchCriteria criteria);
+
+    /** See {@link FlightRepositoryCustom#findResponseById}; empty if missing. */
+    Mono<Flight> findResponseById(String flightId);
+
+    /** See {@link FlightRepositoryCustom#findArchivedResponseById}; empty if not archived. */
+    Mono<Flight> findArchivedResponseById(String flightId);
+}
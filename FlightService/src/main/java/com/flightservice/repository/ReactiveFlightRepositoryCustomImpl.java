@@ -0,0 +1,42 @@
+package com.flightservice.repository;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.flightservice.model.Flight;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class ReactiveFlightRepositoryCustomImpl implements ReactiveFlightRepositoryCustom {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final FlightRows rows;
+    private final String collection;
+
+    public ReactiveFlightRepositoryCustomImpl(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.rows = new FlightRows(reactiveMongoTemplate.getConverter().getConversionService());
+        this.collection = reactiveMongoTemplate.getCollectionName(Flight.class);
+    }
+
+    @Override
+    public Flux<Flight> searchPage(FlightSearchCriteria criteria) {
+        Query query = FlightQueries.search(criteria);
+        FlightQueries.includeResponseFields(query);
+        return reactiveMongoTemplate.find(query, Document.class, collection).map(rows::read);
+    }
+
+    @Override
+    public Mono<Flight> findResponseById(String flightId) {
+        return reactiveMongoTemplate.findOne(FlightQueries.responseById(flightId), Document.class, collection)
+                .map(rows::read);
+    }
+
+    @Override
+    public Mono<Flight> findArchivedResponseById(String flightId) {
+        return reactiveMongoTemplate.findOne(FlightQueries.responseById(flightId), Document.class,
+                FlightQueries.ARCHIVE_COLLECTION).map(rows::read);
+    }
+}
@@ -0,0 +1,11 @@
+package com.flightservice.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.flightservice.model.ReservationLedgerEntry;
+
+@Repository
+public interface ReservationLedgerRepository
+        extends MongoRepository<ReservationLedgerEntry, String>, ReservationLedgerRepositoryCustom {
+}
@@ -0,0 +1,26 @@
+package com.flightservice.repository;
+
+import java.time.LocalDateTime;
+
+import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.model.ReservationLedgerEntry;
+
+public interface ReservationLedgerRepositoryCustom {
+
+    /**
+     * Inserts a PENDING entry.
+     *
+     * @return false if an entry with the same id already exists
+     */
+    boolean tryBegin(ReservationLedgerEntry entry);
+
+    /**
+     * Restarts a PENDING entry created before staleBefore, left behind by a call
+     * that never finished.
+     *
+     * @return true if this call took the entry over
+     */
+    boolean takeOverStale(String id, LocalDateTime staleBefore, LocalDateTime now);
+
+    void markApplied(String id, ReserveSeatsResponse response);
+}
@@ -0,0 +1,46 @@
+package com.flightservice.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.LocalDateTime;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.enums.LedgerStatus;
+import com.flightservice.model.ReservationLedgerEntry;
+
+public class ReservationLedgerRepositoryCustomImpl implements ReservationLedgerRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public ReservationLedgerRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean tryBegin(ReservationLedgerEntry entry) {
+        try {
+            mongoTemplate.insert(entry);
+            return true;
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean takeOverStale(String id, LocalDateTime staleBefore, LocalDateTime now) {
+        Query query = new Query(where("_id").is(id).and("status").is(LedgerStatus.PENDING).and("createdAt").lt(staleBefore));
+        return mongoTemplate.updateFirst(query, new Update().set("createdAt", now), ReservationLedgerEntry.class)
+                .getModifiedCount() > 0;
+    }
+
+    @Override
+    public void markApplied(String id, ReserveSeatsResponse response) {
+        Update update = new Update().set("status", LedgerStatus.APPLIED).set("response", response);
+        mongoTemplate.updateFirst(new Query(where("_id").is(id)), update, ReservationLedgerEntry.class);
+    }
+}
@@ -0,0 +1,42 @@
+package com.flightservice.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import com.flightservice.enums.SearchSort;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.model.Flight;
+
+/**
+ * Position of the last flight of a search page: its sort key and id. Clients
+ * get it as an opaque URL-safe token and send it back for the next page.
+ */
+public record SearchCursor(SearchSort sort, Object value, String flightId) {
+
+    private static final String SEPARATOR = "~";
+
+    public static SearchCursor after(Flight last, SearchSort sort) {
+        Object value = sort == SearchSort.PRICE ? last.getFare() : last.getDepartureDateTime();
+        return new SearchCursor(sort, value, last.getFlightId());
+    }
+
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + value + SEPARATOR + flightId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token, SearchSort expectedSort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+            SearchSort sort = SearchSort.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw new IllegalArgumentException("sort changed");
+            }
+            Object value = sort == SearchSort.PRICE ? (Object) Double.valueOf(parts[1]) : LocalDateTime.parse(parts[1]);
+            return new SearchCursor(sort, value, parts[2]);
+        } catch (RuntimeException ex) {
+            throw new BusinessException("Invalid search cursor");
+        }
+    }
+}
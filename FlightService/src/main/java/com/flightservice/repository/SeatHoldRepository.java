@@ -0,0 +1,15 @@
+package com.flightservice.repository;
+
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.flightservice.enums.HoldStatus;
+import com.flightservice.model.SeatHold;
+
+@Repository
+public interface SeatHoldRepository extends MongoRepository<SeatHold, String>, SeatHoldRepositoryCustom {
+
+    List<SeatHold> findByStatus(HoldStatus status);
+}
@@ -0,0 +1,38 @@
+package com.flightservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import com.flightservice.model.SeatHold;
+
+/**
+ * Hold state changes, each a single conditional update so a confirm and an
+ * expiry racing on the same hold cannot both win.
+ */
+public interface SeatHoldRepositoryCustom {
+
+    /**
+     * Moves a HELD hold of the flight to CONFIRMED if it has not expired by now.
+     *
+     * @return the confirmed hold, or null if nothing matched
+     */
+    SeatHold confirm(String flightId, String holdId, LocalDateTime now);
+
+    /**
+     * Moves the HELD hold the booking reference placed on the flight to RELEASED.
+     *
+     * @return the released hold, or null if there is no such hold
+     */
+    SeatHold releaseByReference(String flightId, String bookingReference);
+
+    /**
+     * Moves the given holds to EXPIRED where they are still HELD and past expiresAt.
+     *
+     * @return the holds this call expired
+     */
+    List<SeatHold> expire(Collection<String> holdIds, LocalDateTime now);
+
+    /** Last hold the booking reference placed on the flight, in any status. */
+    SeatHold findLatestByReference(String flightId, String bookingReference);
+}
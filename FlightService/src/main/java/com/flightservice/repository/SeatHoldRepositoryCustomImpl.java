@@ -0,0 +1,58 @@
+package com.flightservice.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightservice.enums.HoldStatus;
+import com.flightservice.model.SeatHold;
+
+public class SeatHoldRepositoryCustomImpl implements SeatHoldRepositoryCustom {
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    public SeatHoldRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public SeatHold confirm(String flightId, String holdId, LocalDateTime now) {
+        Query query = new Query(where("_id").is(holdId).and("flightId").is(flightId)
+                .and("status").is(HoldStatus.HELD).and("expiresAt").gt(now));
+        return mongoTemplate.findAndModify(query, new Update().set("status", HoldStatus.CONFIRMED), RETURN_NEW, SeatHold.class);
+    }
+
+    @Override
+    public SeatHold releaseByReference(String flightId, String bookingReference) {
+        Query query = new Query(where("flightId").is(flightId).and("bookingReference").is(bookingReference)
+                .and("status").is(HoldStatus.HELD));
+        return mongoTemplate.findAndModify(query, new Update().set("status", HoldStatus.RELEASED), RETURN_NEW, SeatHold.class);
+    }
+
+    @Override
+    public List<SeatHold> expire(Collection<String> holdIds, LocalDateTime now) {
+        String batch = UUID.randomUUID().toString();
+        Query due = new Query(where("_id").in(holdIds).and("status").is(HoldStatus.HELD).and("expiresAt").lte(now));
+        mongoTemplate.updateMulti(due, new Update().set("status", HoldStatus.EXPIRED).set("expiryBatch", batch), SeatHold.class);
+        // holds confirmed in the meantime did not match the update, so reading by batch returns only what was expired here
+        return mongoTemplate.find(new Query(where("_id").in(holdIds).and("expiryBatch").is(batch)), SeatHold.class);
+    }
+
+    @Override
+    public SeatHold findLatestByReference(String flightId, String bookingReference) {
+        Query query = new Query(where("flightId").is(flightId).and("bookingReference").is(bookingReference))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"));
+        return mongoTemplate.findOne(query, SeatHold.class);
+    }
+}
@@ -0,0 +1,20 @@
+package com.flightservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.flightservice.enums.WaitlistStatus;
+import com.flightservice.model.WaitlistEntry;
+
+@Repository
+public interface WaitlistRepository extends MongoRepository<WaitlistEntry, String>, WaitlistRepositoryCustom {
+
+    Optional<WaitlistEntry> findByFlightIdAndBookingReference(String flightId, String bookingReference);
+
+    long countByFlightIdAndStatusAndRequestedAtLessThan(String flightId, WaitlistStatus status, LocalDateTime requestedAt);
+
+    long deleteByFlightIdAndBookingReferenceAndStatus(String flightId, String bookingReference, WaitlistStatus status);
+}
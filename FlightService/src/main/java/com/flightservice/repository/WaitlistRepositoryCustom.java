@@ -0,0 +1,31 @@
+package com.flightservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.flightservice.model.WaitlistEntry;
+
+/**
+ * Waitlist state changes, each a single conditional update so two instances
+ * promoting the same flight never take the same entry.
+ */
+public interface WaitlistRepositoryCustom {
+
+    /**
+     * Moves the head of the flight's line to PROMOTING: the entry with the
+     * earliest requestedAt that is WAITING, or PROMOTING with a claim from
+     * before staleBefore, whose instance is taken to have died mid-promotion.
+     *
+     * @return the claimed entry, or null if nobody is waiting
+     */
+    WaitlistEntry claimHead(String flightId, LocalDateTime now, LocalDateTime staleBefore);
+
+    /** The flights with PROMOTING entries claimed before staleBefore. */
+    List<String> findFlightsWithClaimsBefore(LocalDateTime staleBefore);
+
+    /** Puts a PROMOTING entry back in line, at the place its requestedAt gives it. */
+    void unclaim(String entryId);
+
+    /** Moves a PROMOTING entry to PROMOTED with the hold its seats were reserved under. */
+    void markPromoted(String entryId, String holdId, LocalDateTime holdExpiresAt, LocalDateTime now);
+}
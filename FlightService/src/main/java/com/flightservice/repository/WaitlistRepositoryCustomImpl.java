@@ -0,0 +1,58 @@
+package com.flightservice.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightservice.enums.WaitlistStatus;
+import com.flightservice.model.WaitlistEntry;
+
+public class WaitlistRepositoryCustomImpl implements WaitlistRepositoryCustom {
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    public WaitlistRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public WaitlistEntry claimHead(String flightId, LocalDateTime now, LocalDateTime staleBefore) {
+        // a stale claim keeps its place in line: requestedAt never changes
+        Query head = new Query(where("flightId").is(flightId).orOperator(
+                where("status").is(WaitlistStatus.WAITING),
+                where("status").is(WaitlistStatus.PROMOTING).and("claimedAt").lt(staleBefore)))
+                .with(Sort.by("requestedAt", "_id"));
+        Update claim = new Update().set("status", WaitlistStatus.PROMOTING).set("claimedAt", now);
+        return mongoTemplate.findAndModify(head, claim, RETURN_NEW, WaitlistEntry.class);
+    }
+
+    @Override
+    public List<String> findFlightsWithClaimsBefore(LocalDateTime staleBefore) {
+        Query stale = new Query(where("status").is(WaitlistStatus.PROMOTING).and("claimedAt").lt(staleBefore));
+        return mongoTemplate.findDistinct(stale, "flightId", WaitlistEntry.class, String.class);
+    }
+
+    @Override
+    public void unclaim(String entryId) {
+        Query query = new Query(where("_id").is(entryId).and("status").is(WaitlistStatus.PROMOTING));
+        mongoTemplate.updateFirst(query, new Update().set("status", WaitlistStatus.WAITING).unset("claimedAt"),
+                WaitlistEntry.class);
+    }
+
+    @Override
+    public void markPromoted(String entryId, String holdId, LocalDateTime holdExpiresAt, LocalDateTime now) {
+        Query query = new Query(where("_id").is(entryId).and("status").is(WaitlistStatus.PROMOTING));
+        Update update = new Update().set("status", WaitlistStatus.PROMOTED).set("holdId", holdId)
+                .set("holdExpiresAt", holdExpiresAt).set("promotedAt", now);
+        mongoTemplate.updateFirst(query, update, WaitlistEntry.class);
+    }
+}
@@ -0,0 +1,92 @@
+package com.flightservice.sequence;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.model.Airline;
+import com.flightservice.repository.FlightNumberSequenceRepository;
+
+/**
+ * Hands out flight numbers that are unique per airline across all
+ * FlightService instances. Each instance reserves a block of blockSize
+ * numbers from the airline's sequence in Mongo and allocates from it in
+ * memory with an atomic counter, so only one allocation per block goes to the
+ * database. Numbers of a block an instance does not use up (it stopped, say)
+ * are skipped, never reused.
+ *
+ * A refill waits on Mongo, so it holds a per-airline ReentrantLock rather
+ * than a monitor or a ConcurrentHashMap bin, which would pin a virtual thread
+ * to its carrier for the whole round trip.
+ *
+ * Numbers start at FIRST_NUMBER, above the 100-999 range flights were given at
+ * random before, so they cannot repeat an existing one.
+ */
+@Component
+public class FlightNumberAllocator {
+
+    private static final long FIRST_NUMBER = 1000;
+
+    private final FlightNumberSequenceRepository sequenceRepository;
+    private final int blockSize;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> refillLocks = new ConcurrentHashMap<>();
+
+    public FlightNumberAllocator(FlightNumberSequenceRepository sequenceRepository,
+                                 @Value("${flight.flight-numbers.block-size:100}") int blockSize) {
+        this.sequenceRepository = sequenceRepository;
+        this.blockSize = blockSize;
+    }
+
+    /** The next flight number of the airline, e.g. AI-1042. */
+    public String next(Airline airline) {
+        return prefixOf(airline.getAirlineName()) + "-" + nextNumber(airline.getAirlineId());
+    }
+
+    public long nextNumber(String airlineId) {
+        while (true) {
+            Block block = blocks.get(airlineId);
+            if (block != null) {
+                long n = block.next.getAndIncrement();
+                if (n <= block.last) {
+                    return n;
+                }
+            }
+            refill(airlineId, block);
+        }
+    }
+
+    // one thread per airline reserves the next block; the others wait for it and retry on it
+    private void refill(String airlineId, Block exhausted) {
+        ReentrantLock lock = refillLocks.computeIfAbsent(airlineId, id -> new ReentrantLock());
+        lock.lock();
+        try {
+            if (blocks.get(airlineId) != exhausted) {
+                return;
+            }
+            long last = sequenceRepository.reserveBlock(airlineId, blockSize) + FIRST_NUMBER - 1;
+            blocks.put(airlineId, new Block(last - blockSize + 1, last));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String prefixOf(String airlineName) {
+        return airlineName.substring(0, Math.min(2, airlineName.length())).toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Block {
+        final AtomicLong next;
+        final long last;
+
+        Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
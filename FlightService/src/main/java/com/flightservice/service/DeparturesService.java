@@ -0,0 +1,10 @@
+package com.flightservice.service;
+
+import java.util.List;
+
+import com.flightservice.dto.response.FlightResponse;
+
+public interface DeparturesService {
+
+    List<FlightResponse> departures(String airport, Integer hours, Integer limit);
+}
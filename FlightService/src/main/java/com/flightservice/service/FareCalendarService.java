@@ -0,0 +1,11 @@
+package com.flightservice.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.flightservice.dto.response.FareCalendarDayResponse;
+
+public interface FareCalendarService {
+
+    List<FareCalendarDayResponse> fareCalendar(String source, String destination, LocalDate from, Integer days);
+}
@@ -0,0 +1,16 @@
+package com.flightservice.service;
+
+import java.io.InputStream;
+
+import com.flightservice.dto.response.FlightImportResponse;
+import com.flightservice.enums.ImportFormat;
+
+public interface FlightImportService {
+
+    /**
+     * Reads a schedule of flights, one per CSV row or NDJSON line, and adds
+     * those that are valid and not scheduled yet. A bad row is reported and
+     * skipped; it does not stop the import.
+     */
+    FlightImportResponse importFlights(InputStream body, ImportFormat format);
+}
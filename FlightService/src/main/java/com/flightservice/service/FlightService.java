@@ -1,12 +1,15 @@
 package com.flightservice.service;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.flightservice.dto.request.FlightRequest;
 import com.flightservice.dto.request.ReleaseSeatsRequest;
 import com.flightservice.dto.request.ReserveSeatsRequest;
 import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.dto.response.FlightSearchPage;
 import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.dto.response.SerializedSearchPage;
 import com.flightservice.model.Flight;
 
 
@@ -15,10 +18,19 @@ public interface FlightService {
 
 Flight addFlights(FlightRequest request);
 	
-	List<FlightResponse> searchFlights(FlightRequest request);
+	FlightSearchPage searchFlights(FlightRequest request);
+
+	/** The search page with its flights already serialized as a JSON array, served from the route search cache when possible. */
+	SerializedSearchPage searchFlightsJson(FlightRequest request);
+
 	FlightResponse getFlightById(String id);
 
+	/** The flights with the given ids, in the order asked for, from one query; ids with no flight are left out. */
+	List<FlightResponse> getFlightsByIds(Collection<String> ids);
+
     ReserveSeatsResponse reserveSeats(String flightId, ReserveSeatsRequest request);
 
     void releaseSeats(String flightId, ReleaseSeatsRequest request);
+
+    ReserveSeatsResponse confirmHold(String flightId, String holdId);
 }
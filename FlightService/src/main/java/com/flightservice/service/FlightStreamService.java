@@ -0,0 +1,14 @@
+package com.flightservice.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.flightservice.dto.request.FlightRequest;
+
+public interface FlightStreamService {
+
+    /**
+     * Checks the search and returns a body that writes every matching flight
+     * as one line of JSON (NDJSON) while reading them from Mongo.
+     */
+    StreamingResponseBody streamFlights(FlightRequest request);
+}
@@ -0,0 +1,11 @@
+package com.flightservice.service;
+
+import java.util.List;
+
+import com.flightservice.dto.request.ItineraryRequest;
+import com.flightservice.dto.response.ItineraryResponse;
+
+public interface ItineraryService {
+
+    List<ItineraryResponse> searchItineraries(ItineraryRequest request);
+}
@@ -0,0 +1,28 @@
+package com.flightservice.service;
+
+import com.flightservice.dto.request.FlightRequest;
+import com.flightservice.dto.request.ReleaseSeatsRequest;
+import com.flightservice.dto.request.ReserveSeatsRequest;
+import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.dto.response.FlightSearchPage;
+import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.dto.response.SerializedSearchPage;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link FlightService} for the reactive stack. Errors are signalled as
+ * BusinessException, as the blocking service throws them.
+ */
+public interface ReactiveFlightService {
+
+    Mono<FlightSearchPage> searchFlights(FlightRequest request);
+
+    Mono<SerializedSearchPage> searchFlightsJson(FlightRequest request);
+
+    Mono<FlightResponse> getFlightById(String id);
+
+    Mono<ReserveSeatsResponse> reserveSeats(String flightId, ReserveSeatsRequest request);
+
+    Mono<Void> releaseSeats(String flightId, ReleaseSeatsRequest request);
+}
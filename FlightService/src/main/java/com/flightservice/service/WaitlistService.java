@@ -0,0 +1,13 @@
+package com.flightservice.service;
+
+import com.flightservice.dto.request.WaitlistRequest;
+import com.flightservice.dto.response.WaitlistResponse;
+
+public interface WaitlistService {
+
+    WaitlistResponse join(String flightId, WaitlistRequest request);
+
+    WaitlistResponse status(String flightId, String bookingReference);
+
+    void leave(String flightId, String bookingReference);
+}
@@ -0,0 +1,52 @@
+package com.flightservice.serviceImpl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.departures.DeparturesIndex;
+import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.pricing.PricingEngine;
+import com.flightservice.service.DeparturesService;
+
+@Service
+public class DeparturesServiceImpl implements DeparturesService {
+
+    private static final int DEFAULT_HOURS = 6;
+    private static final int DEFAULT_LIMIT = 200;
+    private static final int MAX_LIMIT = 1000;
+
+    private final DeparturesIndex departuresIndex;
+    private final AirlineDirectory airlineDirectory;
+    private final PricingEngine pricingEngine;
+    private final int maxHours;
+
+    public DeparturesServiceImpl(DeparturesIndex departuresIndex, AirlineDirectory airlineDirectory,
+                                 PricingEngine pricingEngine,
+                                 @Value("${flight.departures.max-hours:48}") int maxHours) {
+        this.departuresIndex = departuresIndex;
+        this.airlineDirectory = airlineDirectory;
+        this.pricingEngine = pricingEngine;
+        this.maxHours = maxHours;
+    }
+
+    @Override
+    public List<FlightResponse> departures(String airport, Integer hours, Integer limit) {
+        if (airport == null || airport.isBlank()) {
+            throw new BusinessException("Airport is required");
+        }
+        if (!departuresIndex.isLoaded()) {
+            throw new BusinessException("Departures are not available yet, try again shortly");
+        }
+        int window = hours == null ? DEFAULT_HOURS : Math.max(1, Math.min(hours, maxHours));
+        int max = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        LocalDateTime now = LocalDateTime.now();
+        return FlightSearches.toResponses(departuresIndex.departing(airport, now, now.plusHours(window), max),
+                airlineDirectory, pricingEngine);
+    }
+}
@@ -0,0 +1,48 @@
+package com.flightservice.serviceImpl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.flightservice.calendar.FareCalendar;
+import com.flightservice.dto.response.FareCalendarDayResponse;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.model.FareCalendarDay;
+import com.flightservice.model.Flight;
+import com.flightservice.service.FareCalendarService;
+
+@Service
+public class FareCalendarServiceImpl implements FareCalendarService {
+
+    private static final int DEFAULT_DAYS = 90;
+    private static final int MAX_DAYS = 366;
+
+    private final FareCalendar fareCalendar;
+
+    public FareCalendarServiceImpl(FareCalendar fareCalendar) {
+        this.fareCalendar = fareCalendar;
+    }
+
+    @Override
+    public List<FareCalendarDayResponse> fareCalendar(String source, String destination, LocalDate from, Integer days) {
+        if (source == null || source.isBlank() || destination == null || destination.isBlank()) {
+            throw new BusinessException("Source and destination are required");
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate start = from == null || from.isBefore(today) ? today : from;
+        int length = days == null ? DEFAULT_DAYS : Math.max(1, Math.min(days, MAX_DAYS));
+
+        List<FareCalendarDay> stored = fareCalendar.days(Flight.routeKeyOf(source, destination), start, start.plusDays(length));
+        List<FareCalendarDayResponse> responses = new ArrayList<>(stored.size());
+        for (FareCalendarDay day : stored) {
+            FareCalendarDayResponse res = new FareCalendarDayResponse();
+            res.setDate(day.getDepartureDate());
+            res.setMinPrice(day.getMinPrice());
+            res.setFlightCount(day.getFlightCount());
+            responses.add(res);
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,329 @@
+package com.flightservice.serviceImpl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.dto.request.FlightRequest;
+import com.flightservice.dto.response.FlightImportResponse;
+import com.flightservice.dto.response.ImportRowError;
+import com.flightservice.enums.ImportFormat;
+import com.flightservice.events.FlightsAddedEvent;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.model.Airline;
+import com.flightservice.model.Flight;
+import com.flightservice.pricing.PricingEngine;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.sequence.FlightNumberAllocator;
+import com.flightservice.service.FlightImportService;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Bulk schedule import. Rows are read from the request body one line at a
+ * time and handled in batches: per batch, each airline name is resolved once
+ * (from the airline directory, created if new), existing flights are found
+ * with one set-based query, and the new ones go to Mongo in one unordered bulk
+ * insert. Memory stays bounded by the batch, plus one key per imported flight
+ * to catch duplicates within the file. The flights of a batch are announced
+ * in one FlightsAddedEvent, so the read-side indexes take them in one step.
+ */
+@Service
+public class FlightImportServiceImpl implements FlightImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightImportServiceImpl.class);
+
+    private static final String DUPLICATE = "Flight already exists for this airline at this time";
+
+    private static final List<String> CSV_COLUMNS = List.of("airlineName", "source", "destination",
+            "departureDateTime", "arrivalDateTime", "totalSeats", "price");
+
+    private final FlightRepository flightRepository;
+    private final AirlineDirectory airlineDirectory;
+    private final Validator validator;
+    private final JsonMapper jsonMapper;
+    private final FlightNumberAllocator flightNumberAllocator;
+    private final PricingEngine pricingEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public FlightImportServiceImpl(FlightRepository flightRepository, AirlineDirectory airlineDirectory,
+                                   FlightNumberAllocator flightNumberAllocator, PricingEngine pricingEngine,
+                                   Validator validator, JsonMapper jsonMapper, ApplicationEventPublisher eventPublisher,
+                                   @Value("${flight.import.batch-size:1000}") int batchSize,
+                                   @Value("${flight.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.flightRepository = flightRepository;
+        this.airlineDirectory = airlineDirectory;
+        this.validator = validator;
+        this.jsonMapper = jsonMapper;
+        this.flightNumberAllocator = flightNumberAllocator;
+        this.pricingEngine = pricingEngine;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public FlightImportResponse importFlights(InputStream body, ImportFormat format) {
+        Report report = new Report(maxReportedErrors);
+        Set<String> seen = new HashSet<>();
+        List<Row> batch = new ArrayList<>(batchSize);
+        long started = System.nanoTime();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNo = 0;
+            int[] columns = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == ImportFormat.CSV && columns == null) {
+                    columns = csvColumns(line);
+                    continue;
+                }
+                report.response.setRowsRead(report.response.getRowsRead() + 1);
+                FlightRequest request;
+                try {
+                    request = format == ImportFormat.CSV ? fromCsv(line, columns) : jsonMapper.readValue(line, FlightRequest.class);
+                } catch (JacksonException ex) {
+                    report.fail(lineNo, "Invalid JSON: " + ex.getOriginalMessage());
+                    continue;
+                } catch (RuntimeException ex) {
+                    report.fail(lineNo, ex.getMessage());
+                    continue;
+                }
+                String invalid = validate(request);
+                if (invalid != null) {
+                    report.fail(lineNo, invalid);
+                    continue;
+                }
+                batch.add(new Row(lineNo, request));
+                if (batch.size() >= batchSize) {
+                    flush(batch, seen, report);
+                    batch.clear();
+                }
+            }
+            flush(batch, seen, report);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        FlightImportResponse response = report.response;
+        log.info("Imported {} of {} flights ({} duplicates, {} failed) in {} ms", response.getImported(),
+                response.getRowsRead(), response.getDuplicates(), response.getFailed(),
+                (System.nanoTime() - started) / 1_000_000);
+        return response;
+    }
+
+    private void flush(List<Row> batch, Set<String> seen, Report report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Row> fresh = new ArrayList<>(batch.size());
+        List<Flight> flights = new ArrayList<>(batch.size());
+        try {
+            Map<String, Airline> airlinesByName = new HashMap<>();
+            Map<String, Airline> airlinesById = new HashMap<>();
+            for (Row row : batch) {
+                Airline airline = airlinesByName.computeIfAbsent(Airline.nameKeyOf(row.request().getAirlineName()),
+                        key -> airlineDirectory.findOrCreate(row.request().getAirlineName()));
+                Flight flight = FlightServiceImpl.newFlight(row.request(), airline, pricingEngine);
+                airlinesById.put(airline.getAirlineId(), airline);
+                if (!seen.add(scheduleKey(flight))) {
+                    report.duplicate(row.line());
+                    continue;
+                }
+                fresh.add(row);
+                flights.add(flight);
+            }
+
+            Set<String> existing = flightRepository.findScheduled(flights).stream()
+                    .map(FlightImportServiceImpl::scheduleKey)
+                    .collect(Collectors.toSet());
+            List<Row> toInsertRows = new ArrayList<>(flights.size());
+            List<Flight> toInsert = new ArrayList<>(flights.size());
+            for (int i = 0; i < flights.size(); i++) {
+                if (existing.contains(scheduleKey(flights.get(i)))) {
+                    report.duplicate(fresh.get(i).line());
+                    continue;
+                }
+                // ids are assigned here so the change events can name the flights
+                flights.get(i).setFlightId(new ObjectId().toHexString());
+                flights.get(i).setFlightNo(flightNumberAllocator.next(airlinesById.get(flights.get(i).getAirlineId())));
+                toInsertRows.add(fresh.get(i));
+                toInsert.add(flights.get(i));
+            }
+
+            Map<Integer, String> rejected = flightRepository.insertUnordered(toInsert);
+            List<Flight> inserted = new ArrayList<>(toInsert.size());
+            for (int i = 0; i < toInsert.size(); i++) {
+                String error = rejected.get(i);
+                if (error == null) {
+                    report.response.setImported(report.response.getImported() + 1);
+                    inserted.add(toInsert.get(i));
+                } else if (DUPLICATE.equals(error)) {
+                    report.duplicate(toInsertRows.get(i).line());
+                } else {
+                    report.fail(toInsertRows.get(i).line(), error);
+                }
+            }
+            if (!inserted.isEmpty()) {
+                eventPublisher.publishEvent(new FlightsAddedEvent(inserted));
+            }
+        } catch (DataAccessException ex) {
+            // the batch is lost, the import goes on with the next one
+            log.warn("Import batch of {} rows failed: {}", batch.size(), ex.toString());
+            for (Row row : batch) {
+                report.fail(row.line(), "Not imported: " + ex.getMessage());
+            }
+        }
+    }
+
+    private String validate(FlightRequest request) {
+        Set<ConstraintViolation<FlightRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (request.getArrivalDateTime().isBefore(request.getDepartureDateTime())) {
+            return "Arrival time must be after departure time";
+        }
+        return null;
+    }
+
+    private static String scheduleKey(Flight f) {
+        return f.getAirlineId() + "|" + f.getSource() + "|" + f.getDestination() + "|" + f.getDepartureDateTime();
+    }
+
+    /** Index of each of CSV_COLUMNS in the header row. */
+    private static int[] csvColumns(String header) {
+        List<String> names = splitCsv(header).stream()
+                .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i).toLowerCase(Locale.ROOT));
+            if (columns[i] < 0) {
+                throw new BusinessException("CSV header has no " + CSV_COLUMNS.get(i) + " column");
+            }
+        }
+        return columns;
+    }
+
+    private static FlightRequest fromCsv(String line, int[] columns) {
+        List<String> values = splitCsv(line);
+        FlightRequest request = new FlightRequest();
+        request.setAirlineName(column(values, columns[0]));
+        request.setSource(column(values, columns[1]));
+        request.setDestination(column(values, columns[2]));
+        try {
+            String departure = column(values, columns[3]);
+            String arrival = column(values, columns[4]);
+            String totalSeats = column(values, columns[5]);
+            String price = column(values, columns[6]);
+            request.setDepartureDateTime(departure == null ? null : LocalDateTime.parse(departure));
+            request.setArrivalDateTime(arrival == null ? null : LocalDateTime.parse(arrival));
+            request.setTotalSeats(totalSeats == null ? 0 : Integer.parseInt(totalSeats));
+            request.setPrice(price == null ? null : Double.valueOf(price));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid value: " + ex.getMessage());
+        }
+        return request;
+    }
+
+    private static String column(List<String> values, int index) {
+        if (index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 fields: quoted fields may hold commas, and "" inside quotes is a quote
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record Row(long line, FlightRequest request) {
+    }
+
+    private static final class Report {
+        final FlightImportResponse response = new FlightImportResponse();
+        final int maxErrors;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void duplicate(long line) {
+            response.setDuplicates(response.getDuplicates() + 1);
+            error(line, DUPLICATE);
+        }
+
+        void fail(long line, String message) {
+            response.setFailed(response.getFailed() + 1);
+            error(line, message);
+        }
+
+        private void error(long line, String message) {
+            if (response.getErrors().size() < maxErrors) {
+                response.getErrors().add(new ImportRowError(line, message));
+            } else {
+                response.setErrorsTruncated(true);
+            }
+        }
+    }
+}
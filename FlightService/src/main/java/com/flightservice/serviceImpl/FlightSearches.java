@@ -0,0 +1,125 @@
+package com.flightservice.serviceImpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.dto.request.FlightRequest;
+import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.dto.response.FlightSearchPage;
+import com.flightservice.enums.SearchSort;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.exceptions.NotFoundException;
+import com.flightservice.model.Airline;
+import com.flightservice.model.Flight;
+import com.flightservice.pricing.PricingEngine;
+import com.flightservice.repository.FlightSearchCriteria;
+import com.flightservice.repository.SearchCursor;
+
+/**
+ * Turns a search request into repository criteria and flights into response
+ * rows, the same way for paged and streamed searches and for the blocking and
+ * reactive services.
+ */
+final class FlightSearches {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private FlightSearches() {
+    }
+
+    static int pageSizeOf(FlightRequest request) {
+        return request.getPageSize() == null ? DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(request.getPageSize(), MAX_PAGE_SIZE));
+    }
+
+    /**
+     * The page of flights read with a limit of pageSize + 1; the extra flight
+     * only tells that there is a next page.
+     */
+    static FlightSearchPage page(List<Flight> flights, int pageSize, SearchSort sort, AirlineDirectory airlineDirectory,
+                                 PricingEngine pricingEngine) {
+        String nextCursor = null;
+        if (flights.size() > pageSize) {
+            flights = flights.subList(0, pageSize);
+            nextCursor = SearchCursor.after(flights.get(pageSize - 1), sort).encode();
+        }
+
+        return new FlightSearchPage(toResponses(flights, airlineDirectory, pricingEngine), nextCursor);
+    }
+
+    static List<FlightResponse> toResponses(List<Flight> flights, AirlineDirectory airlineDirectory,
+                                            PricingEngine pricingEngine) {
+        // airline names come from memory, not one query per flight
+        Map<String, String> airlineNames = airlineDirectory.namesById(
+                flights.stream().map(Flight::getAirlineId).collect(Collectors.toSet()));
+        List<FlightResponse> responses = new ArrayList<>(flights.size());
+        for (Flight f : flights) {
+            responses.add(toResponse(f, airlineNames.getOrDefault(f.getAirlineId(), "Unknown"), pricingEngine));
+        }
+        return responses;
+    }
+
+    /**
+     * @param limit flights to read, 0 for all of them
+     */
+    static FlightSearchCriteria criteria(FlightRequest request, AirlineDirectory airlineDirectory, int limit) {
+        String source = request.getSource();
+        String destination = request.getDestination();
+        String airlineName = request.getAirlineName();
+        boolean hasRoute = source != null && !source.isBlank() && destination != null && !destination.isBlank();
+
+        String airlineId = null;
+        if (airlineName != null && !airlineName.isBlank()) {
+            // searching by airlineName
+            Airline airline = airlineDirectory.findByName(airlineName)
+                    .orElseThrow(() -> new NotFoundException("Airline not found"));
+            airlineId = airline.getAirlineId();
+        } else if (!hasRoute) {
+            throw new BusinessException("Source and destination are required");
+        }
+
+        SearchSort sort = sortOf(request);
+        LocalDateTime departureFrom = request.getDepartureFrom() == null ? LocalDateTime.now() : request.getDepartureFrom();
+        return new FlightSearchCriteria(
+                hasRoute ? Flight.routeKeyOf(source, destination) : null,
+                airlineId,
+                departureFrom,
+                request.getDepartureTo(),
+                request.getPassengers() == null ? 0 : request.getPassengers(),
+                sort,
+                request.getCursor() == null ? null : SearchCursor.decode(request.getCursor(), sort),
+                limit);
+    }
+
+    static SearchSort sortOf(FlightRequest request) {
+        return request.getSortBy() == null ? SearchSort.DEPARTURE : request.getSortBy();
+    }
+
+    /** The flight as a response row with its airline's current name, priced at its current fare. */
+    static FlightResponse toResponse(Flight flight, AirlineDirectory airlineDirectory, PricingEngine pricingEngine) {
+        String airlineName = airlineDirectory.findById(flight.getAirlineId())
+                .map(Airline::getAirlineName)
+                .orElse("Unknown");
+        return toResponse(flight, airlineName, pricingEngine);
+    }
+
+    /** The flight as a response row, priced at its current fare. */
+    static FlightResponse toResponse(Flight flight, String airlineName, PricingEngine pricingEngine) {
+        FlightResponse res = new FlightResponse();
+        res.setFlightId(flight.getFlightId());
+        res.setFlightNo(flight.getFlightNo());
+        res.setAirlineName(airlineName);
+        res.setSource(flight.getSource());
+        res.setDestination(flight.getDestination());
+        res.setDepartureDateTime(flight.getDepartureDateTime());
+        res.setArrivalDateTime(flight.getArrivalDateTime());
+        res.setAvailableSeats(flight.getAvailableSeats());
+        res.setPrice(pricingEngine.fareOf(flight));
+        return res;
+    }
+}
@@ -2,33 +2,76 @@ package com.flightservice.serviceImpl;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.cache.RouteSearchCache;
 import com.flightservice.dto.request.FlightRequest;
 import com.flightservice.dto.request.ReleaseSeatsRequest;
 import com.flightservice.dto.request.ReserveSeatsRequest;
 import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.dto.response.FlightSearchPage;
 import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.dto.response.SerializedSearchPage;
+import com.flightservice.enums.LedgerOperation;
+import com.flightservice.events.FlightChangedEvent;
 import com.flightservice.exceptions.BusinessException;
+import com.flightservice.exceptions.NotEnoughSeatsException;
+import com.flightservice.exceptions.NotFoundException;
+import com.flightservice.inventory.ReservationLedger;
+import com.flightservice.inventory.SeatHoldManager;
+import com.flightservice.inventory.SeatInventory;
+import com.flightservice.inventory.SeatMap;
+import com.flightservice.metrics.FlightMetrics;
 import com.flightservice.model.Airline;
 import com.flightservice.model.Flight;
-import com.flightservice.repository.AirlineRepository;
+import com.flightservice.model.ReservationLedgerEntry;
+import com.flightservice.model.SeatHold;
+import com.flightservice.pricing.PricingEngine;
 import com.flightservice.repository.FlightRepository;
+import com.flightservice.repository.FlightSearchCriteria;
+import com.flightservice.sequence.FlightNumberAllocator;
 import com.flightservice.service.FlightService;
 
 @Service
 public class FlightServiceImpl implements FlightService {
 
     private final FlightRepository flightRepository;
-    private final AirlineRepository airlineRepository;
-
-    public FlightServiceImpl(FlightRepository flightRepository, AirlineRepository airlineRepository) {
+    private final AirlineDirectory airlineDirectory;
+    private final SeatInventory seatInventory;
+    private final SeatHoldManager seatHoldManager;
+    private final ReservationLedger reservationLedger;
+    private final RouteSearchCache routeSearchCache;
+    private final FlightNumberAllocator flightNumberAllocator;
+    private final PricingEngine pricingEngine;
+    private final FlightMetrics metrics;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public FlightServiceImpl(FlightRepository flightRepository, AirlineDirectory airlineDirectory, SeatInventory seatInventory,
+                             SeatHoldManager seatHoldManager, ReservationLedger reservationLedger,
+                             RouteSearchCache routeSearchCache, FlightNumberAllocator flightNumberAllocator,
+                             PricingEngine pricingEngine, FlightMetrics metrics, ApplicationEventPublisher eventPublisher) {
         this.flightRepository = flightRepository;
-        this.airlineRepository = airlineRepository;
+        this.airlineDirectory = airlineDirectory;
+        this.seatInventory = seatInventory;
+        this.seatHoldManager = seatHoldManager;
+        this.reservationLedger = reservationLedger;
+        this.routeSearchCache = routeSearchCache;
+        this.flightNumberAllocator = flightNumberAllocator;
+        this.pricingEngine = pricingEngine;
+        this.metrics = metrics;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -42,153 +85,270 @@ public class FlightServiceImpl implements FlightService {
         }
 
         // Find or create airline
-        Optional<Airline> optAirline = airlineRepository.findByAirlineNameIgnoreCase(request.getAirlineName());
-        Airline airline = optAirline.orElseGet(() -> {
-            Airline a = new Airline();
-            a.setAirlineName(request.getAirlineName());
-            return airlineRepository.save(a);
-        });
+        Airline airline = airlineDirectory.findOrCreate(request.getAirlineName());
+        Flight flight = newFlight(request, airline, pricingEngine);
 
         // Check if flight already exists for this airline/time/route
         boolean exists = flightRepository.existsByAirlineIdAndSourceAndDestinationAndDepartureDateTime(
                 airline.getAirlineId(),
-                request.getSource(),
-                request.getDestination(),
-                request.getDepartureDateTime()
+                flight.getSource(),
+                flight.getDestination(),
+                flight.getDepartureDateTime()
         );
 
         if (exists) {
             throw new BusinessException("Flight already exists for this airline at this time");
         }
+        flight.setFlightNo(flightNumberAllocator.next(airline));
+
+        Flight saved;
+        try {
+            saved = flightRepository.save(flight);
+        } catch (DuplicateKeyException ex) {
+            // added concurrently, after the check above
+            throw new BusinessException("Flight already exists for this airline at this time");
+        }
+        eventPublisher.publishEvent(new FlightChangedEvent(saved));
+        return saved;
+    }
+
+    /**
+     * A new flight of the airline as the request describes it, with normalized
+     * codes, an empty seat map and its current fare, and no flight number yet.
+     */
+    static Flight newFlight(FlightRequest request, Airline airline, PricingEngine pricingEngine) {
+        String source = Flight.normalizeCode(request.getSource());
+        String destination = Flight.normalizeCode(request.getDestination());
 
-        
         Flight flight = new Flight();
         flight.setAirlineId(airline.getAirlineId());
-        flight.setSource(request.getSource());
-        flight.setDestination(request.getDestination());
-        flight.setDepartureDateTime(departure);
-        flight.setArrivalDateTime(arrival);
+        flight.setSource(source);
+        flight.setDestination(destination);
+        flight.setRouteKey(Flight.routeKeyOf(source, destination));
+        flight.setDepartureDateTime(request.getDepartureDateTime());
+        flight.setArrivalDateTime(request.getArrivalDateTime());
         flight.setTotalSeats(request.getTotalSeats());
         flight.setAvailableSeats(request.getTotalSeats());
         flight.setPrice(request.getPrice());
+        flight.setSeatsPerRow(SeatMap.DEFAULT_SEATS_PER_ROW);
+        flight.setSeatRows(SeatMap.emptyRows(request.getTotalSeats(), SeatMap.DEFAULT_SEATS_PER_ROW));
+
+        pricingEngine.price(flight);
+        return flight;
+    }
 
-        
-        String airlineCode = airline.getAirlineName()
-                .substring(0, Math.min(2, airline.getAirlineName().length()))
-                .toUpperCase();
-        int randomNumber = (int) (Math.random() * 900) + 100;
-        String flightNumber = airlineCode + "-" + randomNumber;
-        flight.setFlightNo(flightNumber);
+    @Override
+    public FlightSearchPage searchFlights(FlightRequest request) {
+        return metrics.search().record(() -> search(request));
+    }
 
-        
-        return flightRepository.save(flight);
+    private FlightSearchPage search(FlightRequest request) {
+        int pageSize = FlightSearches.pageSizeOf(request);
+        FlightSearchCriteria criteria = FlightSearches.criteria(request, airlineDirectory, pageSize + 1);
+        List<Flight> flights = flightRepository.searchPage(criteria);
+        return FlightSearches.page(flights, pageSize, criteria.sort(), airlineDirectory, pricingEngine);
     }
 
     @Override
-    public List<FlightResponse> searchFlights(FlightRequest request) {
-        String source = request.getSource();
-        String destination = request.getDestination();
-        String airlineName = request.getAirlineName();
+    public SerializedSearchPage searchFlightsJson(FlightRequest request) {
+        // timed around the cache, so the search timer shows what clients wait, hits included
+        return metrics.search().record(() -> routeSearchCache.get(request, () -> search(request)));
+    }
 
-        List<FlightResponse> responses = new ArrayList<>();
+    @Override
+    public ReserveSeatsResponse reserveSeats(String flightId, ReserveSeatsRequest request) {
+        return metrics.reserve().record(() -> reserveOnce(flightId, request));
+    }
 
-        if (airlineName == null || airlineName.isBlank()) {
-            List<Flight> flights = flightRepository.findBySourceIgnoreCaseAndDestinationIgnoreCase(source, destination);
-            for (Flight f : flights) {
-                responses.add(mapFlightToResponse(f));
-            }
-            return responses;
+    private ReserveSeatsResponse reserveOnce(String flightId, ReserveSeatsRequest request) {
+        String reference = request.getBookingReference();
+        if (reference == null) {
+            return reserve(flightId, request);
         }
-
-        // searching by airlineName
-        Optional<Airline> optAirline = airlineRepository.findByAirlineNameIgnoreCase(airlineName);
-        if (optAirline.isEmpty()) {
-            throw new BusinessException("Airline not found");
+        // a retried call with the same booking reference gets the first answer back
+        ReservationLedgerEntry applied = reservationLedger.begin(flightId, LedgerOperation.RESERVE, reference);
+        if (applied != null) {
+            return applied.getResponse();
         }
-        Airline airline = optAirline.get();
-        List<Flight> flights = flightRepository.findByAirlineIdIgnoreCase(airline.getAirlineId());
-        for (Flight f : flights) {
-            responses.add(mapFlightToResponse(f));
+        ReserveSeatsResponse resp;
+        try {
+            resp = reserve(flightId, request);
+        } catch (RuntimeException ex) {
+            reservationLedger.abandon(flightId, LedgerOperation.RESERVE, reference);
+            throw ex;
         }
-        return responses;
-    }
-
-    private FlightResponse mapFlightToResponse(Flight flight) {
-        Optional<Airline> optAirline = airlineRepository.findById(flight.getAirlineId());
-        String airlineName = optAirline.map(Airline::getAirlineName).orElse("Unknown");
-
-        FlightResponse res = new FlightResponse();
-        res.setFlightNo(flight.getFlightNo());
-        res.setAirlineName(airlineName);
-        res.setSource(flight.getSource());
-        res.setDestination(flight.getDestination());
-        res.setDepartureDateTime(flight.getDepartureDateTime());
-        res.setArrivalDateTime(flight.getArrivalDateTime());
-        res.setAvailableSeats(flight.getAvailableSeats());
-        res.setPrice(flight.getPrice());
-        return res;
+        reservationLedger.complete(flightId, LedgerOperation.RESERVE, reference, resp);
+        return resp;
     }
-    
-    @Override
-    public ReserveSeatsResponse reserveSeats(String flightId, ReserveSeatsRequest request) {
-        // load flight
-        Flight flight = flightRepository.findById(flightId)
-                .orElseThrow(() -> new BusinessException("Flight not found with id: " + flightId));
 
+    private ReserveSeatsResponse reserve(String flightId, ReserveSeatsRequest request) {
         int count = request.getCount();
         if (count <= 0) {
             throw new BusinessException("Invalid seats count: " + count);
         }
+        List<String> seatNumbers = normalizeSeats(request.getSeatNumbers());
+        if (seatNumbers.size() > count) {
+            throw new BusinessException("More seat numbers than seats requested: " + seatNumbers.size() + " > " + count);
+        }
+        Map<Integer, Long> seatMasks = SeatMap.masksByRow(seatNumbers, SeatMap.DEFAULT_SEATS_PER_ROW);
 
-        if (flight.getAvailableSeats() < count) {
-            throw new BusinessException("Not enough seats available. Requested: " + count + ", Available: " + flight.getAvailableSeats());
+        // seat count and seat bits are checked and claimed in one step, so concurrent bookings
+        // can neither oversell nor get the same seat
+        Flight updated = seatInventory.reserve(flightId, count, seatMasks);
+        if (updated == null) {
+            throw reserveFailure(flightId, count, seatMasks);
         }
+        metrics.seatsReserved(count);
+        eventPublisher.publishEvent(new FlightChangedEvent(updated, -count));
 
-        // decrement and save
-        flight.setAvailableSeats(flight.getAvailableSeats() - count);
-        Flight saved = flightRepository.save(flight);
+        // the seats stay taken only if the hold is confirmed before it expires
+        SeatHold hold = seatHoldManager.hold(flightId, request.getBookingReference(), count, seatNumbers);
 
         // build response
         ReserveSeatsResponse resp = new ReserveSeatsResponse();
         resp.setSuccess(true);
-        resp.setReservationReference("RES-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        resp.setReservationReference(hold.getHoldId());
+        resp.setHoldExpiresAt(hold.getExpiresAt());
         resp.setSeatsReserved(count);
-        resp.setRemainingSeats(saved.getAvailableSeats());
+        resp.setRemainingSeats(updated.getAvailableSeats());
+        resp.setReservedSeats(seatNumbers);
+        // priced at the seats that were left before this reserve took its own
+        resp.setFare(pricingEngine.fareOf(updated, updated.getAvailableSeats() + count));
+        return resp;
+    }
+
+    @Override
+    public ReserveSeatsResponse confirmHold(String flightId, String holdId) {
+        SeatHold hold = seatHoldManager.confirm(flightId, holdId);
+
+        ReserveSeatsResponse resp = new ReserveSeatsResponse();
+        resp.setSuccess(true);
+        resp.setReservationReference(hold.getHoldId());
+        resp.setSeatsReserved(hold.getCount());
+        resp.setReservedSeats(hold.getSeatNumbers());
         return resp;
     }
 
     @Override
     public void releaseSeats(String flightId, ReleaseSeatsRequest request) {
-        Flight flight = flightRepository.findById(flightId)
-                .orElseThrow(() -> new BusinessException("Flight not found with id: " + flightId));
+        metrics.release().record(() -> releaseOnce(flightId, request));
+    }
 
+    private void releaseOnce(String flightId, ReleaseSeatsRequest request) {
         int count = request.getCount();
         if (count <= 0) {
             throw new BusinessException("Invalid seats count: " + count);
         }
+        String reference = request.getBookingReference();
+        if (reference == null) {
+            release(flightId, request);
+            return;
+        }
+        // seats of a reference are given back once, however often the cancel is retried
+        if (reservationLedger.begin(flightId, LedgerOperation.RELEASE, reference) != null) {
+            return;
+        }
+        try {
+            release(flightId, request);
+        } catch (RuntimeException ex) {
+            reservationLedger.abandon(flightId, LedgerOperation.RELEASE, reference);
+            throw ex;
+        }
+        reservationLedger.complete(flightId, LedgerOperation.RELEASE, reference, null);
+    }
+
+    private void release(String flightId, ReleaseSeatsRequest request) {
+        int count = request.getCount();
+        // an unconfirmed hold under this reference gives back its own seats, at most once
+        if (seatHoldManager.releaseHold(flightId, request.getBookingReference())) {
+            return;
+        }
+        Map<Integer, Long> seatMasks = SeatMap.masksByRow(normalizeSeats(request.getSeatNumbers()), SeatMap.DEFAULT_SEATS_PER_ROW);
+
+        Flight updated = seatInventory.release(flightId, count, seatMasks);
+        if (updated == null) {
+            throw releaseFailure(flightId, count, seatMasks);
+        }
+        metrics.seatsReleased(count);
+        eventPublisher.publishEvent(new FlightChangedEvent(updated, count));
+    }
+
+    private static List<String> normalizeSeats(List<String> seatNumbers) {
+        if (seatNumbers == null) {
+            return List.of();
+        }
+        return seatNumbers.stream()
+                .filter(Objects::nonNull)
+                .map(SeatMap::normalize)
+                .toList();
+    }
+
+    // only the failure path pays for a read, to explain why the reserve was refused
+    private BusinessException reserveFailure(String flightId, int count, Map<Integer, Long> seatMasks) {
+        Flight flight = seatInventory.current(flightId)
+                .orElseThrow(() -> new NotFoundException("Flight not found with id: " + flightId));
+
+        List<String> invalid = SeatMap.outOfRange(seatMasks, flight.getTotalSeats(), SeatMap.DEFAULT_SEATS_PER_ROW);
+        if (!invalid.isEmpty()) {
+            return new BusinessException("Invalid seat number(s): " + String.join(", ", invalid));
+        }
+        List<String> taken = SeatMap.taken(flight.getSeatRows(), seatMasks);
+        if (!taken.isEmpty()) {
+            return new BusinessException("Seat(s) already taken: " + String.join(", ", taken));
+        }
+        return new NotEnoughSeatsException("Not enough seats available. Requested: " + count + ", Available: " + flight.getAvailableSeats());
+    }
+
+    private BusinessException releaseFailure(String flightId, int count, Map<Integer, Long> seatMasks) {
+        Flight flight = seatInventory.current(flightId)
+                .orElseThrow(() -> new NotFoundException("Flight not found with id: " + flightId));
 
-        flight.setAvailableSeats(flight.getAvailableSeats() + count);
-        flightRepository.save(flight);
+        List<String> free = flight.getSeatRows() == null ? List.of() : SeatMap.free(flight.getSeatRows(), seatMasks);
+        if (!free.isEmpty()) {
+            return new BusinessException("Seat(s) not held: " + String.join(", ", free));
+        }
+        return new BusinessException("Seats not held. Released: " + count + ", Held: "
+                + (flight.getTotalSeats() - flight.getAvailableSeats()));
     }
 
     @Override
     public FlightResponse getFlightById(String id) {
-        Flight flight = flightRepository.findById(id)
-                .orElseThrow(() -> new BusinessException("Flight not found with id: " + id));
-
-        FlightResponse response = new FlightResponse();
-        //response.setFlightId(flight.getFlightId());
-        response.setAirlineName(flight.getAirlineName());
-        response.setSource(flight.getSource());
-        response.setDestination(flight.getDestination());
-        response.setDepartureDateTime(flight.getDepartureDateTime());
-        response.setDepartureDateTime(flight.getDepartureDateTime());
-        response.setArrivalDateTime(flight.getArrivalDateTime());
-        response.setArrivalDateTime(flight.getArrivalDateTime());
-        response.setAvailableSeats(flight.getAvailableSeats());
-        response.setPrice(flight.getPrice());
-
-        return response;
+        return metrics.lookup().record(() -> findFlight(id));
+    }
+
+    private FlightResponse findFlight(String id) {
+        // departed flights move to the archive, old bookings still look them up
+        Flight flight = flightRepository.findResponseById(id)
+                .or(() -> flightRepository.findArchivedResponseById(id))
+                .orElseThrow(() -> new NotFoundException("Flight not found with id: " + id));
+        return FlightSearches.toResponse(flight, airlineDirectory, pricingEngine);
+    }
+
+    @Override
+    public List<FlightResponse> getFlightsByIds(Collection<String> ids) {
+        Set<String> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        Map<String, FlightResponse> byId = new HashMap<>();
+        for (FlightResponse r : FlightSearches.toResponses(flightRepository.findResponsesById(distinct), airlineDirectory,
+                pricingEngine)) {
+            byId.put(r.getFlightId(), r);
+        }
+        if (byId.size() < distinct.size()) {
+            Set<String> missing = new HashSet<>(distinct);
+            missing.removeAll(byId.keySet());
+            for (FlightResponse r : FlightSearches.toResponses(flightRepository.findArchivedResponsesById(missing),
+                    airlineDirectory, pricingEngine)) {
+                byId.put(r.getFlightId(), r);
+            }
+        }
+        List<FlightResponse> responses = new ArrayList<>(byId.size());
+        for (String id : distinct) {
+            FlightResponse r = byId.get(id);
+            if (r != null) {
+                responses.add(r);
+            }
+        }
+        return responses;
     }
 
     
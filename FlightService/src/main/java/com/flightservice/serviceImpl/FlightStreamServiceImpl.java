@@ -0,0 +1,71 @@
+package com.flightservice.serviceImpl;
+
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.dto.request.FlightRequest;
+import com.flightservice.model.Airline;
+import com.flightservice.model.Flight;
+import com.flightservice.pricing.PricingEngine;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.repository.FlightSearchCriteria;
+import com.flightservice.service.FlightStreamService;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Streams whole search results to partners that pull route inventories. Rows
+ * go out as they come off the Mongo cursor, so memory use does not depend on
+ * the size of the result and the first bytes leave after the first batch.
+ */
+@Service
+public class FlightStreamServiceImpl implements FlightStreamService {
+
+    private static final byte NEWLINE = '\n';
+
+    private final FlightRepository flightRepository;
+    private final AirlineDirectory airlineDirectory;
+    private final JsonMapper jsonMapper;
+    private final PricingEngine pricingEngine;
+    private final int batchSize;
+    private final int flushEvery;
+
+    public FlightStreamServiceImpl(FlightRepository flightRepository, AirlineDirectory airlineDirectory,
+                                   JsonMapper jsonMapper, PricingEngine pricingEngine,
+                                   @Value("${flight.search.stream.batch-size:500}") int batchSize,
+                                   @Value("${flight.search.stream.flush-every:100}") int flushEvery) {
+        this.flightRepository = flightRepository;
+        this.airlineDirectory = airlineDirectory;
+        this.jsonMapper = jsonMapper;
+        this.pricingEngine = pricingEngine;
+        this.batchSize = batchSize;
+        this.flushEvery = Math.max(1, flushEvery);
+    }
+
+    @Override
+    public StreamingResponseBody streamFlights(FlightRequest request) {
+        // resolved up front, so a bad request fails with a normal error response
+        FlightSearchCriteria criteria = FlightSearches.criteria(request, airlineDirectory, 0);
+
+        return out -> {
+            int rows = 0;
+            try (Stream<Flight> flights = flightRepository.streamSearch(criteria, batchSize)) {
+                for (Flight flight : (Iterable<Flight>) flights::iterator) {
+                    String airlineName = airlineDirectory.findById(flight.getAirlineId())
+                            .map(Airline::getAirlineName)
+                            .orElse("Unknown");
+                    out.write(jsonMapper.writeValueAsBytes(FlightSearches.toResponse(flight, airlineName, pricingEngine)));
+                    out.write(NEWLINE);
+                    if (++rows % flushEvery == 0) {
+                        out.flush();
+                    }
+                }
+            }
+            out.flush();
+        };
+    }
+}
@@ -0,0 +1,113 @@
+package com.flightservice.serviceImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.dto.request.ItineraryRequest;
+import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.dto.response.ItineraryResponse;
+import com.flightservice.enums.ItinerarySort;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.itinerary.Itinerary;
+import com.flightservice.itinerary.ItineraryQuery;
+import com.flightservice.itinerary.RouteGraph;
+import com.flightservice.model.Flight;
+import com.flightservice.pricing.PricingEngine;
+import com.flightservice.service.ItineraryService;
+
+@Service
+public class ItineraryServiceImpl implements ItineraryService {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final RouteGraph routeGraph;
+    private final AirlineDirectory airlineDirectory;
+    private final PricingEngine pricingEngine;
+    private final Duration minLayover;
+    private final Duration maxLayover;
+
+    public ItineraryServiceImpl(RouteGraph routeGraph, AirlineDirectory airlineDirectory, PricingEngine pricingEngine,
+                                @Value("${flight.itinerary.min-layover:45m}") Duration minLayover,
+                                @Value("${flight.itinerary.max-layover:6h}") Duration maxLayover) {
+        this.routeGraph = routeGraph;
+        this.airlineDirectory = airlineDirectory;
+        this.pricingEngine = pricingEngine;
+        this.minLayover = minLayover;
+        this.maxLayover = maxLayover;
+    }
+
+    @Override
+    public List<ItineraryResponse> searchItineraries(ItineraryRequest request) {
+        if (!routeGraph.isLoaded()) {
+            throw new BusinessException("Itinerary search is not available yet, try again shortly");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = request.getDepartureFrom() == null || request.getDepartureFrom().isBefore(now)
+                ? now : request.getDepartureFrom();
+        LocalDateTime to = request.getDepartureTo() == null ? from.plusDays(1) : request.getDepartureTo();
+        if (!to.isAfter(from)) {
+            throw new BusinessException("departureTo must be after departureFrom");
+        }
+        long minLayoverMinutes = request.getMinLayoverMinutes() == null ? minLayover.toMinutes() : request.getMinLayoverMinutes();
+        long maxLayoverMinutes = request.getMaxLayoverMinutes() == null ? maxLayover.toMinutes() : request.getMaxLayoverMinutes();
+        if (maxLayoverMinutes < minLayoverMinutes) {
+            throw new BusinessException("maxLayoverMinutes must not be less than minLayoverMinutes");
+        }
+
+        ItineraryQuery query = new ItineraryQuery(
+                request.getSource(),
+                request.getDestination(),
+                RouteGraph.minuteOf(from),
+                RouteGraph.minuteOf(to),
+                request.getPassengers() == null ? 1 : request.getPassengers(),
+                request.getMaxStops() == null ? 2 : request.getMaxStops(),
+                minLayoverMinutes,
+                maxLayoverMinutes,
+                request.getSortBy() == null ? ItinerarySort.PRICE : request.getSortBy(),
+                request.getLimit() == null ? DEFAULT_LIMIT : request.getLimit());
+
+        List<ItineraryResponse> responses = new ArrayList<>();
+        for (Itinerary itinerary : routeGraph.search(query)) {
+            responses.add(toResponse(itinerary));
+        }
+        return responses;
+    }
+
+    private ItineraryResponse toResponse(Itinerary itinerary) {
+        List<FlightResponse> legs = new ArrayList<>(itinerary.flightIds().size());
+        // ranked on the stored fares, shown at the fares quoted now; they differ only while a repricing is pending
+        double totalPrice = 0;
+        boolean complete = true;
+        for (String flightId : itinerary.flightIds()) {
+            Flight flight = routeGraph.flight(flightId).orElse(null);
+            if (flight == null) {
+                // removed by a concurrent update; the itinerary is incomplete, show the id only
+                FlightResponse missing = new FlightResponse();
+                missing.setFlightId(flightId);
+                legs.add(missing);
+                complete = false;
+                continue;
+            }
+            FlightResponse leg = FlightSearches.toResponse(flight, airlineDirectory, pricingEngine);
+            legs.add(leg);
+            if (leg.getPrice() == null) {
+                complete = false;
+            } else {
+                totalPrice += leg.getPrice();
+            }
+        }
+
+        ItineraryResponse res = new ItineraryResponse();
+        res.setLegs(legs);
+        res.setStops(itinerary.stops());
+        res.setTotalPrice(complete ? Math.round(totalPrice * 100) / 100.0 : itinerary.totalPrice());
+        res.setTotalDurationMinutes(itinerary.durationMinutes());
+        return res;
+    }
+}
@@ -0,0 +1,107 @@
+package com.flightservice.serviceImpl;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.cache.RouteSearchCache;
+import com.flightservice.dto.request.FlightRequest;
+import com.flightservice.dto.request.ReleaseSeatsRequest;
+import com.flightservice.dto.request.ReserveSeatsRequest;
+import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.dto.response.FlightSearchPage;
+import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.dto.response.SerializedSearchPage;
+import com.flightservice.exceptions.NotFoundException;
+import com.flightservice.metrics.FlightMetrics;
+import com.flightservice.pricing.PricingEngine;
+import com.flightservice.repository.ReactiveFlightRepository;
+import com.flightservice.service.FlightService;
+import com.flightservice.service.ReactiveFlightService;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Searches and flight reads run on the reactive Mongo driver, so thousands of
+ * them in flight hold no threads while they wait on the database. Airline
+ * lookups come from the in-memory directory; since a miss there loads from
+ * Mongo, they run on the bounded elastic scheduler.
+ *
+ * Reserve and release go through the blocking {@link FlightService} on the
+ * bounded elastic scheduler: they share its ledger, seat holds, inventory
+ * engine and change events, which only exist in blocking form. Bookings are
+ * a small share of the traffic next to searches.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveFlightServiceImpl implements ReactiveFlightService {
+
+    private final ReactiveFlightRepository reactiveFlightRepository;
+    private final AirlineDirectory airlineDirectory;
+    private final RouteSearchCache routeSearchCache;
+    private final FlightService flightService;
+    private final PricingEngine pricingEngine;
+    private final FlightMetrics metrics;
+
+    public ReactiveFlightServiceImpl(ReactiveFlightRepository reactiveFlightRepository, AirlineDirectory airlineDirectory,
+                                     RouteSearchCache routeSearchCache, FlightService flightService,
+                                     PricingEngine pricingEngine, FlightMetrics metrics) {
+        this.reactiveFlightRepository = reactiveFlightRepository;
+        this.airlineDirectory = airlineDirectory;
+        this.routeSearchCache = routeSearchCache;
+        this.flightService = flightService;
+        this.pricingEngine = pricingEngine;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<FlightSearchPage> searchFlights(FlightRequest request) {
+        return metrics.search().record(search(request));
+    }
+
+    private Mono<FlightSearchPage> search(FlightRequest request) {
+        int pageSize = FlightSearches.pageSizeOf(request);
+        return Mono.fromCallable(() -> FlightSearches.criteria(request, airlineDirectory, pageSize + 1))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(criteria -> reactiveFlightRepository.searchPage(criteria).collectList()
+                        .publishOn(Schedulers.boundedElastic())
+                        .map(flights -> FlightSearches.page(flights, pageSize, criteria.sort(), airlineDirectory,
+                                pricingEngine)));
+    }
+
+    @Override
+    public Mono<SerializedSearchPage> searchFlightsJson(FlightRequest request) {
+        // timed around the cache, as the blocking service is
+        return metrics.search().record(Mono.defer(() -> {
+            // the key is taken before the search, see RouteSearchCache
+            String key = routeSearchCache.keyOf(request);
+            SerializedSearchPage cached = routeSearchCache.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return search(request).map(page -> routeSearchCache.put(key, page));
+        }));
+    }
+
+    @Override
+    public Mono<FlightResponse> getFlightById(String id) {
+        return metrics.lookup().record(reactiveFlightRepository.findResponseById(id)
+                .switchIfEmpty(Mono.defer(() -> reactiveFlightRepository.findArchivedResponseById(id)))
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Flight not found with id: " + id)))
+                .map(flight -> FlightSearches.toResponse(flight, airlineDirectory, pricingEngine)));
+    }
+
+    // reserve and release are timed by the blocking service they run on
+    @Override
+    public Mono<ReserveSeatsResponse> reserveSeats(String flightId, ReserveSeatsRequest request) {
+        return Mono.fromCallable(() -> flightService.reserveSeats(flightId, request))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Void> releaseSeats(String flightId, ReleaseSeatsRequest request) {
+        return Mono.<Void>fromRunnable(() -> flightService.releaseSeats(flightId, request))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,65 @@
+package com.flightservice.serviceImpl;
+
+import org.springframework.stereotype.Service;
+
+import com.flightservice.dto.request.WaitlistRequest;
+import com.flightservice.dto.response.WaitlistResponse;
+import com.flightservice.enums.WaitlistStatus;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.exceptions.NotFoundException;
+import com.flightservice.model.WaitlistEntry;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.service.WaitlistService;
+import com.flightservice.waitlist.Waitlist;
+
+@Service
+public class WaitlistServiceImpl implements WaitlistService {
+
+    private final Waitlist waitlist;
+    private final FlightRepository flightRepository;
+
+    public WaitlistServiceImpl(Waitlist waitlist, FlightRepository flightRepository) {
+        this.waitlist = waitlist;
+        this.flightRepository = flightRepository;
+    }
+
+    @Override
+    public WaitlistResponse join(String flightId, WaitlistRequest request) {
+        if (request.getCount() <= 0) {
+            throw new BusinessException("Invalid seats count: " + request.getCount());
+        }
+        if (!flightRepository.existsById(flightId)) {
+            throw new NotFoundException("Flight not found with id: " + flightId);
+        }
+        return toResponse(waitlist.join(flightId, request.getBookingReference(), request.getCount()));
+    }
+
+    @Override
+    public WaitlistResponse status(String flightId, String bookingReference) {
+        return toResponse(waitlist.find(flightId, bookingReference)
+                .orElseThrow(() -> new BusinessException("Not on the waitlist: " + bookingReference)));
+    }
+
+    @Override
+    public void leave(String flightId, String bookingReference) {
+        if (!waitlist.leave(flightId, bookingReference)) {
+            // promoted entries hold seats: those are given back with a release under the same reference
+            throw new BusinessException("Not waiting on the waitlist: " + bookingReference);
+        }
+    }
+
+    private WaitlistResponse toResponse(WaitlistEntry entry) {
+        WaitlistResponse res = new WaitlistResponse();
+        res.setFlightId(entry.getFlightId());
+        res.setBookingReference(entry.getBookingReference());
+        res.setCount(entry.getCount());
+        res.setStatus(entry.getStatus());
+        res.setRequestedAt(entry.getRequestedAt());
+        if (entry.getStatus() == WaitlistStatus.WAITING) {
+            res.setPosition(waitlist.position(entry));
+        }
+        res.setHoldId(entry.getHoldId());
+        res.setHoldExpiresAt(entry.getHoldExpiresAt());
+        return res;
+    }
+}
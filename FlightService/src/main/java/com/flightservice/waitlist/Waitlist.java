@@ -0,0 +1,201 @@
+package com.flightservice.waitlist;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.flightservice.dto.request.ReserveSeatsRequest;
+import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.enums.WaitlistStatus;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.events.WaitlistPromotedEvent;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.model.WaitlistEntry;
+import com.flightservice.repository.WaitlistRepository;
+import com.flightservice.service.FlightService;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Per-flight FIFO line of requests for seats on a full flight, in the
+ * waitlist collection. Customers join once instead of retrying reserves in a
+ * loop against the busiest flights.
+ *
+ * A FlightChangedEvent that gives seats back (a release, an expired hold)
+ * marks the flight, and a single worker promotes its line: it claims the
+ * head, reserves its seats under the entry's booking reference through the
+ * normal reserve (ledger, seat hold and events included), and publishes a
+ * WaitlistPromotedEvent, until the head no longer fits. The line is strict:
+ * a large request at the head is not overtaken by smaller ones behind it.
+ * Marks are coalesced, so a burst of cancellations on one flight is one pass
+ * over its line, and a flight nobody waits for costs one indexed query.
+ *
+ * An entry stays PROMOTING only while its claimer reserves its seats. If the
+ * instance dies in between, the claim goes stale after claim-timeout: a sweep
+ * every claim-timeout marks the flights with stale claims, and claiming the
+ * head takes a stale entry again at its place in line. Reserving it again is
+ * safe, the reserve is idempotent on the booking reference, so a claimer
+ * that was only slow and the one that took over end up with the same hold.
+ */
+@Component
+public class Waitlist {
+
+    private static final Logger log = LoggerFactory.getLogger(Waitlist.class);
+
+    private final WaitlistRepository waitlistRepository;
+    private final FlightService flightService;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final String topic;
+    private final Duration claimTimeout;
+
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "waitlist");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public Waitlist(WaitlistRepository waitlistRepository, FlightService flightService,
+                    KafkaTemplate<String, Object> kafkaTemplate,
+                    @Value("${flight.waitlist.topic:flight-waitlist-promotions}") String topic,
+                    @Value("${flight.waitlist.claim-timeout:1m}") Duration claimTimeout) {
+        this.waitlistRepository = waitlistRepository;
+        this.flightService = flightService;
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.claimTimeout = claimTimeout;
+        long millis = claimTimeout.toMillis();
+        worker.scheduleWithFixedDelay(this::reclaimStale, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Puts the booking reference in the flight's line, or returns its entry if
+     * it is already there.
+     */
+    public WaitlistEntry join(String flightId, String bookingReference, int count) {
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setFlightId(flightId);
+        entry.setBookingReference(bookingReference);
+        entry.setCount(count);
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry.setRequestedAt(LocalDateTime.now());
+        WaitlistEntry saved;
+        try {
+            saved = waitlistRepository.insert(entry);
+        } catch (DuplicateKeyException ex) {
+            // a retried join
+            return waitlistRepository.findByFlightIdAndBookingReference(flightId, bookingReference)
+                    .orElseThrow(() -> ex);
+        }
+        // seats may have come back before the customer got here
+        schedulePromotion(flightId);
+        return saved;
+    }
+
+    public Optional<WaitlistEntry> find(String flightId, String bookingReference) {
+        return waitlistRepository.findByFlightIdAndBookingReference(flightId, bookingReference);
+    }
+
+    /** 1 for the head of the line. */
+    public long position(WaitlistEntry entry) {
+        return waitlistRepository.countByFlightIdAndStatusAndRequestedAtLessThan(entry.getFlightId(),
+                WaitlistStatus.WAITING, entry.getRequestedAt()) + 1;
+    }
+
+    /** @return true if the reference was waiting and has left the line */
+    public boolean leave(String flightId, String bookingReference) {
+        return waitlistRepository.deleteByFlightIdAndBookingReferenceAndStatus(flightId, bookingReference,
+                WaitlistStatus.WAITING) > 0;
+    }
+
+    @EventListener
+    public void onFlightChanged(FlightChangedEvent event) {
+        if (event.seatDelta() > 0) {
+            schedulePromotion(event.flight().getFlightId());
+        }
+    }
+
+    private void schedulePromotion(String flightId) {
+        if (flightId != null && dirty.add(flightId)) {
+            worker.execute(() -> {
+                // cleared first: seats given back from here on mark the flight again
+                dirty.remove(flightId);
+                promote(flightId);
+            });
+        }
+    }
+
+    /** Marks the flights whose lines have an entry left PROMOTING past the claim timeout. */
+    public void reclaimStale() {
+        try {
+            waitlistRepository.findFlightsWithClaimsBefore(LocalDateTime.now().minus(claimTimeout))
+                    .forEach(this::schedulePromotion);
+        } catch (RuntimeException ex) {
+            // the next sweep tries again
+            log.warn("Stale waitlist claims not reclaimed: {}", ex.toString());
+        }
+    }
+
+    /** Promotes the flight's line in order for as long as the head's seats can be reserved. */
+    public void promote(String flightId) {
+        try {
+            while (true) {
+                LocalDateTime now = LocalDateTime.now();
+                WaitlistEntry head = waitlistRepository.claimHead(flightId, now, now.minus(claimTimeout));
+                if (head == null || !promote(head)) {
+                    return;
+                }
+            }
+        } catch (RuntimeException ex) {
+            // the next seats given back on this flight try again
+            log.warn("Waitlist of flight {} not promoted: {}", flightId, ex.toString());
+        }
+    }
+
+    private boolean promote(WaitlistEntry entry) {
+        ReserveSeatsRequest request = new ReserveSeatsRequest();
+        request.setBookingReference(entry.getBookingReference());
+        request.setCount(entry.getCount());
+        ReserveSeatsResponse hold;
+        try {
+            hold = flightService.reserveSeats(entry.getFlightId(), request);
+        } catch (RuntimeException ex) {
+            // back to its place in line until more seats come back
+            waitlistRepository.unclaim(entry.getId());
+            if (!(ex instanceof BusinessException)) {
+                throw ex;
+            }
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        waitlistRepository.markPromoted(entry.getId(), hold.getReservationReference(), hold.getHoldExpiresAt(), now);
+        WaitlistPromotedEvent event = new WaitlistPromotedEvent(entry.getFlightId(), entry.getBookingReference(),
+                entry.getCount(), hold.getReservationReference(), hold.getHoldExpiresAt(), now);
+        kafkaTemplate.send(topic, entry.getFlightId(), event).whenComplete((result, ex) -> {
+            if (ex != null) {
+                // the entry shows the promotion to anyone who asks for its status
+                log.warn("Waitlist promotion of {} on flight {} not published: {}", entry.getBookingReference(),
+                        entry.getFlightId(), ex.toString());
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+}
@@ -0,0 +1,84 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.model.Airline;
+import com.flightservice.repository.AirlineRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AirlineDirectoryTest {
+
+    private AirlineRepository airlineRepository;
+    private AirlineDirectory directory;
+
+    @BeforeEach
+    void setUp() {
+        airlineRepository = mock(AirlineRepository.class);
+        directory = new AirlineDirectory(airlineRepository, new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(10), Duration.ofHours(1));
+    }
+
+    @Test
+    void miss_isCachedForTheNextLookup() {
+        when(airlineRepository.findById("A1")).thenReturn(Optional.of(airline("A1", "IndiGo")));
+
+        directory.findById("A1");
+        directory.findById("A1");
+
+        verify(airlineRepository, times(1)).findById("A1");
+    }
+
+    @Test
+    void saveDuringAMiss_doesNotLeaveTheOldAirlineCached() {
+        Airline renamed = airline("A1", "IndiGo Airlines");
+        when(airlineRepository.findById("A1"))
+                .thenAnswer(inv -> {
+                    // the rename is saved, and its invalidation done, while the old airline is on its way back
+                    directory.onAfterSave(new AfterSaveEvent<>(renamed, new Document(), "airline"));
+                    return Optional.of(airline("A1", "IndiGo"));
+                })
+                .thenReturn(Optional.of(renamed));
+
+        assertEquals("IndiGo", directory.findById("A1").orElseThrow().getAirlineName());
+        assertEquals("IndiGo Airlines", directory.findById("A1").orElseThrow().getAirlineName());
+    }
+
+    @Test
+    void miss_doesNotReplaceTheAirlineFindOrCreatePut() {
+        Airline created = airline("A9", "Akasa Air");
+        when(airlineRepository.save(any())).thenReturn(created);
+        when(airlineRepository.findById("A9")).thenReturn(Optional.of(created));
+        AtomicBoolean reading = new AtomicBoolean();
+        when(airlineRepository.findByAirlineNameKey("akasa air")).thenAnswer(inv -> {
+            if (reading.compareAndSet(false, true)) {
+                // another request creates the airline while this lookup reads
+                directory.findOrCreate("Akasa Air");
+            }
+            return Optional.empty();
+        });
+
+        assertEquals(Optional.of("A9"), directory.findByName("Akasa Air").map(Airline::getAirlineId));
+        assertEquals(Optional.of("A9"), directory.findByName("akasa air").map(Airline::getAirlineId));
+    }
+
+    private static Airline airline(String id, String name) {
+        Airline a = new Airline();
+        a.setAirlineId(id);
+        a.setAirlineName(name);
+        a.setAirlineNameKey(Airline.nameKeyOf(name));
+        return a;
+    }
+}
@@ -0,0 +1,123 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.flightservice.departures.DeparturesIndex;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.events.FlightsAddedEvent;
+import com.flightservice.metrics.FlightMetrics;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DeparturesIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.now().plusDays(2).withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+    private final List<Flight> stored = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DeparturesIndex index;
+
+    @BeforeEach
+    void setUp() {
+        stored.add(flight("D1", "DEL", 6, 0));
+        stored.add(flight("D2", "DEL", 6, 45));
+        stored.add(flight("D3", "DEL", 7, 10));
+        stored.add(flight("D4", "DEL", 9, 30));
+        stored.add(flight("B1", "BOM", 6, 30));
+
+        FlightRepository repository = mock(FlightRepository.class);
+        when(repository.streamSearch(any(), anyInt())).thenAnswer(inv -> stored.stream());
+        index = new DeparturesIndex(repository, 100, Duration.ofHours(1), Duration.ofHours(1));
+        index.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.stop();
+    }
+
+    @Test
+    void rangeAcrossHours_returnsTheAirportsDeparturesInOrder() {
+        assertEquals(List.of("D2", "D3"), ids(index.departing("del", DAY.withHour(6).withMinute(30), DAY.withHour(9).withMinute(30), 10)));
+        assertEquals(List.of("D1", "D2", "D3", "D4"), ids(index.departing("DEL", DAY, DAY.plusDays(1), 10)));
+        assertEquals(List.of("D1", "D2"), ids(index.departing("DEL", DAY, DAY.plusDays(1), 2)));
+        assertEquals(List.of("B1"), ids(index.departing("BOM", DAY, DAY.plusDays(1), 10)));
+        assertEquals(List.of(), ids(index.departing("BLR", DAY, DAY.plusDays(1), 10)));
+    }
+
+    @Test
+    void updatesIncrementally_onNewFlightsAndSeatChanges() {
+        index.onFlightChanged(new FlightChangedEvent(flight("N1", "DEL", 6, 50)));
+        Flight fewerSeats = stored.get(1).toBuilder().availableSeats(3).build();
+        index.onFlightChanged(new FlightChangedEvent(fewerSeats, -7));
+
+        List<Flight> result = index.departing("DEL", DAY.withHour(6), DAY.withHour(7), 10);
+
+        assertEquals(List.of("D1", "D2", "N1"), ids(result));
+        assertEquals(3, result.get(1).getAvailableSeats());
+    }
+
+    @Test
+    void addedInBulk_mergesIntoTheHoursTheyDepartIn() {
+        index.onFlightsAdded(new FlightsAddedEvent(List.of(
+                flight("N2", "DEL", 7, 0), flight("N1", "DEL", 6, 50), flight("N3", "HYD", 8, 0),
+                flight("N4", "DEL", 6, 0))));
+
+        assertEquals(List.of("D1", "N4", "D2", "N1", "N2", "D3", "D4"),
+                ids(index.departing("DEL", DAY, DAY.plusDays(1), 10)));
+        assertEquals(List.of("N3"), ids(index.departing("HYD", DAY, DAY.plusDays(1), 10)));
+    }
+
+    @Test
+    void departedHours_ageOut() {
+        index.prune(DAY.withHour(8).withMinute(5));
+
+        assertEquals(List.of("D3", "D4"), ids(index.departing("DEL", DAY, DAY.plusDays(1), 10)));
+        assertEquals(List.of(), ids(index.departing("BOM", DAY, DAY.plusDays(1), 10)));
+    }
+
+    @Test
+    void nearSellOutGauge_countsFlightsWithFewSeatsLeft() {
+        new FlightMetrics(meterRegistry, index, 0.9);
+        assertEquals(0, meterRegistry.get("flight.near.sellout").gauge().value());
+
+        index.onFlightChanged(new FlightChangedEvent(stored.get(0).toBuilder().availableSeats(1).build(), -9));
+        index.onFlightChanged(new FlightChangedEvent(stored.get(1).toBuilder().availableSeats(2).build(), -8));
+
+        // 9 of 10 seats sold is near sell-out at 0.9, 8 of 10 is not
+        assertEquals(1, meterRegistry.get("flight.near.sellout").gauge().value());
+    }
+
+    private static List<String> ids(List<Flight> flights) {
+        return flights.stream().map(Flight::getFlightId).toList();
+    }
+
+    private static Flight flight(String id, String from, int depH, int depM) {
+        return Flight.builder()
+                .flightId(id)
+                .airlineId("AL")
+                .flightNo(id)
+                .source(from)
+                .destination("BLR")
+                .departureDateTime(DAY.withHour(depH).withMinute(depM))
+                .arrivalDateTime(DAY.withHour(depH + 2).withMinute(depM))
+                .availableSeats(10)
+                .totalSeats(10)
+                .price(1000.0)
+                .build();
+    }
+}
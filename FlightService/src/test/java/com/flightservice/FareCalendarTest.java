@@ -0,0 +1,173 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.flightservice.calendar.FareCalendar;
+import com.flightservice.events.FaresChangedEvent;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.inventory.SeatInventory;
+import com.flightservice.model.FareCalendarDay;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FareCalendarRepository;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.repository.FlightSearchCriteria;
+
+class FareCalendarTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(5);
+
+    private FlightRepository flightRepository;
+    private SeatInventory seatInventory;
+    private FareCalendarRepository fareCalendarRepository;
+    private FareCalendar fareCalendar;
+
+    @BeforeEach
+    void setUp() {
+        flightRepository = mock(FlightRepository.class);
+        // Mongo's seat counts, as the default inventory has them
+        seatInventory = mock(SeatInventory.class);
+        when(seatInventory.withCurrentSeats(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        fareCalendarRepository = mock(FareCalendarRepository.class);
+        fareCalendar = new FareCalendar(flightRepository, seatInventory, fareCalendarRepository, false, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fareCalendar.stop();
+    }
+
+    @Test
+    void changesAvailability_onlyForAddsSellOutsAndReopens() {
+        assertTrue(new FlightChangedEvent(flight("F1", 10, 5000.0)).changesAvailability());
+        assertTrue(new FlightChangedEvent(flight("F1", 0, 5000.0), -2).changesAvailability());
+        assertTrue(new FlightChangedEvent(flight("F1", 2, 5000.0), 2).changesAvailability());
+        assertFalse(new FlightChangedEvent(flight("F1", 3, 5000.0), -2).changesAvailability());
+        assertFalse(new FlightChangedEvent(flight("F1", 3, 5000.0), 2).changesAvailability());
+    }
+
+    @Test
+    void reserveThatLeavesSeats_doesNotTouchTheCalendar() {
+        fareCalendar.onFlightChanged(new FlightChangedEvent(flight("F1", 3, 5000.0), -2));
+
+        verify(flightRepository, after(200).never()).searchPage(any());
+        verifyNoInteractions(fareCalendarRepository);
+    }
+
+    @Test
+    void addedFlight_recomputesItsDay() {
+        when(flightRepository.searchPage(any())).thenReturn(List.of(
+                flight("F1", 10, 4200.0), flight("F2", 0, 3000.0), flight("F3", 4, 5100.0), flight("F4", 1, 4800.0)));
+
+        fareCalendar.onFlightChanged(new FlightChangedEvent(flight("F1", 10, 4200.0)));
+
+        ArgumentCaptor<FlightSearchCriteria> day = ArgumentCaptor.forClass(FlightSearchCriteria.class);
+        verify(flightRepository, timeout(1000)).searchPage(day.capture());
+        assertEquals("DEL-BOM", day.getValue().routeKey());
+        assertEquals(DAY.atStartOfDay(), day.getValue().departureFrom());
+        assertEquals(DAY.plusDays(1).atStartOfDay(), day.getValue().departureTo());
+        assertEquals(0, day.getValue().minSeats(), "sold out flights are read too, the inventory may have seats");
+
+        ArgumentCaptor<FareCalendarDay> saved = ArgumentCaptor.forClass(FareCalendarDay.class);
+        verify(fareCalendarRepository, timeout(1000)).save(saved.capture());
+        assertEquals(FareCalendarDay.idOf("DEL-BOM", DAY), saved.getValue().getId());
+        assertEquals(4200.0, saved.getValue().getMinPrice());
+        assertEquals(3, saved.getValue().getFlightCount());
+    }
+
+    @Test
+    void repricedFlights_recomputeTheirDay() {
+        when(flightRepository.searchPage(any())).thenReturn(List.of(flight("F1", 10, 4700.0), flight("F2", 4, 5100.0)));
+
+        fareCalendar.onFaresChanged(new FaresChangedEvent(List.of(flight("F1", 10, 4700.0), flight("F2", 4, 5100.0))));
+
+        ArgumentCaptor<FareCalendarDay> saved = ArgumentCaptor.forClass(FareCalendarDay.class);
+        verify(fareCalendarRepository, timeout(1000)).save(saved.capture());
+        assertEquals(4700.0, saved.getValue().getMinPrice());
+    }
+
+    @Test
+    void lastFlightSellingOut_removesTheDay() {
+        when(flightRepository.searchPage(any())).thenReturn(List.of(flight("F1", 0, 4200.0)));
+
+        fareCalendar.onFlightChanged(new FlightChangedEvent(flight("F1", 0, 4200.0), -1));
+
+        verify(fareCalendarRepository, timeout(1000)).deleteById(FareCalendarDay.idOf("DEL-BOM", DAY));
+        verify(fareCalendarRepository, never()).save(any());
+    }
+
+    @Test
+    void sellOutInTheInventoryEngine_removesTheDayBeforeMongoHasIt() {
+        // Mongo still has the seats the engine has sold and not yet flushed
+        when(flightRepository.searchPage(any())).thenReturn(List.of(flight("F1", 1, 4200.0)));
+        when(seatInventory.withCurrentSeats(anyList())).thenAnswer(inv -> {
+            List<Flight> flights = inv.getArgument(0);
+            flights.forEach(f -> f.setAvailableSeats(0));
+            return flights;
+        });
+
+        fareCalendar.onFlightChanged(new FlightChangedEvent(flight("F1", 0, 4200.0), -1));
+
+        verify(fareCalendarRepository, timeout(1000)).deleteById(FareCalendarDay.idOf("DEL-BOM", DAY));
+        verify(fareCalendarRepository, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_groupsBookableFlightsByRouteAndDay() {
+        Flight cheap = flight("F1", 5, 3000.0);
+        Flight dear = flight("F2", 5, 6000.0);
+        Flight nextDay = flight("F3", 5, 4500.0);
+        nextDay.setDepartureDateTime(nextDay.getDepartureDateTime().plusDays(1));
+        when(flightRepository.streamSearch(any(), anyInt())).thenReturn(Stream.of(cheap, dear, nextDay));
+
+        fareCalendar.rebuild();
+
+        ArgumentCaptor<Iterable<FareCalendarDay>> saved = ArgumentCaptor.forClass(Iterable.class);
+        verify(fareCalendarRepository).saveAll(saved.capture());
+        List<FareCalendarDay> days = new ArrayList<>();
+        saved.getValue().forEach(days::add);
+        days.sort(Comparator.comparing(FareCalendarDay::getDepartureDate));
+
+        assertEquals(2, days.size());
+        assertEquals(3000.0, days.get(0).getMinPrice());
+        assertEquals(2, days.get(0).getFlightCount());
+        assertEquals(4500.0, days.get(1).getMinPrice());
+        assertEquals(1, days.get(1).getFlightCount());
+        verify(fareCalendarRepository).deleteByDepartureDateGreaterThanEqualAndRefreshedAtBefore(eq(LocalDate.now()), any());
+    }
+
+    // a base fare below every stored fare: the calendar must show the fares searches sort on
+    private static Flight flight(String id, int availableSeats, Double fare) {
+        return Flight.builder()
+                .flightId(id)
+                .airlineId("AL")
+                .source("DEL")
+                .destination("BOM")
+                .departureDateTime(LocalDateTime.of(DAY, LocalTime.of(9, 0)))
+                .arrivalDateTime(LocalDateTime.of(DAY, LocalTime.of(11, 0)))
+                .totalSeats(10)
+                .availableSeats(availableSeats)
+                .price(1000.0)
+                .fare(fare)
+                .build();
+    }
+}
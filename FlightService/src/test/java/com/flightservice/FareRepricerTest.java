@@ -0,0 +1,115 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.flightservice.events.FaresChangedEvent;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.inventory.SeatInventory;
+import com.flightservice.model.Flight;
+import com.flightservice.pricing.FareRepricer;
+import com.flightservice.pricing.PricingEngine;
+import com.flightservice.repository.FlightRepository;
+
+class FareRepricerTest {
+
+    private final FlightRepository flightRepository = mock(FlightRepository.class);
+    private final SeatInventory seatInventory = mock(SeatInventory.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final FareRepricer repricer = new FareRepricer(flightRepository, seatInventory,
+            new PricingEngine(true, "0:1.0,0.5:1.1", "", 10), eventPublisher, Duration.ofMillis(100),
+            Duration.ofHours(1), 2);
+
+    @AfterEach
+    void stop() {
+        repricer.stop();
+    }
+
+    @Test
+    void seatChangeAcrossALoadBucket_storesAndAnnouncesTheNewFare() {
+        // the event carries the seats before the last reserves, the inventory has them all
+        when(seatInventory.current("F1")).thenReturn(Optional.of(flight("F1", 40)));
+        when(flightRepository.updateFare("F1", 1100.0, null)).thenReturn(true);
+
+        repricer.onFlightChanged(new FlightChangedEvent(flight("F1", 52), -1));
+        repricer.onFlightChanged(new FlightChangedEvent(flight("F1", 51), -1));
+
+        ArgumentCaptor<FaresChangedEvent> event = ArgumentCaptor.forClass(FaresChangedEvent.class);
+        verify(eventPublisher, timeout(2_000)).publishEvent(event.capture());
+        List<Flight> repriced = event.getValue().flights();
+        assertEquals(1, repriced.size());
+        assertEquals(1100.0, repriced.get(0).getFare());
+        verify(seatInventory, times(1)).current("F1");
+    }
+
+    @Test
+    void unchangedFare_isNotAnnounced() {
+        when(seatInventory.current("F1")).thenReturn(Optional.of(flight("F1", 80)));
+
+        repricer.onFlightChanged(new FlightChangedEvent(flight("F1", 80), -1));
+
+        verify(flightRepository, timeout(2_000)).updateFare("F1", 1000.0, null);
+        verify(eventPublisher, after(200).never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void addedFlight_isAlreadyPriced() {
+        repricer.onFlightChanged(new FlightChangedEvent(flight("F1", 100)));
+
+        verify(seatInventory, after(300).never()).current(anyString());
+    }
+
+    @Test
+    void sweep_repricesTheDueFlights_aBatchAtATime() {
+        when(flightRepository.findFareDue(any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of("F1", "F2"))
+                .thenReturn(List.of("F3"));
+        for (String id : List.of("F1", "F2", "F3")) {
+            when(seatInventory.current(id)).thenReturn(Optional.of(flight(id, 90)));
+            when(flightRepository.updateFare(id, 1000.0, null)).thenReturn(true);
+        }
+
+        repricer.sweep();
+
+        ArgumentCaptor<FaresChangedEvent> events = ArgumentCaptor.forClass(FaresChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(2, 1), events.getAllValues().stream().map(e -> e.flights().size()).toList());
+        verify(flightRepository, times(2)).findFareDue(any(LocalDateTime.class), anyInt());
+    }
+
+    @Test
+    void sweep_stopsWhenAFlightCannotBeRepriced() {
+        when(flightRepository.findFareDue(any(LocalDateTime.class), anyInt())).thenReturn(List.of("F1", "F2"));
+        when(seatInventory.current("F1")).thenThrow(new IllegalStateException("down"));
+        when(seatInventory.current("F2")).thenReturn(Optional.of(flight("F2", 90)));
+        when(flightRepository.updateFare("F2", 1000.0, null)).thenReturn(true);
+
+        repricer.sweep();
+
+        // F1 stays due: another pass now would read the same batch again
+        verify(flightRepository, times(1)).findFareDue(any(LocalDateTime.class), anyInt());
+    }
+
+    private static Flight flight(String id, int availableSeats) {
+        return Flight.builder()
+                .flightId(id)
+                .totalSeats(100)
+                .availableSeats(availableSeats)
+                .price(1000.0)
+                .departureDateTime(LocalDateTime.now().plusDays(30))
+                .build();
+    }
+}
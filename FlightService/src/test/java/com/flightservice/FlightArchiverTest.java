@@ -0,0 +1,64 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.flightservice.archive.FlightArchiver;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRepository;
+
+class FlightArchiverTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private final FlightRepository flightRepository = mock(FlightRepository.class);
+    private final FlightArchiver archiver = new FlightArchiver(flightRepository, Duration.ofDays(30), 2, 3,
+            Duration.ZERO, Duration.ofHours(1));
+
+    @AfterEach
+    void tearDown() {
+        archiver.stop();
+    }
+
+    @Test
+    void movesBatchesUntilOneComesBackShort() {
+        when(flightRepository.findArrivedBefore(any(), anyInt()))
+                .thenReturn(List.of(flight("F1"), flight("F2")))
+                .thenReturn(List.of(flight("F3")));
+        when(flightRepository.archive(anyList())).thenAnswer(inv -> (long) inv.<List<?>>getArgument(0).size());
+
+        assertEquals(3, archiver.archive(NOW));
+
+        verify(flightRepository, times(2)).findArrivedBefore(eq(NOW.minusDays(30)), eq(2));
+        verify(flightRepository, times(2)).archive(anyList());
+    }
+
+    @Test
+    void stopsAfterMaxBatches_andOnFailure() {
+        when(flightRepository.findArrivedBefore(any(), anyInt())).thenReturn(List.of(flight("F1"), flight("F2")));
+        when(flightRepository.archive(anyList())).thenReturn(2L);
+
+        assertEquals(6, archiver.archive(NOW));
+        verify(flightRepository, times(3)).archive(anyList());
+
+        when(flightRepository.archive(anyList())).thenReturn(2L).thenThrow(new IllegalStateException("mongo down"));
+        assertEquals(2, archiver.archive(NOW));
+    }
+
+    private static Flight flight(String id) {
+        Flight f = new Flight();
+        f.setFlightId(id);
+        return f;
+    }
+}
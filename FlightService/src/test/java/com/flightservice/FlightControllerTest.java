@@ -6,6 +6,7 @@ import com.flightservice.dto.request.ReleaseSeatsRequest;
 import com.flightservice.dto.request.ReserveSeatsRequest;
 import com.flightservice.dto.response.FlightResponse;
 import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.dto.response.SerializedSearchPage;
 import com.flightservice.model.Flight;
 import com.flightservice.service.FlightService;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,8 +15,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -71,20 +74,20 @@ class FlightControllerTest {
 	}
 
 	@Test
-	void searchFlights_returns200_withList() {
+	void searchFlights_returns200_withJsonBody() {
 		FlightRequest req = sampleFlightRequest();
-		FlightResponse resp = sampleFlightResponse();
+		byte[] json = "[{\"flightNo\":\"FL1\"}]".getBytes(StandardCharsets.UTF_8);
 
-		when(flightService.searchFlights(any(FlightRequest.class))).thenReturn(List.of(resp));
+		when(flightService.searchFlightsJson(any(FlightRequest.class))).thenReturn(new SerializedSearchPage(json, "next"));
 
-		ResponseEntity<List<FlightResponse>> result = flightController.searchFlights(req);
+		ResponseEntity<byte[]> result = flightController.searchFlights(req);
 
 		assertEquals(HttpStatus.OK, result.getStatusCode());
-		assertNotNull(result.getBody());
-		assertEquals(1, result.getBody().size());
-		assertEquals("FL1", result.getBody().get(0).getFlightNo());
+		assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
+		assertEquals("next", result.getHeaders().getFirst(FlightController.NEXT_CURSOR_HEADER));
+		assertArrayEquals(json, result.getBody());
 
-		verify(flightService).searchFlights(any(FlightRequest.class));
+		verify(flightService).searchFlightsJson(any(FlightRequest.class));
 	}
 
 	@Test
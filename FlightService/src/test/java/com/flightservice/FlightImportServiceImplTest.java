@@ -0,0 +1,135 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.dto.response.FlightImportResponse;
+import com.flightservice.dto.response.ImportRowError;
+import com.flightservice.enums.ImportFormat;
+import com.flightservice.events.FlightsAddedEvent;
+import com.flightservice.model.Airline;
+import com.flightservice.model.Flight;
+import com.flightservice.pricing.PricingEngine;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.sequence.FlightNumberAllocator;
+import com.flightservice.serviceImpl.FlightImportServiceImpl;
+
+import jakarta.validation.Validation;
+import tools.jackson.databind.json.JsonMapper;
+
+class FlightImportServiceImplTest {
+
+    private static final LocalDateTime DEPARTURE = LocalDateTime.now().plusDays(10).withNano(0);
+
+    private FlightRepository flightRepository;
+    private AirlineDirectory airlineDirectory;
+    private final List<Object> events = new ArrayList<>();
+    private final List<Flight> inserted = new ArrayList<>();
+    private FlightImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        flightRepository = mock(FlightRepository.class);
+        airlineDirectory = mock(AirlineDirectory.class);
+        when(airlineDirectory.findOrCreate(any())).thenAnswer(inv -> airline(inv.getArgument(0)));
+        when(flightRepository.findScheduled(anyCollection())).thenReturn(List.of());
+        when(flightRepository.insertUnordered(anyList())).thenAnswer(inv -> {
+            inserted.addAll(inv.getArgument(0));
+            return Map.of();
+        });
+        FlightNumberAllocator allocator = mock(FlightNumberAllocator.class);
+        when(allocator.next(any())).thenReturn("FL-1000");
+        importService = new FlightImportServiceImpl(flightRepository, airlineDirectory, allocator,
+                new PricingEngine(false, "", "", 10), Validation.buildDefaultValidatorFactory().getValidator(),
+                JsonMapper.shared(), events::add, 2, 100);
+    }
+
+    @Test
+    void csv_importsValidRows_andReportsTheRest() {
+        Flight existing = Flight.builder().airlineId("id-indigo").source("BLR").destination("DEL")
+                .departureDateTime(DEPARTURE).build();
+        when(flightRepository.findScheduled(anyCollection())).thenReturn(List.of(existing));
+
+        String csv = String.join("\n",
+                "price,airlineName,source,destination,departureDateTime,arrivalDateTime,totalSeats",
+                "4500,IndiGo,del,bom," + DEPARTURE + "," + DEPARTURE.plusHours(2) + ",180",
+                "5200,\"Air India, Ltd\",DEL,BLR," + DEPARTURE + "," + DEPARTURE.plusHours(3) + ",150",
+                "",
+                "abc,IndiGo,DEL,HYD," + DEPARTURE + "," + DEPARTURE.plusHours(2) + ",180",
+                "4500,indigo,DEL,BOM," + DEPARTURE + "," + DEPARTURE.plusHours(2) + ",180",
+                "3900,IndiGo,BLR,DEL," + DEPARTURE + "," + DEPARTURE.plusHours(3) + ",180");
+
+        FlightImportResponse report = importService.importFlights(stream(csv), ImportFormat.CSV);
+
+        assertEquals(5, report.getRowsRead());
+        assertEquals(2, report.getImported());
+        assertEquals(2, report.getDuplicates());
+        assertEquals(1, report.getFailed());
+        assertEquals(List.of(5L, 6L, 7L), report.getErrors().stream().map(ImportRowError::getLine).toList());
+        assertTrue(report.getErrors().get(0).getMessage().startsWith("Invalid value"));
+
+        assertEquals(List.of("DEL-BOM", "DEL-BLR"), inserted.stream().map(Flight::getRouteKey).toList());
+        assertTrue(inserted.stream().allMatch(f -> f.getFlightId() != null && f.getFlightNo() != null && f.getSeatRows() != null));
+        assertEquals("id-air india, ltd", inserted.get(1).getAirlineId());
+        // priced as they are stored, price-sorted searches find them right away
+        assertEquals(List.of(4500.0, 5200.0), inserted.stream().map(Flight::getFare).toList());
+        // one event per inserted batch, none for the batch that inserted nothing
+        assertEquals(List.of(new FlightsAddedEvent(inserted)), events);
+    }
+
+    @Test
+    void ndjson_reportsBadJsonInvalidRowsAndRejectedInserts() {
+        when(flightRepository.insertUnordered(anyList())).thenReturn(Map.of(0, "write failed"));
+
+        String ndjson = String.join("\n",
+                row("Vistara", "DEL", "BOM", DEPARTURE, DEPARTURE.plusHours(2)),
+                "{not json",
+                row("Vistara", "DEL", "BOM", DEPARTURE.plusHours(4), DEPARTURE.plusHours(3)),
+                row("Vistara", "BOM", "DEL", DEPARTURE, DEPARTURE.plusHours(2)));
+
+        FlightImportResponse report = importService.importFlights(stream(ndjson), ImportFormat.NDJSON);
+
+        assertEquals(4, report.getRowsRead());
+        assertEquals(1, report.getImported());
+        assertEquals(3, report.getFailed());
+        assertEquals("write failed", report.getErrors().get(2).getMessage());
+        assertEquals("Arrival time must be after departure time", report.getErrors().get(1).getMessage());
+        assertTrue(report.getErrors().get(0).getMessage().startsWith("Invalid JSON"));
+        verify(airlineDirectory, times(1)).findOrCreate("Vistara");
+        // the rejected insert is not announced
+        assertEquals(1, events.size());
+        assertEquals(List.of("BOM-DEL"), ((FlightsAddedEvent) events.get(0)).flights().stream()
+                .map(Flight::getRouteKey).toList());
+    }
+
+    private static String row(String airline, String from, String to, LocalDateTime departure, LocalDateTime arrival) {
+        return "{\"airlineName\":\"" + airline + "\",\"source\":\"" + from + "\",\"destination\":\"" + to
+                + "\",\"departureDateTime\":\"" + departure + "\",\"arrivalDateTime\":\"" + arrival
+                + "\",\"totalSeats\":120,\"price\":4000}";
+    }
+
+    private static Airline airline(String name) {
+        Airline a = new Airline();
+        a.setAirlineId("id-" + Airline.nameKeyOf(name));
+        a.setAirlineName(name);
+        return a;
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
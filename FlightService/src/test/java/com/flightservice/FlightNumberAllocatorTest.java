@@ -0,0 +1,84 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.flightservice.model.Airline;
+import com.flightservice.repository.FlightNumberSequenceRepository;
+import com.flightservice.sequence.FlightNumberAllocator;
+
+class FlightNumberAllocatorTest {
+
+    private static final int BLOCK = 50;
+
+    // stands in for the atomic $inc upsert on the sequence document
+    private final Map<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+    private final FlightNumberSequenceRepository repository = mock(FlightNumberSequenceRepository.class);
+
+    FlightNumberAllocatorTest() {
+        when(repository.reserveBlock(anyString(), anyInt())).thenAnswer(inv -> sequences
+                .computeIfAbsent(inv.getArgument(0), k -> new AtomicLong())
+                .addAndGet(inv.<Integer>getArgument(1)));
+    }
+
+    @Test
+    void numbersArePerAirline_andStartAboveTheLegacyRange() {
+        FlightNumberAllocator allocator = new FlightNumberAllocator(repository, BLOCK);
+
+        assertEquals("AI-1000", allocator.next(airline("A1", "Air India")));
+        assertEquals("AI-1001", allocator.next(airline("A1", "Air India")));
+        assertEquals("IN-1000", allocator.next(airline("A2", "indigo")));
+        verify(repository, times(2)).reserveBlock(anyString(), eq(BLOCK));
+    }
+
+    @Test
+    void concurrentInstances_neverRepeatANumber_andReserveOneBlockPerBlockSize() throws Exception {
+        // two allocators sharing one sequence, like two FlightService instances
+        List<FlightNumberAllocator> instances = List.of(
+                new FlightNumberAllocator(repository, BLOCK), new FlightNumberAllocator(repository, BLOCK));
+        int perTask = 1_000;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            FlightNumberAllocator allocator = instances.get(t % 2);
+            futures.add(pool.submit(() -> {
+                List<Long> numbers = new ArrayList<>(perTask);
+                for (int i = 0; i < perTask; i++) {
+                    numbers.add(allocator.nextNumber("A1"));
+                }
+                return numbers;
+            }));
+        }
+        Set<Long> all = new HashSet<>();
+        for (Future<List<Long>> f : futures) {
+            all.addAll(f.get());
+        }
+        pool.shutdown();
+
+        assertEquals(8 * perTask, all.size());
+        // each instance may leave at most one block partly used
+        verify(repository, atMost(8 * perTask / BLOCK + 2)).reserveBlock(anyString(), anyInt());
+    }
+
+    private static Airline airline(String id, String name) {
+        Airline a = new Airline();
+        a.setAirlineId(id);
+        a.setAirlineName(name);
+        return a;
+    }
+}
@@ -0,0 +1,86 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.flightservice.inventory.SeatMap;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRows;
+
+/**
+ * FlightRows, which reads projected flight documents without the Mongo
+ * mapping converter, must read what the converter reads. A stored flight is
+ * written by the converter and projected to the response fields, as a search
+ * receives it. What each read costs is measured in FlightServiceBenchmarks
+ * (MappingBenchmark, with -prof gc), not here.
+ */
+class FlightRowsTest {
+
+    // FlightQueries.includeResponseFields
+    private static final Set<String> RESPONSE_FIELDS = Set.of("_id", "airlineId", "flightNo", "source", "destination",
+            "departureDateTime", "arrivalDateTime", "totalSeats", "availableSeats", "price", "fare");
+
+    private final MappingMongoConverter converter = converter();
+
+    @Test
+    void projectedRow_readsWhatTheConverterReads() {
+        Document stored = new Document();
+        converter.write(storedFlight(), stored);
+        Document projected = new Document();
+        stored.forEach((k, v) -> {
+            if (RESPONSE_FIELDS.contains(k)) {
+                projected.put(k, v);
+            }
+        });
+        FlightRows rows = new FlightRows(converter.getConversionService());
+
+        Flight mapped = converter.read(Flight.class, projected);
+        Flight row = rows.read(projected);
+        assertEquals(mapped, row, "the row reader should read what the converter reads");
+    }
+
+    private static Flight storedFlight() {
+        int totalSeats = 180;
+        List<Long> seatRows = SeatMap.emptyRows(totalSeats, SeatMap.DEFAULT_SEATS_PER_ROW);
+        // a half-sold flight: every other seat taken
+        seatRows.replaceAll(row -> 0b010101L);
+        return Flight.builder()
+                .flightId("665f1c2ab3d94e12a1b2c3d4")
+                .airlineId("665f1c2ab3d94e12a1b2c3d0")
+                .flightNo("6E-1042")
+                .source("DEL")
+                .destination("BLR")
+                .routeKey("DEL-BLR")
+                .departureDateTime(LocalDateTime.of(2025, 6, 1, 6, 0))
+                .arrivalDateTime(LocalDateTime.of(2025, 6, 1, 8, 45))
+                .totalSeats(totalSeats)
+                .availableSeats(90)
+                .price(5400.0)
+                .fare(5940.0)
+                .seatsPerRow(SeatMap.DEFAULT_SEATS_PER_ROW)
+                .seatRows(seatRows)
+                .inventoryLogSeq(4182)
+                .build();
+    }
+
+    private static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
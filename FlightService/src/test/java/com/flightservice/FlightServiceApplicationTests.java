@@ -1,13 +1,31 @@
 package com.flightservice;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.flightservice.repository.ReactiveFlightRepository;
+import com.mongodb.reactivestreams.client.MongoClient;
 
 @SpringBootTest
 class FlightServiceApplicationTests {
 
+	@Autowired
+	ApplicationContext context;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void servletStack_hasNoReactiveMongo() {
+		assertEquals(0, context.getBeanNamesForType(MongoClient.class).length);
+		assertEquals(0, context.getBeanNamesForType(ReactiveMongoTemplate.class).length);
+		assertEquals(0, context.getBeanNamesForType(ReactiveFlightRepository.class).length);
+	}
+
 }
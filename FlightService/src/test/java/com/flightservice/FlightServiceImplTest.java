@@ -3,28 +3,57 @@ package com.flightservice;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.cache.RouteSearchCache;
+import com.flightservice.enums.LedgerOperation;
+import com.flightservice.events.FlightChangedEvent;
 import com.flightservice.exceptions.BusinessException;
+import com.flightservice.inventory.MongoSeatInventory;
+import com.flightservice.inventory.ReservationLedger;
+import com.flightservice.inventory.SeatHoldManager;
+import com.flightservice.inventory.SeatMap;
+import com.flightservice.metrics.FlightMetrics;
 import com.flightservice.model.Airline;
 import com.flightservice.model.Flight;
+import com.flightservice.model.ReservationLedgerEntry;
+import com.flightservice.model.SeatHold;
 import com.flightservice.repository.AirlineRepository;
+import com.flightservice.repository.FlightNumberSequenceRepository;
 import com.flightservice.repository.FlightRepository;
+import com.flightservice.sequence.FlightNumberAllocator;
 import com.flightservice.serviceImpl.FlightServiceImpl;
 import com.flightservice.dto.request.FlightRequest;
 import com.flightservice.dto.request.ReleaseSeatsRequest;
 import com.flightservice.dto.request.ReserveSeatsRequest;
 import com.flightservice.dto.response.ReserveSeatsResponse;
 import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.dto.response.FlightSearchPage;
+import com.flightservice.dto.response.SerializedSearchPage;
+import com.flightservice.enums.SearchSort;
+import com.flightservice.pricing.PricingEngine;
+import com.flightservice.repository.FlightSearchCriteria;
+import com.flightservice.repository.SearchCursor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.json.JsonMapper;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.springframework.dao.DuplicateKeyException;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,13 +65,34 @@ class FlightServiceImplTest {
     @Mock
     private AirlineRepository airlineRepository;
 
-    @InjectMocks
+    @Mock
+    private SeatHoldManager seatHoldManager;
+
+    @Mock
+    private ReservationLedger reservationLedger;
+
     private FlightServiceImpl flightService;
 
+    private SimpleMeterRegistry meterRegistry;
+
     private FlightRequest validRequest;
 
     @BeforeEach
     void setUp() {
+        AirlineDirectory airlineDirectory = new AirlineDirectory(airlineRepository, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(10), Duration.ofHours(1));
+        RouteSearchCache routeSearchCache = new RouteSearchCache(JsonMapper.shared(), airlineDirectory,
+                new SimpleMeterRegistry(), true, 1 << 20, Duration.ofMinutes(1));
+        FlightNumberSequenceRepository sequences = mock(FlightNumberSequenceRepository.class,
+                withSettings().strictness(Strictness.LENIENT));
+        AtomicLong sequence = new AtomicLong();
+        when(sequences.reserveBlock(anyString(), anyInt())).thenAnswer(inv -> sequence.addAndGet(inv.<Integer>getArgument(1)));
+        meterRegistry = new SimpleMeterRegistry();
+        flightService = new FlightServiceImpl(flightRepository, airlineDirectory,
+                new MongoSeatInventory(flightRepository), seatHoldManager, reservationLedger,
+                routeSearchCache, new FlightNumberAllocator(sequences, 10), new PricingEngine(false, "", "", 10),
+                new FlightMetrics(meterRegistry), event -> routeSearchCache.onFlightChanged((FlightChangedEvent) event));
+
         validRequest = new FlightRequest();
         validRequest.setAirlineName("TestAir");
         validRequest.setSource("DEL");
@@ -56,7 +106,7 @@ class FlightServiceImplTest {
     @Test
     void addFlights_success_createsFlightAndAirlineIfNotExists() {
         // airline not present
-        when(airlineRepository.findByAirlineNameIgnoreCase("TestAir")).thenReturn(Optional.empty());
+        when(airlineRepository.findByAirlineNameKey("testair")).thenReturn(Optional.empty());
         when(airlineRepository.save(any(Airline.class))).thenAnswer(inv -> {
             Airline a = inv.getArgument(0);
             a.setAirlineId(UUID.randomUUID().toString());
@@ -75,10 +125,34 @@ class FlightServiceImplTest {
         assertNotNull(saved);
         assertEquals("DEL", saved.getSource());
         assertEquals("BLR", saved.getDestination());
+        assertEquals("TE-1000", saved.getFlightNo());
         verify(airlineRepository).save(any(Airline.class));
         verify(flightRepository).save(any(Flight.class));
     }
 
+    @Test
+    void addFlights_storesNormalizedRoute_andRejectsConcurrentDuplicate() {
+        Airline existing = airline("A1", "TestAir");
+        when(airlineRepository.findByAirlineNameKey("testair")).thenReturn(Optional.of(existing));
+        when(airlineRepository.findById("A1")).thenReturn(Optional.of(existing));
+        when(flightRepository.existsByAirlineIdAndSourceAndDestinationAndDepartureDateTime(eq("A1"), eq("DEL"), eq("BLR"), any()))
+                .thenReturn(false);
+        when(flightRepository.save(any(Flight.class)))
+                .thenAnswer(inv -> inv.getArgument(0))
+                .thenThrow(new DuplicateKeyException("airline_route_departure_unique"));
+
+        validRequest.setSource(" del");
+        validRequest.setDestination("Blr ");
+        Flight saved = flightService.addFlights(validRequest);
+
+        assertEquals("DEL", saved.getSource());
+        assertEquals("BLR", saved.getDestination());
+        assertEquals("DEL-BLR", saved.getRouteKey());
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> flightService.addFlights(validRequest));
+        assertTrue(ex.getMessage().startsWith("Flight already exists"));
+    }
+
     @Test
     void addFlights_throwsWhenArrivalBeforeDeparture() {
         FlightRequest r = new FlightRequest();
@@ -92,13 +166,146 @@ class FlightServiceImplTest {
         assertTrue(ex.getMessage().toLowerCase().contains("arrival time"));
     }
 
+    @Test
+    void searchFlights_resolvesAirlineNamesWithOneBulkLookup() {
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Flight f = new Flight();
+            f.setFlightId("F" + i);
+            f.setAirlineId(i % 2 == 0 ? "A1" : "A2");
+            flights.add(f);
+        }
+        when(flightRepository.searchPage(any())).thenReturn(flights);
+        when(airlineRepository.findAllById(anyIterable())).thenReturn(List.of(airline("A1", "IndiGo"), airline("A2", "Vistara")));
+
+        FlightRequest req = searchRequest();
+        req.setPageSize(200);
+        List<FlightResponse> first = flightService.searchFlights(req).getFlights();
+        List<FlightResponse> second = flightService.searchFlights(req).getFlights();
+
+        assertEquals(200, first.size());
+        assertEquals("IndiGo", first.get(0).getAirlineName());
+        assertEquals("Vistara", second.get(1).getAirlineName());
+        // the second search is served from the directory
+        verify(airlineRepository, times(1)).findAllById(anyIterable());
+        verify(airlineRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void searchFlights_byAirlineName_looksUpNameOnce() {
+        when(airlineRepository.findByAirlineNameKey("indigo")).thenReturn(Optional.of(airline("A1", "IndiGo")));
+        when(airlineRepository.findById("A1")).thenReturn(Optional.of(airline("A1", "IndiGo")));
+        when(flightRepository.searchPage(any())).thenReturn(List.of());
+
+        FlightRequest req = new FlightRequest();
+        req.setAirlineName("IndiGo");
+        flightService.searchFlights(req);
+        req.setAirlineName(" INDIGO ");
+        flightService.searchFlights(req);
+
+        verify(airlineRepository, times(1)).findByAirlineNameKey("indigo");
+        verify(flightRepository, times(2)).searchPage(argThat(c -> "A1".equals(c.airlineId()) && c.routeKey() == null));
+    }
+
+    @Test
+    void searchFlights_pagesByKeysetCursor() {
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 6, 0);
+        List<Flight> firstPage = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Flight f = new Flight();
+            f.setFlightId("F" + i);
+            f.setDepartureDateTime(base.plusHours(i));
+            firstPage.add(f);
+        }
+        when(flightRepository.searchPage(argThat(c -> c != null && c.after() == null))).thenReturn(firstPage);
+        when(flightRepository.searchPage(argThat(c -> c != null && c.after() != null))).thenReturn(List.of());
+
+        FlightRequest req = searchRequest();
+        req.setPageSize(2);
+        req.setPassengers(3);
+        req.setDepartureTo(base.plusDays(1));
+        FlightSearchPage page = flightService.searchFlights(req);
+
+        assertEquals(2, page.getFlights().size());
+        assertNotNull(page.getNextCursor());
+
+        req.setCursor(page.getNextCursor());
+        FlightSearchPage next = flightService.searchFlights(req);
+        assertNull(next.getNextCursor());
+
+        ArgumentCaptor<FlightSearchCriteria> criteria = ArgumentCaptor.forClass(FlightSearchCriteria.class);
+        verify(flightRepository, times(2)).searchPage(criteria.capture());
+        FlightSearchCriteria second = criteria.getAllValues().get(1);
+        assertEquals("DEL-BLR", second.routeKey());
+        assertEquals(3, second.minSeats());
+        assertEquals(3, second.limit(), "one past the page size");
+        assertEquals(SearchSort.DEPARTURE, second.sort());
+        assertEquals(base.plusHours(1), second.after().value());
+        assertEquals("F1", second.after().flightId());
+    }
+
+    @Test
+    void searchFlights_rejectsCursorOfOtherSort() {
+        FlightRequest req = searchRequest();
+        req.setSortBy(SearchSort.PRICE);
+        req.setCursor(new SearchCursor(SearchSort.DEPARTURE, LocalDateTime.now(), "F1").encode());
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> flightService.searchFlights(req));
+        assertEquals("Invalid search cursor", ex.getMessage());
+    }
+
+    @Test
+    void searchFlightsJson_servesRepeatsFromCacheUntilRouteChanges() {
+        Flight f = new Flight();
+        f.setFlightId("F1");
+        f.setSource("DEL");
+        f.setDestination("BLR");
+        f.setFlightNo("AI-101");
+        f.setAvailableSeats(10);
+        when(flightRepository.searchPage(any())).thenReturn(List.of(f));
+
+        FlightRequest req = searchRequest();
+        SerializedSearchPage first = flightService.searchFlightsJson(req);
+        req.setSource(" del");
+        SerializedSearchPage second = flightService.searchFlightsJson(req);
+
+        assertSame(first, second, "same normalized route is a cache hit");
+        assertTrue(new String(first.body()).contains("\"flightNo\":\"AI-101\""));
+        verify(flightRepository, times(1)).searchPage(any());
+
+        Flight updated = f.toBuilder().availableSeats(8).build();
+        when(flightRepository.decrementAvailableSeats("F1", 2, Map.of())).thenReturn(updated);
+        when(seatHoldManager.hold(eq("F1"), any(), eq(2), anyList())).thenReturn(hold("RES-1"));
+        ReserveSeatsRequest reserve = new ReserveSeatsRequest();
+        reserve.setCount(2);
+        flightService.reserveSeats("F1", reserve);
+
+        flightService.searchFlightsJson(req);
+        verify(flightRepository, times(2)).searchPage(any());
+        assertEquals(3, timerCount("searchFlights", "success"), "cache hits are timed too");
+    }
+
+    private FlightRequest searchRequest() {
+        FlightRequest r = new FlightRequest();
+        r.setSource("DEL");
+        r.setDestination("BLR");
+        return r;
+    }
+
+    private static Airline airline(String id, String name) {
+        Airline a = new Airline();
+        a.setAirlineId(id);
+        a.setAirlineName(name);
+        return a;
+    }
+
     @Test
     void reserveSeats_success_decrementsAvailable() {
-        Flight flight = new Flight();
-        flight.setFlightId("F1");
-        flight.setAvailableSeats(10);
-        when(flightRepository.findById("F1")).thenReturn(Optional.of(flight));
-        when(flightRepository.save(any(Flight.class))).thenAnswer(inv -> inv.getArgument(0));
+        Flight updated = new Flight();
+        updated.setFlightId("F1");
+        updated.setAvailableSeats(7);
+        when(flightRepository.decrementAvailableSeats("F1", 3, Map.of())).thenReturn(updated);
+        when(seatHoldManager.hold(eq("F1"), any(), eq(3), anyList())).thenReturn(hold("RES-1"));
 
         ReserveSeatsRequest req = new ReserveSeatsRequest();
         req.setCount(3);
@@ -107,7 +314,9 @@ class FlightServiceImplTest {
         assertTrue(resp.isSuccess());
         assertEquals(3, resp.getSeatsReserved());
         assertEquals(7, resp.getRemainingSeats());
-        verify(flightRepository).save(any(Flight.class));
+        assertEquals("RES-1", resp.getReservationReference());
+        assertNotNull(resp.getHoldExpiresAt());
+        verify(flightRepository, never()).save(any(Flight.class));
     }
 
     @Test
@@ -115,6 +324,7 @@ class FlightServiceImplTest {
         Flight flight = new Flight();
         flight.setFlightId("F1");
         flight.setAvailableSeats(1);
+        when(flightRepository.decrementAvailableSeats("F1", 2, Map.of())).thenReturn(null);
         when(flightRepository.findById("F1")).thenReturn(Optional.of(flight));
 
         ReserveSeatsRequest req = new ReserveSeatsRequest();
@@ -125,28 +335,248 @@ class FlightServiceImplTest {
     }
 
     @Test
-    void releaseSeats_incrementsAvailable() {
+    void reserveSeats_throwsWhenFlightMissing() {
+        when(flightRepository.decrementAvailableSeats("F9", 1, Map.of())).thenReturn(null);
+        when(flightRepository.findById("F9")).thenReturn(Optional.empty());
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setCount(1);
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> flightService.reserveSeats("F9", req));
+        assertTrue(ex.getMessage().startsWith("Flight not found"));
+    }
+
+    @Test
+    void reserveSeats_claimsRequestedSeats() {
+        Flight updated = new Flight();
+        updated.setFlightId("F1");
+        updated.setAvailableSeats(8);
+        // row 12 is index 11; A and C are bits 0 and 2
+        when(flightRepository.decrementAvailableSeats("F1", 2, Map.of(11, 0b101L))).thenReturn(updated);
+        when(seatHoldManager.hold("F1", null, 2, List.of("12A", "12C"))).thenReturn(hold("RES-2"));
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setCount(2);
+        req.setSeatNumbers(List.of(" 12a", "12C"));
+
+        var resp = flightService.reserveSeats("F1", req);
+        assertEquals(List.of("12A", "12C"), resp.getReservedSeats());
+        assertEquals(8, resp.getRemainingSeats());
+    }
+
+    @Test
+    void reserveSeats_reportsTakenSeats() {
         Flight flight = new Flight();
         flight.setFlightId("F1");
-        flight.setAvailableSeats(5);
+        flight.setTotalSeats(60);
+        flight.setAvailableSeats(10);
+        flight.setSeatRows(new ArrayList<>(Collections.nCopies(10, 0L)));
+        flight.getSeatRows().set(0, 0b10L);
+        when(flightRepository.decrementAvailableSeats(eq("F1"), eq(2), anyMap())).thenReturn(null);
         when(flightRepository.findById("F1")).thenReturn(Optional.of(flight));
-        when(flightRepository.save(any(Flight.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setCount(2);
+        req.setSeatNumbers(List.of("1A", "1B"));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> flightService.reserveSeats("F1", req));
+        assertEquals("Seat(s) already taken: 1B", ex.getMessage());
+    }
+
+    @Test
+    void flightSoldBeforeSeatMaps_takesNewSeatsAndGivesOldOnesBackByCount() {
+        // 3 of 60 seats were sold before the flight had a seat map
+        Flight legacy = new Flight();
+        legacy.setFlightId("F1");
+        legacy.setTotalSeats(60);
+        legacy.setAvailableSeats(57);
+        Flight mapped = legacy.toBuilder().availableSeats(56)
+                .seatRows(SeatMap.emptyRows(60, SeatMap.DEFAULT_SEATS_PER_ROW)).unmappedSeats(3).build();
+        when(flightRepository.findById("F1")).thenReturn(Optional.of(legacy)).thenReturn(Optional.of(mapped));
+        when(flightRepository.decrementAvailableSeats("F1", 1, Map.of(0, 0b1L))).thenReturn(null, mapped);
+        when(flightRepository.initSeatMap("F1", SeatMap.emptyRows(60, SeatMap.DEFAULT_SEATS_PER_ROW),
+                SeatMap.DEFAULT_SEATS_PER_ROW)).thenReturn(true);
+        when(seatHoldManager.hold("F1", null, 1, List.of("1A"))).thenReturn(hold("RES-1"));
+
+        ReserveSeatsRequest reserve = new ReserveSeatsRequest();
+        reserve.setCount(1);
+        reserve.setSeatNumbers(List.of("1A"));
+        assertEquals(56, flightService.reserveSeats("F1", reserve).getRemainingSeats());
+
+        // a booking from before the map cancels 5C and 5D: no bits to clear, they come back by count
+        Map<Integer, Long> oldSeats = Map.of(4, 0b1100L);
+        when(flightRepository.incrementAvailableSeats("F1", 2, oldSeats)).thenReturn(null);
+        when(flightRepository.releaseUnmappedSeats("F1", 2, oldSeats))
+                .thenReturn(mapped.toBuilder().availableSeats(58).unmappedSeats(1).build());
+
+        ReleaseSeatsRequest cancel = new ReleaseSeatsRequest();
+        cancel.setCount(2);
+        cancel.setSeatNumbers(List.of("5C", "5D"));
+        flightService.releaseSeats("F1", cancel);
+
+        verify(flightRepository).releaseUnmappedSeats("F1", 2, oldSeats);
+        assertEquals(2, meterRegistry.get("flight.seats.released").tag("reason", "released").counter().count());
+    }
+
+    @Test
+    void releaseSeats_incrementsAvailable() {
+        Flight updated = new Flight();
+        updated.setFlightId("F1");
+        updated.setAvailableSeats(9);
+        when(flightRepository.incrementAvailableSeats("F1", 4, Map.of())).thenReturn(updated);
 
         ReleaseSeatsRequest req = new ReleaseSeatsRequest();
         req.setCount(4);
 
         flightService.releaseSeats("F1", req);
 
-        ArgumentCaptor<Flight> captor = ArgumentCaptor.forClass(Flight.class);
-        verify(flightRepository).save(captor.capture());
-        assertEquals(9, captor.getValue().getAvailableSeats());
+        verify(flightRepository).incrementAvailableSeats("F1", 4, Map.of());
+        verify(flightRepository, never()).save(any(Flight.class));
+    }
+
+    @Test
+    void releaseSeats_rejectsSeatsThatAreNotHeld() {
+        Flight flight = new Flight();
+        flight.setFlightId("F1");
+        flight.setTotalSeats(60);
+        flight.setAvailableSeats(59);
+        flight.setSeatRows(new ArrayList<>(Collections.nCopies(10, 0L)));
+        flight.getSeatRows().set(0, 0b1L);
+        when(flightRepository.incrementAvailableSeats(eq("F1"), anyInt(), anyMap())).thenReturn(null);
+        when(flightRepository.findById("F1")).thenReturn(Optional.of(flight));
+
+        ReleaseSeatsRequest seats = new ReleaseSeatsRequest();
+        seats.setCount(2);
+        seats.setSeatNumbers(List.of("1A", "1B"));
+        BusinessException ex = assertThrows(BusinessException.class, () -> flightService.releaseSeats("F1", seats));
+        assertEquals("Seat(s) not held: 1B", ex.getMessage());
+
+        ReleaseSeatsRequest count = new ReleaseSeatsRequest();
+        count.setCount(2);
+        ex = assertThrows(BusinessException.class, () -> flightService.releaseSeats("F1", count));
+        assertEquals("Seats not held. Released: 2, Held: 1", ex.getMessage());
+        assertEquals(2, timerCount("releaseSeats", "rejected"));
+        assertEquals(0, meterRegistry.get("flight.seats.released").tag("reason", "released").counter().count());
+    }
+
+    @Test
+    void seatOperations_areTimedByOutcome_andSeatsCounted() {
+        Flight updated = new Flight();
+        updated.setFlightId("F1");
+        updated.setAvailableSeats(7);
+        when(flightRepository.decrementAvailableSeats("F1", 3, Map.of())).thenReturn(updated);
+        when(flightRepository.incrementAvailableSeats("F1", 2, Map.of())).thenReturn(updated);
+        when(seatHoldManager.hold(eq("F1"), any(), eq(3), anyList())).thenReturn(hold("RES-1"));
+        when(flightRepository.decrementAvailableSeats("F9", 3, Map.of())).thenReturn(null);
+        when(flightRepository.findById("F9")).thenReturn(Optional.empty());
+        ReserveSeatsRequest reserve = new ReserveSeatsRequest();
+        reserve.setCount(3);
+        ReleaseSeatsRequest release = new ReleaseSeatsRequest();
+        release.setCount(2);
+
+        flightService.reserveSeats("F1", reserve);
+        assertThrows(BusinessException.class, () -> flightService.reserveSeats("F9", reserve));
+        reserve.setCount(0);
+        assertThrows(BusinessException.class, () -> flightService.reserveSeats("F1", reserve));
+        flightService.releaseSeats("F1", release);
+
+        assertEquals(1, timerCount("reserveSeats", "success"));
+        assertEquals(1, timerCount("reserveSeats", "not-found"));
+        assertEquals(1, timerCount("reserveSeats", "rejected"));
+        assertEquals(0, timerCount("reserveSeats", "not-enough-seats"));
+        assertEquals(1, timerCount("releaseSeats", "success"));
+        assertEquals(3, meterRegistry.get("flight.seats.reserved").counter().count());
+        assertEquals(2, meterRegistry.get("flight.seats.released").tag("reason", "released").counter().count());
+    }
+
+    private long timerCount(String operation, String outcome) {
+        return meterRegistry.get("flight.operations").tag("operation", operation).tag("outcome", outcome).timer().count();
+    }
+
+    @Test
+    void releaseSeats_unconfirmedHoldReturnsOnlyItsOwnSeats() {
+        when(seatHoldManager.releaseHold("F1", "BR-1")).thenReturn(true);
+
+        ReleaseSeatsRequest req = new ReleaseSeatsRequest();
+        req.setBookingReference("BR-1");
+        req.setCount(2);
+
+        flightService.releaseSeats("F1", req);
+
+        verify(flightRepository, never()).incrementAvailableSeats(anyString(), anyInt(), anyMap());
+    }
+
+    @Test
+    void reserveSeats_replayedReferenceReturnsFirstResponse() {
+        ReserveSeatsResponse first = new ReserveSeatsResponse();
+        first.setSuccess(true);
+        first.setReservationReference("RES-1");
+        ReservationLedgerEntry applied = new ReservationLedgerEntry();
+        applied.setResponse(first);
+        when(reservationLedger.begin("F1", LedgerOperation.RESERVE, "BR-1")).thenReturn(applied);
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setBookingReference("BR-1");
+        req.setCount(2);
+
+        assertSame(first, flightService.reserveSeats("F1", req));
+        verify(flightRepository, never()).decrementAvailableSeats(anyString(), anyInt(), anyMap());
+        verify(seatHoldManager, never()).hold(anyString(), any(), anyInt(), anyList());
+    }
+
+    @Test
+    void reserveSeats_failureFreesReferenceForRetry() {
+        when(flightRepository.decrementAvailableSeats("F9", 1, Map.of())).thenReturn(null);
+        when(flightRepository.findById("F9")).thenReturn(Optional.empty());
+
+        ReserveSeatsRequest req = new ReserveSeatsRequest();
+        req.setBookingReference("BR-2");
+        req.setCount(1);
+
+        assertThrows(BusinessException.class, () -> flightService.reserveSeats("F9", req));
+        verify(reservationLedger).abandon("F9", LedgerOperation.RESERVE, "BR-2");
+        verify(reservationLedger, never()).complete(anyString(), any(), anyString(), any());
+    }
+
+    @Test
+    void releaseSeats_replayedReferenceIsNotAppliedTwice() {
+        when(reservationLedger.begin("F1", LedgerOperation.RELEASE, "BR-1")).thenReturn(new ReservationLedgerEntry());
+
+        ReleaseSeatsRequest req = new ReleaseSeatsRequest();
+        req.setBookingReference("BR-1");
+        req.setCount(2);
+
+        flightService.releaseSeats("F1", req);
+
+        verifyNoInteractions(seatHoldManager);
+        verify(flightRepository, never()).incrementAvailableSeats(anyString(), anyInt(), anyMap());
+    }
+
+    @Test
+    void confirmHold_returnsConfirmedSeats() {
+        SeatHold hold = hold("RES-3");
+        hold.setCount(2);
+        when(seatHoldManager.confirm("F1", "RES-3")).thenReturn(hold);
+
+        ReserveSeatsResponse resp = flightService.confirmHold("F1", "RES-3");
+
+        assertTrue(resp.isSuccess());
+        assertEquals("RES-3", resp.getReservationReference());
+        assertEquals(2, resp.getSeatsReserved());
+    }
+
+    private static SeatHold hold(String id) {
+        SeatHold h = new SeatHold();
+        h.setHoldId(id);
+        h.setExpiresAt(LocalDateTime.now().plusMinutes(10));
+        return h;
     }
 
     @Test
     void getFlightById_mapsToResponse() {
         Flight f = new Flight();
         f.setFlightId("F1");
-        f.setAirlineName("TestAir");
+        f.setAirlineId("A1");
         f.setSource("SRC");
         f.setDestination("DST");
         f.setDepartureDateTime(LocalDateTime.now().plusDays(1));
@@ -154,11 +584,47 @@ class FlightServiceImplTest {
         f.setAvailableSeats(50);
         f.setPrice(1234.0);
 
-        when(flightRepository.findById("F1")).thenReturn(Optional.of(f));
+        when(flightRepository.findResponseById("F1")).thenReturn(Optional.of(f));
+        when(airlineRepository.findById("A1")).thenReturn(Optional.of(airline("A1", "TestAir")));
 
         FlightResponse resp = flightService.getFlightById("F1");
         assertNotNull(resp);
         assertEquals("TestAir", resp.getAirlineName());
         assertEquals(50, resp.getAvailableSeats());
     }
+
+    @Test
+    void getFlightById_fallsBackToTheArchive() {
+        Flight f = new Flight();
+        f.setFlightId("F1");
+        f.setAirlineId("A1");
+        f.setDepartureDateTime(LocalDateTime.now().minusDays(60));
+        f.setPrice(1234.0);
+
+        when(flightRepository.findResponseById("F1")).thenReturn(Optional.empty());
+        when(flightRepository.findArchivedResponseById("F1")).thenReturn(Optional.of(f));
+
+        FlightResponse resp = flightService.getFlightById("F1");
+        assertEquals("F1", resp.getFlightId());
+        assertEquals(1234.0, resp.getPrice());
+    }
+
+    @Test
+    void getFlightsByIds_readsAllInOneQuery_inRequestedOrder() {
+        Flight f1 = new Flight();
+        f1.setFlightId("F1");
+        f1.setAirlineId("A1");
+        Flight f2 = new Flight();
+        f2.setFlightId("F2");
+        f2.setAirlineId("A1");
+        when(flightRepository.findResponsesById(anyCollection())).thenReturn(List.of(f1, f2));
+        when(airlineRepository.findAllById(anyIterable())).thenReturn(List.of(airline("A1", "IndiGo")));
+
+        List<FlightResponse> responses = flightService.getFlightsByIds(List.of("F2", "MISSING", "F1", "F2"));
+
+        assertEquals(List.of("F2", "F1"), responses.stream().map(FlightResponse::getFlightId).toList());
+        assertEquals("IndiGo", responses.get(0).getAirlineName());
+        // each id asked for once
+        verify(flightRepository, times(1)).findResponsesById(argThat(ids -> List.copyOf(ids).equals(List.of("F2", "MISSING", "F1"))));
+    }
 }
@@ -0,0 +1,106 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.dto.request.FlightRequest;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.model.Airline;
+import com.flightservice.model.Flight;
+import com.flightservice.pricing.PricingEngine;
+import com.flightservice.repository.AirlineRepository;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.serviceImpl.FlightStreamServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.json.JsonMapper;
+
+class FlightStreamServiceImplTest {
+
+    private FlightRepository flightRepository;
+    private FlightStreamServiceImpl streamService;
+
+    @BeforeEach
+    void setUp() {
+        flightRepository = mock(FlightRepository.class);
+        AirlineRepository airlineRepository = mock(AirlineRepository.class);
+        Airline airline = new Airline();
+        airline.setAirlineId("A1");
+        airline.setAirlineName("IndiGo");
+        when(airlineRepository.findById("A1")).thenReturn(Optional.of(airline));
+        AirlineDirectory directory = new AirlineDirectory(airlineRepository, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(10), Duration.ofHours(1));
+        streamService = new FlightStreamServiceImpl(flightRepository, directory, JsonMapper.shared(),
+                new PricingEngine(false, "", "", 10), 250, 2);
+    }
+
+    @Test
+    void streamFlights_writesOneJsonLinePerFlight_andClosesCursor() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Flight> flights = IntStream.range(0, 5).mapToObj(i -> flight("AI-10" + i)).onClose(() -> closed.set(true));
+        when(flightRepository.streamSearch(any(), eq(250))).thenReturn(flights);
+
+        CountingStream out = new CountingStream();
+        streamService.streamFlights(request()).writeTo(out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(0).startsWith("{") && lines.get(0).contains("\"flightNo\":\"AI-100\""));
+        assertTrue(lines.get(4).contains("\"airlineName\":\"IndiGo\""));
+        assertTrue(closed.get(), "the Mongo cursor is released");
+        assertEquals(3, out.flushes.get(), "every 2 rows and once at the end");
+        verify(flightRepository).streamSearch(argThat(c -> "DEL-BLR".equals(c.routeKey()) && c.limit() == 0), eq(250));
+    }
+
+    @Test
+    void streamFlights_rejectsBadSearchBeforeWriting() {
+        FlightRequest req = new FlightRequest();
+
+        assertThrows(BusinessException.class, () -> streamService.streamFlights(req));
+        verifyNoInteractions(flightRepository);
+    }
+
+    private static FlightRequest request() {
+        FlightRequest req = new FlightRequest();
+        req.setSource("del");
+        req.setDestination("blr");
+        return req;
+    }
+
+    private static Flight flight(String flightNo) {
+        Flight f = new Flight();
+        f.setAirlineId("A1");
+        f.setFlightNo(flightNo);
+        f.setSource("DEL");
+        f.setDestination("BLR");
+        f.setDepartureDateTime(LocalDateTime.of(2030, 1, 1, 6, 0));
+        return f;
+    }
+
+    private static class CountingStream extends ByteArrayOutputStream {
+        final AtomicInteger flushes = new AtomicInteger();
+
+        @Override
+        public void flush() {
+            flushes.incrementAndGet();
+        }
+    }
+}
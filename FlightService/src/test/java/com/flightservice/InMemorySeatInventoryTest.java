@@ -0,0 +1,203 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.flightservice.inventory.InMemorySeatInventory;
+import com.flightservice.inventory.SeatMap;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRepository;
+
+class InMemorySeatInventoryTest {
+
+    @TempDir
+    Path logDir;
+
+    private FlightRepository flightRepository;
+    // what Mongo holds after the engine's write-behind
+    private final Map<String, Flight> mongo = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        flightRepository = mock(FlightRepository.class);
+        mongo.put("F1", flight("F1", 100));
+        when(flightRepository.findById(anyString())).thenAnswer(inv ->
+                Optional.ofNullable(mongo.get(inv.<String>getArgument(0))).map(f -> f.toBuilder()
+                        .seatRows(f.getSeatRows() == null ? null : new ArrayList<>(f.getSeatRows())).build()));
+        doAnswer(inv -> {
+            Collection<Flight> snapshots = inv.getArgument(0);
+            snapshots.forEach(s -> mongo.merge(s.getFlightId(), s,
+                    (old, neu) -> neu.getInventoryLogSeq() > old.getInventoryLogSeq() ? neu : old));
+            return null;
+        }).when(flightRepository).writeInventory(anyCollection());
+    }
+
+    @Test
+    void reserveAndRelease_updateMemoryAndFlushToMongo() throws Exception {
+        InMemorySeatInventory engine = engine();
+        engine.start();
+
+        Flight afterReserve = engine.reserve("F1", 2, Map.of(0, 0b11L));
+        assertEquals(98, afterReserve.getAvailableSeats());
+        assertNull(engine.reserve("F1", 1, Map.of(0, 0b1L)), "seat 1A is already taken");
+        assertNull(engine.reserve("F9", 1, Map.of()), "unknown flight");
+
+        Flight afterRelease = engine.release("F1", 1, Map.of(0, 0b1L));
+        assertEquals(99, afterRelease.getAvailableSeats());
+        assertEquals(0b10L, afterRelease.getSeatRows().get(0));
+        assertNull(engine.release("F1", 1, Map.of(0, 0b1L)), "seat 1A is free already");
+        assertNull(engine.release("F1", 2, Map.of()), "only one seat is taken");
+
+        engine.stop();
+        assertEquals(99, mongo.get("F1").getAvailableSeats());
+        assertEquals(0b10L, mongo.get("F1").getSeatRows().get(0));
+        assertTrue(logSegments().isEmpty(), "flushed segments are deleted");
+    }
+
+    @Test
+    void flightSoldBeforeSeatMaps_givesOldSeatsBackByCount_acrossARestart() throws Exception {
+        // 3 of 12 seats were sold before the flight had a seat map
+        Flight legacy = flight("F3", 12);
+        legacy.setAvailableSeats(9);
+        legacy.setSeatRows(null);
+        mongo.put("F3", legacy);
+        doNothing().when(flightRepository).writeInventory(anyCollection());
+        InMemorySeatInventory crashed = engine();
+        crashed.start();
+
+        assertEquals(8, crashed.reserve("F3", 1, Map.of(0, 0b1L)).getAvailableSeats());
+        // a booking from before the map cancels 2B and 2C, free in the map
+        Flight released = crashed.release("F3", 2, Map.of(1, 0b110L));
+        assertEquals(10, released.getAvailableSeats());
+        assertEquals(1, released.getUnmappedSeats());
+        assertNull(crashed.release("F3", 2, Map.of(0, 0b10L, 1, 0b1L)), "only one seat sold before the map is left");
+
+        // the log replays the same decisions on top of the document without a seat map
+        setUp();
+        mongo.put("F3", legacy);
+        InMemorySeatInventory restarted = engine();
+        restarted.start();
+
+        assertEquals(10, mongo.get("F3").getAvailableSeats());
+        assertEquals(1, mongo.get("F3").getUnmappedSeats());
+        assertEquals(0b1L, mongo.get("F3").getSeatRows().get(0));
+        assertEquals(11, restarted.release("F3", 1, Map.of(0, 0b1L)).getAvailableSeats(), "1A is held, its bit clears");
+        assertEquals(12, restarted.release("F3", 1, Map.of(1, 0b1L)).getAvailableSeats());
+        assertEquals(0, restarted.current("F3").orElseThrow().getUnmappedSeats());
+        restarted.stop();
+    }
+
+    @Test
+    void withCurrentSeats_overridesMongoUntilTheFlush() throws Exception {
+        mongo.put("F2", flight("F2", 50));
+        InMemorySeatInventory engine = engine();
+        engine.start();
+        engine.reserve("F1", 3, Map.of());
+
+        List<Flight> read = engine.withCurrentSeats(List.of(mongo.get("F1").toBuilder().build(),
+                mongo.get("F2").toBuilder().build()));
+
+        assertEquals(100, mongo.get("F1").getAvailableSeats(), "not flushed yet");
+        assertEquals(97, read.get(0).getAvailableSeats());
+        assertEquals(50, read.get(1).getAvailableSeats(), "not loaded by the engine, Mongo is current");
+        engine.stop();
+    }
+
+    @Test
+    void parallelReserves_neverOversell() throws Exception {
+        InMemorySeatInventory engine = engine();
+        engine.start();
+
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            futures.add(pool.submit(() -> {
+                if (engine.reserve("F1", 1, Map.of()) != null) {
+                    sold.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        pool.shutdown();
+        engine.stop();
+
+        assertEquals(100, sold.get());
+        assertEquals(0, mongo.get("F1").getAvailableSeats());
+    }
+
+    @Test
+    void recover_replaysLogEntriesMongoHasNotSeen() throws Exception {
+        // first run: nothing reaches Mongo before the "crash"
+        doNothing().when(flightRepository).writeInventory(anyCollection());
+        InMemorySeatInventory crashed = engine();
+        crashed.start();
+        crashed.reserve("F1", 3, Map.of(1, 0b111L));
+        crashed.reserve("F1", 1, Map.of());
+        assertFalse(logSegments().isEmpty());
+        assertEquals(100, mongo.get("F1").getAvailableSeats());
+
+        // second run: recovery rebuilds state from Mongo plus the log and writes it back
+        setUp();
+        InMemorySeatInventory restarted = engine();
+        restarted.start();
+
+        assertEquals(96, mongo.get("F1").getAvailableSeats());
+        assertEquals(0b111L, mongo.get("F1").getSeatRows().get(1));
+        assertEquals(96, restarted.current("F1").orElseThrow().getAvailableSeats());
+        assertNull(restarted.reserve("F1", 1, Map.of(1, 0b1L)), "recovered seat map still has 2A taken");
+        restarted.stop();
+    }
+
+    private InMemorySeatInventory engine() {
+        return new InMemorySeatInventory(flightRepository, logDir.toString(), 4, Duration.ofHours(1), false);
+    }
+
+    private List<Path> logSegments() throws Exception {
+        try (Stream<Path> files = Files.list(logDir)) {
+            return files.filter(p -> p.toString().endsWith(".log") && sizeOf(p) > 0).toList();
+        }
+    }
+
+    private static long sizeOf(Path p) {
+        try {
+            return Files.size(p);
+        } catch (Exception ex) {
+            return 0;
+        }
+    }
+
+    private static Flight flight(String id, int seats) {
+        Flight f = new Flight();
+        f.setFlightId(id);
+        f.setTotalSeats(seats);
+        f.setAvailableSeats(seats);
+        f.setDepartureDateTime(LocalDateTime.now().plusDays(3));
+        f.setSeatsPerRow(SeatMap.DEFAULT_SEATS_PER_ROW);
+        f.setSeatRows(SeatMap.emptyRows(seats, SeatMap.DEFAULT_SEATS_PER_ROW));
+        return f;
+    }
+}
@@ -0,0 +1,87 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.flightservice.model.Flight;
+import com.flightservice.pricing.PricingEngine;
+
+class PricingEngineTest {
+
+    private final PricingEngine engine = new PricingEngine(true, "0:1.0,0.5:1.1,0.9:1.5", "2d:1.3", 100);
+
+    @Test
+    void loadBuckets_applyOnceTheirShareIsSold() {
+        Flight flight = flight("F1", 1000.0, LocalDateTime.now().plusDays(10));
+
+        assertEquals(1000.0, engine.fareOf(flight, 100));
+        assertEquals(1000.0, engine.fareOf(flight, 51));
+        assertEquals(1100.0, engine.fareOf(flight, 50));
+        assertEquals(1100.0, engine.fareOf(flight, 11));
+        assertEquals(1500.0, engine.fareOf(flight, 10));
+        assertEquals(1500.0, engine.fareOf(flight, 0));
+    }
+
+    @Test
+    void departureBucket_multipliesTheLoadFare() {
+        Flight flight = flight("F1", 1000.0, LocalDateTime.now().plusDays(1));
+
+        assertEquals(1300.0, engine.fareOf(flight, 100));
+        assertEquals(1430.0, engine.fareOf(flight, 50));
+    }
+
+    @Test
+    void replacedFlight_isPricedFromItsNewFields() {
+        assertEquals(1100.0, engine.fareOf(flight("F1", 1000.0, LocalDateTime.now().plusDays(10)), 50));
+
+        assertEquals(2200.0, engine.fareOf(flight("F1", 2000.0, LocalDateTime.now().plusDays(10)), 50));
+        assertEquals(2860.0, engine.fareOf(flight("F1", 2000.0, LocalDateTime.now().plusHours(5)), 50));
+    }
+
+    @Test
+    void fareChangesAt_theStartOfTheNextDepartureBucket() {
+        LocalDateTime departure = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.MINUTES);
+        Flight flight = flight("F1", 1000.0, departure);
+
+        assertEquals(departure.minusDays(2), engine.fareChangesAt(flight));
+        engine.price(flight);
+        assertEquals(1000.0, flight.getFare());
+        assertEquals(departure.minusDays(2), flight.getFareDueAt());
+
+        assertNull(engine.fareChangesAt(flight("F2", 1000.0, LocalDateTime.now().plusDays(1))), "in the last bucket");
+        assertNull(new PricingEngine(false, "", "2d:1.3", 100).fareChangesAt(flight));
+    }
+
+    @Test
+    void disabledOrUnpriceable_returnsTheBaseFare() {
+        PricingEngine disabled = new PricingEngine(false, "0:1.0,0.5:1.1", "2d:1.3", 100);
+        Flight flight = flight("F1", 1000.0, LocalDateTime.now().plusDays(1));
+        assertEquals(1000.0, disabled.fareOf(flight, 10));
+
+        Flight noSeats = flight("F2", 1000.0, LocalDateTime.now().plusDays(1));
+        noSeats.setTotalSeats(0);
+        assertEquals(1000.0, engine.fareOf(noSeats, 0));
+
+        assertNull(engine.fareOf(flight("F3", null, LocalDateTime.now().plusDays(1)), 10));
+    }
+
+    @Test
+    void badBuckets_failAtStartup() {
+        assertThrows(IllegalArgumentException.class, () -> new PricingEngine(true, "1.5:2.0", "", 100));
+        assertThrows(IllegalArgumentException.class, () -> new PricingEngine(true, "0.5", "", 100));
+    }
+
+    private static Flight flight(String id, Double price, LocalDateTime departure) {
+        Flight f = new Flight();
+        f.setFlightId(id);
+        f.setTotalSeats(100);
+        f.setAvailableSeats(100);
+        f.setPrice(price);
+        f.setDepartureDateTime(departure);
+        return f;
+    }
+}
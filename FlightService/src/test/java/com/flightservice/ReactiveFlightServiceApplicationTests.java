@@ -0,0 +1,30 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.flightservice.controller.FlightController;
+import com.flightservice.controller.ReactiveFlightController;
+import com.flightservice.repository.ReactiveFlightRepository;
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+class ReactiveFlightServiceApplicationTests {
+
+	@Autowired
+	ApplicationContext context;
+
+	@Test
+	void contextLoads_withTheReactiveStack() {
+		assertEquals(1, context.getBeanNamesForType(ReactiveFlightController.class).length);
+		assertEquals(0, context.getBeanNamesForType(FlightController.class).length);
+		assertTrue(context.getClass().getSimpleName().contains("Reactive"), context.getClass().getName());
+		assertEquals(1, context.getBeanNamesForType(ReactiveFlightRepository.class).length);
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.cache.RouteSearchCache;
+import com.flightservice.dto.request.FlightRequest;
+import com.flightservice.dto.request.ReserveSeatsRequest;
+import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.model.Airline;
+import com.flightservice.model.Flight;
+import com.flightservice.metrics.FlightMetrics;
+import com.flightservice.pricing.PricingEngine;
+import com.flightservice.repository.AirlineRepository;
+import com.flightservice.repository.ReactiveFlightRepository;
+import com.flightservice.service.FlightService;
+import com.flightservice.serviceImpl.ReactiveFlightServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import tools.jackson.databind.json.JsonMapper;
+
+class ReactiveFlightServiceImplTest {
+
+    private ReactiveFlightRepository reactiveFlightRepository;
+    private FlightService flightService;
+    private ReactiveFlightServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        reactiveFlightRepository = mock(ReactiveFlightRepository.class);
+        flightService = mock(FlightService.class);
+        AirlineRepository airlineRepository = mock(AirlineRepository.class);
+        Airline indigo = new Airline();
+        indigo.setAirlineId("A1");
+        indigo.setAirlineName("IndiGo");
+        when(airlineRepository.findAllById(anyIterable())).thenReturn(List.of(indigo));
+        when(airlineRepository.findById("A1")).thenReturn(Optional.of(indigo));
+        AirlineDirectory airlineDirectory = new AirlineDirectory(airlineRepository, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(10), Duration.ofHours(1));
+        RouteSearchCache routeSearchCache = new RouteSearchCache(JsonMapper.shared(), airlineDirectory,
+                new SimpleMeterRegistry(), true, 1 << 20, Duration.ofMinutes(1));
+        service = new ReactiveFlightServiceImpl(reactiveFlightRepository, airlineDirectory, routeSearchCache, flightService,
+                new PricingEngine(false, "", "", 10), new FlightMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void searchFlightsJson_pagesWithACursor_andServesRepeatsFromTheCache() {
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Flight f = new Flight();
+            f.setFlightId("F" + i);
+            f.setAirlineId("A1");
+            f.setFlightNo("IN-100" + i);
+            f.setDepartureDateTime(LocalDateTime.now().plusDays(1).plusHours(i));
+            flights.add(f);
+        }
+        when(reactiveFlightRepository.searchPage(any())).thenReturn(Flux.fromIterable(flights));
+        FlightRequest request = new FlightRequest();
+        request.setSource("DEL");
+        request.setDestination("BOM");
+        request.setPageSize(2);
+
+        StepVerifier.create(service.searchFlightsJson(request))
+                .assertNext(page -> {
+                    String body = new String(page.body());
+                    assertTrue(body.contains("IN-1000") && body.contains("IN-1001") && !body.contains("IN-1002"), body);
+                    assertTrue(body.contains("\"airlineName\":\"IndiGo\""), body);
+                    assertNotNull(page.nextCursor());
+                })
+                .verifyComplete();
+        StepVerifier.create(service.searchFlightsJson(request)).expectNextCount(1).verifyComplete();
+
+        verify(reactiveFlightRepository, times(1)).searchPage(any());
+    }
+
+    @Test
+    void getFlightById_namesTheAirlineFromTheDirectory() {
+        Flight f = new Flight();
+        f.setFlightId("F1");
+        f.setAirlineId("A1");
+        f.setDepartureDateTime(LocalDateTime.now().plusDays(1));
+        when(reactiveFlightRepository.findResponseById("F1")).thenReturn(Mono.just(f));
+        when(reactiveFlightRepository.findArchivedResponseById("F1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.getFlightById("F1"))
+                .assertNext(flight -> assertEquals("IndiGo", flight.getAirlineName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getFlightById_signalsNotFound() {
+        when(reactiveFlightRepository.findResponseById("missing")).thenReturn(Mono.empty());
+        when(reactiveFlightRepository.findArchivedResponseById("missing")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.getFlightById("missing"))
+                .expectErrorSatisfies(ex -> {
+                    assertInstanceOf(BusinessException.class, ex);
+                    assertEquals("Flight not found with id: missing", ex.getMessage());
+                })
+                .verify();
+    }
+
+    @Test
+    void reserveSeats_runsTheBlockingServiceOffTheCallingThread() {
+        ReserveSeatsResponse response = new ReserveSeatsResponse();
+        Thread caller = Thread.currentThread();
+        when(flightService.reserveSeats(eq("F1"), any())).thenAnswer(inv -> {
+            assertNotSame(caller, Thread.currentThread());
+            return response;
+        });
+
+        StepVerifier.create(service.reserveSeats("F1", new ReserveSeatsRequest()))
+                .expectNext(response)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,80 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.enums.LedgerOperation;
+import com.flightservice.enums.LedgerStatus;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.inventory.ReservationLedger;
+import com.flightservice.model.ReservationLedgerEntry;
+import com.flightservice.repository.ReservationLedgerRepository;
+
+class ReservationLedgerTest {
+
+    private static final String ID = ReservationLedgerEntry.idOf("F1", LedgerOperation.RESERVE, "BR-1");
+
+    private ReservationLedgerRepository repository;
+    private ReservationLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ReservationLedgerRepository.class);
+        ledger = new ReservationLedger(repository, 100, Duration.ofHours(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void completedReference_isReplayedFromCacheWithoutMongo() {
+        when(repository.tryBegin(any())).thenReturn(true);
+        assertNull(ledger.begin("F1", LedgerOperation.RESERVE, "BR-1"));
+
+        ReserveSeatsResponse resp = new ReserveSeatsResponse();
+        ledger.complete("F1", LedgerOperation.RESERVE, "BR-1", resp);
+        verify(repository).markApplied(ID, resp);
+
+        ReservationLedgerEntry replay = ledger.begin("F1", LedgerOperation.RESERVE, "BR-1");
+        assertSame(resp, replay.getResponse());
+        verify(repository, times(1)).tryBegin(any());
+    }
+
+    @Test
+    void appliedEntryInMongo_isReturnedToTheRetry() {
+        ReservationLedgerEntry stored = entry(LedgerStatus.APPLIED);
+        when(repository.tryBegin(any())).thenReturn(false);
+        when(repository.findById(ID)).thenReturn(Optional.of(stored));
+
+        assertSame(stored, ledger.begin("F1", LedgerOperation.RESERVE, "BR-1"));
+        verify(repository, never()).takeOverStale(anyString(), any(), any());
+    }
+
+    @Test
+    void pendingEntry_rejectsConcurrentCallUnlessStale() {
+        when(repository.tryBegin(any())).thenReturn(false);
+        when(repository.findById(ID)).thenReturn(Optional.of(entry(LedgerStatus.PENDING)));
+        when(repository.takeOverStale(eq(ID), any(), any())).thenReturn(false, true);
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> ledger.begin("F1", LedgerOperation.RESERVE, "BR-1"));
+        assertTrue(ex.getMessage().contains("in progress"));
+
+        assertNull(ledger.begin("F1", LedgerOperation.RESERVE, "BR-1"), "a stale claim is taken over");
+    }
+
+    private static ReservationLedgerEntry entry(LedgerStatus status) {
+        ReservationLedgerEntry e = new ReservationLedgerEntry();
+        e.setId(ID);
+        e.setStatus(status);
+        e.setCreatedAt(LocalDateTime.now());
+        return e;
+    }
+}
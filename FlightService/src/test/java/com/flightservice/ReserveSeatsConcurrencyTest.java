@@ -0,0 +1,173 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.flightservice.dto.request.ReserveSeatsRequest;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.cache.RouteSearchCache;
+import com.flightservice.inventory.MongoSeatInventory;
+import com.flightservice.inventory.ReservationLedger;
+import com.flightservice.inventory.SeatHoldManager;
+import com.flightservice.model.Flight;
+import com.flightservice.model.SeatHold;
+import com.flightservice.metrics.FlightMetrics;
+import com.flightservice.pricing.PricingEngine;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.sequence.FlightNumberAllocator;
+import com.flightservice.serviceImpl.FlightServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Fires thousands of parallel reserves at one flight. The repository stand-in
+ * keeps the document in an AtomicInteger and applies the conditional decrement
+ * the same way Mongo applies findAndModify: atomically per document. The old
+ * read-modify-write path runs against the same store to show it oversells;
+ * the throughput of both is measured by ReserveSeatsBenchmark.
+ */
+class ReserveSeatsConcurrencyTest {
+
+    private static final int CAPACITY = 1_000;
+    private static final int REQUESTS = 5_000;
+    private static final int THREADS = 64;
+
+    @Test
+    void conditionalDecrement_neverOversells() throws Exception {
+        AtomicInteger seats = new AtomicInteger(CAPACITY);
+        FlightRepository repo = atomicRepository(seats, new CountDownLatch(0));
+        SeatHoldManager holds = mock(SeatHoldManager.class, withSettings().stubOnly());
+        when(holds.hold(anyString(), any(), anyInt(), anyList())).thenReturn(new SeatHold());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FlightServiceImpl service = new FlightServiceImpl(repo, mock(AirlineDirectory.class),
+                new MongoSeatInventory(repo), holds, mock(ReservationLedger.class), mock(RouteSearchCache.class),
+                mock(FlightNumberAllocator.class), mock(PricingEngine.class), new FlightMetrics(meterRegistry),
+                event -> { });
+
+        Result result = run(() -> {
+            ReserveSeatsRequest req = new ReserveSeatsRequest();
+            req.setCount(1);
+            service.reserveSeats("F1", req);
+        });
+
+        assertEquals(CAPACITY, result.succeeded);
+        assertEquals(REQUESTS - CAPACITY, result.rejected);
+        assertEquals(0, seats.get());
+        assertEquals(CAPACITY, meterRegistry.get("flight.seats.reserved").counter().count());
+        assertEquals(CAPACITY,
+                meterRegistry.get("flight.operations").tag("operation", "reserveSeats").tag("outcome", "success")
+                        .timer().count());
+        assertEquals(REQUESTS - CAPACITY,
+                meterRegistry.get("flight.operations").tag("operation", "reserveSeats").tag("outcome", "not-enough-seats")
+                        .timer().count());
+
+    }
+
+    @Test
+    void readModifyWrite_oversells() throws Exception {
+        // the old path did findById, setAvailableSeats, save: two reserves that read the flight before
+        // either saves both sell a seat, and the second save overwrites the first
+        AtomicInteger seats = new AtomicInteger(CAPACITY);
+        FlightRepository repo = atomicRepository(seats, new CountDownLatch(2));
+
+        Result result = run(() -> legacyReserve(repo, 1));
+
+        assertTrue(result.succeeded > CAPACITY,
+                "read-modify-write sold " + result.succeeded + " of " + CAPACITY + " seats");
+    }
+
+    /** Each findById waits, for up to five seconds, until reads has counted down to zero. */
+    private static FlightRepository atomicRepository(AtomicInteger seats, CountDownLatch reads) {
+        FlightRepository repo = mock(FlightRepository.class, withSettings().stubOnly());
+        when(repo.decrementAvailableSeats(anyString(), anyInt(), anyMap())).thenAnswer(inv -> {
+            int count = inv.getArgument(1);
+            while (true) {
+                int current = seats.get();
+                if (current < count) {
+                    return null;
+                }
+                if (seats.compareAndSet(current, current - count)) {
+                    return flight(current - count);
+                }
+            }
+        });
+        when(repo.findById(anyString())).thenAnswer(inv -> {
+            Flight read = flight(seats.get());
+            reads.countDown();
+            reads.await(5, TimeUnit.SECONDS);
+            return Optional.of(read);
+        });
+        // whole-document save: last writer wins, whatever was read before
+        when(repo.save(any(Flight.class))).thenAnswer(inv -> {
+            Flight f = inv.getArgument(0);
+            seats.set(f.getAvailableSeats());
+            return f;
+        });
+        return repo;
+    }
+
+    private static void legacyReserve(FlightRepository repo, int count) {
+        Flight flight = repo.findById("F1").orElseThrow();
+        if (flight.getAvailableSeats() < count) {
+            throw new BusinessException("Not enough seats available");
+        }
+        flight.setAvailableSeats(flight.getAvailableSeats() - count);
+        repo.save(flight);
+    }
+
+    private static Flight flight(int availableSeats) {
+        Flight f = new Flight();
+        f.setFlightId("F1");
+        f.setTotalSeats(CAPACITY);
+        f.setAvailableSeats(availableSeats);
+        return f;
+    }
+
+    private static Result run(Runnable reserve) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                try {
+                    reserve.run();
+                    return true;
+                } catch (BusinessException ex) {
+                    return false;
+                }
+            }));
+        }
+
+        start.countDown();
+        int succeeded = 0;
+        for (Future<Boolean> f : futures) {
+            if (f.get()) {
+                succeeded++;
+            }
+        }
+        pool.shutdown();
+        return new Result(succeeded, REQUESTS - succeeded);
+    }
+
+    private record Result(int succeeded, int rejected) {
+    }
+}
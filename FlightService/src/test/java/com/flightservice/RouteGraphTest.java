@@ -0,0 +1,153 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.flightservice.enums.ItinerarySort;
+import com.flightservice.events.FaresChangedEvent;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.events.FlightsAddedEvent;
+import com.flightservice.itinerary.Itinerary;
+import com.flightservice.itinerary.ItineraryQuery;
+import com.flightservice.itinerary.RouteGraph;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRepository;
+
+class RouteGraphTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.now().plusDays(2).withHour(0).withMinute(0).withSecond(0).withNano(0);
+
+    private final List<Flight> stored = new ArrayList<>();
+    private RouteGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        // direct, expensive and late
+        stored.add(flight("D1", "DEL", "BLR", 18, 0, 21, 0, 9000));
+        // one stop via BOM, cheapest
+        stored.add(flight("A1", "DEL", "BOM", 6, 0, 8, 0, 2000));
+        stored.add(flight("A2", "BOM", "BLR", 9, 30, 11, 0, 2500));
+        // two stops via BOM and HYD
+        stored.add(flight("B2", "BOM", "HYD", 9, 0, 10, 15, 1500));
+        stored.add(flight("B3", "HYD", "BLR", 11, 15, 12, 15, 2000));
+        // leaves BOM too soon after A1 lands for the minimum layover
+        stored.add(flight("C2", "BOM", "BLR", 8, 20, 10, 0, 100));
+
+        FlightRepository repository = mock(FlightRepository.class);
+        when(repository.streamSearch(any(), anyInt())).thenAnswer(inv -> stored.stream());
+        graph = new RouteGraph(repository, 100);
+        graph.load();
+    }
+
+    @Test
+    void findsDirectAndConnectingItineraries_rankedByPrice() {
+        List<Itinerary> result = graph.search(query(2, ItinerarySort.PRICE));
+
+        assertEquals(List.of(List.of("A1", "A2"), List.of("A1", "B2", "B3"), List.of("D1")),
+                result.stream().map(Itinerary::flightIds).toList());
+        assertEquals(4500, result.get(0).totalPrice());
+        assertEquals(5 * 60, result.get(0).durationMinutes());
+        assertEquals(2, result.get(1).stops());
+    }
+
+    @Test
+    void rankedByDuration_andLimitedByStops() {
+        List<Itinerary> byDuration = graph.search(query(2, ItinerarySort.DURATION));
+        assertEquals(List.of("D1"), byDuration.get(0).flightIds());
+
+        List<Itinerary> oneStop = graph.search(query(1, ItinerarySort.PRICE));
+        assertTrue(oneStop.stream().allMatch(i -> i.stops() <= 1));
+        assertEquals(2, oneStop.size());
+    }
+
+    @Test
+    void updatesIncrementally_onSeatChangesAndNewFlights() {
+        Flight soldOut = stored.get(2).toBuilder().availableSeats(0).build();
+        graph.onFlightChanged(new FlightChangedEvent(soldOut));
+        graph.onFlightChanged(new FlightChangedEvent(flight("N1", "DEL", "BLR", 7, 0, 9, 30, 3000)));
+
+        List<Itinerary> result = graph.search(query(2, ItinerarySort.PRICE));
+
+        assertEquals(List.of("N1"), result.get(0).flightIds());
+        assertTrue(result.stream().noneMatch(i -> i.flightIds().contains("A2")), "sold-out leg is skipped");
+        assertEquals(3000.0, graph.flight("N1").orElseThrow().getPrice());
+    }
+
+    @Test
+    void seatChanges_areSeenByTheNextSearch_soldOutAndBack() {
+        // leaves BOM at the same minute as A2
+        graph.onFlightChanged(new FlightChangedEvent(flight("A3", "BOM", "BLR", 9, 30, 11, 30, 2600)));
+        Flight a2 = stored.get(2);
+        graph.onFlightChanged(new FlightChangedEvent(a2.toBuilder().availableSeats(0).build(), -10));
+        List<Itinerary> soldOut = graph.search(query(1, ItinerarySort.PRICE));
+
+        graph.onFlightChanged(new FlightChangedEvent(a2.toBuilder().availableSeats(2).build(), 2));
+        List<Itinerary> released = graph.search(query(1, ItinerarySort.PRICE));
+
+        assertEquals(List.of(List.of("A1", "A3"), List.of("D1")), soldOut.stream().map(Itinerary::flightIds).toList());
+        assertEquals(List.of(List.of("A1", "A2"), List.of("A1", "A3"), List.of("D1")),
+                released.stream().map(Itinerary::flightIds).toList());
+        assertEquals(2, graph.flight("A2").orElseThrow().getAvailableSeats());
+        assertEquals(10, graph.flight("A3").orElseThrow().getAvailableSeats());
+    }
+
+    @Test
+    void addedInBulk_areSearchable() {
+        graph.onFlightsAdded(new FlightsAddedEvent(List.of(
+                flight("N2", "GOI", "BLR", 10, 0, 11, 0, 500),
+                flight("N1", "DEL", "GOI", 7, 0, 9, 0, 600),
+                flight("N3", "DEL", "BLR", 5, 0, 7, 30, 8000))));
+
+        List<Itinerary> result = graph.search(query(2, ItinerarySort.PRICE));
+
+        assertEquals(List.of("N1", "N2"), result.get(0).flightIds());
+        assertTrue(result.stream().anyMatch(i -> i.flightIds().equals(List.of("N3"))));
+        assertEquals(600.0, graph.flight("N1").orElseThrow().getPrice());
+    }
+
+    @Test
+    void repricedLegs_rerankItineraries_andSeatChangesDoNotUndoTheFare() {
+        Flight a2 = stored.get(2);
+        graph.onFaresChanged(new FaresChangedEvent(List.of(a2.toBuilder().fare(9500.0).build())));
+        // a seat change that still carries the fare the flight had when it was loaded
+        graph.onFlightChanged(new FlightChangedEvent(a2.toBuilder().availableSeats(9).build(), -1));
+
+        List<Itinerary> result = graph.search(query(2, ItinerarySort.PRICE));
+
+        assertEquals(List.of(List.of("A1", "B2", "B3"), List.of("D1"), List.of("A1", "A2")),
+                result.stream().map(Itinerary::flightIds).toList());
+        assertEquals(11500, result.get(2).totalPrice());
+        assertEquals(9500.0, graph.flight("A2").orElseThrow().getFare());
+        assertEquals(9, graph.flight("A2").orElseThrow().getAvailableSeats());
+    }
+
+    private static ItineraryQuery query(int maxStops, ItinerarySort sort) {
+        return new ItineraryQuery("del", "BLR", RouteGraph.minuteOf(DAY), RouteGraph.minuteOf(DAY.plusDays(1)),
+                1, maxStops, 45, 6 * 60, sort, 10);
+    }
+
+    private static Flight flight(String id, String from, String to, int depH, int depM, int arrH, int arrM, double price) {
+        return Flight.builder()
+                .flightId(id)
+                .airlineId("AL")
+                .flightNo(id)
+                .source(from)
+                .destination(to)
+                .departureDateTime(DAY.withHour(depH).withMinute(depM))
+                .arrivalDateTime(DAY.withHour(arrH).withMinute(arrM))
+                .availableSeats(10)
+                .totalSeats(10)
+                .price(price)
+                .fare(price)
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.events.SeatAvailabilityChangedEvent;
+import com.flightservice.feed.SeatAvailabilityFeed;
+import com.flightservice.inventory.SeatInventory;
+import com.flightservice.model.Flight;
+import com.flightservice.pricing.PricingEngine;
+
+class SeatAvailabilityFeedTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final SeatInventory seatInventory = mock(SeatInventory.class);
+    private final SeatAvailabilityFeed feed = new SeatAvailabilityFeed(kafkaTemplate, seatInventory,
+            new PricingEngine(false, "", "", 10), "seats", Duration.ofMillis(100));
+
+    @AfterEach
+    void stop() {
+        feed.stop();
+    }
+
+    @Test
+    void burstOnOneFlight_isOneMessage_withTheSeatsAfterTheBurst() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(new CompletableFuture<>());
+        when(seatInventory.current("F1")).thenReturn(Optional.of(flight("F1", 120)));
+        when(seatInventory.current("F2")).thenReturn(Optional.of(flight("F2", 7)));
+
+        // events arrive out of order, as concurrent bookings publish them
+        for (int seats = 179; seats >= 120; seats--) {
+            feed.onFlightChanged(new FlightChangedEvent(flight("F1", seats == 150 ? 121 : seats), -1));
+        }
+        feed.onFlightChanged(new FlightChangedEvent(flight("F2", 7), -1));
+
+        ArgumentCaptor<Object> f1 = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, timeout(2_000)).send(eq("seats"), eq("F1"), f1.capture());
+        verify(kafkaTemplate, timeout(2_000)).send(eq("seats"), eq("F2"), any());
+        assertEquals(120, ((SeatAvailabilityChangedEvent) f1.getValue()).availableSeats());
+        verify(seatInventory, times(1)).current("F1");
+    }
+
+    @Test
+    void changeAfterAMessageIsSent_isPublishedAgain() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(new CompletableFuture<>());
+        when(seatInventory.current("F1")).thenReturn(Optional.of(flight("F1", 10)))
+                .thenReturn(Optional.of(flight("F1", 9)));
+
+        feed.onFlightChanged(new FlightChangedEvent(flight("F1", 10), -1));
+        verify(kafkaTemplate, timeout(2_000)).send(eq("seats"), eq("F1"), any());
+        feed.onFlightChanged(new FlightChangedEvent(flight("F1", 9), -1));
+
+        verify(kafkaTemplate, timeout(2_000).times(2)).send(eq("seats"), eq("F1"), any());
+    }
+
+    private static Flight flight(String id, int availableSeats) {
+        Flight f = new Flight();
+        f.setFlightId(id);
+        f.setTotalSeats(180);
+        f.setAvailableSeats(availableSeats);
+        f.setPrice(4500.0);
+        return f;
+    }
+}
@@ -0,0 +1,119 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.flightservice.enums.HoldStatus;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.inventory.SeatHoldManager;
+import com.flightservice.inventory.SeatInventory;
+import com.flightservice.model.SeatHold;
+import com.flightservice.repository.SeatHoldRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SeatHoldManagerTest {
+
+    private final Map<String, SeatHold> store = new ConcurrentHashMap<>();
+    private SeatHoldRepository holdRepository;
+    private SeatInventory seatInventory;
+    private SimpleMeterRegistry meters;
+    private SeatHoldManager manager;
+
+    @BeforeEach
+    void setUp() {
+        holdRepository = mock(SeatHoldRepository.class);
+        seatInventory = mock(SeatInventory.class);
+        meters = new SimpleMeterRegistry();
+        when(holdRepository.save(any(SeatHold.class))).thenAnswer(inv -> {
+            SeatHold h = inv.getArgument(0);
+            store.put(h.getHoldId(), h);
+            return h;
+        });
+        when(holdRepository.expire(anyCollection(), any())).thenAnswer(inv -> {
+            Collection<String> ids = inv.getArgument(0);
+            LocalDateTime now = inv.getArgument(1);
+            List<SeatHold> expired = new ArrayList<>();
+            for (String id : ids) {
+                SeatHold h = store.get(id);
+                if (h != null && h.getStatus() == HoldStatus.HELD && !h.getExpiresAt().isAfter(now)) {
+                    h.setStatus(HoldStatus.EXPIRED);
+                    expired.add(h);
+                }
+            }
+            return expired;
+        });
+        manager = new SeatHoldManager(holdRepository, seatInventory, event -> { }, meters,
+                Duration.ofMillis(100), Duration.ofMillis(10), 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.stop();
+    }
+
+    @Test
+    void unconfirmedHolds_expireInOneBatchPerFlight() throws Exception {
+        manager.hold("F1", "BR-1", 2, List.of("1A", "1B"));
+        manager.hold("F1", "BR-2", 1, List.of());
+        manager.hold("F2", "BR-3", 3, null);
+
+        waitFor(() -> meters.counter("flight.holds.expired").count() == 3);
+
+        // both F1 holds come back together: 3 seats, seats 1A and 1B (row 0, bits 0 and 1)
+        verify(seatInventory).release("F1", 3, Map.of(0, 0b11L));
+        verify(seatInventory).release("F2", 3, Map.of());
+        assertEquals(3, meters.counter("flight.holds.created").count());
+        assertEquals(0, meters.get("flight.holds.scheduled").gauge().value());
+    }
+
+    @Test
+    void confirmedHold_isNotExpired() throws Exception {
+        SeatHold hold = manager.hold("F1", "BR-1", 2, List.of());
+        when(holdRepository.confirm(eq("F1"), eq(hold.getHoldId()), any())).thenAnswer(inv -> {
+            hold.setStatus(HoldStatus.CONFIRMED);
+            return hold;
+        });
+
+        assertSame(hold, manager.confirm("F1", hold.getHoldId()));
+
+        waitFor(() -> meters.get("flight.holds.scheduled").gauge().value() == 0);
+        verify(seatInventory, never()).release(anyString(), anyInt(), anyMap());
+        assertEquals(1, meters.counter("flight.holds.confirmed").count());
+        assertEquals(0, meters.counter("flight.holds.expired").count());
+    }
+
+    @Test
+    void confirm_afterExpiry_fails() {
+        SeatHold hold = new SeatHold();
+        hold.setHoldId("RES-X");
+        hold.setFlightId("F1");
+        hold.setStatus(HoldStatus.EXPIRED);
+        when(holdRepository.findById("RES-X")).thenReturn(Optional.of(hold));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> manager.confirm("F1", "RES-X"));
+        assertEquals("Seat hold expired: RES-X", ex.getMessage());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
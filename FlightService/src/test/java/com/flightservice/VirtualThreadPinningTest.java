@@ -0,0 +1,134 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.model.Airline;
+import com.flightservice.repository.AirlineRepository;
+import com.flightservice.repository.FlightNumberSequenceRepository;
+import com.flightservice.sequence.FlightNumberAllocator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Runs the code that waits on Mongo while other threads wait on it, on
+ * virtual threads, and fails if JFR sees a virtual thread park while pinned
+ * to its carrier (inside a synchronized block or a ConcurrentHashMap compute).
+ * The repositories sleep to stand in for a slow round trip.
+ */
+class VirtualThreadPinningTest {
+
+    private static final Duration ROUND_TRIP = Duration.ofMillis(20);
+
+    @Test
+    void recorderSeesPinning() throws Exception {
+        Object monitor = new Object();
+
+        List<String> pinned = pinnedWhile(() -> {
+            synchronized (monitor) {
+                sleep();
+            }
+        });
+
+        assertFalse(pinned.isEmpty());
+    }
+
+    @Test
+    void flightNumberRefill_doesNotPin() throws Exception {
+        AtomicLong sequence = new AtomicLong();
+        FlightNumberSequenceRepository repository = mock(FlightNumberSequenceRepository.class);
+        when(repository.reserveBlock(anyString(), anyInt())).thenAnswer(inv -> {
+            sleep();
+            return sequence.addAndGet(inv.<Integer>getArgument(1));
+        });
+        // a block of one makes every call a refill, with the other threads waiting on it
+        FlightNumberAllocator allocator = new FlightNumberAllocator(repository, 1);
+
+        List<String> pinned = pinnedWhile(() -> allocator.nextNumber("A1"));
+
+        assertEquals(List.of(), pinned);
+    }
+
+    @Test
+    void airlineLookupMiss_doesNotPin() throws Exception {
+        Airline airline = new Airline();
+        airline.setAirlineId("A1");
+        airline.setAirlineName("Air India");
+        AirlineRepository repository = mock(AirlineRepository.class);
+        when(repository.findById("A1")).thenAnswer(inv -> {
+            sleep();
+            return Optional.of(airline);
+        });
+        when(repository.findByAirlineNameKey(anyString())).thenAnswer(inv -> {
+            sleep();
+            return Optional.of(airline);
+        });
+        AirlineDirectory directory = new AirlineDirectory(repository, new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(10), Duration.ofHours(1));
+
+        List<String> pinned = pinnedWhile(() -> directory.findByName("Air India"));
+
+        assertEquals(List.of(), pinned);
+    }
+
+    /** Runs work on 16 virtual threads at once and returns the frames where one parked pinned. */
+    private static List<String> pinnedWhile(Runnable work) throws Exception {
+        List<String> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", e -> pinned.add(pinnedAt(e)));
+            recording.startAsync();
+
+            try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new CopyOnWriteArrayList<>();
+                for (int i = 0; i < 16; i++) {
+                    futures.add(threads.submit(work));
+                }
+                for (Future<?> f : futures) {
+                    f.get();
+                }
+            }
+            // waits until every recorded event has been consumed
+            recording.stop();
+        }
+        return pinned;
+    }
+
+    // the first application frame below the test's own
+    private static String pinnedAt(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "?";
+        }
+        return event.getStackTrace().getFrames().stream()
+                .map(RecordedFrame::getMethod)
+                .map(m -> m.getType().getName() + "." + m.getName())
+                .filter(m -> m.startsWith("com.flightservice.") && !m.startsWith(VirtualThreadPinningTest.class.getName()))
+                .findFirst()
+                .orElse("?");
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(ROUND_TRIP);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
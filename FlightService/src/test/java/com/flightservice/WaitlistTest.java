@@ -0,0 +1,127 @@
+package com.flightservice;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.flightservice.dto.request.ReserveSeatsRequest;
+import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.enums.WaitlistStatus;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.events.WaitlistPromotedEvent;
+import com.flightservice.exceptions.BusinessException;
+import com.flightservice.model.Flight;
+import com.flightservice.model.WaitlistEntry;
+import com.flightservice.repository.WaitlistRepository;
+import com.flightservice.service.FlightService;
+import com.flightservice.waitlist.Waitlist;
+
+class WaitlistTest {
+
+    private final WaitlistRepository repository = mock(WaitlistRepository.class);
+    private final FlightService flightService = mock(FlightService.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final Waitlist waitlist = new Waitlist(repository, flightService, kafkaTemplate, "promotions",
+            Duration.ofMinutes(1));
+
+    @AfterEach
+    void stop() {
+        waitlist.stop();
+    }
+
+    @Test
+    void promote_takesTheLineInOrder_andStopsAtTheFirstThatDoesNotFit() {
+        WaitlistEntry first = entry("W1", "BR-1", 2);
+        WaitlistEntry second = entry("W2", "BR-2", 1);
+        WaitlistEntry third = entry("W3", "BR-3", 4);
+        when(repository.claimHead(eq("F1"), any(), any())).thenReturn(first, second, third, null);
+        when(flightService.reserveSeats(eq("F1"), any())).thenAnswer(inv -> {
+            ReserveSeatsRequest req = inv.getArgument(1);
+            if (req.getCount() > 2) {
+                throw new BusinessException("Not enough seats available. Requested: 4, Available: 0");
+            }
+            return hold("H-" + req.getBookingReference());
+        });
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(new CompletableFuture<>());
+
+        waitlist.promote("F1");
+
+        InOrder order = inOrder(repository);
+        order.verify(repository).markPromoted(eq("W1"), eq("H-BR-1"), any(), any());
+        order.verify(repository).markPromoted(eq("W2"), eq("H-BR-2"), any(), any());
+        order.verify(repository).unclaim("W3");
+        // the third stays at the head: nobody behind it is claimed
+        verify(repository, times(3)).claimHead(eq("F1"), any(), any());
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, times(2)).send(eq("promotions"), eq("F1"), events.capture());
+        assertEquals(List.of("BR-1", "BR-2"), events.getAllValues().stream()
+                .map(e -> ((WaitlistPromotedEvent) e).bookingReference()).toList());
+    }
+
+    @Test
+    void seatsGivenBack_promoteTheLine_seatsTakenDoNot() {
+        Flight flight = new Flight();
+        flight.setFlightId("F1");
+        flight.setAvailableSeats(0);
+
+        waitlist.onFlightChanged(new FlightChangedEvent(flight, -2));
+        verify(repository, after(200).never()).claimHead(anyString(), any(), any());
+
+        waitlist.onFlightChanged(new FlightChangedEvent(flight, 2));
+        verify(repository, timeout(2_000)).claimHead(eq("F1"), any(), any());
+    }
+
+    @Test
+    void staleClaims_arePromotedAgain_fromTheirPlaceInLine() {
+        WaitlistEntry stuck = entry("W1", "BR-1", 1);
+        when(repository.findFlightsWithClaimsBefore(any())).thenReturn(List.of("F1"));
+        when(repository.claimHead(eq("F1"), any(), any())).thenReturn(stuck, (WaitlistEntry) null);
+        when(flightService.reserveSeats(eq("F1"), any())).thenReturn(hold("H-BR-1"));
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(new CompletableFuture<>());
+
+        LocalDateTime before = LocalDateTime.now();
+        waitlist.reclaimStale();
+        LocalDateTime after = LocalDateTime.now();
+
+        // claims younger than the timeout are left alone
+        ArgumentCaptor<LocalDateTime> staleBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).findFlightsWithClaimsBefore(staleBefore.capture());
+        assertFalse(staleBefore.getValue().isBefore(before.minusMinutes(1)));
+        assertFalse(staleBefore.getValue().isAfter(after.minusMinutes(1)));
+        verify(repository, timeout(2_000)).markPromoted(eq("W1"), eq("H-BR-1"), any(), any());
+    }
+
+    private static WaitlistEntry entry(String id, String reference, int count) {
+        WaitlistEntry e = new WaitlistEntry();
+        e.setId(id);
+        e.setFlightId("F1");
+        e.setBookingReference(reference);
+        e.setCount(count);
+        e.setStatus(WaitlistStatus.PROMOTING);
+        e.setRequestedAt(LocalDateTime.now());
+        return e;
+    }
+
+    private static ReserveSeatsResponse hold(String holdId) {
+        ReserveSeatsResponse res = new ReserveSeatsResponse();
+        res.setSuccess(true);
+        res.setReservationReference(holdId);
+        res.setHoldExpiresAt(LocalDateTime.now().plusMinutes(10));
+        return res;
+    }
+}
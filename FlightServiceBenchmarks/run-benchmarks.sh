@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# JMH benchmarks of FlightService hot paths, without Mongo, Kafka or Eureka.
+# Installs the FlightService jar, builds target/benchmarks.jar and runs the
+# benchmarks once per thread count. Results land in
+# results/<time>-<commit>/: one JMH JSON file and one text log per thread
+# count, plus env.txt (commit, JVM, CPUs) to tell runs apart when comparing.
+#
+#   ./run-benchmarks.sh [benchmark regex] [extra JMH options]
+#       e.g. ./run-benchmarks.sh ReserveSeats -p inventory=mongo -prof gc
+#   THREADS="1 8 32" ./run-benchmarks.sh Search
+set -euo pipefail
+cd "$(dirname "$0")"
+
+FILTER=${1:-.}
+shift || true
+THREADS=${THREADS:-"1 4 16"}
+JAVA_OPTS=${JAVA_OPTS:-"-Xms2g -Xmx2g"}
+MVNW=../FlightService/mvnw
+
+if [[ -z "${SKIP_BUILD:-}" ]]; then
+    "$MVNW" -q -f ../FlightService/pom.xml -DskipTests install
+    "$MVNW" -q -f pom.xml package
+fi
+
+COMMIT=$(git rev-parse --short HEAD 2>/dev/null || echo unknown)
+OUT="results/$(date +%Y%m%d-%H%M%S)-$COMMIT"
+mkdir -p "$OUT"
+{
+    echo "commit: $COMMIT$(git diff --quiet HEAD 2>/dev/null || echo ' (with local changes)')"
+    echo "filter: $FILTER $*"
+    echo "threads: $THREADS"
+    echo "jvm options: $JAVA_OPTS"
+    echo "cpus: $(nproc 2>/dev/null || sysctl -n hw.ncpu)"
+    java -version 2>&1
+} > "$OUT/env.txt"
+
+for t in $THREADS; do
+    echo "== $t thread(s) =="
+    java -jar target/benchmarks.jar "$FILTER" -t "$t" -jvmArgs "$JAVA_OPTS" \
+        -rf json -rff "$OUT/t$t.json" -o "$OUT/t$t.txt" "$@"
+    sed -n '/^Benchmark /,$p' "$OUT/t$t.txt"
+done
+echo "Results in $OUT"
@@ -0,0 +1,52 @@
+package com.flightservice.benchmarks;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.pricing.PricingEngine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+/**
+ * FlightService components built the way the application context builds them,
+ * with the defaults of application.properties, for the benchmarks to share.
+ */
+public final class Components {
+
+    private Components() {
+    }
+
+    /** The registry /actuator/prometheus scrapes. */
+    public static MeterRegistry meterRegistry() {
+        return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
+
+    public static AirlineDirectory airlineDirectory(InMemoryMongo mongo) {
+        return new AirlineDirectory(mongo.airlineRepository(), meterRegistry(), 10_000,
+                Duration.ofMinutes(10), Duration.ofHours(1));
+    }
+
+    public static PricingEngine pricingEngine() {
+        return new PricingEngine(true, "0:1.0,0.5:1.1,0.7:1.25,0.85:1.5,0.95:1.8", "7d:1.15,2d:1.3,12h:1.5", 100_000);
+    }
+
+    /** The mapping converter MongoTemplate reads and writes entities with. */
+    public static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        context.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
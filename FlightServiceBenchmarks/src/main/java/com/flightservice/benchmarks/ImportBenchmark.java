@@ -0,0 +1,140 @@
+package com.flightservice.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.flightservice.cache.AirlineDirectory;
+import com.flightservice.cache.RouteSearchCache;
+import com.flightservice.departures.DeparturesIndex;
+import com.flightservice.dto.response.FlightImportResponse;
+import com.flightservice.enums.ImportFormat;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.events.FlightsAddedEvent;
+import com.flightservice.itinerary.RouteGraph;
+import com.flightservice.model.Airline;
+import com.flightservice.model.Flight;
+import com.flightservice.sequence.FlightNumberAllocator;
+import com.flightservice.serviceImpl.FlightImportServiceImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * A whole schedule imported as CSV into an empty flight collection, end to
+ * end: parsing, validation, duplicate checks, flight numbers and the bulk
+ * inserts, with the route graph, departures index and search cache taking
+ * the new flights as in the service. Each operation is one import into fresh
+ * components.
+ *
+ * events=batch is how the import announces its flights, one FlightsAddedEvent
+ * per inserted batch. events=perFlight hands the listeners one
+ * FlightChangedEvent per flight instead, as the import did before; the
+ * difference is what the batch event saves. The seat-availability feed and
+ * fare calendar are left out: they only queue work for their own workers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportBenchmark {
+
+    /** Rows in the imported file, a week of departures between ten airports. */
+    @Param({"10000", "50000"})
+    public int rows;
+
+    /** batch: one FlightsAddedEvent per inserted batch; perFlight: one FlightChangedEvent per flight. */
+    @Param({"batch", "perFlight"})
+    public String events;
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private byte[] csv;
+
+    private FlightImportServiceImpl importService;
+    private DeparturesIndex departuresIndex;
+
+    @Setup(Level.Trial)
+    public void writeFile() {
+        Schedule schedule = Schedule.of(rows);
+        Map<String, String> airlineNames = schedule.airlines().stream()
+                .collect(Collectors.toMap(Airline::getAirlineId, Airline::getAirlineName));
+        StringBuilder file = new StringBuilder("airlineName,source,destination,departureDateTime,arrivalDateTime,totalSeats,price\n");
+        for (Flight f : schedule.flights()) {
+            file.append(airlineNames.get(f.getAirlineId())).append(',')
+                    .append(f.getSource()).append(',')
+                    .append(f.getDestination()).append(',')
+                    .append(f.getDepartureDateTime()).append(',')
+                    .append(f.getArrivalDateTime()).append(',')
+                    .append(f.getTotalSeats()).append(',')
+                    .append(f.getPrice()).append('\n');
+        }
+        csv = file.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        // the airlines exist, the flights do not
+        InMemoryMongo mongo = new InMemoryMongo(Schedule.of(0));
+        MeterRegistry meterRegistry = Components.meterRegistry();
+        AirlineDirectory airlineDirectory = Components.airlineDirectory(mongo);
+
+        RouteGraph routeGraph = new RouteGraph(mongo.flightRepository(), 2000);
+        routeGraph.load();
+        departuresIndex = new DeparturesIndex(mongo.flightRepository(), 2000, Duration.ofHours(1), Duration.ofMinutes(5));
+        departuresIndex.load();
+        RouteSearchCache searchCache = new RouteSearchCache(JsonMapper.shared(), airlineDirectory, meterRegistry, true,
+                64L << 20, Duration.ofSeconds(60));
+
+        ApplicationEventPublisher eventPublisher = "batch".equals(events)
+                ? event -> {
+                    FlightsAddedEvent added = (FlightsAddedEvent) event;
+                    routeGraph.onFlightsAdded(added);
+                    departuresIndex.onFlightsAdded(added);
+                    searchCache.onFlightsAdded(added);
+                }
+                : event -> {
+                    for (Flight f : ((FlightsAddedEvent) event).flights()) {
+                        FlightChangedEvent changed = new FlightChangedEvent(f);
+                        routeGraph.onFlightChanged(changed);
+                        departuresIndex.onFlightChanged(changed);
+                        searchCache.onFlightChanged(changed);
+                    }
+                };
+
+        importService = new FlightImportServiceImpl(mongo.flightRepository(), airlineDirectory,
+                new FlightNumberAllocator(mongo.flightNumberSequenceRepository(), 100), Components.pricingEngine(), validator,
+                JsonMapper.shared(), eventPublisher, 1000, 1000);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        departuresIndex.stop();
+    }
+
+    @Benchmark
+    public FlightImportResponse importSchedule() {
+        return importService.importFlights(new ByteArrayInputStream(csv), ImportFormat.CSV);
+    }
+}
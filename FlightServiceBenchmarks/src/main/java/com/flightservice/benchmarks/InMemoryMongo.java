@@ -0,0 +1,226 @@
+package com.flightservice.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.flightservice.enums.SearchSort;
+import com.flightservice.model.Airline;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.AirlineRepository;
+import com.flightservice.repository.FlightNumberSequenceRepository;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.repository.FlightSearchCriteria;
+import com.flightservice.repository.SeatHoldRepository;
+
+/**
+ * Stands in for Mongo behind the repositories the benchmarked paths use, so
+ * they run without a database and measure the service code, not the network
+ * or the driver. Only the repository methods on those paths are implemented;
+ * any other call fails, so a benchmark cannot silently measure a no-op.
+ *
+ * Seat updates behave like the findAndModify they replace: the filter on
+ * seats left and seat bits (free to reserve, taken to release) and the update
+ * are one atomic step per flight (a ConcurrentHashMap compute, as a document
+ * write takes the document's lock), and the caller gets a fresh copy of the
+ * updated flight back. Reads return copies as well, like documents decoded
+ * per query. Search ignores the cursor, the benchmarks only read first pages.
+ */
+public final class InMemoryMongo {
+
+    private static final Comparator<Flight> BY_DEPARTURE = Comparator.comparing(Flight::getDepartureDateTime)
+            .thenComparing(Flight::getFlightId);
+    private static final Comparator<Flight> BY_FARE = Comparator.comparing(Flight::getFare)
+            .thenComparing(Flight::getFlightId);
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final Map<String, Airline> airlines = new ConcurrentHashMap<>();
+
+    public InMemoryMongo(Schedule schedule) {
+        schedule.flights().forEach(f -> flights.put(f.getFlightId(), copy(f)));
+        schedule.airlines().forEach(a -> airlines.put(a.getAirlineId(), a));
+    }
+
+    public Flight flight(String flightId) {
+        return copy(flights.get(flightId));
+    }
+
+    public FlightRepository flightRepository() {
+        return proxy(FlightRepository.class, (method, args) -> switch (method.getName()) {
+            case "findById", "findResponseById" -> Optional.ofNullable(flight((String) args[0]));
+            case "findArchivedResponseById" -> Optional.empty();
+            case "findResponsesById" -> ((Collection<?>) args[0]).stream()
+                    .map(id -> flight((String) id))
+                    .filter(Objects::nonNull)
+                    .toList();
+            case "findArchivedResponsesById" -> List.of();
+            case "streamSearch" -> search((FlightSearchCriteria) args[0]);
+            case "searchPage" -> search((FlightSearchCriteria) args[0]).toList();
+            case "decrementAvailableSeats" -> updateSeats((String) args[0], -(int) args[1], masks(args[2]));
+            case "incrementAvailableSeats" -> updateSeats((String) args[0], (int) args[1], masks(args[2]));
+            // whole-document replace, as the read-modify-write seat update did
+            case "save" -> {
+                Flight saved = (Flight) args[0];
+                flights.put(saved.getFlightId(), copy(saved));
+                yield saved;
+            }
+            // written back by the in-memory inventory engine: the engine holds the current state
+            case "writeInventory" -> null;
+            case "findScheduled" -> scheduled((Collection<?>) args[0]);
+            // the import never inserts a flight twice, so no insert is rejected
+            case "insertUnordered" -> {
+                ((List<?>) args[0]).forEach(f -> flights.put(((Flight) f).getFlightId(), copy((Flight) f)));
+                yield Map.of();
+            }
+            default -> throw unsupported(method);
+        });
+    }
+
+    /** Hands out blocks of each airline's flight numbers, as the atomic upsert does. */
+    public FlightNumberSequenceRepository flightNumberSequenceRepository() {
+        Map<String, Long> sequences = new ConcurrentHashMap<>();
+        return proxy(FlightNumberSequenceRepository.class, (method, args) -> switch (method.getName()) {
+            case "reserveBlock" -> sequences.merge((String) args[0], (long) (int) args[1], Long::sum);
+            default -> throw unsupported(method);
+        });
+    }
+
+    public AirlineRepository airlineRepository() {
+        return proxy(AirlineRepository.class, (method, args) -> switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(airlines.get((String) args[0]));
+            case "findAllById" -> {
+                List<Airline> found = new ArrayList<>();
+                ((Iterable<?>) args[0]).forEach(id -> {
+                    Airline a = airlines.get((String) id);
+                    if (a != null) {
+                        found.add(a);
+                    }
+                });
+                yield found;
+            }
+            case "findByAirlineNameKey" -> airlines.values().stream()
+                    .filter(a -> a.getAirlineNameKey().equals(args[0]))
+                    .findFirst();
+            default -> throw unsupported(method);
+        });
+    }
+
+    /** Holds are stored and never come back: none expire, confirm or release during a run. */
+    public SeatHoldRepository seatHoldRepository() {
+        return proxy(SeatHoldRepository.class, (method, args) -> switch (method.getName()) {
+            case "save" -> args[0];
+            case "expire", "findByStatus" -> List.of();
+            case "findById" -> Optional.empty();
+            case "confirm", "releaseByReference", "findLatestByReference" -> null;
+            default -> throw unsupported(method);
+        });
+    }
+
+    private Stream<Flight> search(FlightSearchCriteria c) {
+        Stream<Flight> found = flights.values().stream()
+                .filter(f -> c.routeKey() == null || c.routeKey().equals(f.getRouteKey()))
+                .filter(f -> c.airlineId() == null || c.airlineId().equals(f.getAirlineId()))
+                .filter(f -> c.departureFrom() == null || !f.getDepartureDateTime().isBefore(c.departureFrom()))
+                .filter(f -> c.departureTo() == null || f.getDepartureDateTime().isBefore(c.departureTo()))
+                .filter(f -> f.getAvailableSeats() >= c.minSeats())
+                .filter(f -> c.sort() != SearchSort.PRICE || f.getFare() != null)
+                .sorted(c.sort() == SearchSort.PRICE ? BY_FARE : BY_DEPARTURE)
+                .map(InMemoryMongo::copy);
+        return c.limit() > 0 ? found.limit(c.limit()) : found;
+    }
+
+    // the stored flights with the airline, route and departure of a candidate, as the set-based query finds them
+    private List<Flight> scheduled(Collection<?> candidates) {
+        Set<String> keys = candidates.stream()
+                .map(f -> scheduleKey((Flight) f))
+                .collect(Collectors.toSet());
+        return flights.values().stream()
+                .filter(f -> keys.contains(scheduleKey(f)))
+                .map(InMemoryMongo::copy)
+                .toList();
+    }
+
+    private static String scheduleKey(Flight f) {
+        return f.getAirlineId() + "|" + f.getSource() + "|" + f.getDestination() + "|" + f.getDepartureDateTime();
+    }
+
+    private Flight updateSeats(String flightId, int delta, Map<Integer, Long> seatMasks) {
+        Flight[] updated = new Flight[1];
+        flights.computeIfPresent(flightId, (id, f) -> {
+            if (delta < 0 && (f.getAvailableSeats() < -delta || !clear(f.getSeatRows(), seatMasks))) {
+                return f;
+            }
+            if (delta > 0 && (f.getAvailableSeats() + delta > f.getTotalSeats() || !set(f.getSeatRows(), seatMasks))) {
+                return f;
+            }
+            List<Long> rows = f.getSeatRows() == null ? null : new ArrayList<>(f.getSeatRows());
+            seatMasks.forEach((row, mask) -> rows.set(row, delta < 0 ? rows.get(row) | mask : rows.get(row) & ~mask));
+            updated[0] = f.toBuilder().availableSeats(f.getAvailableSeats() + delta).seatRows(rows).build();
+            return updated[0];
+        });
+        return copy(updated[0]);
+    }
+
+    private static boolean clear(List<Long> rows, Map<Integer, Long> seatMasks) {
+        for (Map.Entry<Integer, Long> e : seatMasks.entrySet()) {
+            if (rows == null || e.getKey() >= rows.size() || (rows.get(e.getKey()) & e.getValue()) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean set(List<Long> rows, Map<Integer, Long> seatMasks) {
+        for (Map.Entry<Integer, Long> e : seatMasks.entrySet()) {
+            if (rows == null || e.getKey() >= rows.size() || (rows.get(e.getKey()) & e.getValue()) != e.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Integer, Long> masks(Object arg) {
+        return (Map<Integer, Long>) arg;
+    }
+
+    private static Flight copy(Flight f) {
+        if (f == null) {
+            return null;
+        }
+        return f.toBuilder().seatRows(f.getSeatRows() == null ? null : new ArrayList<>(f.getSeatRows())).build();
+    }
+
+    private static UnsupportedOperationException unsupported(Method method) {
+        return new UnsupportedOperationException(method.getName() + " is not on a benchmarked path");
+    }
+
+    private interface Call {
+        Object invoke(Method method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> repository, Call call) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "InMemoryMongo " + repository.getSimpleName();
+                };
+            }
+            return call.invoke(method, args);
+        };
+        return repository.cast(Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[] {repository}, handler));
+    }
+}
@@ -0,0 +1,109 @@
+package com.flightservice.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.flightservice.dto.request.FlightRequest;
+import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.model.Flight;
+
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * JSON of the search API: FlightRequest bodies as POST /flights/search and
+ * /flights/add receive them, and search pages of FlightResponse rows as the
+ * controllers and the route search cache write them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    private static final TypeReference<List<FlightResponse>> RESPONSES = new TypeReference<>() {
+    };
+
+    /** Rows per search page: the default page size and the largest one. */
+    @Param({"50", "200"})
+    public int rows;
+
+    private final JsonMapper jsonMapper = JsonMapper.shared();
+
+    private FlightRequest request;
+    private byte[] requestJson;
+    private List<FlightResponse> responses;
+    private byte[] responsesJson;
+
+    @Setup
+    public void setUp() {
+        Schedule schedule = Schedule.of(rows);
+        Flight first = schedule.flights().get(0);
+
+        request = new FlightRequest();
+        request.setAirlineName(Schedule.AIRLINES[0]);
+        request.setSource(first.getSource());
+        request.setDestination(first.getDestination());
+        request.setDepartureDateTime(first.getDepartureDateTime());
+        request.setArrivalDateTime(first.getArrivalDateTime());
+        request.setTotalSeats(first.getTotalSeats());
+        request.setPrice(first.getPrice());
+        request.setDepartureFrom(schedule.start());
+        request.setDepartureTo(schedule.start().plusDays(1));
+        request.setPassengers(2);
+        request.setPageSize(rows);
+        requestJson = jsonMapper.writeValueAsBytes(request);
+
+        responses = new ArrayList<>(rows);
+        for (Flight f : schedule.flights()) {
+            FlightResponse r = new FlightResponse();
+            r.setFlightId(f.getFlightId());
+            r.setFlightNo(f.getFlightNo());
+            r.setAirlineName(Schedule.AIRLINES[0]);
+            r.setSource(f.getSource());
+            r.setDestination(f.getDestination());
+            r.setDepartureDateTime(f.getDepartureDateTime());
+            r.setArrivalDateTime(f.getArrivalDateTime());
+            r.setAvailableSeats(f.getAvailableSeats());
+            r.setPrice(f.getPrice());
+            responses.add(r);
+        }
+        responsesJson = jsonMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public FlightRequest readRequest() {
+        return jsonMapper.readValue(requestJson, FlightRequest.class);
+    }
+
+    @Benchmark
+    public byte[] writeRequest() {
+        return jsonMapper.writeValueAsBytes(request);
+    }
+
+    // the body of a search response, as RouteSearchCache serializes it
+    @Benchmark
+    public byte[] writeSearchPage() {
+        return jsonMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public List<FlightResponse> readSearchPage() {
+        return jsonMapper.readValue(responsesJson, RESPONSES);
+    }
+}
@@ -0,0 +1,127 @@
+package com.flightservice.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import com.flightservice.dto.response.FlightResponse;
+import com.flightservice.metrics.FlightMetrics;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRows;
+import com.flightservice.service.FlightService;
+import com.flightservice.serviceImpl.FlightServiceImpl;
+
+/**
+ * Flights to response rows, the mapping every search, lookup and stream runs
+ * per flight (airline names, fares), through FlightService.getFlightsByIds
+ * over flights already read (an in-memory repository holding the projected
+ * rows), and reading
+ * the documents those flights come from: projected ones with FlightRows and
+ * with the Mongo mapping converter it replaced, and whole stored ones (seat
+ * map included) with the converter, as before the projection. Documents are
+ * decoded from BSON on each read, as the driver does, so the bytes a
+ * projection saves count too. Run with -prof gc for the bytes allocated per
+ * call (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    // FlightQueries.includeResponseFields
+    private static final Set<String> RESPONSE_FIELDS = Set.of("_id", "airlineId", "flightNo", "source", "destination",
+            "departureDateTime", "arrivalDateTime", "totalSeats", "availableSeats", "price", "fare");
+
+    /** Flights per call: a search page, a large page, a bulk lookup or stream. */
+    @Param({"50", "200", "5000"})
+    public int size;
+
+    private final DocumentCodec codec = new DocumentCodec();
+    private List<RawBsonDocument> documents;
+    private List<RawBsonDocument> storedDocuments;
+    private MappingMongoConverter converter;
+    private FlightRows rows;
+    private List<String> flightIds;
+    private FlightService flightService;
+
+    @Setup
+    public void setUp() {
+        Schedule schedule = Schedule.of(size);
+        converter = Components.converter();
+        rows = new FlightRows(converter.getConversionService());
+
+        List<Flight> flights = new ArrayList<>(size);
+        documents = new ArrayList<>(size);
+        storedDocuments = new ArrayList<>(size);
+        for (Flight f : schedule.flights()) {
+            Document stored = new Document();
+            converter.write(f, stored);
+            Document projected = new Document();
+            stored.forEach((k, v) -> {
+                if (RESPONSE_FIELDS.contains(k)) {
+                    projected.put(k, v);
+                }
+            });
+            documents.add(new RawBsonDocument(projected, codec));
+            storedDocuments.add(new RawBsonDocument(stored, codec));
+            flights.add(rows.read(projected));
+        }
+        flightIds = flights.stream().map(Flight::getFlightId).toList();
+
+        InMemoryMongo mongo = new InMemoryMongo(schedule.withFlights(flights));
+        // lookups by id use only the repository, the airlines and the fares
+        flightService = new FlightServiceImpl(mongo.flightRepository(), Components.airlineDirectory(mongo), null,
+                null, null, null, null, Components.pricingEngine(), new FlightMetrics(Components.meterRegistry()),
+                event -> {
+                });
+        // the directory and fare cache are warm in a running service
+        flightService.getFlightsByIds(flightIds);
+    }
+
+    @Benchmark
+    public List<FlightResponse> getFlightsByIds() {
+        return flightService.getFlightsByIds(flightIds);
+    }
+
+    @Benchmark
+    public void readRows(Blackhole bh) {
+        for (RawBsonDocument bson : documents) {
+            bh.consume(rows.read(bson.decode(codec)));
+        }
+    }
+
+    @Benchmark
+    public void readMapped(Blackhole bh) {
+        for (RawBsonDocument bson : documents) {
+            bh.consume(converter.read(Flight.class, bson.decode(codec)));
+        }
+    }
+
+    @Benchmark
+    public void readMappedUnprojected(Blackhole bh) {
+        for (RawBsonDocument bson : storedDocuments) {
+            bh.consume(converter.read(Flight.class, bson.decode(codec)));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.flightservice.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.flightservice.departures.DeparturesIndex;
+import com.flightservice.dto.request.ReleaseSeatsRequest;
+import com.flightservice.dto.request.ReserveSeatsRequest;
+import com.flightservice.dto.response.ReserveSeatsResponse;
+import com.flightservice.events.FlightChangedEvent;
+import com.flightservice.inventory.InMemorySeatInventory;
+import com.flightservice.inventory.MongoSeatInventory;
+import com.flightservice.inventory.SeatHoldManager;
+import com.flightservice.inventory.SeatInventory;
+import com.flightservice.itinerary.RouteGraph;
+import com.flightservice.metrics.FlightMetrics;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.serviceImpl.FlightServiceImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Concurrent reserveSeats on a few hot flights, through FlightServiceImpl with
+ * its seat inventory, hold manager and fares, against the in-memory Mongo
+ * stand-in. Run with -t for the number of threads; hotFlights sets how many
+ * flights they share, 1 being a single sale everyone is after.
+ *
+ * Each operation reserves a seat and releases it again, so flights never sell
+ * out during a run and every reserve takes the success path; the release is
+ * the same atomic seat update the other way. Both are timed and counted into
+ * a Prometheus registry, as in the service. Unconfirmed holds expire after
+ * 100ms, which keeps the hold expiry wheel small however many reserves a run
+ * makes.
+ *
+ * readModifyWrite is the seat update before the conditional one: findById,
+ * change availableSeats, save the whole flight. It loses updates under
+ * contention (ReserveSeatsConcurrencyTest shows it overselling), so its
+ * throughput is only a baseline; it goes straight to the stored flights, and
+ * inventory and listeners do not apply to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReserveSeatsBenchmark {
+
+    /** Flights the threads reserve on, picked at random per operation. */
+    @Param({"1", "16", "1024"})
+    public int hotFlights;
+
+    /** mongo: atomic updates per flight (the default); engine: the partitioned in-memory inventory engine. */
+    @Param({"mongo", "engine"})
+    public String inventory;
+
+    /** none, or indexes: FlightChangedEvents go to the route graph and departures index, as in the service. */
+    @Param({"none", "indexes"})
+    public String listeners;
+
+    private String[] flightIds;
+    private FlightRepository flightRepository;
+    private FlightServiceImpl flightService;
+    private SeatInventory seatInventory;
+    private SeatHoldManager seatHoldManager;
+    private DeparturesIndex departuresIndex;
+    private Path logDir;
+
+    private final ReserveSeatsRequest reserveOne = new ReserveSeatsRequest();
+    private final ReleaseSeatsRequest releaseOne = new ReleaseSeatsRequest();
+
+    @Setup
+    public void setUp() throws IOException {
+        Schedule schedule = Schedule.of(hotFlights).unsold();
+        InMemoryMongo mongo = new InMemoryMongo(schedule);
+        flightRepository = mongo.flightRepository();
+        flightIds = schedule.flights().stream().map(Flight::getFlightId).toArray(String[]::new);
+
+        if ("engine".equals(inventory)) {
+            logDir = Files.createTempDirectory("inventory-log");
+            InMemorySeatInventory engine = new InMemorySeatInventory(flightRepository, logDir.toString(), 0,
+                    Duration.ofSeconds(1), false);
+            engine.start();
+            seatInventory = engine;
+        } else {
+            seatInventory = new MongoSeatInventory(flightRepository);
+        }
+
+        ApplicationEventPublisher eventPublisher = event -> {
+        };
+        if ("indexes".equals(listeners)) {
+            RouteGraph routeGraph = new RouteGraph(flightRepository, 2000);
+            routeGraph.load();
+            departuresIndex = new DeparturesIndex(flightRepository, 2000, Duration.ofHours(1), Duration.ofMinutes(5));
+            departuresIndex.load();
+            eventPublisher = event -> {
+                if (event instanceof FlightChangedEvent changed) {
+                    routeGraph.onFlightChanged(changed);
+                    departuresIndex.onFlightChanged(changed);
+                }
+            };
+        }
+
+        MeterRegistry meterRegistry = Components.meterRegistry();
+        seatHoldManager = new SeatHoldManager(mongo.seatHoldRepository(), seatInventory, eventPublisher,
+                meterRegistry, Duration.ofMillis(100), Duration.ofMillis(10), 512);
+        // no ledger, search cache or flight numbers: reserves without a booking reference do not use them
+        flightService = new FlightServiceImpl(flightRepository, Components.airlineDirectory(mongo), seatInventory,
+                seatHoldManager, null, null, null, Components.pricingEngine(), new FlightMetrics(meterRegistry),
+                eventPublisher);
+
+        reserveOne.setCount(1);
+        releaseOne.setCount(1);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        seatHoldManager.stop();
+        if (departuresIndex != null) {
+            departuresIndex.stop();
+        }
+        if (seatInventory instanceof InMemorySeatInventory engine) {
+            engine.stop();
+            try (Stream<Path> files = Files.walk(logDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public ReserveSeatsResponse reserveSeats() {
+        String flightId = flightIds[ThreadLocalRandom.current().nextInt(flightIds.length)];
+        ReserveSeatsResponse reserved = flightService.reserveSeats(flightId, reserveOne);
+        flightService.releaseSeats(flightId, releaseOne);
+        return reserved;
+    }
+
+    @Benchmark
+    public Flight readModifyWrite() {
+        String flightId = flightIds[ThreadLocalRandom.current().nextInt(flightIds.length)];
+        Flight reserved = flightRepository.findById(flightId).orElseThrow();
+        reserved.setAvailableSeats(reserved.getAvailableSeats() - 1);
+        flightRepository.save(reserved);
+        Flight released = flightRepository.findById(flightId).orElseThrow();
+        released.setAvailableSeats(released.getAvailableSeats() + 1);
+        return flightRepository.save(released);
+    }
+}
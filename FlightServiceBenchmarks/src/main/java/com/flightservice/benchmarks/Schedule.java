@@ -0,0 +1,128 @@
+package com.flightservice.benchmarks;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.flightservice.inventory.SeatMap;
+import com.flightservice.model.Airline;
+import com.flightservice.model.Flight;
+import com.flightservice.pricing.PricingEngine;
+
+/**
+ * A generated flight schedule: flights between ten airports over the next
+ * week, spread over a handful of airlines, partly sold, with seat maps. The
+ * same size always gives the same schedule (departures relative to now), so
+ * runs can be compared.
+ */
+public final class Schedule {
+
+    public static final String[] AIRPORTS = {"DEL", "BOM", "BLR", "MAA", "CCU", "HYD", "GOI", "PNQ", "AMD", "COK"};
+    public static final String[] AIRLINES = {"IndiGo", "Air India", "Vistara", "SpiceJet", "Akasa Air", "AirAsia India"};
+
+    private static final int TOTAL_SEATS = 180;
+    private static final int WEEK_MINUTES = 7 * 24 * 60;
+
+    private final LocalDateTime start;
+    private final List<Airline> airlines;
+    private final List<Flight> flights;
+
+    private Schedule(LocalDateTime start, List<Airline> airlines, List<Flight> flights) {
+        this.start = start;
+        this.airlines = airlines;
+        this.flights = flights;
+    }
+
+    public static Schedule of(int flightCount) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+
+        List<Airline> airlines = new ArrayList<>(AIRLINES.length);
+        for (int i = 0; i < AIRLINES.length; i++) {
+            Airline a = new Airline();
+            a.setAirlineId(idOf(0xA000 + i));
+            a.setAirlineName(AIRLINES[i]);
+            a.setAirlineNameKey(Airline.nameKeyOf(AIRLINES[i]));
+            airlines.add(a);
+        }
+
+        List<Flight> flights = new ArrayList<>(flightCount);
+        PricingEngine pricingEngine = Components.pricingEngine();
+        for (int i = 0; i < flightCount; i++) {
+            String source = AIRPORTS[random.nextInt(AIRPORTS.length)];
+            String destination = AIRPORTS[random.nextInt(AIRPORTS.length)];
+            while (destination.equals(source)) {
+                destination = AIRPORTS[random.nextInt(AIRPORTS.length)];
+            }
+            Airline airline = airlines.get(random.nextInt(airlines.size()));
+            LocalDateTime departure = start.plusMinutes(random.nextInt(WEEK_MINUTES / 5) * 5L);
+            int sold = random.nextInt(TOTAL_SEATS);
+
+            Flight flight = Flight.builder()
+                    .flightId(idOf(i + 1))
+                    .airlineId(airline.getAirlineId())
+                    .flightNo(airline.getAirlineName().substring(0, 2).toUpperCase() + "-" + (1000 + i % 9000))
+                    .source(source)
+                    .destination(destination)
+                    .routeKey(Flight.routeKeyOf(source, destination))
+                    .departureDateTime(departure)
+                    .arrivalDateTime(departure.plusMinutes(60 + random.nextInt(180)))
+                    .totalSeats(TOTAL_SEATS)
+                    .availableSeats(TOTAL_SEATS - sold)
+                    .price(2000.0 + random.nextInt(100) * 100)
+                    .seatsPerRow(SeatMap.DEFAULT_SEATS_PER_ROW)
+                    .seatRows(soldRows(sold))
+                    .build();
+            // stored fares as the service keeps them
+            pricingEngine.price(flight);
+            flights.add(flight);
+        }
+        return new Schedule(start, List.copyOf(airlines), List.copyOf(flights));
+    }
+
+    /** The same schedule with every seat of every flight free. */
+    public Schedule unsold() {
+        List<Flight> free = flights.stream()
+                .map(f -> f.toBuilder()
+                        .availableSeats(f.getTotalSeats())
+                        .seatRows(SeatMap.emptyRows(f.getTotalSeats(), f.getSeatsPerRow()))
+                        .build())
+                .toList();
+        return new Schedule(start, airlines, free);
+    }
+
+    /** The same airlines with other flights, e.g. this schedule's flights as a projected read returns them. */
+    public Schedule withFlights(List<Flight> others) {
+        return new Schedule(start, airlines, List.copyOf(others));
+    }
+
+    /** The top of the hour after the schedule was generated; no flight departs earlier. */
+    public LocalDateTime start() {
+        return start;
+    }
+
+    public List<Airline> airlines() {
+        return airlines;
+    }
+
+    public List<Flight> flights() {
+        return flights;
+    }
+
+    // the first sold seats of the flight taken, row by row
+    private static List<Long> soldRows(int sold) {
+        List<Long> rows = SeatMap.emptyRows(TOTAL_SEATS, SeatMap.DEFAULT_SEATS_PER_ROW);
+        int row = 0;
+        for (int left = sold; left > 0; left -= SeatMap.DEFAULT_SEATS_PER_ROW, row++) {
+            rows.set(row, (1L << Math.min(left, SeatMap.DEFAULT_SEATS_PER_ROW)) - 1);
+        }
+        return rows;
+    }
+
+    // ids shaped like the ObjectIds Mongo assigns, so they map the same way
+    private static String idOf(long n) {
+        return String.format("%024x", n);
+    }
+}
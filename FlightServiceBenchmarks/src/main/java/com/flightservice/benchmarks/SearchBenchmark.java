@@ -0,0 +1,100 @@
+package com.flightservice.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.flightservice.departures.DeparturesIndex;
+import com.flightservice.dto.request.FlightRequest;
+import com.flightservice.enums.ItinerarySort;
+import com.flightservice.itinerary.Itinerary;
+import com.flightservice.itinerary.ItineraryQuery;
+import com.flightservice.itinerary.RouteGraph;
+import com.flightservice.model.Flight;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.serviceImpl.FlightStreamServiceImpl;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Searches over a large schedule held in memory: streaming all flights of an
+ * airline as NDJSON (a sixth of the schedule), connecting itineraries on the
+ * route graph, and the next hours of departures from an airport.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    /** Flights in the schedule, a week of departures between ten airports. */
+    @Param({"10000", "100000"})
+    public int flights;
+
+    private FlightStreamServiceImpl streamService;
+    private RouteGraph routeGraph;
+    private DeparturesIndex departuresIndex;
+    private FlightRequest airlineRequest;
+    private ItineraryQuery itineraryQuery;
+    private LocalDateTime from;
+
+    @Setup
+    public void setUp() {
+        Schedule schedule = Schedule.of(flights);
+        InMemoryMongo mongo = new InMemoryMongo(schedule);
+        FlightRepository flightRepository = mongo.flightRepository();
+
+        streamService = new FlightStreamServiceImpl(flightRepository, Components.airlineDirectory(mongo),
+                JsonMapper.shared(), Components.pricingEngine(), 500, 100);
+        routeGraph = new RouteGraph(flightRepository, 2000);
+        routeGraph.load();
+        departuresIndex = new DeparturesIndex(flightRepository, 2000, Duration.ofHours(1), Duration.ofMinutes(5));
+        departuresIndex.load();
+
+        from = schedule.start();
+        airlineRequest = new FlightRequest();
+        airlineRequest.setAirlineName(Schedule.AIRLINES[0]);
+        airlineRequest.setDepartureFrom(from);
+        // ItineraryServiceImpl's defaults: a day of departures, up to two stops, 45m to 6h layovers
+        itineraryQuery = new ItineraryQuery("DEL", "BLR", RouteGraph.minuteOf(from), RouteGraph.minuteOf(from.plusDays(1)),
+                1, 2, 45, 360, ItinerarySort.PRICE, 20);
+    }
+
+    @TearDown
+    public void tearDown() {
+        departuresIndex.stop();
+    }
+
+    @Benchmark
+    public void streamAirline() throws IOException {
+        streamService.streamFlights(airlineRequest).writeTo(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public List<Itinerary> itineraries() {
+        return routeGraph.search(itineraryQuery);
+    }
+
+    @Benchmark
+    public List<Flight> departures() {
+        return departuresIndex.departing("DEL", from, from.plusHours(6), 200);
+    }
+}